@@ -18,10 +18,13 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.faktorips.codegen.BaseDatatypeHelper;
 import org.faktorips.codegen.CodeFragment;
@@ -46,7 +49,17 @@ import org.faktorips.util.ArgumentCheck;
  * A compiler to compile expressions. This abstract class is target language agnostic and is by
  * default implemented by the {@link JavaExprCompiler}.
  * <p>
- * This class is not thread safe!
+ * Each thread uses its own parser, so expressions can be compiled by several threads concurrently
+ * once the compiler is configured. The configuration, that is the operations, resolvers and other
+ * properties, must not be changed while expressions are compiled. Whether the compiler is thread
+ * safe also depends on the {@link IdentifierResolver} and {@link FunctionResolver function
+ * resolvers} it uses.
+ * <p>
+ * If a {@link #setCompilationCacheSize(int) compilation cache size} is set, the compiler caches the
+ * results of the last compiled expressions and the function table built from the function
+ * resolvers. The cached data is valid for the current {@link #getResolverVersion() resolver
+ * version}, which changes with each change of the compiler's configuration. If a resolver returns
+ * other identifiers or functions than before, {@link #resolversChanged()} must be called.
  */
 public abstract class ExprCompiler<T extends CodeFragment> {
 
@@ -162,7 +175,7 @@ public abstract class ExprCompiler<T extends CodeFragment> {
     private IdentifierResolver<T> identifierResolver;
 
     // list of function resolvers
-    private List<FunctionResolver<T>> functionResolvers = new ArrayList<>(2);
+    private List<FunctionResolver<T>> functionResolvers = new CopyOnWriteArrayList<>();
 
     // ConversionCodeGenerator that defines the implizit datatype conversion performed
     // by the compiler and can generate the appropriate Java sourcecode.
@@ -174,14 +187,25 @@ public abstract class ExprCompiler<T extends CodeFragment> {
     // Map containing a list of available unary operations per operator.
     private Map<String, List<UnaryOperation<T>>> unaryOperations = new HashMap<>();
 
-    // the parser (generated by JavaCC)
-    private FlParser parser;
+    // the parsers (generated by JavaCC), one per thread as a parser can parse only one expression
+    // at a time
+    private final ThreadLocal<FlParser> parsers = ThreadLocal
+            .withInitial(() -> new FlParser(new ByteArrayInputStream("".getBytes()))); //$NON-NLS-1$
 
     // true, if the expression's type should always be an object and not a primitive.
     private boolean ensureResultIsObject = true;
 
     private DatatypeHelperProvider<T> datatypeHelperProvider;
 
+    // version of the configuration, incremented each time the configuration changes
+    private final AtomicLong resolverVersion = new AtomicLong();
+
+    // the cached compilation results, null if the results are not cached
+    private volatile CompilationCache<T> compilationCache;
+
+    // the function table for the current resolver version if the compilation results are cached
+    private volatile FunctionTable<T> functionTable;
+
     /**
      * Creates a new compiler. Messages returned by the compiler are generated using the
      * {@link Locale#getDefault() default locale}.
@@ -203,7 +227,6 @@ public abstract class ExprCompiler<T extends CodeFragment> {
      */
     public ExprCompiler(Locale locale) {
         this.locale = locale;
-        parser = new FlParser(new ByteArrayInputStream("".getBytes())); //$NON-NLS-1$
         registerDefaults();
     }
 
@@ -256,6 +279,7 @@ public abstract class ExprCompiler<T extends CodeFragment> {
                 $ -> new ArrayList<>(20));
         operatorOperations.add(op);
         op.setCompiler(this);
+        resolversChanged();
     }
 
     /**
@@ -265,6 +289,7 @@ public abstract class ExprCompiler<T extends CodeFragment> {
         List<UnaryOperation<T>> operatorOperations = unaryOperations.computeIfAbsent(op.getOperator(),
                 $ -> new ArrayList<>(20));
         operatorOperations.add(op);
+        resolversChanged();
     }
 
     /**
@@ -313,6 +338,7 @@ public abstract class ExprCompiler<T extends CodeFragment> {
      */
     public void setEnsureResultIsObject(boolean newValue) {
         this.ensureResultIsObject = newValue;
+        resolversChanged();
     }
 
     /**
@@ -330,6 +356,7 @@ public abstract class ExprCompiler<T extends CodeFragment> {
     public void setIdentifierResolver(IdentifierResolver<T> resolver) {
         ArgumentCheck.notNull(resolver);
         this.identifierResolver = resolver;
+        resolversChanged();
     }
 
     /**
@@ -349,6 +376,7 @@ public abstract class ExprCompiler<T extends CodeFragment> {
     public void setConversionCodeGenerator(ConversionCodeGenerator<T> ccg) {
         ArgumentCheck.notNull(ccg);
         conversionCg = ccg;
+        resolversChanged();
     }
 
     /**
@@ -366,6 +394,7 @@ public abstract class ExprCompiler<T extends CodeFragment> {
     public void setLocale(Locale locale) {
         ArgumentCheck.notNull(locale);
         this.locale = locale;
+        resolversChanged();
     }
 
     /**
@@ -381,6 +410,7 @@ public abstract class ExprCompiler<T extends CodeFragment> {
         for (FlFunction<T> function : functions) {
             function.setCompiler(this);
         }
+        resolversChanged();
     }
 
     /**
@@ -391,7 +421,9 @@ public abstract class ExprCompiler<T extends CodeFragment> {
      */
     public void remove(FunctionResolver<T> fctResolver) {
         ArgumentCheck.notNull(fctResolver);
-        functionResolvers.remove(fctResolver);
+        if (functionResolvers.remove(fctResolver)) {
+            resolversChanged();
+        }
     }
 
     /**
@@ -435,6 +467,76 @@ public abstract class ExprCompiler<T extends CodeFragment> {
         return ambiguousFunctions;
     }
 
+    /**
+     * Returns the functions supported by the compiler indexed by name and number of arguments. If
+     * the compilation results are cached, the table is built once per
+     * {@link #getResolverVersion() resolver version}, otherwise each time it is requested as the
+     * function resolvers might return other functions.
+     */
+    FunctionTable<T> getFunctionTable() {
+        long version = getResolverVersion();
+        FunctionTable<T> table = functionTable;
+        if (compilationCache == null) {
+            return new FunctionTable<>(getFunctions(), version);
+        }
+        if (table == null || table.getVersion() != version) {
+            table = new FunctionTable<>(getFunctions(), version);
+            functionTable = table;
+        }
+        return table;
+    }
+
+    /**
+     * Returns the version of the compiler's configuration. The version changes each time an
+     * operation or resolver is registered, added or removed, a property of the compiler is changed
+     * or {@link #resolversChanged()} is called. Cached compilation results are only valid for the
+     * version they have been compiled with.
+     */
+    public long getResolverVersion() {
+        return resolverVersion.get();
+    }
+
+    /**
+     * Notifies the compiler that its {@link IdentifierResolver} or {@link FunctionResolver
+     * function resolvers} resolve identifiers or functions differently than before. Increments the
+     * {@link #getResolverVersion() resolver version}, so the cached compilation results and
+     * functions are no longer used.
+     */
+    public void resolversChanged() {
+        resolverVersion.incrementAndGet();
+    }
+
+    /**
+     * Returns the maximum number of compilation results the compiler caches. <code>0</code> if the
+     * results are not cached.
+     * 
+     * @see #setCompilationCacheSize(int)
+     */
+    public int getCompilationCacheSize() {
+        CompilationCache<T> cache = compilationCache;
+        return cache == null ? 0 : cache.maxSize;
+    }
+
+    /**
+     * Sets the maximum number of compilation results the compiler caches. If the cache is full,
+     * the least recently used result is removed. The results are cached per expression and
+     * {@link #getResolverVersion() resolver version}. <code>0</code> disables the cache, which is
+     * the default. Changing the size clears the cache.
+     * <p>
+     * While the cache is enabled, the function table built from the function resolvers is cached,
+     * too. If a resolver returns other functions or identifiers than before,
+     * {@link #resolversChanged()} must be called.
+     * 
+     * @throws IllegalArgumentException if maxSize is negative
+     */
+    public void setCompilationCacheSize(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("The cache size must not be negative: " + maxSize); //$NON-NLS-1$
+        }
+        compilationCache = maxSize == 0 ? null : new CompilationCache<>(maxSize);
+        functionTable = null;
+    }
+
     /**
      * Compiles the given expression string into {@link CodeFragment source code}. If the
      * compilation is not successful, the {@link CompilationResult result} contains {@link Message
@@ -445,6 +547,26 @@ public abstract class ExprCompiler<T extends CodeFragment> {
      * warnings} or {@link Message#INFO informations}.
      */
     public CompilationResult<T> compile(String expr) {
+        CompilationCache<T> cache = compilationCache;
+        if (cache == null) {
+            return compileExpression(expr);
+        }
+        List<Object> key = Arrays.asList(expr, getResolverVersion());
+        CompilationResult<T> result;
+        synchronized (cache) {
+            result = cache.get(key);
+        }
+        if (result == null) {
+            result = compileExpression(expr);
+            synchronized (cache) {
+                cache.put(key, result);
+            }
+        }
+        // the cached result must not be modified by the caller
+        return copy(result);
+    }
+
+    private CompilationResult<T> compileExpression(String expr) {
         SimpleNode rootNode;
         // parse the expression
         try {
@@ -497,6 +619,22 @@ public abstract class ExprCompiler<T extends CodeFragment> {
         }
     }
 
+    private CompilationResult<T> copy(CompilationResult<T> result) {
+        AbstractCompilationResult<T> copy = newCompilationResultImpl(copyCodeFragment(result.getCodeFragment()),
+                result.getDatatype());
+        copy.addMessages(result.getMessages());
+        return copy;
+    }
+
+    /**
+     * Returns a copy of the given code fragment that can be modified without changing the given
+     * one. Used to hand out cached compilation results. The default implementation returns the
+     * given code fragment, subclasses using modifiable code fragments should override it.
+     */
+    protected T copyCodeFragment(T codeFragment) {
+        return codeFragment;
+    }
+
     protected abstract T convertPrimitiveToWrapper(Datatype resultType, T codeFragment);
 
     protected abstract ParseTreeVisitor<T> newParseTreeVisitor();
@@ -506,6 +644,7 @@ public abstract class ExprCompiler<T extends CodeFragment> {
     protected abstract AbstractCompilationResult<T> newCompilationResultImpl(T sourcecode, Datatype datatype);
 
     protected SimpleNode parse(String expr) throws ParseException {
+        FlParser parser = parsers.get();
         parser.ReInit(new StringReader(expr));
         return parser.start();
     }
@@ -564,6 +703,7 @@ public abstract class ExprCompiler<T extends CodeFragment> {
      */
     public void setDatatypeHelperProvider(DatatypeHelperProvider<T> provider) {
         this.datatypeHelperProvider = provider;
+        resolversChanged();
     }
 
     /**
@@ -585,31 +725,27 @@ public abstract class ExprCompiler<T extends CodeFragment> {
             Datatype[] argTypes,
             String fctName) {
         FlFunction<T> function = null;
-        boolean functionFoundByName = false;
-        FlFunction<T>[] functions = getFunctions();
-        LinkedHashSet<FlFunction<T>> ambiguousFunctions = getAmbiguousFunctions(functions);
+        FunctionTable<T> functionTable = getFunctionTable();
 
-        for (FlFunction<T> function2 : functions) {
+        for (FlFunction<T> function2 : functionTable.getFunctions(fctName, argTypes.length)) {
             if (function2.match(fctName, argTypes)) {
-                if (ambiguousFunctions.contains(function2)) {
+                if (functionTable.isAmbiguous(function2)) {
                     return createAmbiguousFunctionCompilationResultImpl(function2);
                 }
                 return function2.compile(argResults);
             } else if (function2.matchUsingConversion(fctName, argTypes, getConversionCodeGenerator())) {
                 function = function2;
-            } else if (!functionFoundByName && function2.getName().equals(fctName)) {
-                functionFoundByName = true;
             }
         }
 
         if (function != null) {
-            if (ambiguousFunctions.contains(function)) {
+            if (functionTable.isAmbiguous(function)) {
                 return createAmbiguousFunctionCompilationResultImpl(function);
             }
             return function.compile(convert(function, argResults));
         }
 
-        return createErrorCompilationResult(argResults, fctName, functionFoundByName);
+        return createErrorCompilationResult(argResults, fctName, functionTable.contains(fctName));
     }
 
     public CompilationResult<T> getMatchingFunctionUsingConversionSingleArgument(AbstractCompilationResult<T> argResult,
@@ -746,4 +882,22 @@ public abstract class ExprCompiler<T extends CodeFragment> {
             return o1.getName().compareTo(o2.getName());
         }
     }
+
+    private static class CompilationCache<T extends CodeFragment>
+            extends LinkedHashMap<List<Object>, CompilationResult<T>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int maxSize;
+
+        CompilationCache(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<Object>, CompilationResult<T>> eldest) {
+            return size() > maxSize;
+        }
+    }
 }
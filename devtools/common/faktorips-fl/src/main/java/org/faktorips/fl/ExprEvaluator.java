@@ -10,6 +10,11 @@
 
 package org.faktorips.fl;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.faktorips.codegen.JavaCodeFragment;
 import org.faktorips.util.ArgumentCheck;
 
@@ -19,19 +24,40 @@ import bsh.Interpreter;
  * Evaluates a given expression and returns it's result.
  * <p>
  * Technically this is done by first compiling the expression to {@link JavaCodeFragment Java source
- * code} using the {@link JavaExprCompiler}. After that a java
- * <a href="https://beanshell.github.io/">bean-shell</a>} interpreter interprets the expression and
- * the result is returned by the evaluate method of this class.
+ * code} using the {@link JavaExprCompiler}. The parse tree of the expression is then translated into
+ * a plan that computes the values of the operations and functions directly. The plans of the last
+ * {@value #MAX_CACHED_PLANS} evaluated expressions are cached per expression, variable names and
+ * {@link ExprCompiler#getResolverVersion() resolver version} of the compiler, so an expression that
+ * is evaluated again is neither compiled nor parsed again. The values of the variables are bound to
+ * the plan by their position.
+ * <p>
+ * If the expression contains operations, functions or identifiers the plan does not support, or if
+ * the {@link #setUseInterpreter(boolean) interpreter is disabled}, a java
+ * <a href="https://beanshell.github.io/">bean-shell</a>} interpreter interprets the Java source code
+ * and the result is returned by the evaluate method of this class. The bean-shell interpreter is
+ * also used to report the errors of expressions whose evaluation fails.
+ * <p>
+ * Changing the configuration of the compiler, for example by registering functions or operations,
+ * changes its resolver version, so the cached plans are no longer used. If a resolver returns other
+ * identifiers or functions than before, {@link ExprCompiler#resolversChanged()} has to be called.
  * 
  * @author Jan Ortmann
  */
 public class ExprEvaluator {
 
+    private static final String[] NO_VARIABLES = new String[0];
+
+    private static final int MAX_CACHED_PLANS = 1000;
+
     // The compiler used to compile the formula into standard Java source code
     private JavaExprCompiler compiler;
 
     private ClassLoader classLoader;
 
+    private boolean useInterpreter = true;
+
+    private final PlanCache plans = new PlanCache();
+
     /**
      * Constructs a new processor for the given compiler.
      */
@@ -49,21 +75,37 @@ public class ExprEvaluator {
     }
 
     /**
-     * Evaluates and returns the result of the given expression.
+     * Returns whether expressions are evaluated by interpreting their parse tree if possible. If
+     * not, the Java source code of the expressions is always interpreted by the bean-shell
+     * interpreter. The default is <code>true</code>.
      */
-    public Object evaluate(String expression) throws Exception {
-        // compiles the expression to Java source code
-        JavaCodeFragment fragment = compileExpressionToJava(expression);
-        Interpreter i = new Interpreter();
-        if (classLoader != null) {
-            i.setClassLoader(classLoader);
+    public boolean isUseInterpreter() {
+        return useInterpreter;
+    }
+
+    /**
+     * Sets whether expressions are evaluated by interpreting their parse tree if possible.
+     * 
+     * @see #isUseInterpreter()
+     */
+    public void setUseInterpreter(boolean useInterpreter) {
+        this.useInterpreter = useInterpreter;
+    }
+
+    /**
+     * Removes the cached plans of the evaluated expressions.
+     */
+    public void clearCache() {
+        synchronized (plans) {
+            plans.clear();
         }
+    }
 
-        StringBuilder sb = new StringBuilder();
-        sb.append(fragment.getImportDeclaration().toString());
-        sb.append(System.lineSeparator());
-        sb.append(fragment.getSourcecode());
-        return i.eval(sb.toString());
+    /**
+     * Evaluates and returns the result of the given expression.
+     */
+    public Object evaluate(String expression) throws Exception {
+        return evaluate(expression, NO_VARIABLES, new Object[0]);
     }
 
     /**
@@ -75,6 +117,22 @@ public class ExprEvaluator {
 
         ArgumentCheck.length(variableValues, variables.length,
                 "the variableValues parameter and the variables parameter need to have the same amount of values.");
+        String javaSource;
+        if (useInterpreter) {
+            ExprPlan plan = getPlan(expression, variables);
+            if (plan.isEvaluable()) {
+                try {
+                    return plan.evaluate(variableValues);
+                    // CSOFF: IllegalCatch
+                } catch (RuntimeException e) {
+                    // CSON: IllegalCatch
+                    // the bean-shell interpreter reports the error like it did without the plan
+                }
+            }
+            javaSource = plan.getJavaSource();
+        } else {
+            javaSource = ExprPlan.compileToJavaSource(compiler, expression);
+        }
         Interpreter interpreter = new Interpreter();
         if (classLoader != null) {
             interpreter.setClassLoader(classLoader);
@@ -82,13 +140,7 @@ public class ExprEvaluator {
         for (int r = 0; r < variables.length; r++) {
             interpreter.set(variables[r], variableValues[r]);
         }
-        JavaCodeFragment fragment = compileExpressionToJava(expression);
-
-        StringBuilder sb = new StringBuilder();
-        sb.append(fragment.getImportDeclaration().toString());
-        sb.append(System.lineSeparator());
-        sb.append(fragment.getSourcecode());
-        return interpreter.eval(sb.toString());
+        return interpreter.eval(javaSource);
     }
 
     /**
@@ -108,14 +160,37 @@ public class ExprEvaluator {
     }
 
     /**
-     * Compiles expression to {@link JavaCodeFragment Java}.
+     * Returns the cached plan for the given expression and variables. Compiles the expression and
+     * creates the plan if it is not cached yet.
      */
-    private JavaCodeFragment compileExpressionToJava(String expression) throws Exception {
-        CompilationResult<JavaCodeFragment> result = compiler.compile(expression);
-        if (result.failed()) {
-            throw new Exception(result.getMessages().toString());
+    private ExprPlan getPlan(String expression, String[] variables) throws Exception {
+        List<Object> key = Arrays.asList(expression, Arrays.asList(variables.clone()),
+                compiler.getResolverVersion());
+        ExprPlan plan;
+        synchronized (plans) {
+            plan = plans.get(key);
+        }
+        if (plan == null) {
+            plan = ExprPlan.create(compiler, expression, variables);
+            synchronized (plans) {
+                plans.put(key, plan);
+            }
+        }
+        return plan;
+    }
+
+    private static class PlanCache extends LinkedHashMap<List<Object>, ExprPlan> {
+
+        private static final long serialVersionUID = 1L;
+
+        PlanCache() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<Object>, ExprPlan> eldest) {
+            return size() > MAX_CACHED_PLANS;
         }
-        return result.getCodeFragment();
     }
 
 }
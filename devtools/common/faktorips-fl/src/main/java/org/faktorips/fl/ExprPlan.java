@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.fl;
+
+import org.faktorips.codegen.JavaCodeFragment;
+
+/**
+ * The compiled plan of an expression used by the {@link ExprEvaluator}.
+ * <p>
+ * The plan contains the {@link JavaCodeFragment Java source code} of the expression and, if all
+ * parts of the expression are supported by the {@link ExprPlanBuilder}, a tree of nodes that
+ * evaluates the expression directly. The variables of the expression are bound to slots, the
+ * values are passed to {@link #evaluate(Object[])} in the order of the variable names the plan was
+ * created for.
+ */
+class ExprPlan {
+
+    private final String javaSource;
+
+    private final Node root;
+
+    private ExprPlan(String javaSource, Node root) {
+        this.javaSource = javaSource;
+        this.root = root;
+    }
+
+    /**
+     * Compiles the given expression and creates the plan for it.
+     * 
+     * @param compiler the compiler used to compile the expression
+     * @param expression the expression to create the plan for
+     * @param variables the names of the variables whose values are passed to
+     *            {@link #evaluate(Object[])}
+     * 
+     * @throws Exception if the expression can't be compiled
+     */
+    static ExprPlan create(JavaExprCompiler compiler, String expression, String[] variables) throws Exception {
+        return new ExprPlan(compileToJavaSource(compiler, expression),
+                new ExprPlanBuilder(compiler, variables).build(expression));
+    }
+
+    /**
+     * Compiles the given expression and returns the Java source code including the import
+     * declarations, as it is interpreted by the bean-shell interpreter.
+     * 
+     * @throws Exception if the expression can't be compiled
+     */
+    static String compileToJavaSource(JavaExprCompiler compiler, String expression) throws Exception {
+        CompilationResult<JavaCodeFragment> result = compiler.compile(expression);
+        if (result.failed()) {
+            throw new Exception(result.getMessages().toString());
+        }
+        JavaCodeFragment fragment = result.getCodeFragment();
+        StringBuilder sb = new StringBuilder();
+        sb.append(fragment.getImportDeclaration().toString());
+        sb.append(System.lineSeparator());
+        sb.append(fragment.getSourcecode());
+        return sb.toString();
+    }
+
+    /**
+     * Returns the Java source code of the expression including the import declarations.
+     */
+    String getJavaSource() {
+        return javaSource;
+    }
+
+    /**
+     * Returns whether the expression can be evaluated by this plan. If not, the
+     * {@link #getJavaSource() Java source code} has to be interpreted instead.
+     */
+    boolean isEvaluable() {
+        return root != null;
+    }
+
+    /**
+     * Evaluates the expression with the given variable values.
+     * 
+     * @throws IllegalStateException if the plan is not {@link #isEvaluable() evaluable}
+     * @throws RuntimeException if the evaluation fails, for example because a value is
+     *             <code>null</code> or has an unexpected type
+     */
+    Object evaluate(Object[] values) {
+        if (root == null) {
+            throw new IllegalStateException("The expression can't be evaluated without the Java source code."); //$NON-NLS-1$
+        }
+        return root.evaluate(values);
+    }
+
+    /**
+     * A node of the plan that evaluates a part of the expression.
+     */
+    @FunctionalInterface
+    interface Node {
+
+        /**
+         * Returns the value of the part of the expression for the given variable values.
+         */
+        Object evaluate(Object[] values);
+
+    }
+
+}
@@ -0,0 +1,734 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.fl;
+
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BinaryOperator;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import org.faktorips.codegen.ConversionCodeGenerator;
+import org.faktorips.codegen.JavaCodeFragment;
+import org.faktorips.datatype.AnyDatatype;
+import org.faktorips.datatype.Datatype;
+import org.faktorips.datatype.ListOfTypeDatatype;
+import org.faktorips.fl.ExprPlan.Node;
+import org.faktorips.fl.functions.Abs;
+import org.faktorips.fl.functions.And;
+import org.faktorips.fl.functions.If;
+import org.faktorips.fl.functions.IfBoolean;
+import org.faktorips.fl.functions.IsEmpty;
+import org.faktorips.fl.functions.MinMaxDecimal;
+import org.faktorips.fl.functions.MinMaxInt;
+import org.faktorips.fl.functions.MinMaxMoney;
+import org.faktorips.fl.functions.Not;
+import org.faktorips.fl.functions.NotBoolean;
+import org.faktorips.fl.functions.Or;
+import org.faktorips.fl.functions.PowerDecimal;
+import org.faktorips.fl.functions.PowerInt;
+import org.faktorips.fl.functions.Round;
+import org.faktorips.fl.functions.SqrtDecimal;
+import org.faktorips.fl.functions.WholeNumber;
+import org.faktorips.fl.operations.AddDecimalDecimal;
+import org.faktorips.fl.operations.AddDecimalInt;
+import org.faktorips.fl.operations.AddDecimalInteger;
+import org.faktorips.fl.operations.AddIntDecimal;
+import org.faktorips.fl.operations.AddIntInt;
+import org.faktorips.fl.operations.AddIntegerDecimal;
+import org.faktorips.fl.operations.AddMoneyMoney;
+import org.faktorips.fl.operations.AddStringString;
+import org.faktorips.fl.operations.CompareToComparableDatatype;
+import org.faktorips.fl.operations.DivideDecimalDecimal;
+import org.faktorips.fl.operations.DivideMoneyDecimal;
+import org.faktorips.fl.operations.EqualsObjectDatatype;
+import org.faktorips.fl.operations.EqualsPrimtiveType;
+import org.faktorips.fl.operations.GreaterThanDecimalDecimal;
+import org.faktorips.fl.operations.GreaterThanMoneyMoney;
+import org.faktorips.fl.operations.GreaterThanOrEqualDecimalDecimal;
+import org.faktorips.fl.operations.GreaterThanOrEqualMoneyMoney;
+import org.faktorips.fl.operations.LessThanDecimalDecimal;
+import org.faktorips.fl.operations.LessThanMoneyMoney;
+import org.faktorips.fl.operations.LessThanOrEqualDecimalDecimal;
+import org.faktorips.fl.operations.LessThanOrEqualMoneyMoney;
+import org.faktorips.fl.operations.MinusDecimal;
+import org.faktorips.fl.operations.MinusInteger;
+import org.faktorips.fl.operations.MinusMoney;
+import org.faktorips.fl.operations.MinusPrimitiveInt;
+import org.faktorips.fl.operations.MultiplyDecimalDecimal;
+import org.faktorips.fl.operations.MultiplyDecimalMoney;
+import org.faktorips.fl.operations.MultiplyIntInt;
+import org.faktorips.fl.operations.MultiplyIntegerMoney;
+import org.faktorips.fl.operations.MultiplyMoneyDecimal;
+import org.faktorips.fl.operations.NotEqualsObjectDatatype;
+import org.faktorips.fl.operations.ParenthesisDecimal;
+import org.faktorips.fl.operations.ParenthesisInt;
+import org.faktorips.fl.operations.ParenthesisMoney;
+import org.faktorips.fl.operations.ParenthesisString;
+import org.faktorips.fl.operations.PlusDecimal;
+import org.faktorips.fl.operations.PlusInteger;
+import org.faktorips.fl.operations.PlusMoney;
+import org.faktorips.fl.operations.PlusPrimitiveInt;
+import org.faktorips.fl.operations.SubtractDecimalDecimal;
+import org.faktorips.fl.operations.SubtractIntInt;
+import org.faktorips.fl.operations.SubtractMoneyMoney;
+import org.faktorips.fl.parser.ASTAddNode;
+import org.faktorips.fl.parser.ASTBooleanNode;
+import org.faktorips.fl.parser.ASTDecimalNode;
+import org.faktorips.fl.parser.ASTDivNode;
+import org.faktorips.fl.parser.ASTEQNode;
+import org.faktorips.fl.parser.ASTFunctionCallNode;
+import org.faktorips.fl.parser.ASTGENode;
+import org.faktorips.fl.parser.ASTGTNode;
+import org.faktorips.fl.parser.ASTIdentifierNode;
+import org.faktorips.fl.parser.ASTIntegerNode;
+import org.faktorips.fl.parser.ASTLENode;
+import org.faktorips.fl.parser.ASTLTNode;
+import org.faktorips.fl.parser.ASTMinusNode;
+import org.faktorips.fl.parser.ASTMoneyNode;
+import org.faktorips.fl.parser.ASTMultNode;
+import org.faktorips.fl.parser.ASTNotEQNode;
+import org.faktorips.fl.parser.ASTNotNode;
+import org.faktorips.fl.parser.ASTParenthesisNode;
+import org.faktorips.fl.parser.ASTPlusNode;
+import org.faktorips.fl.parser.ASTStart;
+import org.faktorips.fl.parser.ASTStringNode;
+import org.faktorips.fl.parser.ASTSubNode;
+import org.faktorips.fl.parser.ParseException;
+import org.faktorips.fl.parser.SimpleNode;
+import org.faktorips.values.Decimal;
+import org.faktorips.values.Money;
+
+/**
+ * Visitor that builds the {@link ExprPlan plan} of an expression from its parse tree.
+ * <p>
+ * The visitor generates the Java source code like the {@link JavaParseTreeVisitor} to get the
+ * datatypes of the parse tree's nodes. With these datatypes it selects the same operations,
+ * functions and conversions as the compiler and creates plan nodes that compute the values the
+ * generated source code would compute. Only the default operations, the functions and conversions
+ * of the standard datatypes and identifiers that are passed as variables are supported. If the
+ * expression contains anything else, no plan nodes are built.
+ */
+class ExprPlanBuilder extends JavaParseTreeVisitor {
+
+    private static final Map<Class<?>, BinaryOperator<Object>> BINARY_OPERATIONS = new HashMap<>();
+
+    private static final Map<Class<?>, UnaryOperator<Object>> UNARY_OPERATIONS = new HashMap<>();
+
+    private static final Map<List<Datatype>, UnaryOperator<Object>> CONVERSIONS = new HashMap<>();
+
+    static {
+        BINARY_OPERATIONS.put(AddIntInt.class, (lhs, rhs) -> (Integer)lhs + (Integer)rhs);
+        BINARY_OPERATIONS.put(AddDecimalDecimal.class, (lhs, rhs) -> ((Decimal)lhs).add((Decimal)rhs));
+        BINARY_OPERATIONS.put(AddMoneyMoney.class, (lhs, rhs) -> ((Money)lhs).add((Money)rhs));
+        BINARY_OPERATIONS.put(AddDecimalInt.class, (lhs, rhs) -> ((Decimal)lhs).add(((Integer)rhs).intValue()));
+        BINARY_OPERATIONS.put(AddIntDecimal.class, (lhs, rhs) -> ((Decimal)rhs).add(((Integer)lhs).intValue()));
+        BINARY_OPERATIONS.put(AddDecimalInteger.class, (lhs, rhs) -> ((Decimal)lhs).add((Integer)rhs));
+        BINARY_OPERATIONS.put(AddIntegerDecimal.class, (lhs, rhs) -> ((Decimal)rhs).add((Integer)lhs));
+        BINARY_OPERATIONS.put(AddStringString.class, (lhs, rhs) -> (String)lhs + (String)rhs);
+        BINARY_OPERATIONS.put(SubtractIntInt.class, (lhs, rhs) -> (Integer)lhs - (Integer)rhs);
+        BINARY_OPERATIONS.put(SubtractDecimalDecimal.class, (lhs, rhs) -> ((Decimal)lhs).subtract((Decimal)rhs));
+        BINARY_OPERATIONS.put(SubtractMoneyMoney.class, (lhs, rhs) -> ((Money)lhs).subtract((Money)rhs));
+        BINARY_OPERATIONS.put(MultiplyIntInt.class, (lhs, rhs) -> (Integer)lhs * (Integer)rhs);
+        BINARY_OPERATIONS.put(MultiplyDecimalDecimal.class, (lhs, rhs) -> ((Decimal)lhs).multiply((Decimal)rhs));
+        BINARY_OPERATIONS.put(MultiplyDecimalMoney.class,
+                (lhs, rhs) -> ((Money)rhs).multiply((Decimal)lhs, RoundingMode.HALF_UP));
+        BINARY_OPERATIONS.put(MultiplyMoneyDecimal.class,
+                (lhs, rhs) -> ((Money)lhs).multiply((Decimal)rhs, RoundingMode.HALF_UP));
+        BINARY_OPERATIONS.put(MultiplyIntegerMoney.class, (lhs, rhs) -> ((Money)rhs).multiply((Integer)lhs));
+        BINARY_OPERATIONS.put(DivideMoneyDecimal.class,
+                (lhs, rhs) -> ((Money)lhs).divide((Decimal)rhs, RoundingMode.HALF_UP));
+        BINARY_OPERATIONS.put(GreaterThanDecimalDecimal.class,
+                (lhs, rhs) -> ((Decimal)lhs).greaterThan((Decimal)rhs));
+        BINARY_OPERATIONS.put(GreaterThanOrEqualDecimalDecimal.class,
+                (lhs, rhs) -> ((Decimal)lhs).greaterThanOrEqual((Decimal)rhs));
+        BINARY_OPERATIONS.put(LessThanDecimalDecimal.class, (lhs, rhs) -> ((Decimal)lhs).lessThan((Decimal)rhs));
+        BINARY_OPERATIONS.put(LessThanOrEqualDecimalDecimal.class,
+                (lhs, rhs) -> ((Decimal)lhs).lessThanOrEqual((Decimal)rhs));
+        BINARY_OPERATIONS.put(GreaterThanMoneyMoney.class, (lhs, rhs) -> ((Money)lhs).greaterThan((Money)rhs));
+        BINARY_OPERATIONS.put(GreaterThanOrEqualMoneyMoney.class,
+                (lhs, rhs) -> ((Money)lhs).greaterThanOrEqual((Money)rhs));
+        BINARY_OPERATIONS.put(LessThanMoneyMoney.class, (lhs, rhs) -> ((Money)lhs).lessThan((Money)rhs));
+        BINARY_OPERATIONS.put(LessThanOrEqualMoneyMoney.class,
+                (lhs, rhs) -> ((Money)lhs).lessThanOrEqual((Money)rhs));
+        BINARY_OPERATIONS.put(EqualsPrimtiveType.class, (lhs, rhs) -> lhs.equals(rhs));
+
+        UNARY_OPERATIONS.put(PlusDecimal.class, UnaryOperator.identity());
+        UNARY_OPERATIONS.put(PlusInteger.class, UnaryOperator.identity());
+        UNARY_OPERATIONS.put(PlusMoney.class, UnaryOperator.identity());
+        UNARY_OPERATIONS.put(PlusPrimitiveInt.class, UnaryOperator.identity());
+        UNARY_OPERATIONS.put(MinusDecimal.class, arg -> ((Decimal)arg).multiply(-1));
+        UNARY_OPERATIONS.put(MinusMoney.class, arg -> ((Money)arg).multiply(-1));
+        UNARY_OPERATIONS.put(MinusPrimitiveInt.class, arg -> -((Integer)arg));
+        UNARY_OPERATIONS.put(MinusInteger.class, arg -> arg == null ? null : -1 * (Integer)arg);
+        UNARY_OPERATIONS.put(ParenthesisDecimal.class, UnaryOperator.identity());
+        UNARY_OPERATIONS.put(ParenthesisInt.class, UnaryOperator.identity());
+        UNARY_OPERATIONS.put(ParenthesisMoney.class, UnaryOperator.identity());
+        UNARY_OPERATIONS.put(ParenthesisString.class, UnaryOperator.identity());
+
+        // the conversions of the default conversion code generator for the standard datatypes
+        CONVERSIONS.put(Arrays.asList(Datatype.PRIMITIVE_INT, Datatype.INTEGER), UnaryOperator.identity());
+        CONVERSIONS.put(Arrays.asList(Datatype.INTEGER, Datatype.PRIMITIVE_INT), Objects::requireNonNull);
+        CONVERSIONS.put(Arrays.asList(Datatype.PRIMITIVE_BOOLEAN, Datatype.BOOLEAN), UnaryOperator.identity());
+        CONVERSIONS.put(Arrays.asList(Datatype.BOOLEAN, Datatype.PRIMITIVE_BOOLEAN), Objects::requireNonNull);
+        CONVERSIONS.put(Arrays.asList(Datatype.PRIMITIVE_INT, Datatype.DECIMAL),
+                value -> Decimal.valueOf(((Integer)value).intValue(), 0));
+        CONVERSIONS.put(Arrays.asList(Datatype.INTEGER, Datatype.DECIMAL), value -> Decimal.valueOf((Integer)value));
+        CONVERSIONS.put(Arrays.asList(Datatype.DECIMAL, Datatype.DOUBLE), value -> ((Decimal)value).doubleValue());
+        CONVERSIONS.put(Arrays.asList(Datatype.DOUBLE, Datatype.DECIMAL), value -> Decimal.valueOf((Double)value));
+    }
+
+    private final JavaExprCompiler compiler;
+
+    private final List<String> variables;
+
+    private final Map<SimpleNode, Node> nodes = new IdentityHashMap<>();
+
+    private final Map<SimpleNode, Datatype> datatypes = new IdentityHashMap<>();
+
+    ExprPlanBuilder(JavaExprCompiler compiler, String[] variables) {
+        super(compiler);
+        this.compiler = compiler;
+        this.variables = Arrays.asList(variables);
+    }
+
+    /**
+     * Returns the root node of the plan for the given expression or <code>null</code> if the
+     * expression contains anything that is not supported.
+     */
+    Node build(String expression) {
+        try {
+            SimpleNode rootNode = compiler.parse(expression);
+            rootNode.jjtAccept(this, null);
+            return nodes.get(rootNode);
+        } catch (ParseException e) {
+            return null;
+            // CSOFF: IllegalCatch
+        } catch (RuntimeException e) {
+            // CSON: IllegalCatch
+            // unsupported parts of the expression are evaluated by interpreting the Java source code
+            return null;
+        }
+    }
+
+    @Override
+    public Object visit(ASTStart node, Object data) {
+        return record(node, super.visit(node, data), () -> nodes.get(child(node, 0)));
+    }
+
+    @Override
+    public Object visit(ASTEQNode node, Object data) {
+        return record(node, super.visit(node, data), () -> binaryOperation(BinaryOperation.EQUAL, node));
+    }
+
+    @Override
+    public Object visit(ASTNotEQNode node, Object data) {
+        return record(node, super.visit(node, data), () -> binaryOperation(BinaryOperation.NOT_EQUAL, node));
+    }
+
+    @Override
+    public Object visit(ASTLTNode node, Object data) {
+        return record(node, super.visit(node, data), () -> binaryOperation(BinaryOperation.LESSER_THAN, node));
+    }
+
+    @Override
+    public Object visit(ASTGTNode node, Object data) {
+        return record(node, super.visit(node, data), () -> binaryOperation(BinaryOperation.GREATER_THAN, node));
+    }
+
+    @Override
+    public Object visit(ASTLENode node, Object data) {
+        return record(node, super.visit(node, data),
+                () -> binaryOperation(BinaryOperation.LESSER_THAN_OR_EQUAL, node));
+    }
+
+    @Override
+    public Object visit(ASTGENode node, Object data) {
+        return record(node, super.visit(node, data),
+                () -> binaryOperation(BinaryOperation.GREATER_THAN_OR_EQUAL, node));
+    }
+
+    @Override
+    public Object visit(ASTAddNode node, Object data) {
+        return record(node, super.visit(node, data), () -> binaryOperation(BinaryOperation.PLUS, node));
+    }
+
+    @Override
+    public Object visit(ASTSubNode node, Object data) {
+        return record(node, super.visit(node, data), () -> binaryOperation(BinaryOperation.MINUS, node));
+    }
+
+    @Override
+    public Object visit(ASTMultNode node, Object data) {
+        return record(node, super.visit(node, data), () -> binaryOperation(BinaryOperation.MULTIPLY, node));
+    }
+
+    @Override
+    public Object visit(ASTDivNode node, Object data) {
+        return record(node, super.visit(node, data), () -> binaryOperation(BinaryOperation.DIVIDE, node));
+    }
+
+    @Override
+    public Object visit(ASTPlusNode node, Object data) {
+        return record(node, super.visit(node, data), () -> unaryOperation(BinaryOperation.PLUS, node));
+    }
+
+    @Override
+    public Object visit(ASTMinusNode node, Object data) {
+        return record(node, super.visit(node, data), () -> unaryOperation(BinaryOperation.MINUS, node));
+    }
+
+    @Override
+    public Object visit(ASTNotNode node, Object data) {
+        return record(node, super.visit(node, data), () -> unaryOperation(UnaryOperation.NOT, node));
+    }
+
+    @Override
+    public Object visit(ASTParenthesisNode node, Object data) {
+        return record(node, super.visit(node, data), () -> unaryOperation("()", node)); //$NON-NLS-1$
+    }
+
+    @Override
+    public Object visit(ASTIdentifierNode node, Object data) {
+        Object result = super.visit(node, data);
+        return record(node, result, () -> variable(node, result));
+    }
+
+    @Override
+    public Object visit(ASTBooleanNode node, Object data) {
+        return record(node, super.visit(node, data),
+                () -> constant(Boolean.valueOf(Boolean.parseBoolean(node.getLastToken().toString()))));
+    }
+
+    @Override
+    public Object visit(ASTIntegerNode node, Object data) {
+        return record(node, super.visit(node, data), () -> integerConstant(node.getLastToken().toString()));
+    }
+
+    @Override
+    public Object visit(ASTDecimalNode node, Object data) {
+        return record(node, super.visit(node, data),
+                () -> constant(Decimal.valueOf(node.getLastToken().toString())));
+    }
+
+    @Override
+    public Object visit(ASTStringNode node, Object data) {
+        return record(node, super.visit(node, data), () -> stringConstant(node.getLastToken().toString()));
+    }
+
+    @Override
+    public Object visit(ASTMoneyNode node, Object data) {
+        return record(node, super.visit(node, data), () -> constant(Money.valueOf(node.getLastToken().toString())));
+    }
+
+    @Override
+    public Object visit(ASTFunctionCallNode node, Object data) {
+        return record(node, super.visit(node, data), () -> functionCall(node));
+    }
+
+    /**
+     * Records the datatype and the plan node of the given parse tree node if the compilation of
+     * the node was successful.
+     */
+    private Object record(SimpleNode node, Object result, Supplier<Node> planNode) {
+        CompilationResult<?> compilationResult = (CompilationResult<?>)result;
+        if (!compilationResult.failed()) {
+            datatypes.put(node, compilationResult.getDatatype());
+            nodes.put(node, planNode.get());
+        }
+        return result;
+    }
+
+    private SimpleNode child(SimpleNode node, int index) {
+        return (SimpleNode)node.jjtGetChild(index);
+    }
+
+    private Node constant(Object value) {
+        return values -> value;
+    }
+
+    private Node integerConstant(String literal) {
+        if (literal.length() > 1 && literal.charAt(0) == '0') {
+            // Java reads the literal as octal number
+            throw new UnsupportedExpressionException();
+        }
+        return constant(Integer.valueOf(literal));
+    }
+
+    private Node stringConstant(String literal) {
+        if (literal.indexOf('\\') >= 0) {
+            // Java interprets escape sequences
+            throw new UnsupportedExpressionException();
+        }
+        return constant(literal.substring(1, literal.length() - 1));
+    }
+
+    private Node variable(ASTIdentifierNode node, Object result) {
+        String identifier = node.getLastToken().toString();
+        int slot = variables.indexOf(identifier);
+        @SuppressWarnings("unchecked")
+        JavaCodeFragment code = ((CompilationResult<JavaCodeFragment>)result).getCodeFragment();
+        if (slot < 0 || !identifier.equals(code.getSourcecode())) {
+            throw new UnsupportedExpressionException();
+        }
+        return values -> values[slot];
+    }
+
+    private Node binaryOperation(String operator, SimpleNode node) {
+        SimpleNode lhs = child(node, 0);
+        SimpleNode rhs = child(node, 1);
+        Datatype lhsDatatype = datatypes.get(lhs);
+        Datatype rhsDatatype = datatypes.get(rhs);
+        BinaryOperation<JavaCodeFragment> operation = findBinaryOperation(operator, lhsDatatype, rhsDatatype);
+        Datatype lhsOperandDatatype = getOperandDatatype(lhsDatatype, operation.getLhsDatatype());
+        Datatype rhsOperandDatatype = getOperandDatatype(rhsDatatype, operation.getRhsDatatype());
+        Node lhsNode = convert(nodes.get(lhs), lhsDatatype, lhsOperandDatatype);
+        Node rhsNode = convert(nodes.get(rhs), rhsDatatype, rhsOperandDatatype);
+        BinaryOperator<Object> function = getBinaryFunction(operation, lhsOperandDatatype, rhsOperandDatatype);
+        return values -> function.apply(lhsNode.evaluate(values), rhsNode.evaluate(values));
+    }
+
+    /**
+     * Returns the operation the compiler uses for the given operator and operand datatypes.
+     * 
+     * @see ExprCompiler#getBinaryOperation(String, AbstractCompilationResult,
+     *          AbstractCompilationResult)
+     */
+    private BinaryOperation<JavaCodeFragment> findBinaryOperation(String operator,
+            Datatype lhsDatatype,
+            Datatype rhsDatatype) {
+        ConversionCodeGenerator<JavaCodeFragment> ccg = compiler.getConversionCodeGenerator();
+        BinaryOperation<JavaCodeFragment> operation = null;
+        for (BinaryOperation<JavaCodeFragment> candidate : compiler.getBinaryOperations(operator)) {
+            if (candidate.getLhsDatatype().equals(lhsDatatype) && candidate.getRhsDatatype().equals(rhsDatatype)) {
+                return candidate;
+            }
+            if (operation == null && ccg.canConvert(lhsDatatype, candidate.getLhsDatatype())
+                    && ccg.canConvert(rhsDatatype, candidate.getRhsDatatype())) {
+                operation = candidate;
+            }
+        }
+        if (operation == null) {
+            throw new UnsupportedExpressionException();
+        }
+        return operation;
+    }
+
+    private BinaryOperator<Object> getBinaryFunction(BinaryOperation<JavaCodeFragment> operation,
+            Datatype lhsDatatype,
+            Datatype rhsDatatype) {
+        Class<?> operationClass = operation.getClass();
+        if (operationClass == DivideDecimalDecimal.class) {
+            int scale = ((DivideDecimalDecimal)operation).getRoundingScale();
+            return (lhs, rhs) -> ((Decimal)lhs).divide((Decimal)rhs, scale, RoundingMode.HALF_UP);
+        }
+        if (operationClass == EqualsObjectDatatype.class) {
+            return getEqualsFunction(lhsDatatype, rhsDatatype);
+        }
+        if (operationClass == NotEqualsObjectDatatype.class) {
+            BinaryOperator<Object> equals = getEqualsFunction(lhsDatatype, rhsDatatype);
+            return (lhs, rhs) -> !((Boolean)equals.apply(lhs, rhs));
+        }
+        if (operationClass == CompareToComparableDatatype.class) {
+            IntPredicate predicate = getComparisonPredicate(operation.getOperator());
+            @SuppressWarnings({ "unchecked", "rawtypes" })
+            BinaryOperator<Object> compareTo = (lhs, rhs) -> predicate.test(((Comparable)lhs).compareTo(rhs));
+            return compareTo;
+        }
+        BinaryOperator<Object> function = BINARY_OPERATIONS.get(operationClass);
+        if (function == null) {
+            throw new UnsupportedExpressionException();
+        }
+        return function;
+    }
+
+    /**
+     * Returns the equality check that converts one of the operands to the datatype of the other
+     * one like {@link EqualsObjectDatatype} does.
+     */
+    private BinaryOperator<Object> getEqualsFunction(Datatype lhsDatatype, Datatype rhsDatatype) {
+        ConversionCodeGenerator<JavaCodeFragment> ccg = compiler.getConversionCodeGenerator();
+        if (lhsDatatype.equals(rhsDatatype)) {
+            return (lhs, rhs) -> Objects.equals(rhs, lhs);
+        } else if (ccg.canConvert(lhsDatatype, rhsDatatype)) {
+            UnaryOperator<Object> conversion = getConversion(lhsDatatype, rhsDatatype);
+            return (lhs, rhs) -> Objects.equals(rhs, conversion.apply(lhs));
+        } else if (ccg.canConvert(rhsDatatype, lhsDatatype)) {
+            UnaryOperator<Object> conversion = getConversion(rhsDatatype, lhsDatatype);
+            return (lhs, rhs) -> Objects.equals(conversion.apply(rhs), lhs);
+        }
+        throw new UnsupportedExpressionException();
+    }
+
+    private IntPredicate getComparisonPredicate(String operator) {
+        switch (operator) {
+            case BinaryOperation.GREATER_THAN:
+                return comparison -> comparison > 0;
+            case BinaryOperation.GREATER_THAN_OR_EQUAL:
+                return comparison -> comparison >= 0;
+            case BinaryOperation.LESSER_THAN:
+                return comparison -> comparison < 0;
+            case BinaryOperation.LESSER_THAN_OR_EQUAL:
+                return comparison -> comparison <= 0;
+            default:
+                throw new UnsupportedExpressionException();
+        }
+    }
+
+    /**
+     * Creates the node for the unary operation the compiler uses for the given operator.
+     * 
+     * @see ParseTreeVisitor
+     */
+    private Node unaryOperation(String operator, SimpleNode node) {
+        SimpleNode arg = child(node, 0);
+        Datatype argDatatype = datatypes.get(arg);
+        UnaryOperation<JavaCodeFragment> operation = null;
+        for (UnaryOperation<JavaCodeFragment> candidate : compiler.getUnaryOperations(operator)) {
+            if (candidate.getDatatype().equals(argDatatype)) {
+                return unaryOperation(candidate, nodes.get(arg));
+            }
+            if (compiler.getConversionCodeGenerator().canConvert(argDatatype, candidate.getDatatype())) {
+                operation = candidate;
+            }
+        }
+        if (operation == null) {
+            throw new UnsupportedExpressionException();
+        }
+        return unaryOperation(operation, convert(nodes.get(arg), argDatatype, operation.getDatatype()));
+    }
+
+    private Node unaryOperation(UnaryOperation<JavaCodeFragment> operation, Node argNode) {
+        UnaryOperator<Object> function = UNARY_OPERATIONS.get(operation.getClass());
+        if (function == null) {
+            throw new UnsupportedExpressionException();
+        }
+        return values -> function.apply(argNode.evaluate(values));
+    }
+
+    /**
+     * Creates the node for the function the compiler uses for the given function call.
+     * 
+     * @see ExprCompiler#getMatchingFunctionUsingConversion(CompilationResult[], Datatype[], String)
+     */
+    private Node functionCall(ASTFunctionCallNode node) {
+        String name = node.getFirstToken().toString();
+        SimpleNode[] argNodes = getArgumentNodes(node);
+        Datatype[] argDatatypes = new Datatype[argNodes.length];
+        for (int i = 0; i < argNodes.length; i++) {
+            argDatatypes[i] = datatypes.get(argNodes[i]);
+        }
+        List<FlFunction<JavaCodeFragment>> candidates = compiler.getFunctionTable().getFunctions(name,
+                argDatatypes.length);
+        FlFunction<JavaCodeFragment> function = null;
+        boolean exactMatch = false;
+        for (FlFunction<JavaCodeFragment> candidate : candidates) {
+            if (candidate.match(name, argDatatypes)) {
+                function = candidate;
+                exactMatch = true;
+                break;
+            } else if (candidate.matchUsingConversion(name, argDatatypes, compiler.getConversionCodeGenerator())) {
+                function = candidate;
+            }
+        }
+        if (function == null) {
+            throw new UnsupportedExpressionException();
+        }
+        Node[] args = new Node[argNodes.length];
+        Datatype[] convertedDatatypes = new Datatype[argNodes.length];
+        for (int i = 0; i < argNodes.length; i++) {
+            convertedDatatypes[i] = argDatatypes[i];
+            if (!exactMatch) {
+                Datatype functionDatatype = function.hasVarArgs() ? function.getArgTypes()[0]
+                        : function.getArgTypes()[i];
+                convertedDatatypes[i] = getOperandDatatype(argDatatypes[i], functionDatatype);
+            }
+            args[i] = convert(nodes.get(argNodes[i]), argDatatypes[i], convertedDatatypes[i]);
+        }
+        return function(function, args, convertedDatatypes);
+    }
+
+    private SimpleNode[] getArgumentNodes(ASTFunctionCallNode node) {
+        if (node.jjtGetNumChildren() == 0) {
+            return new SimpleNode[0];
+        }
+        SimpleNode argList = child(node, 0);
+        SimpleNode[] argNodes = new SimpleNode[argList.jjtGetNumChildren()];
+        for (int i = 0; i < argNodes.length; i++) {
+            argNodes[i] = child(argList, i);
+        }
+        return argNodes;
+    }
+
+    // CSOFF: CyclomaticComplexity
+    private Node function(FlFunction<JavaCodeFragment> function, Node[] args, Datatype[] argDatatypes) {
+        Class<?> functionClass = function.getClass();
+        if (functionClass == If.class || functionClass == IfBoolean.class) {
+            return ifFunction(functionClass == IfBoolean.class, args, argDatatypes);
+        } else if (functionClass == And.class || functionClass == Or.class) {
+            return andOrFunction(functionClass == And.class, function.getArgTypes()[0], args, argDatatypes);
+        } else if (functionClass == Not.class) {
+            return values -> !((Boolean)args[0].evaluate(values));
+        } else if (functionClass == NotBoolean.class) {
+            return values -> {
+                Boolean value = (Boolean)args[0].evaluate(values);
+                return value == null ? null : !value;
+            };
+        } else if (functionClass == Abs.class) {
+            return values -> ((Decimal)args[0].evaluate(values)).abs();
+        } else if (functionClass == Round.class) {
+            RoundingMode roundingMode = ((Round)function).getRoundingMode();
+            return values -> ((Decimal)args[0].evaluate(values)).setScale((Integer)args[1].evaluate(values),
+                    roundingMode);
+        } else if (functionClass == WholeNumber.class) {
+            return values -> ((Decimal)args[0].evaluate(values)).setScale(0, RoundingMode.DOWN).intValue();
+        } else if (functionClass == IsEmpty.class) {
+            return isEmptyFunction(args[0], argDatatypes[0]);
+        } else if (functionClass == SqrtDecimal.class) {
+            return values -> Decimal.valueOf(Math.sqrt(((Decimal)args[0].evaluate(values)).doubleValue()));
+        } else if (functionClass == PowerDecimal.class) {
+            return values -> Decimal.valueOf(Math.pow(((Decimal)args[0].evaluate(values)).doubleValue(),
+                    ((Decimal)args[1].evaluate(values)).doubleValue()));
+        } else if (functionClass == PowerInt.class) {
+            return values -> (int)Math.pow((Integer)args[0].evaluate(values), (Integer)args[1].evaluate(values));
+        } else if (functionClass == MinMaxDecimal.class) {
+            boolean max = ((MinMaxDecimal)function).isMax();
+            return values -> {
+                Decimal value1 = (Decimal)args[0].evaluate(values);
+                Decimal value2 = (Decimal)args[1].evaluate(values);
+                return max ? value1.max(value2) : value1.min(value2);
+            };
+        } else if (functionClass == MinMaxMoney.class) {
+            boolean max = ((MinMaxMoney)function).isMax();
+            return values -> {
+                Money value1 = (Money)args[0].evaluate(values);
+                Money value2 = (Money)args[1].evaluate(values);
+                return max ? value1.max(value2) : value1.min(value2);
+            };
+        } else if (functionClass == MinMaxInt.class) {
+            return minMaxIntFunction(((MinMaxInt)function).isMax(), args, argDatatypes);
+        }
+        throw new UnsupportedExpressionException();
+    }
+    // CSON: CyclomaticComplexity
+
+    /**
+     * Creates the node for the if function that converts the values of the branches to the same
+     * datatype like {@link If} does. Only the selected branch is evaluated.
+     */
+    private Node ifFunction(boolean nullableCondition, Node[] args, Datatype[] argDatatypes) {
+        Node condition = args[0];
+        Node thenNode = args[1];
+        Node elseNode = args[2];
+        if (!argDatatypes[1].equals(argDatatypes[2])) {
+            ConversionCodeGenerator<JavaCodeFragment> ccg = compiler.getConversionCodeGenerator();
+            if (ccg.canConvert(argDatatypes[1], argDatatypes[2])) {
+                thenNode = convert(thenNode, argDatatypes[1], argDatatypes[2]);
+            } else if (ccg.canConvert(argDatatypes[2], argDatatypes[1])) {
+                elseNode = convert(elseNode, argDatatypes[2], argDatatypes[1]);
+            } else {
+                throw new UnsupportedExpressionException();
+            }
+        }
+        Node thenBranch = thenNode;
+        Node elseBranch = elseNode;
+        if (nullableCondition) {
+            return values -> Boolean.TRUE.equals(condition.evaluate(values)) ? thenBranch.evaluate(values)
+                    : elseBranch.evaluate(values);
+        }
+        return values -> (Boolean)condition.evaluate(values) ? thenBranch.evaluate(values)
+                : elseBranch.evaluate(values);
+    }
+
+    private Node andOrFunction(boolean and, Datatype argDatatype, Node[] args, Datatype[] argDatatypes) {
+        Node[] convertedArgs = new Node[args.length];
+        for (int i = 0; i < args.length; i++) {
+            convertedArgs[i] = convert(args[i], argDatatypes[i], argDatatype);
+        }
+        return values -> {
+            for (Node arg : convertedArgs) {
+                if ((Boolean)arg.evaluate(values) != and) {
+                    return !and;
+                }
+            }
+            return and;
+        };
+    }
+
+    private Node isEmptyFunction(Node arg, Datatype argDatatype) {
+        if (argDatatype.isPrimitive()) {
+            return constant(Boolean.FALSE);
+        } else if (argDatatype instanceof ListOfTypeDatatype) {
+            throw new UnsupportedExpressionException();
+        } else if (argDatatype.equals(Datatype.DECIMAL)) {
+            return values -> Decimal.NULL.equals(arg.evaluate(values));
+        } else if (argDatatype.equals(Datatype.MONEY)) {
+            return values -> Money.NULL.equals(arg.evaluate(values));
+        } else if (argDatatype.hasNullObject()) {
+            throw new UnsupportedExpressionException();
+        }
+        return values -> arg.evaluate(values) == null;
+    }
+
+    private Node minMaxIntFunction(boolean max, Node[] args, Datatype[] argDatatypes) {
+        Node arg1 = convert(args[0], argDatatypes[0], Datatype.PRIMITIVE_INT);
+        Node arg2 = convert(args[1], argDatatypes[1], Datatype.PRIMITIVE_INT);
+        if (max) {
+            return values -> Math.max((Integer)arg1.evaluate(values), (Integer)arg2.evaluate(values));
+        }
+        return values -> Math.min((Integer)arg1.evaluate(values), (Integer)arg2.evaluate(values));
+    }
+
+    /**
+     * Returns the datatype a value of the given datatype is converted to if it is passed to an
+     * operation or function with the given parameter datatype. Values are not converted to
+     * {@link AnyDatatype}.
+     */
+    private Datatype getOperandDatatype(Datatype datatype, Datatype parameterDatatype) {
+        return parameterDatatype instanceof AnyDatatype ? datatype : parameterDatatype;
+    }
+
+    private Node convert(Node node, Datatype from, Datatype to) {
+        if (from.equals(to) || to instanceof AnyDatatype) {
+            return node;
+        }
+        UnaryOperator<Object> conversion = getConversion(from, to);
+        return values -> conversion.apply(node.evaluate(values));
+    }
+
+    private UnaryOperator<Object> getConversion(Datatype from, Datatype to) {
+        UnaryOperator<Object> conversion = CONVERSIONS.get(Arrays.asList(from, to));
+        if (conversion == null) {
+            throw new UnsupportedExpressionException();
+        }
+        return conversion;
+    }
+
+    /**
+     * Thrown if a part of the expression is not supported by the plan.
+     */
+    private static class UnsupportedExpressionException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        public UnsupportedExpressionException() {
+            super(null, null, false, false);
+        }
+
+    }
+
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.fl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.faktorips.codegen.CodeFragment;
+
+/**
+ * The functions of an {@link ExprCompiler} indexed by name and number of arguments.
+ * <p>
+ * As functions only match function calls and other functions with the same name, the candidates
+ * for a function call and the ambiguous functions are determined among the functions with the same
+ * name only. The functions with the same name keep the order of
+ * {@link ExprCompiler#getFunctions()}, so the compiler resolves a function call to the same
+ * function as when iterating over all functions. The candidates and ambiguous functions are
+ * determined on first access and may be accessed by several threads concurrently.
+ */
+class FunctionTable<T extends CodeFragment> {
+
+    private final long version;
+
+    private final Map<String, List<FlFunction<T>>> functionsByName = new HashMap<>();
+
+    private final Map<String, Map<Integer, List<FlFunction<T>>>> candidates = new ConcurrentHashMap<>();
+
+    private final Map<String, Set<FlFunction<T>>> ambiguousFunctions = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the table for the given functions.
+     * 
+     * @param functions the functions in the order returned by {@link ExprCompiler#getFunctions()}
+     * @param version the {@link ExprCompiler#getResolverVersion() resolver version} of the compiler
+     *            the functions have been read at
+     */
+    FunctionTable(FlFunction<T>[] functions, long version) {
+        this.version = version;
+        for (FlFunction<T> function : functions) {
+            functionsByName.computeIfAbsent(function.getName(), $ -> new ArrayList<>(1)).add(function);
+        }
+    }
+
+    /**
+     * Returns the resolver version of the compiler the functions have been read at.
+     */
+    long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns whether the table contains a function with the given name.
+     */
+    boolean contains(String name) {
+        return functionsByName.containsKey(name);
+    }
+
+    /**
+     * Returns the functions with the given name that accept the given number of arguments, that
+     * is the functions with exactly this number of arguments and the functions with variable
+     * arguments.
+     */
+    List<FlFunction<T>> getFunctions(String name, int numberOfArgs) {
+        List<FlFunction<T>> functions = functionsByName.get(name);
+        if (functions == null) {
+            return Collections.emptyList();
+        }
+        return candidates.computeIfAbsent(name, $ -> new ConcurrentHashMap<>())
+                .computeIfAbsent(numberOfArgs, $ -> selectFunctions(functions, numberOfArgs));
+    }
+
+    private List<FlFunction<T>> selectFunctions(List<FlFunction<T>> functions, int numberOfArgs) {
+        List<FlFunction<T>> selected = new ArrayList<>(functions.size());
+        for (FlFunction<T> function : functions) {
+            if (function.hasVarArgs() || function.getArgTypes().length == numberOfArgs) {
+                selected.add(function);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Returns whether the given function can't be differentiated from another function of the
+     * table.
+     * 
+     * @see ExprCompiler#getAmbiguousFunctions(FlFunction[])
+     */
+    boolean isAmbiguous(FlFunction<T> function) {
+        List<FlFunction<T>> functions = functionsByName.get(function.getName());
+        if (functions == null || functions.size() < 2) {
+            return false;
+        }
+        return ambiguousFunctions.computeIfAbsent(function.getName(), $ -> selectAmbiguousFunctions(functions))
+                .contains(function);
+    }
+
+    private Set<FlFunction<T>> selectAmbiguousFunctions(List<FlFunction<T>> functions) {
+        Set<FlFunction<T>> ambiguous = new LinkedHashSet<>();
+        for (int i = 0; i < functions.size(); i++) {
+            FlFunction<T> function = functions.get(i);
+            for (int j = i + 1; j < functions.size(); j++) {
+                FlFunction<T> comparedFunction = functions.get(j);
+                if (function.isSame(comparedFunction)) {
+                    ambiguous.add(comparedFunction);
+                    ambiguous.add(function);
+                }
+            }
+        }
+        return ambiguous;
+    }
+
+}
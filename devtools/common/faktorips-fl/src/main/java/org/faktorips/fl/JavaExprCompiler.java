@@ -67,7 +67,8 @@ import org.faktorips.runtime.Message;
 /**
  * This {@link ExprCompiler} implementation generates {@link JavaCodeFragment Java source code}.
  * <p>
- * This class is not thread safe!
+ * See {@link ExprCompiler} for the conditions under which expressions can be compiled
+ * concurrently.
  */
 public class JavaExprCompiler extends ExprCompiler<JavaCodeFragment> {
 
@@ -181,6 +182,11 @@ public class JavaExprCompiler extends ExprCompiler<JavaCodeFragment> {
         }
     }
 
+    @Override
+    protected JavaCodeFragment copyCodeFragment(JavaCodeFragment codeFragment) {
+        return codeFragment == null ? null : new JavaCodeFragment(codeFragment);
+    }
+
     @Override
     protected ParseTreeVisitor<JavaCodeFragment> newParseTreeVisitor() {
         return new JavaParseTreeVisitor(this);
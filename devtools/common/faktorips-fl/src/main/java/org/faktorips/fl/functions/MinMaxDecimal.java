@@ -29,6 +29,14 @@ public class MinMaxDecimal extends AbstractFlFunction {
         functionName = isMax ? "max" : "min";
     }
 
+    /**
+     * Returns <code>true</code> if this function returns the greater of its arguments,
+     * <code>false</code> if it returns the lesser one.
+     */
+    public boolean isMax() {
+        return "max".equals(functionName);
+    }
+
     @Override
     public CompilationResult<JavaCodeFragment> compile(CompilationResult<JavaCodeFragment>[] argResults) {
         ArgumentCheck.length(argResults, 2);
@@ -41,6 +41,14 @@ public abstract class MinMaxNativeTypes extends AbstractFlFunction {
         return functionName;
     }
 
+    /**
+     * Returns <code>true</code> if this function returns the greater of its arguments,
+     * <code>false</code> if it returns the lesser one.
+     */
+    public boolean isMax() {
+        return "max".equals(functionName);
+    }
+
     @Override
     public boolean match(String name, Datatype[] otherArgTypes) {
         if (!getName().equals(name)) {
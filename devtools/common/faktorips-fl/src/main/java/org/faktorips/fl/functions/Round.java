@@ -55,6 +55,13 @@ public class Round extends AbstractFlFunction {
         this(name, description, RoundingMode.valueOf(roundingMode));
     }
 
+    /**
+     * Returns the rounding mode used by this function.
+     */
+    public RoundingMode getRoundingMode() {
+        return roundingMode;
+    }
+
     /**
      * Overridden method.
      * 
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.fl;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.faktorips.datatype.Datatype;
+import org.faktorips.runtime.Message;
+import org.faktorips.values.Decimal;
+import org.faktorips.values.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the time to evaluate an expression with the {@link ExprEvaluator} interpreting the
+ * parse tree and with the bean-shell interpreter interpreting the generated Java source code. The
+ * expression is a typical premium calculation using a parameter, decimal and money values and some
+ * of the standard functions.
+ * <p>
+ * Run {@link #main(String[])} to start the benchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ExprEvaluatorBenchmark {
+
+    private static final String EXPRESSION = "ROUND(IF(age > 50; factor * (age - 50) + 1; 1) * 1.05; 2) * basePremium";
+
+    private static final String[] VARIABLES = { "age", "factor", "basePremium" };
+
+    private static final Datatype[] DATATYPES = { Datatype.INTEGER, Datatype.DECIMAL, Datatype.MONEY };
+
+    @Param({ "interpreter", "beanshell" })
+    private String evaluator;
+
+    private ExprEvaluator exprEvaluator;
+
+    private Object[] values;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        JavaExprCompiler compiler = new JavaExprCompiler(Locale.ENGLISH);
+        compiler.add(new ExcelFunctionsResolver(Locale.ENGLISH));
+        List<String> variables = Arrays.asList(VARIABLES);
+        compiler.setIdentifierResolver((identifier, exprCompiler, locale) -> {
+            int index = variables.indexOf(identifier);
+            if (index < 0) {
+                return new CompilationResultImpl(Message.newError("", "Unknown identifier " + identifier));
+            }
+            return new CompilationResultImpl(identifier, DATATYPES[index]);
+        });
+        exprEvaluator = new ExprEvaluator(compiler);
+        exprEvaluator.setUseInterpreter("interpreter".equals(evaluator));
+        values = new Object[] { Integer.valueOf(60), Decimal.valueOf("0.02"), Money.valueOf("100.00EUR") };
+        // compiles the expression
+        exprEvaluator.evaluate(EXPRESSION, VARIABLES, values);
+    }
+
+    @Benchmark
+    public Object evaluate() throws Exception {
+        return exprEvaluator.evaluate(EXPRESSION, VARIABLES, values);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ExprEvaluatorBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+}
@@ -11,6 +11,7 @@
 package org.faktorips.fl;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 import org.faktorips.codegen.JavaCodeFragment;
 import org.faktorips.datatype.Datatype;
@@ -52,4 +53,47 @@ public class ExprEvaluatorTest {
         Object value = processor.evaluate(expression);
         assertEquals(TestEnum.MONTH, value);
     }
+
+    @Test
+    public void testEvaluateWithVariableValues() throws Exception {
+        JavaExprCompiler compiler = new JavaExprCompiler();
+        DefaultIdentifierResolver resolver = new DefaultIdentifierResolver();
+        resolver.register("a", new JavaCodeFragment("a"), Datatype.INTEGER);
+        compiler.setIdentifierResolver(resolver);
+        ExprEvaluator processor = new ExprEvaluator(compiler);
+        String[] variables = { "a" };
+
+        assertEquals(Integer.valueOf(84), processor.evaluate("a * 2", variables, new Object[] { 42 }));
+        assertEquals(Integer.valueOf(14), processor.evaluate("a * 2", variables, new Object[] { 7 }));
+    }
+
+    @Test
+    public void testEvaluateWithVariableValues_WithoutInterpreter() throws Exception {
+        JavaExprCompiler compiler = new JavaExprCompiler();
+        DefaultIdentifierResolver resolver = new DefaultIdentifierResolver();
+        resolver.register("a", new JavaCodeFragment("a"), Datatype.INTEGER);
+        compiler.setIdentifierResolver(resolver);
+        ExprEvaluator processor = new ExprEvaluator(compiler);
+        processor.setUseInterpreter(false);
+
+        assertFalse(processor.isUseInterpreter());
+        assertEquals(Integer.valueOf(84), processor.evaluate("a * 2", new String[] { "a" }, new Object[] { 42 }));
+    }
+
+    @Test
+    public void testEvaluateWithVariableValues_ResolversChanged() throws Exception {
+        JavaExprCompiler compiler = new JavaExprCompiler();
+        DefaultIdentifierResolver resolver = new DefaultIdentifierResolver();
+        resolver.register("a", new JavaCodeFragment("a"), Datatype.INTEGER);
+        compiler.setIdentifierResolver(resolver);
+        ExprEvaluator processor = new ExprEvaluator(compiler);
+        String[] variables = { "a" };
+        assertEquals(Integer.valueOf(84), processor.evaluate("a * 2", variables, new Object[] { 42 }));
+
+        resolver.register("a", new JavaCodeFragment("a"), Datatype.DECIMAL);
+        compiler.resolversChanged();
+
+        assertEquals(Decimal.valueOf("3.0"),
+                processor.evaluate("a * 2", variables, new Object[] { Decimal.valueOf("1.5") }));
+    }
 }
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.fl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Locale;
+
+import org.faktorips.codegen.JavaCodeFragment;
+import org.faktorips.datatype.Datatype;
+import org.faktorips.values.Decimal;
+import org.faktorips.values.Money;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ExprPlanTest {
+
+    private static final String[] VARIABLES = { "a", "b", "c" };
+
+    private JavaExprCompiler compiler;
+
+    @Before
+    public void setUp() {
+        compiler = new JavaExprCompiler(Locale.ENGLISH);
+        compiler.add(new ExcelFunctionsResolver(Locale.ENGLISH));
+        DefaultIdentifierResolver resolver = new DefaultIdentifierResolver();
+        resolver.register("a", new JavaCodeFragment("a"), Datatype.INTEGER);
+        resolver.register("b", new JavaCodeFragment("b"), Datatype.DECIMAL);
+        resolver.register("c", new JavaCodeFragment("c"), Datatype.MONEY);
+        resolver.register("d", new JavaCodeFragment("Integer.valueOf(42)"), Datatype.INTEGER);
+        compiler.setIdentifierResolver(resolver);
+    }
+
+    private Object evaluate(String expression, Object... values) throws Exception {
+        ExprPlan plan = ExprPlan.create(compiler, expression, VARIABLES);
+        assertTrue(plan.isEvaluable());
+        return plan.evaluate(values);
+    }
+
+    @Test
+    public void testEvaluate_Variables() throws Exception {
+        Object[] values = { Integer.valueOf(3), Decimal.valueOf("1.5"), Money.valueOf("10.00EUR") };
+
+        assertEquals(Decimal.valueOf("4.5"), evaluate("a * b", values));
+        assertEquals(Money.valueOf("15.00EUR"), evaluate("c * b", values));
+        assertEquals(Boolean.TRUE, evaluate("AND(a > 2; b < 2)", values));
+    }
+
+    @Test
+    public void testEvaluate_IfConvertsBranches() throws Exception {
+        assertEquals(Decimal.valueOf("1.5"), evaluate("IF(a > 2; b; 1)", 3, Decimal.valueOf("1.5"), null));
+        assertEquals(Decimal.valueOf(1, 0), evaluate("IF(a > 2; b; 1)", 1, Decimal.valueOf("1.5"), null));
+    }
+
+    @Test
+    public void testEvaluate_IfEvaluatesOnlyTheSelectedBranch() throws Exception {
+        assertEquals(Decimal.valueOf(1, 0), evaluate("IF(a = 0; 1; 10 / a)", 0, null, null));
+    }
+
+    @Test
+    public void testEvaluate_ShortCircuit() throws Exception {
+        assertEquals(Boolean.FALSE, evaluate("AND(a > 0; b > 1)", 0, null, null));
+        assertEquals(Boolean.TRUE, evaluate("OR(a = 0; b > 1)", 0, null, null));
+    }
+
+    @Test
+    public void testEvaluate_Functions() throws Exception {
+        assertEquals(Decimal.valueOf("1.24"), evaluate("ROUND(b; 2)", null, Decimal.valueOf("1.235"), null));
+        assertEquals(Decimal.valueOf("1.5"), evaluate("MAX(b; 1.2)", null, Decimal.valueOf("1.5"), null));
+        assertEquals(Decimal.valueOf(3, 0), evaluate("ABS(a)", -3, null, null));
+    }
+
+    @Test
+    public void testEvaluate_SameResultAsBeanShell() throws Exception {
+        String[] expressions = { "a + 1", "a - 2 * a", "-a", "+a", "(a + 1) * 2", "a + b", "b + a", "b - 1.5",
+                "b * b", "b / 4", "-b", "(b)", "c + c", "c - c", "c * b", "b * c", "a * c", "c / b", "-c",
+                "b > 1", "b >= 1.5", "b < 1", "b <= 1.5", "c > 5.00EUR", "c >= 10.00EUR", "c < 5.00EUR",
+                "c <= 10.00EUR", "a = 3", "a != 3", "b = 1.5", "b != 1.5", "c = 10.00EUR", "\"x\" + \"y\"",
+                "AND(a > 2; b < 2)", "OR(a < 2; b > 2)", "NOT(a = 3)", "IF(a > 2; b; 1)", "IF(a < 2; c; c * 2)",
+                "ABS(-b)", "ROUND(b; 0)", "WHOLENUMBER(b)", "ISEMPTY(b)", "SQRT(b)", "POWER(b; 2)",
+                "POWER(a; 2)", "MAX(b; 1.2)", "MIN(c; 5.00EUR)", "MAX(a; 5)" };
+        Object[] values = { Integer.valueOf(3), Decimal.valueOf("1.5"), Money.valueOf("10.00EUR") };
+        ExprEvaluator beanShellEvaluator = new ExprEvaluator(compiler);
+        beanShellEvaluator.setUseInterpreter(false);
+
+        for (String expression : expressions) {
+            assertEquals(expression, beanShellEvaluator.evaluate(expression, VARIABLES, values),
+                    evaluate(expression, values));
+        }
+    }
+
+    @Test
+    public void testIsEvaluable_IdentifierNotPassedAsVariable() throws Exception {
+        ExprPlan plan = ExprPlan.create(compiler, "d + 1", VARIABLES);
+
+        assertFalse(plan.isEvaluable());
+        assertTrue(plan.getJavaSource().contains("Integer.valueOf(42)"));
+    }
+
+    @Test
+    public void testIsEvaluable_Enum() throws Exception {
+        compiler.setIdentifierResolver(new TestEnumIdentifierResolver());
+
+        ExprPlan plan = ExprPlan.create(compiler, "TestEnum.MONTH", new String[0]);
+
+        assertFalse(plan.isEvaluable());
+    }
+
+    @Test(expected = Exception.class)
+    public void testCreate_CompilationFailed() throws Exception {
+        ExprPlan.create(compiler, "a +", VARIABLES);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testEvaluate_NotEvaluable() throws Exception {
+        ExprPlan.create(compiler, "d + 1", VARIABLES).evaluate(new Object[0]);
+    }
+
+}
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.fl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.faktorips.codegen.JavaCodeFragment;
+import org.faktorips.datatype.Datatype;
+import org.junit.Test;
+
+public class FunctionTableTest {
+
+    private final FlFunction<JavaCodeFragment> roundDecimal = createFunction("ROUND", Datatype.DECIMAL,
+            Datatype.PRIMITIVE_INT);
+
+    private final FlFunction<JavaCodeFragment> roundMoney = createFunction("ROUND", Datatype.MONEY,
+            Datatype.PRIMITIVE_INT);
+
+    private final FlFunction<JavaCodeFragment> abs = createFunction("ABS", Datatype.DECIMAL);
+
+    private final FlFunction<JavaCodeFragment> sum = createFunction("SUM", Datatype.DECIMAL);
+
+    private final FlFunction<JavaCodeFragment> round = createFunction("ROUND", Datatype.DECIMAL);
+
+    @SuppressWarnings("unchecked")
+    private final FunctionTable<JavaCodeFragment> table = new FunctionTable<>(
+            new FlFunction[] { abs, roundDecimal, round, roundMoney, sum }, 42);
+
+    private FlFunction<JavaCodeFragment> createFunction(String name, Datatype... argTypes) {
+        @SuppressWarnings("unchecked")
+        FlFunction<JavaCodeFragment> function = mock(FlFunction.class);
+        when(function.getName()).thenReturn(name);
+        when(function.getArgTypes()).thenReturn(argTypes);
+        return function;
+    }
+
+    @Test
+    public void testGetVersion() {
+        assertEquals(42, table.getVersion());
+    }
+
+    @Test
+    public void testContains() {
+        assertTrue(table.contains("ROUND"));
+        assertFalse(table.contains("MAX"));
+    }
+
+    @Test
+    public void testGetFunctions_KeepsOrder() {
+        assertEquals(Arrays.asList(roundDecimal, roundMoney), table.getFunctions("ROUND", 2));
+        assertEquals(Arrays.asList(round), table.getFunctions("ROUND", 1));
+        assertEquals(Collections.emptyList(), table.getFunctions("ROUND", 3));
+        assertEquals(Collections.emptyList(), table.getFunctions("MAX", 2));
+    }
+
+    @Test
+    public void testGetFunctions_VarArgs() {
+        when(sum.hasVarArgs()).thenReturn(true);
+
+        assertEquals(Arrays.asList(sum), table.getFunctions("SUM", 1));
+        assertEquals(Arrays.asList(sum), table.getFunctions("SUM", 3));
+    }
+
+    @Test
+    public void testIsAmbiguous() {
+        when(roundMoney.isSame(roundDecimal)).thenReturn(true);
+        when(roundDecimal.isSame(roundMoney)).thenReturn(true);
+
+        assertTrue(table.isAmbiguous(roundDecimal));
+        assertTrue(table.isAmbiguous(roundMoney));
+        assertFalse(table.isAmbiguous(round));
+        assertFalse(table.isAmbiguous(abs));
+    }
+
+}
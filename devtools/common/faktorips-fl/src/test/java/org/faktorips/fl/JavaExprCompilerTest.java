@@ -12,13 +12,22 @@ package org.faktorips.fl;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.faktorips.codegen.ConversionCodeGenerator;
 import org.faktorips.codegen.DatatypeHelper;
@@ -235,6 +244,101 @@ public class JavaExprCompilerTest extends JavaExprCompilerAbstractTest {
 
     }
 
+    @Test
+    public void testCompile_Cached() {
+        getCompiler().setCompilationCacheSize(10);
+        getCompiler().add(new ExcelFunctionsResolver(Locale.ENGLISH));
+
+        CompilationResult<JavaCodeFragment> result1 = getCompiler().compile("ROUND(2.34; 1)");
+        result1.getCodeFragment().append(" + 1");
+        CompilationResult<JavaCodeFragment> result2 = getCompiler().compile("ROUND(2.34; 1)");
+
+        assertNotSame(result1, result2);
+        assertFalse(result2.getCodeFragment().getSourcecode().endsWith(" + 1"));
+        assertEquals(Datatype.DECIMAL, result2.getDatatype());
+        assertEquals(10, getCompiler().getCompilationCacheSize());
+    }
+
+    @Test
+    public void testCompile_CachedUntilResolversChanged() {
+        getCompiler().setCompilationCacheSize(10);
+        @SuppressWarnings("unchecked")
+        IdentifierResolver<JavaCodeFragment> resolver = mock(IdentifierResolver.class);
+        when(resolver.compile("a", getCompiler(), Locale.ENGLISH))
+                .thenReturn(new CompilationResultImpl("a", Datatype.INTEGER));
+        getCompiler().setIdentifierResolver(resolver);
+
+        getCompiler().compile("a");
+        getCompiler().compile("a");
+        verify(resolver, times(1)).compile("a", getCompiler(), Locale.ENGLISH);
+
+        long version = getCompiler().getResolverVersion();
+        getCompiler().resolversChanged();
+        getCompiler().compile("a");
+
+        assertTrue(getCompiler().getResolverVersion() > version);
+        verify(resolver, times(2)).compile("a", getCompiler(), Locale.ENGLISH);
+    }
+
+    @Test
+    public void testCompile_NotCachedByDefault() {
+        @SuppressWarnings("unchecked")
+        IdentifierResolver<JavaCodeFragment> resolver = mock(IdentifierResolver.class);
+        when(resolver.compile("a", getCompiler(), Locale.ENGLISH))
+                .thenReturn(new CompilationResultImpl("a", Datatype.INTEGER));
+        getCompiler().setIdentifierResolver(resolver);
+
+        getCompiler().compile("a");
+        getCompiler().compile("a");
+
+        assertEquals(0, getCompiler().getCompilationCacheSize());
+        verify(resolver, times(2)).compile("a", getCompiler(), Locale.ENGLISH);
+    }
+
+    @Test
+    public void testCompile_FunctionsChangedWithoutCache() {
+        FlFunction<JavaCodeFragment> function = createFunction("f", new Datatype[] { Datatype.DECIMAL });
+        @SuppressWarnings("unchecked")
+        FunctionResolver<JavaCodeFragment> fctResolver = createFunctionResolver();
+        getCompiler().add(fctResolver);
+        assertEquals(ExprCompiler.UNDEFINED_FUNCTION, getCompiler().compile("f(1.0)").getMessages()
+                .getMessage(0).getCode());
+
+        when(function.match(eq("f"), aryEq(new Datatype[] { Datatype.DECIMAL }))).thenReturn(true);
+        when(function.compile(any())).thenReturn(new CompilationResultImpl("f", Datatype.DECIMAL));
+        @SuppressWarnings("unchecked")
+        FlFunction<JavaCodeFragment>[] functions = new FlFunction[] { function };
+        when(fctResolver.getFunctions()).thenReturn(functions);
+
+        assertTrue(getCompiler().compile("f(1.0)").successfull());
+    }
+
+    @Test
+    public void testCompile_Concurrently() throws Exception {
+        getCompiler().setCompilationCacheSize(5);
+        getCompiler().add(new ExcelFunctionsResolver(Locale.ENGLISH));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<CompilationResult<JavaCodeFragment>>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String expression = "ROUND(" + (i % 20) + ".25 * 2; 1) + " + i;
+                results.add(executor.submit(() -> getCompiler().compile(expression)));
+            }
+            for (int i = 0; i < 200; i++) {
+                CompilationResult<JavaCodeFragment> result = results.get(i).get();
+                assertTrue(result.getMessages().toString(), result.successfull());
+                assertTrue(result.getCodeFragment().getSourcecode().contains(Integer.toString(i)));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetCompilationCacheSize_Negative() {
+        getCompiler().setCompilationCacheSize(-1);
+    }
+
     @SuppressWarnings("unchecked")
     private FunctionResolver<JavaCodeFragment> createFunctionResolver(FlFunction<JavaCodeFragment>... functions) {
         FunctionResolver<JavaCodeFragment> newFctResolver = mock(FunctionResolver.class);
@@ -525,6 +525,8 @@ public class ParseTreeVisitorTest {
             Datatype[] datatypes,
             DummyCompilationResultImpl resultImpl) {
         FlFunction<CodeFragment> function = mock(FlFunction.class);
+        when(function.getName()).thenReturn(data);
+        when(function.getArgTypes()).thenReturn(datatypes);
         when(function.match(data, datatypes)).thenReturn(true);
         when(function.compile(any(CompilationResult[].class))).thenReturn(resultImpl);
         return function;
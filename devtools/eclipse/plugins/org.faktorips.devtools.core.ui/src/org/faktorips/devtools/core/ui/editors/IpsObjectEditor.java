@@ -62,6 +62,7 @@ import org.faktorips.devtools.model.ContentsChangeListener;
 import org.faktorips.devtools.model.IIpsModel;
 import org.faktorips.devtools.model.IModificationStatusChangeListener;
 import org.faktorips.devtools.model.ModificationStatusChangedEvent;
+import org.faktorips.devtools.model.internal.IpsModel;
 import org.faktorips.devtools.model.ipsobject.IFixDifferencesToModelSupport;
 import org.faktorips.devtools.model.ipsobject.IIpsObject;
 import org.faktorips.devtools.model.ipsobject.IIpsSrcFile;
@@ -110,6 +111,9 @@ public abstract class IpsObjectEditor extends FormEditor implements ContentsChan
     /** The file that's being edited (if any) */
     private IIpsSrcFile ipsSrcFile;
 
+    /** The file whose content is pinned in the model while the editor is open */
+    private IIpsSrcFile pinnedIpsSrcFile;
+
     private boolean dirty = false;
 
     private boolean contentChangeable = false;
@@ -198,6 +202,9 @@ public abstract class IpsObjectEditor extends FormEditor implements ContentsChan
         if (ipsSrcFile == null) {
             throw new PartInitException("Unsupported editor input type " + input.getClass().getName()); //$NON-NLS-1$
         }
+        // the content of an open file must not be released by the model's content cache
+        pinnedIpsSrcFile = ipsSrcFile;
+        IpsModel.get().pinIpsSrcFileContent(pinnedIpsSrcFile);
 
         String title = ipsSrcFile.getIpsObjectName();
         setPartName(title);
@@ -752,6 +759,11 @@ public abstract class IpsObjectEditor extends FormEditor implements ContentsChan
 
         disposeInternal();
 
+        if (pinnedIpsSrcFile != null) {
+            IpsModel.get().unpinIpsSrcFileContent(pinnedIpsSrcFile);
+            pinnedIpsSrcFile = null;
+        }
+
         log("disposed."); //$NON-NLS-1$
     }
 
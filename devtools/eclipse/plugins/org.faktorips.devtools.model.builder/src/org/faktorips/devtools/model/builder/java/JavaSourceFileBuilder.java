@@ -146,6 +146,8 @@ public abstract class JavaSourceFileBuilder extends AbstractArtefactBuilder {
 
     private JControlModel model;
 
+    private CodeFormatter formatter;
+
     private FacadeHelper facadeHelper;
 
     private JavaClassNaming javaClassNaming;
@@ -175,6 +177,10 @@ public abstract class JavaSourceFileBuilder extends AbstractArtefactBuilder {
     @Override
     public void afterBuildProcess(IIpsProject project, ABuildKind buildKind) {
         model = null;
+        formatter = null;
+        if (getBuilderSet().isSkipUnchangedArtefacts()) {
+            JavaSourceFileFingerprints.get(project).buildFinished();
+        }
     }
 
     @Override
@@ -710,6 +716,10 @@ public abstract class JavaSourceFileBuilder extends AbstractArtefactBuilder {
             return;
         }
         AFile javaFile = getJavaFile(ipsSrcFile);
+        String inputHash = getInputHash(ipsSrcFile);
+        if (inputHash != null && getFingerprints().isUnchanged(javaFile, inputHash)) {
+            return;
+        }
         String content = generate();
         if (content == null || generationCanceled) {
             return;
@@ -717,9 +727,9 @@ public abstract class JavaSourceFileBuilder extends AbstractArtefactBuilder {
 
         boolean newFileCreated = createFileIfNotThere(javaFile);
 
+        Charset charset = ipsSrcFile.getIpsProject().getProject().getDefaultCharset();
         String oldJavaFileContentsStr = null;
         if (!newFileCreated) {
-            Charset charset = ipsSrcFile.getIpsProject().getProject().getDefaultCharset();
             oldJavaFileContentsStr = getJavaFileContents(javaFile, charset);
         }
         if (isMergeEnabled()) {
@@ -733,11 +743,29 @@ public abstract class JavaSourceFileBuilder extends AbstractArtefactBuilder {
          * If merging is not activated and the old content of the file is equal compared to the new
          * content, then the new content is not written to the file.
          */
-        if (content.equals(oldJavaFileContentsStr)) {
-            return;
-        } else {
+        if (!content.equals(oldJavaFileContentsStr)) {
             writeToFile(ipsSrcFile, javaFile, content);
         }
+        if (inputHash != null) {
+            getFingerprints().put(javaFile, inputHash, content.getBytes(charset));
+        }
+    }
+
+    /**
+     * Returns the hash of the inputs of the Java file generated for the given IPS source file, if
+     * unchanged Java files are not generated again. Returns <code>null</code> otherwise.
+     * 
+     * @see DefaultBuilderSet#isSkipUnchangedArtefacts()
+     */
+    private String getInputHash(IIpsSrcFile ipsSrcFile) {
+        if (!getBuilderSet().isSkipUnchangedArtefacts()) {
+            return null;
+        }
+        return getFingerprints().getInputHash(this, ipsSrcFile);
+    }
+
+    private JavaSourceFileFingerprints getFingerprints() {
+        return JavaSourceFileFingerprints.get(getIpsProject());
     }
 
     /* private */ void writeToFile(IIpsSrcFile ipsSrcFile, AFile javaFile, String content) {
@@ -774,6 +802,9 @@ public abstract class JavaSourceFileBuilder extends AbstractArtefactBuilder {
         AFile file = getJavaFile(ipsSrcFile);
         AContainer parent = file.getParent();
         AResource destination = getArtefactDestination(ipsSrcFile).getResource();
+        if (getBuilderSet().isSkipUnchangedArtefacts()) {
+            getFingerprints().remove(file);
+        }
         if (file.exists()) {
             file.delete(null);
             if (!parent.equals(destination) && parent instanceof AFolder) {
@@ -808,14 +839,6 @@ public abstract class JavaSourceFileBuilder extends AbstractArtefactBuilder {
         if (content == null) {
             return content;
         }
-        AJavaProject javaProject = getIpsProject().getJavaProject();
-        CodeFormatter formatter;
-        if (javaProject != null) {
-            formatter = ToolFactory.createCodeFormatter(javaProject.getOptions());
-        } else {
-            formatter = ToolFactory.createCodeFormatter(null);
-        }
-
         Document doc = new Document(content);
 
         String separator = null;
@@ -828,12 +851,8 @@ public abstract class JavaSourceFileBuilder extends AbstractArtefactBuilder {
             }
         }
 
-        /*
-         * With parameter null the CodeFormatter is configured with the preferences that are
-         * currently set.
-         */
-        TextEdit edit = formatter.format(CodeFormatter.K_COMPILATION_UNIT | CodeFormatter.F_INCLUDE_COMMENTS, content,
-                0, content.length(), 0, separator);
+        TextEdit edit = getFormatter().format(CodeFormatter.K_COMPILATION_UNIT | CodeFormatter.F_INCLUDE_COMMENTS,
+                content, 0, content.length(), 0, separator);
 
         if (edit == null) {
             return content;
@@ -848,8 +867,25 @@ public abstract class JavaSourceFileBuilder extends AbstractArtefactBuilder {
     }
 
     /**
-     * Returns the AFile for the provided IIpsSrcFile.
+     * Returns the formatter configured with the options of the Java project. The formatter is
+     * created once per build process.
      */
+    private CodeFormatter getFormatter() {
+        if (formatter == null) {
+            AJavaProject javaProject = getIpsProject().getJavaProject();
+            if (javaProject != null) {
+                formatter = ToolFactory.createCodeFormatter(javaProject.getOptions());
+            } else {
+                /*
+                 * With parameter null the CodeFormatter is configured with the preferences that are
+                 * currently set.
+                 */
+                formatter = ToolFactory.createCodeFormatter(null);
+            }
+        }
+        return formatter;
+    }
+
     /**
      * Returns the AFile for the provided IIpsSrcFile.
      */
@@ -0,0 +1,440 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.devtools.model.builder.java;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Platform;
+import org.faktorips.devtools.abstraction.AFile;
+import org.faktorips.devtools.abstraction.AJavaProject;
+import org.faktorips.devtools.abstraction.Abstractions;
+import org.faktorips.devtools.abstraction.exception.IpsException;
+import org.faktorips.devtools.model.IIpsModel;
+import org.faktorips.devtools.model.builder.DefaultBuilderSet;
+import org.faktorips.devtools.model.dependency.IDependency;
+import org.faktorips.devtools.model.ipsobject.IIpsSrcFile;
+import org.faktorips.devtools.model.ipsobject.IpsObjectType;
+import org.faktorips.devtools.model.ipsobject.QualifiedNameType;
+import org.faktorips.devtools.model.ipsproject.IIpsArtefactBuilderSetConfig;
+import org.faktorips.devtools.model.ipsproject.IIpsProject;
+import org.faktorips.devtools.model.plugin.IpsLog;
+import org.faktorips.devtools.model.plugin.IpsStatus;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
+
+/**
+ * The fingerprints of the Java source files generated by the {@link JavaSourceFileBuilder
+ * JavaSourceFileBuilders} of an IPS project.
+ * <p>
+ * A fingerprint consists of a hash of the inputs of a Java file and a hash of the content written
+ * to the file. The inputs are the IPS source file the Java file is generated for, all IPS source
+ * files it depends on directly or indirectly, the IPS project properties, the builder set
+ * configuration, the Java project options and the versions of the bundles contributing the
+ * generators. If neither the inputs nor the Java file have changed since the file was generated,
+ * the builder can skip generating, merging and formatting the file.
+ * <p>
+ * The fingerprints are stored in the state location of this plug-in, so they are kept when the
+ * workspace is closed. They are dropped from memory when their project is closed, and their file is
+ * deleted when the project is deleted or renamed. The hashes of the IPS source files are computed
+ * once per build, as the IPS source files do not change while a build is running.
+ */
+public class JavaSourceFileFingerprints {
+
+    private static final Map<String, JavaSourceFileFingerprints> PROJECT_FINGERPRINTS = new ConcurrentHashMap<>();
+
+    private static volatile boolean listeningToProjectChanges;
+
+    private static final String HASH_ALGORITHM = "SHA-256"; //$NON-NLS-1$
+
+    private static final String FILE_NAME_PREFIX = "javasourcefingerprints."; //$NON-NLS-1$
+
+    private static final String SEPARATOR = " "; //$NON-NLS-1$
+
+    private final File file;
+
+    /** The fingerprints by the workspace relative paths of the Java files */
+    private final Properties fingerprints = new Properties();
+
+    private boolean dirty;
+
+    /*
+     * The hashes computed during a build. They are computed without holding the lock, so builders
+     * on several threads read the IPS source files in parallel. Two threads might compute the same
+     * hash, but as it doesn't change during a build, either result is fine.
+     */
+
+    private volatile String projectHash;
+
+    private final Map<IIpsSrcFile, String> contentHashes = Collections.synchronizedMap(new HashMap<>());
+
+    private final Map<IIpsSrcFile, List<Object>> dependencies = Collections.synchronizedMap(new HashMap<>());
+
+    private final Map<IIpsSrcFile, String> modelHashes = Collections.synchronizedMap(new HashMap<>());
+
+    /**
+     * Creates the fingerprints stored in the given file. If the file is <code>null</code>, the
+     * fingerprints are not stored.
+     */
+    JavaSourceFileFingerprints(File file) {
+        this.file = file;
+        load();
+    }
+
+    /**
+     * Returns the fingerprints of the Java source files generated for the given IPS project.
+     */
+    public static JavaSourceFileFingerprints get(IIpsProject ipsProject) {
+        if (!listeningToProjectChanges) {
+            listenToProjectChanges();
+        }
+        return PROJECT_FINGERPRINTS.computeIfAbsent(ipsProject.getName(),
+                projectName -> new JavaSourceFileFingerprints(getFingerprintsFile(projectName)));
+    }
+
+    private static synchronized void listenToProjectChanges() {
+        if (listeningToProjectChanges) {
+            return;
+        }
+        if (Abstractions.isEclipseRunning()) {
+            ResourcesPlugin.getWorkspace().addResourceChangeListener(JavaSourceFileFingerprints::projectsChanged,
+                    IResourceChangeEvent.PRE_CLOSE | IResourceChangeEvent.POST_CHANGE);
+        }
+        listeningToProjectChanges = true;
+    }
+
+    /**
+     * Forgets the fingerprints of closed projects and deletes those of deleted or renamed projects,
+     * as a new project with the same name must not use them.
+     */
+    private static void projectsChanged(IResourceChangeEvent event) {
+        if (event.getType() == IResourceChangeEvent.PRE_CLOSE) {
+            PROJECT_FINGERPRINTS.remove(event.getResource().getName());
+        } else if (event.getDelta() != null) {
+            for (IResourceDelta delta : event.getDelta().getAffectedChildren(IResourceDelta.REMOVED)) {
+                String projectName = delta.getResource().getName();
+                PROJECT_FINGERPRINTS.remove(projectName);
+                File file = getFingerprintsFile(projectName);
+                if (file != null && file.exists() && !file.delete()) {
+                    IpsLog.log(new IpsStatus(IStatus.WARNING,
+                            "Unable to delete the fingerprints of the generated Java files " //$NON-NLS-1$
+                                    + file.getAbsolutePath()));
+                }
+            }
+        }
+    }
+
+    private static File getFingerprintsFile(String projectName) {
+        Bundle bundle = Platform.getBundle(JavaSourceFileBuilder.PLUGIN_ID);
+        if (bundle == null) {
+            return null;
+        }
+        return Platform.getStateLocation(bundle).append(FILE_NAME_PREFIX + projectName).toFile();
+    }
+
+    private void load() {
+        if (file == null || !file.exists()) {
+            return;
+        }
+        try (InputStream is = new FileInputStream(file)) {
+            fingerprints.load(is);
+        } catch (IOException e) {
+            IpsLog.log(new IpsStatus(IStatus.WARNING, "Unable to read the fingerprints of the generated Java files " //$NON-NLS-1$
+                    + file.getAbsolutePath(), e));
+            fingerprints.clear();
+        }
+    }
+
+    private void save() {
+        if (file == null) {
+            return;
+        }
+        try (OutputStream os = new FileOutputStream(file)) {
+            fingerprints.store(os, null);
+        } catch (IOException e) {
+            IpsLog.log(new IpsStatus(IStatus.WARNING, "Unable to save the fingerprints of the generated Java files " //$NON-NLS-1$
+                    + file.getAbsolutePath(), e));
+        }
+    }
+
+    /**
+     * Saves the fingerprints if they have changed and forgets the hashes of the IPS source files
+     * computed during the build.
+     */
+    public synchronized void buildFinished() {
+        if (dirty) {
+            save();
+            dirty = false;
+        }
+        projectHash = null;
+        contentHashes.clear();
+        dependencies.clear();
+        modelHashes.clear();
+    }
+
+    /**
+     * Returns the hash of the inputs of the Java file the given builder generates for the given
+     * IPS source file. Returns <code>null</code> if the inputs can't be determined, for example
+     * because one of the IPS source files is modified but not saved.
+     */
+    public String getInputHash(JavaSourceFileBuilder builder, IIpsSrcFile ipsSrcFile) {
+        String modelHash = getModelHash(ipsSrcFile);
+        if (modelHash == null) {
+            return null;
+        }
+        String currentProjectHash = projectHash;
+        if (currentProjectHash == null) {
+            currentProjectHash = computeProjectHash(builder.getBuilderSet());
+            projectHash = currentProjectHash;
+        }
+        return hash(Arrays.asList(currentProjectHash, builder.getClass().getName(),
+                getBundleVersion(builder.getClass()), builder.getKindId(), Boolean.toString(builder.isMergeEnabled()),
+                Boolean.toString(builder.buildsDerivedArtefacts()), modelHash));
+    }
+
+    /**
+     * Returns <code>true</code> if the given Java file exists and was generated from inputs with
+     * the given hash and has not been changed since.
+     */
+    public synchronized boolean isUnchanged(AFile javaFile, String inputHash) {
+        String fingerprint = fingerprints.getProperty(getKey(javaFile));
+        if (fingerprint == null || !javaFile.exists()) {
+            return false;
+        }
+        String[] hashes = fingerprint.split(SEPARATOR);
+        if (hashes.length != 2 || !hashes[0].equals(inputHash)) {
+            return false;
+        }
+        try (InputStream is = javaFile.getContents()) {
+            return hashes[1].equals(hash(is));
+        } catch (IOException | IpsException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Records that the given content was generated into the given Java file from inputs with the
+     * given hash.
+     */
+    public synchronized void put(AFile javaFile, String inputHash, byte[] content) {
+        fingerprints.setProperty(getKey(javaFile), inputHash + SEPARATOR + hash(content));
+        dirty = true;
+    }
+
+    /**
+     * Forgets the fingerprint of the given Java file, for example because it was deleted.
+     */
+    public synchronized void remove(AFile javaFile) {
+        if (fingerprints.remove(getKey(javaFile)) != null) {
+            dirty = true;
+        }
+    }
+
+    private String getKey(AFile javaFile) {
+        return javaFile.getWorkspaceRelativePath().toString();
+    }
+
+    private String computeProjectHash(DefaultBuilderSet builderSet) {
+        List<String> inputs = new ArrayList<>();
+        inputs.add(getBundleVersion(JavaSourceFileBuilder.class));
+        inputs.add(builderSet.getId());
+        inputs.add(builderSet.getVersion());
+        // the builder set's version might not change with every release of the bundle generating the code
+        inputs.add(getBundleVersion(builderSet.getClass()));
+        IIpsArtefactBuilderSetConfig config = builderSet.getConfig();
+        if (config != null) {
+            String[] propertyNames = config.getPropertyNames().clone();
+            Arrays.sort(propertyNames);
+            for (String propertyName : propertyNames) {
+                inputs.add(propertyName + '=' + config.getPropertyValue(propertyName));
+            }
+        }
+        IIpsProject ipsProject = builderSet.getIpsProject();
+        AFile propertiesFile = ipsProject.getIpsProjectPropertiesFile();
+        if (propertiesFile.exists()) {
+            try (InputStream is = propertiesFile.getContents()) {
+                inputs.add(hash(is));
+            } catch (IOException e) {
+                throw new IpsException(new IpsStatus(e));
+            }
+        }
+        AJavaProject javaProject = ipsProject.getJavaProject();
+        if (javaProject != null) {
+            inputs.add(new TreeMap<>(javaProject.getOptions()).toString());
+        }
+        return hash(inputs);
+    }
+
+    /**
+     * Returns the symbolic name and version of the bundle containing the given class or
+     * <code>null</code> if it isn't loaded by a bundle.
+     */
+    private static String getBundleVersion(Class<?> clazz) {
+        Bundle bundle = FrameworkUtil.getBundle(clazz);
+        return bundle == null ? null : bundle.getSymbolicName() + '_' + bundle.getVersion();
+    }
+
+    /**
+     * Returns the hash of the contents of the given IPS source file and all IPS source files it
+     * depends on directly or indirectly.
+     */
+    private String getModelHash(IIpsSrcFile ipsSrcFile) {
+        if (modelHashes.containsKey(ipsSrcFile)) {
+            return modelHashes.get(ipsSrcFile);
+        }
+        Map<String, String> closureHashes = new TreeMap<>();
+        Set<IIpsSrcFile> visited = new HashSet<>();
+        Deque<IIpsSrcFile> toVisit = new ArrayDeque<>();
+        toVisit.add(ipsSrcFile);
+        visited.add(ipsSrcFile);
+        while (!toVisit.isEmpty()) {
+            IIpsSrcFile current = toVisit.poll();
+            String contentHash = getContentHash(current);
+            List<Object> currentDependencies = getDependencies(current);
+            if (contentHash == null || currentDependencies == null) {
+                modelHashes.put(ipsSrcFile, null);
+                return null;
+            }
+            closureHashes.put(current.getQualifiedNameType().toString(), contentHash);
+            for (Object dependency : currentDependencies) {
+                if (dependency instanceof IIpsSrcFile) {
+                    if (visited.add((IIpsSrcFile)dependency)) {
+                        toVisit.add((IIpsSrcFile)dependency);
+                    }
+                } else {
+                    // an unresolved dependency, its name is hashed so resolving it changes the hash
+                    closureHashes.put(dependency.toString(), dependency.toString());
+                }
+            }
+        }
+        List<String> inputs = new ArrayList<>();
+        inputs.add(ipsSrcFile.getQualifiedNameType().toString());
+        closureHashes.forEach((name, hash) -> {
+            inputs.add(name);
+            inputs.add(hash);
+        });
+        String modelHash = hash(inputs);
+        modelHashes.put(ipsSrcFile, modelHash);
+        return modelHash;
+    }
+
+    private String getContentHash(IIpsSrcFile ipsSrcFile) {
+        if (contentHashes.containsKey(ipsSrcFile)) {
+            return contentHashes.get(ipsSrcFile);
+        }
+        String contentHash = null;
+        if (ipsSrcFile.exists() && !ipsSrcFile.isDirty()) {
+            try (InputStream is = ipsSrcFile.getContentFromEnclosingResource()) {
+                contentHash = is == null ? null : hash(is);
+            } catch (IOException | IpsException e) {
+                contentHash = null;
+            }
+        }
+        contentHashes.put(ipsSrcFile, contentHash);
+        return contentHash;
+    }
+
+    /**
+     * Returns the IPS source files the given one depends on directly. A dependency that can't be
+     * resolved to an IPS source file is returned as the qualified name of its target. Returns
+     * <code>null</code> if the IPS source file can't be parsed.
+     */
+    private List<Object> getDependencies(IIpsSrcFile ipsSrcFile) {
+        if (dependencies.containsKey(ipsSrcFile)) {
+            return dependencies.get(ipsSrcFile);
+        }
+        List<Object> directDependencies = null;
+        if (ipsSrcFile.isContentParsable()) {
+            IIpsProject ipsProject = ipsSrcFile.getIpsProject();
+            directDependencies = new ArrayList<>();
+            for (IDependency dependency : ipsSrcFile.getIpsObject().dependsOn()) {
+                directDependencies.add(resolve(ipsProject, dependency.getTarget()));
+            }
+        }
+        dependencies.put(ipsSrcFile, directDependencies);
+        return directDependencies;
+    }
+
+    private Object resolve(IIpsProject ipsProject, Object target) {
+        IIpsSrcFile ipsSrcFile = null;
+        if (target instanceof QualifiedNameType) {
+            ipsSrcFile = ipsProject.findIpsSrcFile((QualifiedNameType)target);
+        } else if (target instanceof String) {
+            // a dependency on a datatype, which might be defined by an IPS object
+            for (IpsObjectType type : IIpsModel.get().getIpsObjectTypes()) {
+                if (type.isDatatype() && ipsSrcFile == null) {
+                    ipsSrcFile = ipsProject.findIpsSrcFile(new QualifiedNameType((String)target, type));
+                }
+            }
+        }
+        return ipsSrcFile == null ? target : ipsSrcFile;
+    }
+
+    private static String hash(List<String> inputs) {
+        MessageDigest digest = createDigest();
+        for (String input : inputs) {
+            if (input != null) {
+                digest.update(input.getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte)0);
+        }
+        return Base64.getEncoder().encodeToString(digest.digest());
+    }
+
+    private static String hash(InputStream is) throws IOException {
+        MessageDigest digest = createDigest();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = is.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        return Base64.getEncoder().encodeToString(digest.digest());
+    }
+
+    private static String hash(byte[] content) {
+        return Base64.getEncoder().encodeToString(createDigest().digest(content));
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -12,6 +12,9 @@ package org.faktorips.devtools.model.builder;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 
 import org.eclipse.core.resources.IFile;
@@ -41,6 +44,12 @@ public abstract class AbstractArtefactBuilder implements IIpsArtefactBuilder {
     private IIpsArtefactBuilderSet builderSet;
     private final LocalizedStringsSet localizedStringsSet;
 
+    /**
+     * The workspace modifications deferred while this builder builds on a worker thread of a
+     * parallel build, <code>null</code> if this builder modifies the workspace directly.
+     */
+    private List<Runnable> deferredWorkspaceModifications;
+
     public AbstractArtefactBuilder(IIpsArtefactBuilderSet builderSet) {
         this(builderSet, null);
     }
@@ -87,6 +96,53 @@ public abstract class AbstractArtefactBuilder implements IIpsArtefactBuilder {
         return false;
     }
 
+    /**
+     * Returns <code>true</code> if this builder can build on a worker thread of a parallel build.
+     * Every worker thread uses builders of its own, so such a builder must derive its artefacts
+     * from the built IPS source file and the IPS model only and must not collect information over
+     * all built files. It must modify the workspace only by means of
+     * {@link #createFileIfNotThere(AFile)}, {@link #createFolderIfNotThere(AFolder)} and
+     * {@link #writeToFile(AFile, InputStream, boolean, boolean)}, as these modifications are
+     * deferred to the build thread.
+     * <p>
+     * Returns <code>false</code>.
+     */
+    public boolean isParallelBuildSupported() {
+        return false;
+    }
+
+    /**
+     * Sets whether this builder defers its workspace modifications instead of applying them
+     * directly. The build thread holds the workspace lock during the build, so a builder building
+     * on a worker thread must leave the modifications to the build thread.
+     * 
+     * @see #takeDeferredWorkspaceModifications()
+     */
+    void setDeferWorkspaceModifications(boolean defer) {
+        deferredWorkspaceModifications = defer ? new ArrayList<>() : null;
+    }
+
+    /**
+     * Returns the workspace modifications deferred since the last call in the order they were
+     * requested and forgets them.
+     */
+    List<Runnable> takeDeferredWorkspaceModifications() {
+        if (deferredWorkspaceModifications == null || deferredWorkspaceModifications.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Runnable> modifications = deferredWorkspaceModifications;
+        deferredWorkspaceModifications = new ArrayList<>();
+        return modifications;
+    }
+
+    private void modifyWorkspace(Runnable modification) {
+        if (deferredWorkspaceModifications != null) {
+            deferredWorkspaceModifications.add(modification);
+        } else {
+            modification.run();
+        }
+    }
+
     @Override
     public String toString() {
         return "Builder: " + getName(); //$NON-NLS-1$
@@ -109,18 +165,26 @@ public abstract class AbstractArtefactBuilder implements IIpsArtefactBuilder {
     protected boolean createFileIfNotThere(AFile file) {
         ArgumentCheck.notNull(file, this);
         if (!file.exists()) {
-            AContainer parent = file.getParent();
-            if (parent instanceof AFolder) {
-                createFolderIfNotThere((AFolder)parent);
-            }
-            file.create(new ByteArrayInputStream("".getBytes()), null); //$NON-NLS-1$
-            file.setDerived(buildsDerivedArtefacts() && getBuilderSet().isMarkNoneMergableResourcesAsDerived(), null);
+            modifyWorkspace(() -> createFile(file));
             return true;
         }
 
         return false;
     }
 
+    private void createFile(AFile file) {
+        // a deferred creation might find the file created by an earlier one
+        if (file.exists()) {
+            return;
+        }
+        AContainer parent = file.getParent();
+        if (parent instanceof AFolder) {
+            createFolder((AFolder)parent);
+        }
+        file.create(new ByteArrayInputStream("".getBytes()), null); //$NON-NLS-1$
+        file.setDerived(buildsDerivedArtefacts() && getBuilderSet().isMarkNoneMergableResourcesAsDerived(), null);
+    }
+
     /**
      * This method needs to be used in subclasses of this builder when a folder is created during
      * the build cycle. This method creates a folder only if the folder handle points to a folder
@@ -139,17 +203,24 @@ public abstract class AbstractArtefactBuilder implements IIpsArtefactBuilder {
 
         ArgumentCheck.notNull(folder, this);
         if (!folder.exists()) {
-            AContainer parent = folder.getParent();
-            if (parent instanceof AFolder) {
-                createFolderIfNotThere((AFolder)parent);
-            }
-            folder.create(null);
-            folder.setDerived(buildsDerivedArtefacts() && getBuilderSet().isMarkNoneMergableResourcesAsDerived(), null);
+            modifyWorkspace(() -> createFolder(folder));
             return true;
         }
         return false;
     }
 
+    private void createFolder(AFolder folder) {
+        if (folder.exists()) {
+            return;
+        }
+        AContainer parent = folder.getParent();
+        if (parent instanceof AFolder) {
+            createFolder((AFolder)parent);
+        }
+        folder.create(null);
+        folder.setDerived(buildsDerivedArtefacts() && getBuilderSet().isMarkNoneMergableResourcesAsDerived(), null);
+    }
+
     /**
      * Returns the language in that variables, methods are named and and Java documentations are
      * written in.
@@ -230,7 +301,7 @@ public abstract class AbstractArtefactBuilder implements IIpsArtefactBuilder {
      *             {@link IFile#setContents(InputStream, boolean, boolean, org.eclipse.core.runtime.IProgressMonitor)}
      */
     public void writeToFile(AFile file, InputStream inputStream, boolean force, boolean keepHistory) {
-        file.setContents(inputStream, keepHistory, new NullProgressMonitor());
+        modifyWorkspace(() -> file.setContents(inputStream, keepHistory, new NullProgressMonitor()));
     }
 
     /**
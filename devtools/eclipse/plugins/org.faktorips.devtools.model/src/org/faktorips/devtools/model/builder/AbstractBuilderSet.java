@@ -45,6 +45,17 @@ public abstract class AbstractBuilderSet implements IIpsArtefactBuilderSet {
      */
     public static final String CONFIG_MARK_NONE_MERGEABLE_RESOURCES_AS_DERIVED = "markNoneMergeableResourcesAsDerived"; //$NON-NLS-1$
 
+    /**
+     * Configuration property setting that artefacts whose inputs have not changed since they were
+     * generated are not generated again.
+     */
+    public static final String CONFIG_SKIP_UNCHANGED_ARTEFACTS = "skipUnchangedArtefacts"; //$NON-NLS-1$
+
+    /**
+     * Configuration property setting the number of threads that generate artefacts in parallel.
+     */
+    public static final String CONFIG_PARALLEL_BUILD_THREADS = "parallelBuildThreads"; //$NON-NLS-1$
+
     private String id;
     private String label;
     private IIpsProject ipsProject;
@@ -224,6 +235,34 @@ public abstract class AbstractBuilderSet implements IIpsArtefactBuilderSet {
         }
     }
 
+    /**
+     * Returns <code>true</code> if artefacts whose inputs have not changed since they were
+     * generated are not generated again. The inputs of an artefact are the IPS source file it is
+     * generated for, the IPS source files this file depends on directly or indirectly, the project
+     * configuration and the version of the generator. Returns <code>false</code> if the property
+     * {@link #CONFIG_SKIP_UNCHANGED_ARTEFACTS} is not set.
+     */
+    public boolean isSkipUnchangedArtefacts() {
+        Boolean propertyValueAsBoolean = getConfig().getPropertyValueAsBoolean(CONFIG_SKIP_UNCHANGED_ARTEFACTS);
+        return propertyValueAsBoolean != null && propertyValueAsBoolean;
+    }
+
+    /**
+     * Returns the number of threads that generate artefacts in parallel. Returns <code>1</code>,
+     * that is a sequential build, if the property {@link #CONFIG_PARALLEL_BUILD_THREADS} is not
+     * set and the number of available processors if it is set to <code>0</code> or less.
+     */
+    public int getParallelBuildThreads() {
+        Integer propertyValueAsInteger = getConfig().getPropertyValueAsInteger(CONFIG_PARALLEL_BUILD_THREADS);
+        if (propertyValueAsInteger == null) {
+            return 1;
+        } else if (propertyValueAsInteger <= 0) {
+            return Runtime.getRuntime().availableProcessors();
+        } else {
+            return propertyValueAsInteger;
+        }
+    }
+
     @Override
     public void clean(IProgressMonitor monitor) {
         // default implementation does nothing
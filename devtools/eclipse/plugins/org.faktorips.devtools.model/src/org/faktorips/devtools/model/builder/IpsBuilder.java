@@ -16,8 +16,10 @@ import static org.faktorips.devtools.abstraction.mapping.BuildKindMapping.buildK
 import static org.faktorips.devtools.abstraction.mapping.PathMapping.toEclipsePath;
 
 import java.text.MessageFormat;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -26,6 +28,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IProject;
@@ -55,6 +64,7 @@ import org.faktorips.devtools.model.IIpsElement;
 import org.faktorips.devtools.model.IIpsModel;
 import org.faktorips.devtools.model.IIpsModelExtensions;
 import org.faktorips.devtools.model.dependency.IDependency;
+import org.faktorips.devtools.model.internal.IpsModel;
 import org.faktorips.devtools.model.internal.builder.DependencyResolver;
 import org.faktorips.devtools.model.internal.ipsobject.IpsSrcFile;
 import org.faktorips.devtools.model.internal.ipsproject.IpsBundleManifest;
@@ -96,6 +106,13 @@ public class IpsBuilder {
 
     public static final boolean TRACE_BUILDER_TRACE;
 
+    /**
+     * The minimum number of IPS source files built in parallel if the builder set is configured
+     * for parallel builds. Building fewer files sequentially is faster than creating the builders
+     * of the worker threads.
+     */
+    static final int MIN_PARALLEL_BUILD_FILES = 50;
+
     private final ABuilder builder;
 
     static {
@@ -407,6 +424,27 @@ public class IpsBuilder {
         }
     }
 
+    /**
+     * Returns <code>true</code> if the given number of IPS source files is built by the given
+     * builder set in parallel.
+     */
+    private boolean isParallelBuild(IIpsArtefactBuilderSet builderSet, int numberOfFiles) {
+        return isBuilderEnabled() && numberOfFiles >= MIN_PARALLEL_BUILD_FILES
+                && getParallelBuildThreads(builderSet) > 1;
+    }
+
+    private int getParallelBuildThreads(IIpsArtefactBuilderSet builderSet) {
+        if (builderSet instanceof AbstractBuilderSet) {
+            return ((AbstractBuilderSet)builderSet).getParallelBuildThreads();
+        }
+        return 1;
+    }
+
+    private static boolean isParallelBuildSupported(IIpsArtefactBuilder builder) {
+        return builder instanceof AbstractArtefactBuilder
+                && ((AbstractArtefactBuilder)builder).isParallelBuildSupported();
+    }
+
     private void addIpsStatus(IIpsArtefactBuilder builder, BuildCommand command, MultiStatus buildStatus, Exception e) {
         String text = builder.getName() + ": Error during: " + command + "."; //$NON-NLS-1$ //$NON-NLS-2$
         buildStatus.add(new IpsStatus(text, e));
@@ -475,19 +513,24 @@ public class IpsBuilder {
             monitor.worked(allIpsSrcFiles.size());
             removeEmptyFolders();
 
-            for (IIpsSrcFile ipsSrcFile : allIpsSrcFiles) {
-                if (monitor.isCanceled()) {
-                    break;
-                }
-                try {
-                    monitor.subTask(Messages.IpsBuilder_building + ipsSrcFile.getName());
-                    buildIpsSrcFile(ipsArtefactBuilderSet, getIpsProject(), ipsSrcFile, buildStatus, monitor);
-                    monitor.worked(1);
-                    // CSOFF: IllegalCatch
-                } catch (Exception e) {
-                    buildStatus.add(new IpsStatus(e));
+            if (isParallelBuild(ipsArtefactBuilderSet, allIpsSrcFiles.size())) {
+                new ParallelBuild(ipsArtefactBuilderSet, getIpsProject(), ABuildKind.FULL, false)
+                        .build(allIpsSrcFiles, buildStatus, monitor);
+            } else {
+                for (IIpsSrcFile ipsSrcFile : allIpsSrcFiles) {
+                    if (monitor.isCanceled()) {
+                        break;
+                    }
+                    try {
+                        monitor.subTask(Messages.IpsBuilder_building + ipsSrcFile.getName());
+                        buildIpsSrcFile(ipsArtefactBuilderSet, getIpsProject(), ipsSrcFile, buildStatus, monitor);
+                        monitor.worked(1);
+                        // CSOFF: IllegalCatch
+                    } catch (Exception e) {
+                        buildStatus.add(new IpsStatus(e));
+                    }
+                    // CSON: IllegalCatch
                 }
-                // CSON: IllegalCatch
             }
         } catch (IpsException e) {
             buildStatus.add(new IpsStatus(e));
@@ -660,6 +703,22 @@ public class IpsBuilder {
             IIpsArtefactBuilderSet projectIpsArtefactBuilderSet,
             Set<QualifiedNameType> alreadyBuild,
             MultiStatus currentBuildStatus) {
+        if (isParallelBuild(projectIpsArtefactBuilderSet, dependencySet.size())) {
+            List<IIpsSrcFile> ipsSrcFiles = new ArrayList<>(dependencySet.size());
+            for (IDependency dependency : dependencySet) {
+                QualifiedNameType buildCandidateId = dependency.getSource();
+                if (!alreadyBuild.add(buildCandidateId)) {
+                    continue;
+                }
+                IIpsObject ipsObject = ipsProject.findIpsObject(buildCandidateId);
+                if (ipsObject != null) {
+                    ipsSrcFiles.add(ipsObject.getIpsSrcFile());
+                }
+            }
+            new ParallelBuild(projectIpsArtefactBuilderSet, ipsProject, ABuildKind.INCREMENTAL, true)
+                    .build(ipsSrcFiles, currentBuildStatus, monitor);
+            return;
+        }
         for (IDependency dependency : dependencySet) {
             if (monitor.isCanceled()) {
                 break;
@@ -685,6 +744,11 @@ public class IpsBuilder {
             MultiStatus buildStatus,
             IProgressMonitor monitor,
             IncBuildVisitor visitor) {
+        if (isParallelBuild(ipsArtefactBuilderSet, visitor.changedAndAddedIpsSrcFiles.size())) {
+            new ParallelBuild(ipsArtefactBuilderSet, getIpsProject(), ABuildKind.INCREMENTAL, true)
+                    .build(visitor.changedAndAddedIpsSrcFiles, buildStatus, monitor);
+            return;
+        }
         for (IIpsSrcFile iIpsSrcFile : visitor.changedAndAddedIpsSrcFiles) {
             if (monitor.isCanceled()) {
                 break;
@@ -786,27 +850,11 @@ public class IpsBuilder {
             IProgressMonitor monitor) {
 
         if (!file.isContentParsable()) {
-            // in case of error clear the markers
-            file.getCorrespondingResource().deleteMarkers(IpsBuilder.PROBLEM_MARKER, false,
-                    AResourceTreeTraversalDepth.RESOURCE_ONLY);
-
-            for (String xsdError : file.getXsdValidationErrors()) {
-                AMarker marker = file.getCorrespondingResource().createMarker(IpsBuilder.PROBLEM_MARKER);
-                marker.setAttribute(IMarker.MESSAGE, xsdError);
-                marker.setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_ERROR);
-            }
-
-            AMarker marker = file.getCorrespondingResource().createMarker(IpsBuilder.PROBLEM_MARKER);
-            marker.setAttribute(IMarker.MESSAGE, Messages.IpsBuilder_ipsSrcFileNotParsable);
-            marker.setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_ERROR);
+            createMarkersForUnparsableFile(file);
             return null;
         }
 
-        for (String xsdWarning : file.getXsdValidationWarnings()) {
-            AMarker marker = file.getCorrespondingResource().createMarker(IpsBuilder.PROBLEM_MARKER);
-            marker.setAttribute(IMarker.MESSAGE, xsdWarning);
-            marker.setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_WARNING);
-        }
+        createMarkersForXsdWarnings(file);
 
         IIpsObject ipsObject = file.getIpsObject();
         MultiStatus newStatus = createInitialMultiStatus();
@@ -819,6 +867,30 @@ public class IpsBuilder {
         return ipsObject;
     }
 
+    private void createMarkersForUnparsableFile(IIpsSrcFile file) {
+        // in case of error clear the markers
+        file.getCorrespondingResource().deleteMarkers(IpsBuilder.PROBLEM_MARKER, false,
+                AResourceTreeTraversalDepth.RESOURCE_ONLY);
+
+        for (String xsdError : file.getXsdValidationErrors()) {
+            AMarker marker = file.getCorrespondingResource().createMarker(IpsBuilder.PROBLEM_MARKER);
+            marker.setAttribute(IMarker.MESSAGE, xsdError);
+            marker.setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_ERROR);
+        }
+
+        AMarker marker = file.getCorrespondingResource().createMarker(IpsBuilder.PROBLEM_MARKER);
+        marker.setAttribute(IMarker.MESSAGE, Messages.IpsBuilder_ipsSrcFileNotParsable);
+        marker.setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_ERROR);
+    }
+
+    private void createMarkersForXsdWarnings(IIpsSrcFile file) {
+        for (String xsdWarning : file.getXsdValidationWarnings()) {
+            AMarker marker = file.getCorrespondingResource().createMarker(IpsBuilder.PROBLEM_MARKER);
+            marker.setAttribute(IMarker.MESSAGE, xsdWarning);
+            marker.setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_WARNING);
+        }
+    }
+
     private void fillMultiStatusWithMessageList(MultiStatus status, MessageList list) {
         for (int i = 0; i < list.size(); i++) {
             Message msg = list.getMessage(i);
@@ -830,6 +902,231 @@ public class IpsBuilder {
         getDependencyGraph(ipsSrcFile.getIpsProject()).update(ipsSrcFile.getQualifiedNameType());
     }
 
+    /**
+     * A build of IPS source files that runs the artefact builders supporting parallel builds on a
+     * pool of worker threads. Every worker thread takes the builders of its own builder set
+     * instance, so the state of the builders and their generator contexts is confined to one
+     * thread at a time.
+     * <p>
+     * The build thread holds the workspace lock, so the workers do not modify the workspace. The
+     * build thread takes the results in the order of the IPS source files and applies the deferred
+     * workspace modifications, runs the builders not supporting parallel builds, validates the IPS
+     * objects and updates the markers and the dependency graph just like a sequential build.
+     */
+    private class ParallelBuild {
+
+        private final IIpsArtefactBuilderSet builderSet;
+
+        private final IIpsProject ipsProject;
+
+        private final ABuildKind buildKind;
+
+        private final boolean updateDependencyGraph;
+
+        private final int threads;
+
+        public ParallelBuild(IIpsArtefactBuilderSet builderSet, IIpsProject ipsProject, ABuildKind buildKind,
+                boolean updateDependencyGraph) {
+            this.builderSet = builderSet;
+            this.ipsProject = ipsProject;
+            this.buildKind = buildKind;
+            this.updateDependencyGraph = updateDependencyGraph;
+            threads = getParallelBuildThreads(builderSet);
+        }
+
+        public void build(List<IIpsSrcFile> ipsSrcFiles, MultiStatus buildStatus, IProgressMonitor monitor) {
+            if (TRACE_BUILDER_TRACE) {
+                System.out.println("Parallel build of " + ipsSrcFiles.size() + " files with " + threads //$NON-NLS-1$ //$NON-NLS-2$
+                        + " threads started."); //$NON-NLS-1$
+            }
+            BlockingQueue<IIpsArtefactBuilderSet> workerBuilderSets = new ArrayBlockingQueue<>(threads);
+            ExecutorService executor = Executors.newFixedThreadPool(threads, this::newWorkerThread);
+            try {
+                for (int i = 0; i < threads; i++) {
+                    workerBuilderSets.add(createWorkerBuilderSet(buildStatus));
+                }
+                Deque<Future<WorkerResult>> pendingResults = new ArrayDeque<>();
+                Iterator<IIpsSrcFile> it = ipsSrcFiles.iterator();
+                while (it.hasNext() || !pendingResults.isEmpty()) {
+                    while (it.hasNext() && pendingResults.size() < 4 * threads) {
+                        IIpsSrcFile ipsSrcFile = it.next();
+                        pendingResults
+                                .add(executor.submit(() -> buildOnWorker(ipsSrcFile, workerBuilderSets, monitor)));
+                    }
+                    if (monitor.isCanceled()) {
+                        break;
+                    }
+                    try {
+                        WorkerResult result = pendingResults.poll().get();
+                        monitor.subTask(Messages.IpsBuilder_building + result.ipsSrcFile.getName());
+                        try {
+                            completeBuild(result, buildStatus, monitor);
+                            // CSOFF: IllegalCatch
+                        } catch (Exception e) {
+                            buildStatus.add(new IpsStatus(e));
+                        }
+                        // CSON: IllegalCatch
+                    } catch (ExecutionException e) {
+                        buildStatus.add(new IpsStatus(e.getCause()));
+                    }
+                    monitor.worked(1);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new OperationCanceledException();
+            } finally {
+                executor.shutdownNow();
+                awaitTermination(executor);
+                for (IIpsArtefactBuilderSet workerBuilderSet : workerBuilderSets) {
+                    finishWorkerBuilderSet(workerBuilderSet, buildStatus);
+                }
+            }
+        }
+
+        private Thread newWorkerThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "Faktor-IPS build worker for " + ipsProject.getName()); //$NON-NLS-1$
+            thread.setDaemon(true);
+            return thread;
+        }
+
+        private void awaitTermination(ExecutorService executor) {
+            try {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private IIpsArtefactBuilderSet createWorkerBuilderSet(MultiStatus buildStatus) {
+            IIpsArtefactBuilderSet workerBuilderSet = IpsModel.get().createIpsArtefactBuilderSetInstance(ipsProject);
+            if (workerBuilderSet == null) {
+                throw new IpsException(new IpsStatus("Cannot create the builders of the parallel build for " //$NON-NLS-1$
+                        + ipsProject.getName()));
+            }
+            beforeBuildForBuilderSet(workerBuilderSet, buildStatus, buildKind);
+            BuildCommand command = new BeforeBuildProcessCommand(buildKind, ipsProject);
+            for (IIpsArtefactBuilder builder : getParallelBuilders(workerBuilderSet)) {
+                ((AbstractArtefactBuilder)builder).setDeferWorkspaceModifications(true);
+                try {
+                    command.build(builder, buildStatus);
+                    // CSOFF: IllegalCatch
+                } catch (Exception e) {
+                    addIpsStatus(builder, command, buildStatus, e);
+                }
+                // CSON: IllegalCatch
+            }
+            return workerBuilderSet;
+        }
+
+        private void finishWorkerBuilderSet(IIpsArtefactBuilderSet workerBuilderSet, MultiStatus buildStatus) {
+            BuildCommand command = new AfterBuildProcessCommand(buildKind, ipsProject);
+            for (IIpsArtefactBuilder builder : getParallelBuilders(workerBuilderSet)) {
+                try {
+                    command.build(builder, buildStatus);
+                    // CSOFF: IllegalCatch
+                } catch (Exception e) {
+                    addIpsStatus(builder, command, buildStatus, e);
+                }
+                // CSON: IllegalCatch
+            }
+            afterBuildForBuilderSet(workerBuilderSet, buildStatus, buildKind);
+        }
+
+        private List<IIpsArtefactBuilder> getParallelBuilders(IIpsArtefactBuilderSet workerBuilderSet) {
+            List<IIpsArtefactBuilder> builders = new ArrayList<>();
+            for (IIpsArtefactBuilder builder : workerBuilderSet.getArtefactBuilders()) {
+                if (isParallelBuildSupported(builder)) {
+                    builders.add(builder);
+                }
+            }
+            return builders;
+        }
+
+        /**
+         * Builds the given file with the parallel builders of one of the worker builder sets. Runs
+         * on a worker thread. Skips the remaining builders if the build has been canceled.
+         */
+        private WorkerResult buildOnWorker(IIpsSrcFile ipsSrcFile,
+                BlockingQueue<IIpsArtefactBuilderSet> workerBuilderSets,
+                IProgressMonitor monitor) throws InterruptedException {
+            WorkerResult result = new WorkerResult(ipsSrcFile);
+            if (monitor.isCanceled() || !ipsSrcFile.isContentParsable()) {
+                return result;
+            }
+            IIpsArtefactBuilderSet workerBuilderSet = workerBuilderSets.take();
+            try {
+                BuildCommand command = new BuildArtefactBuildCommand(ipsSrcFile);
+                for (IIpsArtefactBuilder builder : getParallelBuilders(workerBuilderSet)) {
+                    if (monitor.isCanceled()) {
+                        break;
+                    }
+                    try {
+                        command.build(builder, result.status);
+                        // CSOFF: IllegalCatch
+                    } catch (Exception e) {
+                        addIpsStatus(builder, command, result.status, e);
+                    }
+                    // CSON: IllegalCatch
+                    result.workspaceModifications
+                            .addAll(((AbstractArtefactBuilder)builder).takeDeferredWorkspaceModifications());
+                }
+            } finally {
+                workerBuilderSets.add(workerBuilderSet);
+            }
+            return result;
+        }
+
+        /**
+         * Completes the build of a file built on a worker thread. Runs on the build thread.
+         */
+        private void completeBuild(WorkerResult result, MultiStatus buildStatus, IProgressMonitor monitor) {
+            IIpsSrcFile ipsSrcFile = result.ipsSrcFile;
+            if (!ipsSrcFile.isContentParsable()) {
+                createMarkersForUnparsableFile(ipsSrcFile);
+            } else {
+                createMarkersForXsdWarnings(ipsSrcFile);
+                IIpsObject ipsObject = ipsSrcFile.getIpsObject();
+                MultiStatus newStatus = result.status;
+                for (Runnable workspaceModification : result.workspaceModifications) {
+                    try {
+                        workspaceModification.run();
+                        // CSOFF: IllegalCatch
+                    } catch (Exception e) {
+                        newStatus.add(new IpsStatus("Error while writing the artefacts of " + ipsSrcFile, e)); //$NON-NLS-1$
+                    }
+                    // CSON: IllegalCatch
+                }
+                applyBuildCommand(builderSet, newStatus, new BuildArtefactBuildCommand(ipsSrcFile, true), monitor);
+                if (!newStatus.isOK()) {
+                    fillMultiStatusWithMessageList(newStatus, ipsObject.validate(ipsProject));
+                    buildStatus.add(newStatus);
+                }
+                updateMarkers(buildStatus, ipsObject);
+            }
+            if (updateDependencyGraph) {
+                updateDependencyGraph(ipsSrcFile);
+            }
+        }
+
+    }
+
+    /**
+     * The result of building an IPS source file on a worker thread of a {@link ParallelBuild}.
+     */
+    private class WorkerResult {
+
+        private final IIpsSrcFile ipsSrcFile;
+
+        private final MultiStatus status = createInitialMultiStatus();
+
+        private final List<Runnable> workspaceModifications = new ArrayList<>();
+
+        public WorkerResult(IIpsSrcFile ipsSrcFile) {
+            this.ipsSrcFile = ipsSrcFile;
+        }
+
+    }
+
     /**
      * ResourceDeltaVisitor for the incremental build.
      */
@@ -974,12 +1271,27 @@ public class IpsBuilder {
 
         private IIpsSrcFile ipsSrcFile;
 
+        private boolean skipParallelBuilders;
+
         public BuildArtefactBuildCommand(IIpsSrcFile ipsSrcFile) {
+            this(ipsSrcFile, false);
+        }
+
+        /**
+         * @param skipParallelBuilders <code>true</code> to build with the builders not supporting
+         *            parallel builds only, as the file is built by the other builders on a worker
+         *            thread
+         */
+        public BuildArtefactBuildCommand(IIpsSrcFile ipsSrcFile, boolean skipParallelBuilders) {
             this.ipsSrcFile = ipsSrcFile;
+            this.skipParallelBuilders = skipParallelBuilders;
         }
 
         @Override
         public void build(IIpsArtefactBuilder builder, MultiStatus status) {
+            if (skipParallelBuilders && isParallelBuildSupported(builder)) {
+                return;
+            }
             if (builder.isBuilderFor(ipsSrcFile)) {
                 long begin = 0;
                 try {
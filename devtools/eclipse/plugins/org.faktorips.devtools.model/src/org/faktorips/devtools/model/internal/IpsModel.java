@@ -148,6 +148,15 @@ public class IpsModel extends IpsElement implements IIpsModel {
      */
     private static final int INVALID_MOD_STAMP = -42;
 
+    /**
+     * The system property defining the maximum number of completely loaded IPS source file
+     * contents.
+     * 
+     * @see #setMaxLoadedIpsSrcFileContents(int)
+     */
+    public static final String MAX_LOADED_CONTENTS_PROPERTY = //
+            "org.faktorips.devtools.model.maxLoadedIpsSrcFileContents"; //$NON-NLS-1$
+
     private static IpsModel theInstance = create();
 
     /** set of model change listeners that are notified about model changes */
@@ -163,7 +172,7 @@ public class IpsModel extends IpsElement implements IIpsModel {
      * a map that contains per thread if changes should be broadcasted to the registered listeners
      * or squeezed.
      */
-    private Map<Thread, Integer> listenerNotificationLevelMap = new HashMap<>();
+    private Map<Thread, Integer> listenerNotificationLevelMap = new ConcurrentHashMap<>();
 
     /**
      * A map containing the project for every name.
@@ -174,13 +183,20 @@ public class IpsModel extends IpsElement implements IIpsModel {
             .caching(this::createIpsArtefactBuilderSetInfosIfNecessary);
 
     /** map containing all changes in time naming conventions by id. */
-    private Map<String, IChangesOverTimeNamingConvention> changesOverTimeNamingConventionMap = null;
+    private volatile Map<String, IChangesOverTimeNamingConvention> changesOverTimeNamingConventionMap = null;
 
-    /** map containing IpsSrcFileContents as values and IpsSrcFiles as keys. */
-    private HashMap<IIpsSrcFile, IpsSrcFileContent> ipsObjectsMap = new HashMap<>(1000);
+    /**
+     * The cache containing IpsSrcFileContents as values and IpsSrcFiles as keys. The maximum number
+     * of completely loaded contents is read from the system property
+     * {@value #MAX_LOADED_CONTENTS_PROPERTY}, by default it is not bounded. The validation results
+     * of released contents are removed, as they would keep the IPS objects reachable.
+     */
+    private final IpsSrcFileContentCache ipsSrcFileContentCache = new IpsSrcFileContentCache(
+            Integer.getInteger(MAX_LOADED_CONTENTS_PROPERTY, 0), file -> validationResultCache.removeResults(file));
 
     /** validation result cache */
-    private ValidationResultCache validationResultCache = new ValidationResultCache();
+    private ValidationResultCache validationResultCache = new ValidationResultCache(
+            this::getCachedDependencyGraphs);
 
     private IpsObjectType[] ipsObjectTypes;
 
@@ -221,7 +237,7 @@ public class IpsModel extends IpsElement implements IIpsModel {
     }
 
     protected Set<IIpsSrcFile> getIpsSrcFilesInternal() {
-        return ipsObjectsMap.keySet();
+        return ipsSrcFileContentCache.getFiles();
     }
 
     /**
@@ -650,8 +666,8 @@ public class IpsModel extends IpsElement implements IIpsModel {
         Integer level = listenerNotificationLevelMap.get(Thread.currentThread());
         if (level != null && level.intValue() > 0) {
             level = Integer.valueOf(level.intValue() - 1);
+            listenerNotificationLevelMap.put(Thread.currentThread(), level);
         }
-        listenerNotificationLevelMap.put(Thread.currentThread(), level);
         if (TRACE_MODEL_CHANGE_LISTENERS) {
             System.out.println("IpsModel.restartBroadcastingChangesMadeByCurrentThread(): Thread=" //$NON-NLS-1$
                     + Thread.currentThread() + ", new level=" + level); //$NON-NLS-1$
@@ -825,7 +841,7 @@ public class IpsModel extends IpsElement implements IIpsModel {
      */
     private void initDatatypesDefinedInProjectProperties(IIpsProject project) {
         IpsProjectData ipsProjectData = getIpsProjectData(project);
-        LinkedHashMap<String, Datatype> projectTypes = ipsProjectData.getProjectDatatypesMap();
+        LinkedHashMap<String, Datatype> projectTypes = new LinkedHashMap<>();
 
         IIpsProjectProperties props = getIpsProjectProperties(project);
         String[] datatypeIds = props.getPredefinedDatatypesUsed();
@@ -841,6 +857,7 @@ public class IpsModel extends IpsElement implements IIpsModel {
         for (Datatype datatype : definedDatatypes) {
             projectTypes.put(datatype.getQualifiedName(), datatype);
         }
+        ipsProjectData.setProjectDatatypesMap(projectTypes);
     }
 
     /**
@@ -884,6 +901,25 @@ public class IpsModel extends IpsElement implements IIpsModel {
         return builderSet;
     }
 
+    /**
+     * Creates and initializes a new instance of the IIpsArtefactBuilderSet that is set for the
+     * provided IIpsProject. In contrast to {@link #getIpsArtefactBuilderSet(IIpsProject, boolean)}
+     * the instance is not registered for the project, so its builders are not shared with anyone
+     * else. This is used by the parallel build, which needs builders of its own for each worker
+     * thread.
+     *
+     * @return the new builder set or <code>null</code> if it cannot be created or initialized
+     */
+    public IIpsArtefactBuilderSet createIpsArtefactBuilderSetInstance(IIpsProject project) {
+        ArgumentCheck.notNull(project, this);
+        IIpsProjectProperties data = getIpsProjectProperties(project);
+        IIpsArtefactBuilderSet builderSet = createIpsArtefactBuilderSet(data.getBuilderSetId(), project);
+        if (builderSet == null || !initBuilderSet(builderSet, project, data)) {
+            return null;
+        }
+        return builderSet;
+    }
+
     /**
      * @return true if the initialization was successful
      */
@@ -1063,8 +1099,10 @@ public class IpsModel extends IpsElement implements IIpsModel {
      * @param srcFile The {@link IIpsSrcFile} you want to release from the cache.
      */
     protected void releaseInCache(IIpsSrcFile srcFile) {
-        IpsSrcFileContent contents = ipsObjectsMap.get(srcFile);
-        contents.setModificationStamp(INVALID_MOD_STAMP);
+        IpsSrcFileContent contents = ipsSrcFileContentCache.get(srcFile);
+        if (contents != null) {
+            contents.setModificationStamp(INVALID_MOD_STAMP);
+        }
     }
 
     /**
@@ -1167,18 +1205,19 @@ public class IpsModel extends IpsElement implements IIpsModel {
 
     private void initChangesOverTimeNamingConventionIfNecessary() {
         if (changesOverTimeNamingConventionMap == null) {
-            changesOverTimeNamingConventionMap = new HashMap<>();
+            Map<String, IChangesOverTimeNamingConvention> conventions = new HashMap<>();
             IChangesOverTimeNamingConvention fips = new ChangesOverTimeNamingConvention(
                     IChangesOverTimeNamingConvention.FAKTOR_IPS);
-            changesOverTimeNamingConventionMap.put(fips.getId(), fips);
+            conventions.put(fips.getId(), fips);
 
             IChangesOverTimeNamingConvention vaa = new ChangesOverTimeNamingConvention(
                     IChangesOverTimeNamingConvention.VAA);
-            changesOverTimeNamingConventionMap.put(vaa.getId(), vaa);
+            conventions.put(vaa.getId(), vaa);
 
             IChangesOverTimeNamingConvention pm = new ChangesOverTimeNamingConvention(
                     IChangesOverTimeNamingConvention.PM);
-            changesOverTimeNamingConventionMap.put(pm.getId(), pm);
+            conventions.put(pm.getId(), pm);
+            changesOverTimeNamingConventionMap = conventions;
         }
     }
 
@@ -1227,11 +1266,13 @@ public class IpsModel extends IpsElement implements IIpsModel {
     }
 
     /**
-     * Removes the content for the given IpsSrcFile.
+     * Removes the content for the given IpsSrcFile. This is done when the file is created or
+     * deleted, so the validation results depending on the file's existence are removed, too.
      */
-    public synchronized void removeIpsSrcFileContent(IIpsSrcFile file) {
+    public void removeIpsSrcFileContent(IIpsSrcFile file) {
         if (file != null) {
-            ipsObjectsMap.remove(file);
+            ipsSrcFileContentCache.remove(file);
+            validationResultCache.removeStaleDataOfAddedOrRemovedFile(file);
         }
     }
 
@@ -1239,7 +1280,45 @@ public class IpsModel extends IpsElement implements IIpsModel {
      * Returns true if the IIpsSrcFileContents of the provided IIpsSrcFile has been cached.
      */
     public boolean isCached(IIpsSrcFile file) {
-        return ipsObjectsMap.get(file) != null;
+        return ipsSrcFileContentCache.get(file) != null;
+    }
+
+    /**
+     * Returns the maximum number of completely loaded IPS source file contents. <code>0</code>
+     * means the number is not bounded.
+     */
+    public int getMaxLoadedIpsSrcFileContents() {
+        return ipsSrcFileContentCache.getMaxLoadedContents();
+    }
+
+    /**
+     * Sets the maximum number of completely loaded IPS source file contents. If more contents are
+     * loaded, the least recently used contents that are neither modified nor
+     * {@link #pinIpsSrcFileContent(IIpsSrcFile) pinned} are released: the cache only keeps a weak
+     * reference to them. While their IPS objects are still in use, the next access returns the same
+     * IPS object, otherwise a new one is read from the file. If the maximum is <code>0</code> or
+     * less, the number is not bounded.
+     */
+    public void setMaxLoadedIpsSrcFileContents(int maxLoadedContents) {
+        ipsSrcFileContentCache.setMaxLoadedContents(maxLoadedContents);
+    }
+
+    /**
+     * Prevents the content of the given file from being released, for example while the file is
+     * open in an editor. Every call must be followed by a call of
+     * {@link #unpinIpsSrcFileContent(IIpsSrcFile)}.
+     */
+    public void pinIpsSrcFileContent(IIpsSrcFile file) {
+        ipsSrcFileContentCache.pin(file);
+    }
+
+    /**
+     * Allows the content of the given file to be released again.
+     * 
+     * @see #pinIpsSrcFileContent(IIpsSrcFile)
+     */
+    public void unpinIpsSrcFileContent(IIpsSrcFile file) {
+        ipsSrcFileContentCache.unpin(file);
     }
 
     /**
@@ -1253,41 +1332,54 @@ public class IpsModel extends IpsElement implements IIpsModel {
      * @param loadCompleteContent <code>true</code> if the completely file should be read,
      *            <code>false</code> if only the properties will be read
      */
-    public synchronized IpsSrcFileContent getIpsSrcFileContent(IIpsSrcFile file, boolean loadCompleteContent) {
+    public IpsSrcFileContent getIpsSrcFileContent(IIpsSrcFile file, boolean loadCompleteContent) {
         if (file == null) {
             return null;
         }
 
-        IpsSrcFileContent content = ipsObjectsMap.get(file);
+        IpsSrcFileContent content = ipsSrcFileContentCache.get(file);
+        boolean newContent = false;
         if (content == null) {
-            if (file.exists()) {
-                // new content
-                content = readContentFromFile(file, loadCompleteContent);
-                cache(file, content);
-                return content;
-            } else {
+            if (!file.exists()) {
                 return null;
             }
+            IpsSrcFileContent createdContent = new IpsSrcFileContent(
+                    (IpsObject)file.getIpsObjectType().newObject(file));
+            content = ipsSrcFileContentCache.putIfAbsent(file, createdContent);
+            newContent = content == createdContent;
+        }
+
+        // the content's monitor only guards reading this file, other files are read in parallel
+        synchronized (content) {
+            loadContent(file, content, newContent, loadCompleteContent);
+        }
+        if (loadCompleteContent) {
+            ipsSrcFileContentCache.contentUsed(content);
         }
+        return content;
+    }
 
+    private void loadContent(IIpsSrcFile file,
+            IpsSrcFileContent content,
+            boolean newContent,
+            boolean loadCompleteContent) {
         AResource enclResource = file.getEnclosingResource();
         if (enclResource == null) {
-            return content;
+            if (newContent) {
+                readContentFromFile(content, loadCompleteContent);
+            }
+            return;
         }
 
         long resourceModStamp = enclResource.getModificationStamp();
         // existing, synchronized content
-        if (content.getModificationStamp() == resourceModStamp) {
-            return checkSynchronizedContent(content, loadCompleteContent);
+        if (!newContent && content.getModificationStamp() == resourceModStamp) {
+            checkSynchronizedContent(content, loadCompleteContent);
+            return;
         }
 
-        // existing, but unsynchronized content
-        if (loadCompleteContent) {
-            content.initContentFromFile();
-        } else {
-            content.initRootPropertiesFromFile();
-        }
-        return content;
+        // new or existing, but unsynchronized content
+        readContentFromFile(content, loadCompleteContent);
     }
 
     /**
@@ -1295,20 +1387,17 @@ public class IpsModel extends IpsElement implements IIpsModel {
      */
     @Deprecated
     public void cache(IIpsSrcFile file, IpsSrcFileContent content) {
-        ipsObjectsMap.put(file, content);
+        ipsSrcFileContentCache.put(file, content);
     }
 
-    private IpsSrcFileContent readContentFromFile(IIpsSrcFile file, boolean loadCompleteContent) {
-        IpsSrcFileContent content = new IpsSrcFileContent((IpsObject)file.getIpsObjectType().newObject(file));
-
+    private void readContentFromFile(IpsSrcFileContent content, boolean loadCompleteContent) {
         if (loadCompleteContent) {
-            logTraceMessage("New content created", file); //$NON-NLS-1$
+            logTraceMessage("Content read from file", content.getIpsSrcFile()); //$NON-NLS-1$
             content.initContentFromFile();
         } else {
-            logTraceMessage("New properties read", file); //$NON-NLS-1$
+            logTraceMessage("Properties read from file", content.getIpsSrcFile()); //$NON-NLS-1$
             content.initRootPropertiesFromFile();
         }
-        return content;
     }
 
     private IpsSrcFileContent checkSynchronizedContent(IpsSrcFileContent content, boolean loadCompleteContent) {
@@ -1335,7 +1424,7 @@ public class IpsModel extends IpsElement implements IIpsModel {
     }
 
     @Override
-    public synchronized IpsSrcFileContent getIpsSrcFileContent(IIpsSrcFile file) {
+    public IpsSrcFileContent getIpsSrcFileContent(IIpsSrcFile file) {
         return getIpsSrcFileContent(file, true);
     }
 
@@ -1785,23 +1874,17 @@ public class IpsModel extends IpsElement implements IIpsModel {
             for (IIpsSrcFile srcFile : copyKeys) {
                 if (!srcFile.isDirty() && srcFile.getIpsProject().equals(ipsProject)) {
                     releaseInCache(srcFile);
-                    getValidationResultCache().removeStaleData(srcFile);
                 }
             }
+            getValidationResultCache().clear();
         }
 
         /**
-         * Forces to reload the the cached IPS source file contents of a single project or the whole
-         * workspace. This is done by setting {@value #INVALID_MOD_STAMP} as modification stamp in
-         * each content object.
+         * Clears the validation result cache as the results of the files of all projects might
+         * depend on the given project.
          */
         private synchronized void cleanValidationCache(IIpsProject ipsProject) {
-            HashSet<IIpsSrcFile> copyKeys = new HashSet<>(getIpsSrcFilesInternal());
-            for (IIpsSrcFile srcFile : copyKeys) {
-                if (srcFile.getIpsProject().equals(ipsProject)) {
-                    getValidationResultCache().removeStaleData(srcFile);
-                }
-            }
+            getValidationResultCache().clear();
         }
 
         private static final class PlainJavaResourceDelta implements IResourceDelta {
@@ -10,11 +10,11 @@
 
 package org.faktorips.devtools.model.internal;
 
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.faktorips.datatype.Datatype;
 import org.faktorips.devtools.model.IClassLoaderProvider;
@@ -41,7 +41,7 @@ public class IpsProjectData {
 
     private final IpsObjectPathContainerFactory containerFactory;
 
-    private final Map<ContainerTypeAndPath, IIpsObjectPathContainer> containers = new HashMap<>();
+    private final Map<ContainerTypeAndPath, IIpsObjectPathContainer> containers = new ConcurrentHashMap<>();
 
     private IIpsArtefactBuilderSet ipsArtefactBuilderSet;
 
@@ -56,9 +56,10 @@ public class IpsProjectData {
     private IpsProjectProperties projectProperties;
 
     /**
-     * a map containing a set of datatypes.
+     * a map containing a set of datatypes. Replaced as a whole once it is initialized, so it may be
+     * read by several threads.
      */
-    private final LinkedHashMap<String, Datatype> projectDatatypesMap = new LinkedHashMap<>();
+    private volatile LinkedHashMap<String, Datatype> projectDatatypesMap = new LinkedHashMap<>();
 
     private IVersionProvider<?> versionFormat;
 
@@ -136,6 +137,10 @@ public class IpsProjectData {
         return projectDatatypesMap;
     }
 
+    public void setProjectDatatypesMap(LinkedHashMap<String, Datatype> projectDatatypesMap) {
+        this.projectDatatypesMap = projectDatatypesMap;
+    }
+
     public IVersionProvider<?> getVersionProvider() {
         return versionFormat;
     }
@@ -0,0 +1,236 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.devtools.model.internal;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.faktorips.devtools.model.internal.ipsobject.IpsSrcFileContent;
+import org.faktorips.devtools.model.ipsobject.IIpsSrcFile;
+
+/**
+ * The contents of the IPS source files read by the {@link IpsModel}. The contents are held in a
+ * concurrent map, so looking up a content never blocks. The {@link IpsModel} reads a content while
+ * holding the content's monitor, so several files can be read in parallel.
+ * <p>
+ * The number of completely loaded contents can be bounded. If more contents are loaded, the least
+ * recently used ones are released: the cache only keeps a weak reference to them. A released
+ * content stays reachable through its IPS object, so as long as a client still uses the IPS object
+ * or one of its parts, the next access returns the same content again and changes made to the
+ * object are not lost. Otherwise the content is garbage collected and the next access reads a new
+ * IPS object from the file. Modified contents and pinned contents, for example of files open in an
+ * editor, are never released.
+ */
+public class IpsSrcFileContentCache {
+
+    private final Map<IIpsSrcFile, IpsSrcFileContent> contents = new ConcurrentHashMap<>(1000);
+
+    private final Map<IIpsSrcFile, Integer> pinCounts = new ConcurrentHashMap<>();
+
+    /**
+     * The completely loaded contents, the least recently used first. Only used if the number of
+     * loaded contents is bounded and guarded by itself.
+     */
+    private final LinkedHashMap<IIpsSrcFile, IpsSrcFileContent> loadedContents = new LinkedHashMap<>(16, 0.75f,
+            true);
+
+    /** The released contents that may still be in use. */
+    private final Map<IIpsSrcFile, ReleasedContent> releasedContents = new ConcurrentHashMap<>();
+
+    private final ReferenceQueue<IpsSrcFileContent> collectedContents = new ReferenceQueue<>();
+
+    private final Consumer<IIpsSrcFile> releaseListener;
+
+    private volatile int maxLoadedContents;
+
+    /**
+     * Creates a cache with the given maximum number of completely loaded contents. If the maximum
+     * is <code>0</code> or less, the number is not bounded.
+     */
+    public IpsSrcFileContentCache(int maxLoadedContents) {
+        this(maxLoadedContents, $ -> {
+            // nothing to do
+        });
+    }
+
+    /**
+     * Creates a cache with the given maximum number of completely loaded contents. The given
+     * listener is called with the file of every released content, so other caches can drop data
+     * that would keep the content's IPS object reachable.
+     */
+    public IpsSrcFileContentCache(int maxLoadedContents, Consumer<IIpsSrcFile> releaseListener) {
+        this.maxLoadedContents = maxLoadedContents;
+        this.releaseListener = releaseListener;
+    }
+
+    /**
+     * Returns the content of the given file. A released content that is still in use is cached
+     * again.
+     */
+    public IpsSrcFileContent get(IIpsSrcFile file) {
+        IpsSrcFileContent content = contents.get(file);
+        if (content != null || releasedContents.isEmpty()) {
+            return content;
+        }
+        // atomic for the file, so no new content is created for it while restoring the released one
+        return contents.computeIfAbsent(file, f -> {
+            ReleasedContent releasedContent = releasedContents.remove(f);
+            return releasedContent == null ? null : releasedContent.get();
+        });
+    }
+
+    /**
+     * Caches the given content if there is no content for the given file yet.
+     * 
+     * @return the content that is cached for the file after this call: the given content or the
+     *             one that was cached before
+     */
+    public IpsSrcFileContent putIfAbsent(IIpsSrcFile file, IpsSrcFileContent content) {
+        IpsSrcFileContent cachedContent = contents.putIfAbsent(file, content);
+        return cachedContent == null ? content : cachedContent;
+    }
+
+    public void put(IIpsSrcFile file, IpsSrcFileContent content) {
+        contents.put(file, content);
+    }
+
+    public void remove(IIpsSrcFile file) {
+        contents.remove(file);
+        releasedContents.remove(file);
+        synchronized (loadedContents) {
+            loadedContents.remove(file);
+        }
+    }
+
+    /**
+     * Returns a live view of the files whose contents are cached, without the released ones.
+     */
+    public Set<IIpsSrcFile> getFiles() {
+        return contents.keySet();
+    }
+
+    public int getMaxLoadedContents() {
+        return maxLoadedContents;
+    }
+
+    /**
+     * Sets the maximum number of completely loaded contents. If the maximum is <code>0</code> or
+     * less, the number is not bounded.
+     */
+    public void setMaxLoadedContents(int maxLoadedContents) {
+        this.maxLoadedContents = maxLoadedContents;
+        if (maxLoadedContents <= 0) {
+            synchronized (loadedContents) {
+                loadedContents.clear();
+            }
+        } else {
+            releaseLeastRecentlyUsed();
+        }
+    }
+
+    /**
+     * Pins the content of the given file, so it is not released until it is unpinned as often as
+     * it was pinned.
+     */
+    public void pin(IIpsSrcFile file) {
+        pinCounts.merge(file, 1, Integer::sum);
+    }
+
+    public void unpin(IIpsSrcFile file) {
+        pinCounts.computeIfPresent(file, (f, count) -> count > 1 ? count - 1 : null);
+    }
+
+    public boolean isPinned(IIpsSrcFile file) {
+        return pinCounts.containsKey(file);
+    }
+
+    /**
+     * Records that the given completely loaded content was used and releases the least recently
+     * used contents if there are more loaded contents than allowed. Must not be called while
+     * holding the monitor of a content, as releasing another content acquires its monitor.
+     */
+    public void contentUsed(IpsSrcFileContent content) {
+        if (maxLoadedContents <= 0) {
+            return;
+        }
+        synchronized (loadedContents) {
+            loadedContents.put(content.getIpsSrcFile(), content);
+        }
+        releaseLeastRecentlyUsed();
+    }
+
+    private void releaseLeastRecentlyUsed() {
+        List<IpsSrcFileContent> contentsToRelease = new ArrayList<>();
+        synchronized (loadedContents) {
+            int excess = loadedContents.size() - maxLoadedContents;
+            for (Iterator<IpsSrcFileContent> it = loadedContents.values().iterator(); excess > 0 && it.hasNext();) {
+                IpsSrcFileContent content = it.next();
+                if (!content.isModified() && !isPinned(content.getIpsSrcFile())) {
+                    it.remove();
+                    contentsToRelease.add(content);
+                    excess--;
+                }
+            }
+        }
+        for (IpsSrcFileContent content : contentsToRelease) {
+            // the monitor guards against the content being read or reloaded at the same time
+            synchronized (content) {
+                if (!content.isModified() && !isPinned(content.getIpsSrcFile())) {
+                    release(content);
+                }
+            }
+        }
+        removeCollectedContents();
+    }
+
+    private void release(IpsSrcFileContent content) {
+        // atomic for the file, so the content is never missing from both maps
+        contents.computeIfPresent(content.getIpsSrcFile(), (file, cachedContent) -> {
+            if (cachedContent != content) {
+                return cachedContent;
+            }
+            releasedContents.put(file, new ReleasedContent(file, content, collectedContents));
+            releaseListener.accept(file);
+            return null;
+        });
+    }
+
+    private void removeCollectedContents() {
+        Reference<? extends IpsSrcFileContent> reference = collectedContents.poll();
+        while (reference != null) {
+            ReleasedContent releasedContent = (ReleasedContent)reference;
+            releasedContents.remove(releasedContent.file, releasedContent);
+            reference = collectedContents.poll();
+        }
+    }
+
+    private static class ReleasedContent extends WeakReference<IpsSrcFileContent> {
+
+        private final IIpsSrcFile file;
+
+        private ReleasedContent(IIpsSrcFile file, IpsSrcFileContent content,
+                ReferenceQueue<IpsSrcFileContent> queue) {
+            super(content, queue);
+            this.file = file;
+        }
+
+    }
+
+}
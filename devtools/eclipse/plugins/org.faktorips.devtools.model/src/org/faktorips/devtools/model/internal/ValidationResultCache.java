@@ -10,78 +10,276 @@
 
 package org.faktorips.devtools.model.internal;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
+import org.faktorips.devtools.model.builder.IDependencyGraph;
+import org.faktorips.devtools.model.dependency.IDependency;
+import org.faktorips.devtools.model.enums.IEnumContent;
 import org.faktorips.devtools.model.ipsobject.IIpsObjectPartContainer;
 import org.faktorips.devtools.model.ipsobject.IIpsSrcFile;
+import org.faktorips.devtools.model.ipsobject.IpsObjectType;
+import org.faktorips.devtools.model.ipsobject.QualifiedNameType;
+import org.faktorips.devtools.model.ipsproject.IIpsProject;
+import org.faktorips.runtime.Message;
 import org.faktorips.runtime.MessageList;
 
 /**
  * A cache for the results of the validation.
+ * <p>
+ * The results are grouped by the IPS source file of their container. If a file changes, the
+ * results of the file and of all files that depend on it directly or indirectly are removed. The
+ * dependants are looked up in the dependency graphs of the projects. The graphs are only updated
+ * by the build, so the results of files changed since the cache was last cleared are removed, too,
+ * as the graphs might not know their new dependencies yet. If no dependency graph is available for
+ * a project, all results of the project's files are removed.
+ * <p>
+ * Some validations check an IPS object against all others instead of its dependencies: a product
+ * component's runtime ID must be unique and a qualified name must not be used twice in the IPS
+ * object path. So if a product component changes, the results of all product components are
+ * removed, and if a file is added or removed, the results of all files with the same qualified
+ * name are removed, too.
  * 
  * @author Jan Ortmann
  */
 public class ValidationResultCache {
 
-    private HashMap<IIpsObjectPartContainer, MessageList> data = new HashMap<>(
+    private final Map<IIpsSrcFile, Map<IIpsObjectPartContainer, List<Message>>> data = new ConcurrentHashMap<>(
             1000);
 
+    private final Set<IIpsSrcFile> changedFiles = ConcurrentHashMap.newKeySet();
+
+    private final Supplier<IDependencyGraph[]> dependencyGraphs;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates a cache that removes all results if a file changes.
+     */
+    public ValidationResultCache() {
+        this(() -> new IDependencyGraph[0]);
+    }
+
     /**
-     * Puts a copy of the given the validation result for the given IPS object part container into
-     * the cache. Overwrites any old data for the given container. If result is <code>null</code>,
-     * any cached data for the container is removed.
+     * Creates a cache that looks up the dependants of changed files in the given dependency graphs.
+     * The supplier should only return graphs that are already available, as initializing a graph
+     * is expensive.
+     */
+    public ValidationResultCache(Supplier<IDependencyGraph[]> dependencyGraphs) {
+        this.dependencyGraphs = dependencyGraphs;
+    }
+
+    /**
+     * Puts the given the validation result for the given IPS object part container into the
+     * cache. Overwrites any old data for the given container. If result is <code>null</code>, any
+     * cached data for the container is removed. The cache keeps an unmodifiable snapshot of the
+     * messages, so later changes to the given list do not affect the cached result.
      * 
      * @param container The container to that the result belongs
      * @param result The validation result to put into the cache.
      * 
      * @throws NullPointerException if container is <code>null</code>.
      */
-    public synchronized void putResult(IIpsObjectPartContainer container, MessageList result) {
+    public void putResult(IIpsObjectPartContainer container, MessageList result) {
+        IIpsSrcFile file = container.getIpsSrcFile();
+        if (file == null) {
+            return;
+        }
         if (result == null) {
-            data.remove(container);
+            Map<IIpsObjectPartContainer, List<Message>> results = data.get(file);
+            if (results != null) {
+                results.remove(container);
+            }
             return;
         }
-        // Cache a defensive copy.
-        MessageList copy = new MessageList();
-        copy.add(result);
-        data.put(container, copy);
+        List<Message> messages = result.isEmpty() ? Collections.emptyList()
+                : Collections.unmodifiableList(new ArrayList<>(result.getMessages()));
+        data.computeIfAbsent(file, $ -> new ConcurrentHashMap<>()).put(container, messages);
     }
 
     /**
      * Returns the cached validation result for the given container or <code>null</code> if the
-     * cache does not contain a result for the container.
+     * cache does not contain a result for the container. The returned list may be modified by the
+     * caller.
      */
-    public synchronized MessageList getResult(IIpsObjectPartContainer c) {
-        MessageList cached = data.get(c);
-        if (cached == null) {
+    public MessageList getResult(IIpsObjectPartContainer c) {
+        IIpsSrcFile file = c.getIpsSrcFile();
+        Map<IIpsObjectPartContainer, List<Message>> results = file == null ? null : data.get(file);
+        List<Message> messages = results == null ? null : results.get(c);
+        if (messages == null) {
+            misses.increment();
             return null;
         }
-        // Return a defensive copy.
+        hits.increment();
         MessageList result = new MessageList();
-        result.add(cached);
+        if (!messages.isEmpty()) {
+            result.setMessages(new ArrayList<>(messages));
+        }
         return result;
     }
 
     /**
      * Removes the data from the cache that is stale because the given IPS source file has changed.
      * Does nothing if the given file is <code>null</code>.
-     * <p>
-     * Implementation note: At the moment we clear the whole cache if a file changes, as due to the
-     * dependencies between objects the validation result of other objects can also change if one
-     * object is changed. We might use the exact dependencies between objects to solve this more
-     * efficiently in a later version.
      * 
      * @param file The IPS source file that has changed.
      */
-    public synchronized void removeStaleData(IIpsSrcFile file) {
-        clear();
+    public void removeStaleData(IIpsSrcFile file) {
+        if (file != null) {
+            removeStaleData(Collections.singleton(file));
+        }
+    }
+
+    /**
+     * Removes the data from the cache that is stale because the given IPS source files have
+     * changed.
+     * 
+     * @param files The IPS source files that have changed.
+     */
+    public void removeStaleData(Collection<IIpsSrcFile> files) {
+        changedFiles.addAll(files);
+        if (files.isEmpty() || data.isEmpty()) {
+            return;
+        }
+        // any product component might now have the same runtime ID as a changed one
+        boolean productCmptChanged = files.stream()
+                .anyMatch(file -> file.getIpsObjectType() == IpsObjectType.PRODUCT_CMPT);
+        Map<IIpsProject, IDependencyGraph> graphs = new HashMap<>();
+        for (IDependencyGraph graph : dependencyGraphs.get()) {
+            graphs.put(graph.getIpsProject(), graph);
+        }
+        Set<QualifiedNameType> staleObjects;
+        try {
+            staleObjects = collectDependants(files, graphs.values());
+            // CSOFF: IllegalCatch
+        } catch (RuntimeException e) {
+            // CSON: IllegalCatch
+            // the graphs are not synchronized and might be updated by a build at the same time
+            clear();
+            return;
+        }
+        for (IIpsSrcFile cachedFile : data.keySet()) {
+            if (changedFiles.contains(cachedFile) || !graphs.containsKey(cachedFile.getIpsProject())
+                    || staleObjects.contains(cachedFile.getQualifiedNameType())
+                    || (productCmptChanged && cachedFile.getIpsObjectType() == IpsObjectType.PRODUCT_CMPT)) {
+                data.remove(cachedFile);
+            }
+        }
+    }
+
+    /**
+     * Removes the data from the cache that is stale because the given IPS source file was added or
+     * removed. In addition to the data removed for a changed file, the results of all files with
+     * the same qualified name are removed, as they are validated to be unique in the IPS object
+     * path. Does nothing if the given file is <code>null</code>.
+     * 
+     * @param file The IPS source file that was added or removed.
+     */
+    public void removeStaleDataOfAddedOrRemovedFile(IIpsSrcFile file) {
+        if (file == null) {
+            return;
+        }
+        String qualifiedName = file.getQualifiedNameType().getName();
+        data.keySet().removeIf(cachedFile -> qualifiedName.equals(cachedFile.getQualifiedNameType().getName()));
+        removeStaleData(file);
+    }
+
+    /**
+     * Returns the qualified name types of the given files and of all objects depending on them
+     * directly or indirectly. Objects using an enum content depend on its enum type, so the
+     * dependants of the enum type are collected for an enum content.
+     */
+    private Set<QualifiedNameType> collectDependants(Collection<IIpsSrcFile> files,
+            Collection<IDependencyGraph> graphs) {
+        Set<QualifiedNameType> dependants = new HashSet<>();
+        Deque<QualifiedNameType> toVisit = new ArrayDeque<>();
+        for (IIpsSrcFile file : files) {
+            toVisit.add(file.getQualifiedNameType());
+            if (file.getIpsObjectType() == IpsObjectType.ENUM_CONTENT) {
+                String enumType = file.getPropertyValue(IEnumContent.PROPERTY_ENUM_TYPE);
+                if (enumType != null) {
+                    toVisit.add(new QualifiedNameType(enumType, IpsObjectType.ENUM_TYPE));
+                }
+            }
+        }
+        while (!toVisit.isEmpty()) {
+            QualifiedNameType qualifiedNameType = toVisit.poll();
+            if (dependants.add(qualifiedNameType)) {
+                for (IDependencyGraph graph : graphs) {
+                    for (IDependency dependency : graph.getDependants(qualifiedNameType)) {
+                        toVisit.add(dependency.getSource());
+                    }
+                }
+            }
+        }
+        return dependants;
+    }
+
+    /**
+     * Removes the results of the given file's containers without treating the file as changed, for
+     * example because the file's content was released from the model's cache.
+     */
+    public void removeResults(IIpsSrcFile file) {
+        data.remove(file);
     }
 
     /**
      * Clears the whole cache.
      */
-    public synchronized void clear() {
+    public void clear() {
         data.clear();
+        changedFiles.clear();
+    }
+
+    /**
+     * Returns the number of results found in the cache.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of results requested but not found in the cache.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the share of the requested results found in the cache, a value between
+     * <code>0</code> and <code>1</code>. Returns <code>0</code> if no result has been requested.
+     */
+    public double getHitRate() {
+        long hitCount = getHitCount();
+        long requestCount = hitCount + getMissCount();
+        return requestCount == 0 ? 0 : (double)hitCount / requestCount;
+    }
+
+    /**
+     * Resets the hit and miss counts.
+     */
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "ValidationResultCache [files=" + data.size() + ", hits=" + getHitCount() + ", misses=" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                + getMissCount() + "]"; //$NON-NLS-1$
     }
 
 }
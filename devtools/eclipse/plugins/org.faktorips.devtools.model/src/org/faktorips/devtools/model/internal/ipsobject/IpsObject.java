@@ -52,6 +52,13 @@ public abstract class IpsObject extends IpsObjectPartContainer implements IIpsOb
      */
     private boolean fromParsableFile = false;
 
+    /**
+     * The content holding this object. Keeps a content released by the model's content cache
+     * reachable as long as this object is in use, so the cache finds the content again.
+     */
+    @SuppressWarnings("unused")
+    private IpsSrcFileContent content;
+
     /**
      * Creates a new <code>IpsObject</code>.
      * 
@@ -81,6 +88,10 @@ public abstract class IpsObject extends IpsObjectPartContainer implements IIpsOb
         reinitPartCollections();
     }
 
+    void setContent(IpsSrcFileContent content) {
+        this.content = content;
+    }
+
     @Override
     public IIpsObject getIpsObject() {
         return this;
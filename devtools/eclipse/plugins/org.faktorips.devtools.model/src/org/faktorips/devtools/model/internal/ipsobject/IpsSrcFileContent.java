@@ -74,11 +74,12 @@ public class IpsSrcFileContent {
     private List<Long> modStampsAfterSave = null;
 
     /** Indicates if the IPS object is completely initialized with the IPS source file content. */
-    private boolean initialized = false;
+    private volatile boolean initialized = false;
 
     public IpsSrcFileContent(IpsObject ipsObject) {
         ArgumentCheck.notNull(ipsObject);
         this.ipsObject = ipsObject;
+        ipsObject.setContent(this);
     }
 
     public IpsObject getIpsObject() {
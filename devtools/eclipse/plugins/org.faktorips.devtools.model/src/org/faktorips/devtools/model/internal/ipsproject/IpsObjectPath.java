@@ -16,10 +16,10 @@ import java.nio.file.Path;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.faktorips.devtools.abstraction.AFile;
 import org.faktorips.devtools.abstraction.AFolder;
@@ -80,8 +80,11 @@ public class IpsObjectPath implements IIpsObjectPath {
 
     private IIpsProject ipsProject;
 
-    /** map with QualifiedNameTypes as keys and cached IpsSrcFiles as values. */
-    private Map<QualifiedNameType, IIpsSrcFile> lookupCache = new HashMap<>(1000);
+    /**
+     * map with QualifiedNameTypes as keys and cached IpsSrcFiles as values. Concurrent, as the
+     * workers of a parallel build look up IPS source files, too.
+     */
+    private Map<QualifiedNameType, IIpsSrcFile> lookupCache = new ConcurrentHashMap<>(1000);
 
     /**
      * if set to true, the {@link IIpsObjectPathEntry entries} are read from the manifest.mf and if
@@ -430,7 +433,7 @@ public class IpsObjectPath implements IIpsObjectPath {
         IIpsSrcFile cachedSrcFile = lookupCache.get(nameType);
         if (cachedSrcFile != null) {
             if (!cachedSrcFile.exists()) {
-                lookupCache.remove(nameType);
+                lookupCache.remove(nameType, cachedSrcFile);
             } else {
                 return cachedSrcFile;
             }
@@ -171,6 +171,19 @@ public class StandardBuilderSet extends DefaultBuilderSet implements IJavaBuilde
      */
     public static final String CONFIG_PROPERTY_TO_XML_SUPPORT = "toXMLSupport"; //$NON-NLS-1$
 
+    /**
+     * Name of the configuration property that indicates whether table indices should use the
+     * compact, array based search structures instead of the map based ones.
+     */
+    public static final String CONFIG_PROPERTY_COMPACT_TABLE_INDICES = "compactTableIndices"; //$NON-NLS-1$
+
+    /**
+     * Name of the configuration property that defines the table structures whose tables store
+     * their contents in memory mapped files instead of the Java heap. The qualified names of the
+     * table structures are separated by semicolon.
+     */
+    public static final String CONFIG_PROPERTY_OFF_HEAP_TABLE_STRUCTURES = "offHeapTableStructures"; //$NON-NLS-1$
+
     /**
      * Configuration property that enables/disables the generation of serializable support on policy
      * components.
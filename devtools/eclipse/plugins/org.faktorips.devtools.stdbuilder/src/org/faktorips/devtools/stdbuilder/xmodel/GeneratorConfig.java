@@ -140,6 +140,29 @@ public class GeneratorConfig {
         return propertyValueAsBoolean == null ? false : propertyValueAsBoolean;
     }
 
+    public boolean isGenerateCompactTableIndices() {
+        Boolean propertyValueAsBoolean = config
+                .getPropertyValueAsBoolean(StandardBuilderSet.CONFIG_PROPERTY_COMPACT_TABLE_INDICES);
+        return propertyValueAsBoolean == null ? false : propertyValueAsBoolean;
+    }
+
+    /**
+     * Returns <code>true</code> if the tables of the table structure with the given qualified name
+     * store their contents in memory mapped files instead of the Java heap.
+     * 
+     * @see StandardBuilderSet#CONFIG_PROPERTY_OFF_HEAP_TABLE_STRUCTURES
+     */
+    public boolean isOffHeapTableStructure(String qualifiedName) {
+        String tableStructures = getStringProperty(StandardBuilderSet.CONFIG_PROPERTY_OFF_HEAP_TABLE_STRUCTURES,
+                IpsStringUtils.EMPTY);
+        for (String tableStructure : tableStructures.split(";")) {
+            if (tableStructure.trim().equals(qualifiedName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Returns <code>true</code> if the given project is configured to generate published
      * interfaces, <code>false</code> else.
@@ -29,6 +29,8 @@ import org.faktorips.devtools.stdbuilder.xmodel.AbstractGeneratorModelNode;
 import org.faktorips.devtools.stdbuilder.xmodel.MethodParameter;
 import org.faktorips.devtools.stdbuilder.xmodel.ModelService;
 import org.faktorips.devtools.stdbuilder.xtend.GeneratorModelContext;
+import org.faktorips.runtime.internal.tableindex.ArrayRangeStructure;
+import org.faktorips.runtime.internal.tableindex.ArrayResultStructure;
 import org.faktorips.runtime.internal.tableindex.KeyStructure;
 import org.faktorips.runtime.internal.tableindex.RangeStructure;
 import org.faktorips.runtime.internal.tableindex.RangeType;
@@ -160,7 +162,8 @@ public class XIndex extends AbstractGeneratorModelNode {
     /**
      * (from: IndexCodePart)
      * 
-     * @return KeyStructure, TwoColumnRangeStructure or RangeStructure as type
+     * @return KeyStructure, TwoColumnRangeStructure or RangeStructure (ArrayRangeStructure if
+     *             compact table indices are configured) as type
      */
     public String getStructureType(IKeyItem keyItem) {
         if (keyItem == null) {
@@ -168,6 +171,8 @@ public class XIndex extends AbstractGeneratorModelNode {
         } else if (keyItem.isRange()) {
             if (((IColumnRange)keyItem).getColumnRangeType().isTwoColumn()) {
                 return addImport(TwoColumnRangeStructure.class.getName());
+            } else if (isCompactTableIndices()) {
+                return addImport(ArrayRangeStructure.class.getName());
             } else {
                 return addImport(RangeStructure.class.getName());
             }
@@ -180,15 +185,43 @@ public class XIndex extends AbstractGeneratorModelNode {
      * (from: IndexCodePart)
      * 
      * @return UniqueResultStructure as string if index is a unique key, else ResultStructure
+     *             (ArrayResultStructure if compact table indices are configured)
      */
     public String getResultStructureClassName() {
         if (getIndex().isUniqueKey()) {
             return addImport(UniqueResultStructure.class.getName());
+        } else if (isCompactTableIndices()) {
+            return addImport(ArrayResultStructure.class.getName());
         } else {
             return addImport(ResultStructure.class.getName());
         }
     }
 
+    private boolean isCompactTableIndices() {
+        return getGeneratorConfig().isGenerateCompactTableIndices();
+    }
+
+    /**
+     * @return <code>true</code> if the table stores its contents off heap. Then the search
+     *             structures of this index hold the indices of the rows instead of the rows.
+     */
+    public boolean isOffHeapStorage() {
+        return getGeneratorConfig().isOffHeapTableStructure(getTableStructure().getQualifiedName());
+    }
+
+    /**
+     * @return the name of the variable that is put into the result structure while the key maps are
+     *             initialized: the row or, if the table stores its contents off heap, the row's
+     *             index
+     */
+    public String getResultValueName() {
+        return isOffHeapStorage() ? "rowIndex" : "row";
+    }
+
+    private String getResultClassName() {
+        return isOffHeapStorage() ? Integer.class.getSimpleName() : tableRowClass;
+    }
+
     private List<IKeyItem> getRangeKeysNotFirst() {
         List<IKeyItem> rangeKeysForGeneric = new ArrayList<>();
         if (isFirstKeyRange()) {
@@ -205,7 +238,8 @@ public class XIndex extends AbstractGeneratorModelNode {
      * <p>
      * The structure class is a generic type whose generic parameters are generated recursively. It
      * has the form structureClass[classOrTypeName, genericParameters, tableRowClass]. It is
-     * generated for the first key, then iterated through all remaining range keys.
+     * generated for the first key, then iterated through all remaining range keys. If the table
+     * stores its contents off heap, Integer is used instead of the tableRowClass.
      * </p>
      * 
      * @return class of the field for this index as @GenericTypeStringWrapper
@@ -219,7 +253,7 @@ public class XIndex extends AbstractGeneratorModelNode {
 
     private GenericTypeStringWrapper getStructureClass(List<IKeyItem> keyItems) {
         if (keyItems.size() == 0) {
-            return new GenericTypeStringWrapper(getResultStructureClassName(), tableRowClass);
+            return new GenericTypeStringWrapper(getResultStructureClassName(), getResultClassName());
         } else {
             List<GenericTypeStringWrapper> structureClassGenArgs = new ArrayList<>();
             if (keyItems.get(0).isRange()) {
@@ -229,7 +263,7 @@ public class XIndex extends AbstractGeneratorModelNode {
                 structureClassGenArgs.add(new GenericTypeStringWrapper(getClassOrTypeName()));
             }
             structureClassGenArgs.add(getStructureClass(keyItems.subList(1, keyItems.size())));
-            structureClassGenArgs.add(new GenericTypeStringWrapper(tableRowClass));
+            structureClassGenArgs.add(new GenericTypeStringWrapper(getResultClassName()));
 
             return new GenericTypeStringWrapper(getStructureType(keyItems.get(0)), structureClassGenArgs);
         }
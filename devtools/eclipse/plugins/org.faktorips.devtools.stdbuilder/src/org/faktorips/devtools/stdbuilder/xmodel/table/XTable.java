@@ -26,6 +26,7 @@ import org.faktorips.devtools.model.tablestructure.ITableStructure;
 import org.faktorips.devtools.stdbuilder.xmodel.ModelService;
 import org.faktorips.devtools.stdbuilder.xtend.GeneratorModelContext;
 import org.faktorips.runtime.ITable;
+import org.faktorips.runtime.internal.OffHeapTable;
 import org.faktorips.runtime.internal.Table;
 
 /**
@@ -50,7 +51,7 @@ public class XTable extends XTableStructure {
 
     @Override
     protected String getBaseSuperclassName() {
-        return addImport(Table.class);
+        return addImport(isOffHeapStorage() ? OffHeapTable.class : Table.class);
     }
 
     @Override
@@ -64,6 +65,15 @@ public class XTable extends XTableStructure {
         return (ITableStructure)getIpsObjectPartContainer().getIpsObject();
     }
 
+    /**
+     * @return <code>true</code> if the table stores its contents in a memory mapped file instead of
+     *             the Java heap
+     * @see org.faktorips.devtools.stdbuilder.StandardBuilderSet#CONFIG_PROPERTY_OFF_HEAP_TABLE_STRUCTURES
+     */
+    public boolean isOffHeapStorage() {
+        return getGeneratorConfig().isOffHeapTableStructure(getTableStructure().getQualifiedName());
+    }
+
     public boolean isSingleContentTable() {
         return !getTableStructure().isMultipleContentsAllowed();
     }
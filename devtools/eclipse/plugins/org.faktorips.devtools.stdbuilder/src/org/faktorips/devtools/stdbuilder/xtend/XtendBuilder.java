@@ -130,6 +130,16 @@ public abstract class XtendBuilder<T extends XClass> extends JavaSourceFileBuild
         generatorModelContext.resetContext(null, Collections.emptySet());
     }
 
+    /**
+     * Returns <code>true</code> as the Java source file is generated from its IPS source file and
+     * the IPS model only. Every builder set has a generator model context and model service of its
+     * own and the templates keep their state per thread.
+     */
+    @Override
+    public boolean isParallelBuildSupported() {
+        return true;
+    }
+
     protected T getGeneratorModelRoot(IIpsObject ipsObject) {
         return getModelService().getModelNode(ipsObject, getGeneratorModelRootType(), generatorModelContext);
     }
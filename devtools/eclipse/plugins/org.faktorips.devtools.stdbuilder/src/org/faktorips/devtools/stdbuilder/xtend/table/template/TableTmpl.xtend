@@ -21,13 +21,17 @@ class TableTmpl {
         * @generated
         */
         «getAnnotations(TABLE_CLASS)»
-        public class «name» extends «Table_(tableRowName)»{
+        public class «name» extends «IF offHeapStorage»«OffHeapTable_(tableRowName)»«ELSE»«Table_(tableRowName)»«ENDIF»{
 
             «FOR it : indexModelNodes» «fields» «ENDFOR»
 
 
             «constructors»
-            «addRow»
+            «IF offHeapStorage»
+                «createRow»
+            «ELSE»
+                «addRow»
+            «ENDIF»
 
             «initKeyMaps»
 
@@ -94,6 +98,23 @@ class TableTmpl {
         }
     '''
 
+    def private static  createRow(XTable it) '''
+        /**
+        *«localizedJDoc("METHOD_CREATE_ROW")»
+        *
+        * @generated
+        */
+        @Override
+        protected «tableRowName» createRow(«List_("String")» values, «IRuntimeRepository()» productRepository) {
+            «IF validColumns.size > 0»
+                    String «FOR it : validColumns.indexed» columnValue = values.get(«key»);
+                    «value.datatypeName» «value.attributeName» = «value.getNewInstanceFromExpression("columnValue", "productRepository")»;
+                «ENDFOR»
+            «ENDIF»
+            return new «tableRowName» («columnNames»);
+        }
+    '''
+
     def private static  initKeyMaps(XTable it) '''
         /**
         *«localizedJDoc("METHOD_INIT_KEY_MAPS")»
@@ -104,9 +125,16 @@ class TableTmpl {
         protected final void «method("initKeyMaps")»{
             «IF hasIndices»
                 «FOR node : indexModelNodes» «keyMapInitialization(node)» «ENDFOR»
-                for(«tableRowName» row : rows){
-                        «FOR it : indexModelNodes » «forLoop» «ENDFOR»
-                }
+                «IF offHeapStorage»
+                    for(int rowIndex = 0; rowIndex < rows.size(); rowIndex++){
+                            «tableRowName» row = rows.get(rowIndex);
+                            «FOR it : indexModelNodes » «forLoop» «ENDFOR»
+                    }
+                «ELSE»
+                    for(«tableRowName» row : rows){
+                            «FOR it : indexModelNodes » «forLoop» «ENDFOR»
+                    }
+                «ENDIF»
             «ENDIF»
         }
     '''
@@ -134,7 +162,7 @@ class TableTmpl {
             «IF hasRangeKeysNotFirst()»
                 «keyItemsForInitKeyMap.get(keyItemsForInitKeyMap.size - 1).searchStrucutreName»
             «ELSE»
-                «resultStructureClassName».createWith(row)
+                «resultStructureClassName».createWith(«resultValueName»)
             «ENDIF»
         );
     '''
@@ -148,7 +176,7 @@ class TableTmpl {
                 row.«methodNameGetter»(),
             «ENDFOR»
             «IF prevSearchStructureName == ""»
-                «index.resultStructureClassName».createWith(row)
+                «index.resultStructureClassName».createWith(«index.resultValueName»)
             «ELSE»
                 «prevSearchStructureName»
             «ENDIF»
@@ -193,8 +221,14 @@ class TableTmpl {
         * @generated
         */
         public «table.getMethodReturnTypeFindRow(it)» «method(table.getMethodNameFindRow(it), methodParametersFindRow)»{
-            «findRowMethodPart»«IF uniqueKey».getUnique(null);
-            «ELSE».get();
+            «IF offHeapStorage»
+                return «IF uniqueKey»getRow(«findRowMethodPart».getUnique(null));
+                «ELSE»getRows(«findRowMethodPart».get());
+                «ENDIF»
+            «ELSE»
+                return «findRowMethodPart»«IF uniqueKey».getUnique(null);
+                «ELSE».get();
+                «ENDIF»
             «ENDIF»
         }
     '''
@@ -207,7 +241,11 @@ class TableTmpl {
         * @generated
         */
         public «table.tableRowName» «method(table.getMethodNameFindRowNullRowReturned(it), methodParametersFindRow)»{
-            «findRowMethodPart».getUnique(«table.tableRowName».NULL_ROW);
+            «IF offHeapStorage»
+                return getRow(«findRowMethodPart».getUnique(null), «table.tableRowName».NULL_ROW);
+            «ELSE»
+                return «findRowMethodPart».getUnique(«table.tableRowName».NULL_ROW);
+            «ENDIF»
         }
     '''
 
@@ -223,7 +261,11 @@ class TableTmpl {
         */
         public «table.tableRowName» «method(table.getMethodNameFindExistingRow(it), methodParametersFindRow)»{
             try{
-                «findRowMethodPart».getUnique();
+                «IF offHeapStorage»
+                    return getRow(«findRowMethodPart».getUnique());
+                «ELSE»
+                    return «findRowMethodPart».getUnique();
+                «ENDIF»
             }catch («NoSuchElementException()» e) {
                 throw new «IllegalArgumentException()»(«findExistingRowExceptionMessage»);
             }
@@ -231,7 +273,7 @@ class TableTmpl {
     '''
 
     def private static  findRowMethodPart(XIndex it) '''
-        return «keySearchStructureName»
+        «keySearchStructureName»
         «IF hasColumnKeys()».get(new «classOrTypeName» («columnKeyNames»))
         «ENDIF»
         «FOR rangeName : rangeKeyNames» .get(«rangeName»)
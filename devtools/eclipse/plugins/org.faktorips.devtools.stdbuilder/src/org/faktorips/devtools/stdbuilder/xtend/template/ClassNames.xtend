@@ -45,6 +45,7 @@ import org.faktorips.runtime.internal.EnumValues
 import org.faktorips.runtime.internal.IXmlPersistenceSupport
 import org.faktorips.runtime.internal.ModelObjectDelta
 import org.faktorips.runtime.internal.MultiValueXmlHelper
+import org.faktorips.runtime.internal.OffHeapTable
 import org.faktorips.runtime.internal.ProductComponentLink
 import org.faktorips.runtime.internal.ProductConfiguration
 import org.faktorips.runtime.internal.Table
@@ -245,6 +246,10 @@ class ClassNames {
         addImport(Table.name) + "<" + genericType + ">"
     }
 
+    def static OffHeapTable_(AbstractGeneratorModelNode it, String genericType) {
+        addImport(OffHeapTable.name) + "<" + genericType + ">"
+    }
+
     def static MessagesHelper(AbstractGeneratorModelNode it) { addImport(typeof(MessagesHelper)) }
 
     // EXECPTIONS
@@ -20,6 +20,7 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
@@ -44,6 +45,7 @@ import org.faktorips.devtools.model.ipsobject.IIpsSrcFile;
 import org.faktorips.devtools.model.ipsobject.IpsObjectType;
 import org.faktorips.devtools.model.ipsproject.IIpsPackageFragment;
 import org.faktorips.devtools.model.ipsproject.IIpsProject;
+import org.faktorips.devtools.model.pctype.IPolicyCmptType;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -112,6 +114,39 @@ public class JavaSourceFileBuilderTest extends AbstractIpsPluginTest {
         spyBuilder.build(ipsSrcFile);
     }
 
+    @Test
+    public void testBuild_SkipUnchangedArtefacts() throws Exception {
+        TestIpsArtefactBuilderSet builderSet = (TestIpsArtefactBuilderSet)builder.getBuilderSet();
+        builderSet.getConfig().getProperties().put(AbstractBuilderSet.CONFIG_SKIP_UNCHANGED_ARTEFACTS, true);
+        JavaSourceFileBuilder spyBuilder = spy(builder);
+        spyBuilder.build(ipsSrcFile);
+        verify(spyBuilder).generate();
+        spyBuilder.afterBuildProcess(ipsProject, ABuildKind.INCREMENTAL);
+
+        reset(spyBuilder);
+        spyBuilder.beforeBuildProcess(ipsProject, ABuildKind.FULL);
+        spyBuilder.build(ipsSrcFile);
+        verify(spyBuilder, never()).generate();
+        spyBuilder.afterBuildProcess(ipsProject, ABuildKind.FULL);
+
+        // a deleted Java file is generated again
+        getFile("org/faktorips/sample/model/test/TestPolicy.java", false).delete(null);
+        reset(spyBuilder);
+        spyBuilder.beforeBuildProcess(ipsProject, ABuildKind.FULL);
+        spyBuilder.build(ipsSrcFile);
+        verify(spyBuilder).generate();
+        spyBuilder.afterBuildProcess(ipsProject, ABuildKind.FULL);
+
+        // a changed IPS object is generated again
+        ((IPolicyCmptType)ipsSrcFile.getIpsObject()).setAbstract(true);
+        ipsSrcFile.save(null);
+        reset(spyBuilder);
+        spyBuilder.beforeBuildProcess(ipsProject, ABuildKind.FULL);
+        spyBuilder.build(ipsSrcFile);
+        verify(spyBuilder).generate();
+        spyBuilder.afterBuildProcess(ipsProject, ABuildKind.FULL);
+    }
+
     private AFile getFile(String name, boolean derived) {
         APackageFragmentRoot artefactDestination = ipsProject.getIpsPackageFragmentRoots()[0]
                 .getArtefactDestination(derived);
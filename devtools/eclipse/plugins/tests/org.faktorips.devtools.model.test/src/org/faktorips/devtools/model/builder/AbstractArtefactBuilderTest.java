@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.devtools.model.builder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.List;
+
+import org.faktorips.devtools.abstraction.AFile;
+import org.faktorips.devtools.model.ipsobject.IIpsSrcFile;
+import org.faktorips.devtools.model.ipsproject.IIpsArtefactBuilderSet;
+import org.junit.Test;
+
+public class AbstractArtefactBuilderTest {
+
+    private TestArtefactBuilder builder = new TestArtefactBuilder(mock(IIpsArtefactBuilderSet.class));
+
+    @Test
+    public void testIsParallelBuildSupported() {
+        assertFalse(builder.isParallelBuildSupported());
+    }
+
+    @Test
+    public void testCreateFileIfNotThere() {
+        AFile file = mock(AFile.class);
+
+        assertTrue(builder.createFileIfNotThere(file));
+
+        verify(file).create(any(InputStream.class), any());
+    }
+
+    @Test
+    public void testCreateFileIfNotThere_Deferred() {
+        AFile file = mock(AFile.class);
+        builder.setDeferWorkspaceModifications(true);
+
+        assertTrue(builder.createFileIfNotThere(file));
+
+        verify(file, never()).create(any(InputStream.class), any());
+        List<Runnable> modifications = builder.takeDeferredWorkspaceModifications();
+        assertEquals(1, modifications.size());
+        assertTrue(builder.takeDeferredWorkspaceModifications().isEmpty());
+        modifications.get(0).run();
+        verify(file).create(any(InputStream.class), any());
+    }
+
+    @Test
+    public void testCreateFileIfNotThere_DeferredFileCreatedMeanwhile() {
+        AFile file = mock(AFile.class);
+        builder.setDeferWorkspaceModifications(true);
+        builder.createFileIfNotThere(file);
+        when(file.exists()).thenReturn(true);
+
+        builder.takeDeferredWorkspaceModifications().get(0).run();
+
+        verify(file, never()).create(any(InputStream.class), any());
+    }
+
+    @Test
+    public void testWriteToFile_Deferred() {
+        AFile file = mock(AFile.class);
+        InputStream content = new ByteArrayInputStream(new byte[0]);
+        builder.setDeferWorkspaceModifications(true);
+
+        builder.writeToFile(file, content, true, false);
+
+        verify(file, never()).setContents(any(InputStream.class), anyBoolean(), any());
+        builder.takeDeferredWorkspaceModifications().get(0).run();
+        verify(file).setContents(any(InputStream.class), anyBoolean(), any());
+    }
+
+    private static class TestArtefactBuilder extends AbstractArtefactBuilder {
+
+        public TestArtefactBuilder(IIpsArtefactBuilderSet builderSet) {
+            super(builderSet);
+        }
+
+        @Override
+        public String getName() {
+            return "TestArtefactBuilder"; //$NON-NLS-1$
+        }
+
+        @Override
+        public boolean isBuilderFor(IIpsSrcFile ipsSrcFile) {
+            return true;
+        }
+
+        @Override
+        public void build(IIpsSrcFile ipsSrcFile) {
+            // nothing to do
+        }
+
+        @Override
+        public void delete(IIpsSrcFile ipsSrcFile) {
+            // nothing to do
+        }
+
+        @Override
+        public boolean isBuildingInternalArtifacts() {
+            return false;
+        }
+
+    }
+
+}
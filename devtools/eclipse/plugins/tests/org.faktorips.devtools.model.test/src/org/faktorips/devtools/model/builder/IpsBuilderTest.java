@@ -31,6 +31,7 @@ import static org.mockito.Mockito.when;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -39,6 +40,9 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IProject;
@@ -54,6 +58,7 @@ import org.faktorips.abstracttest.builder.TestIpsArtefactBuilderSet;
 import org.faktorips.devtools.abstraction.ABuildKind;
 import org.faktorips.devtools.abstraction.AContainer;
 import org.faktorips.devtools.abstraction.AFile;
+import org.faktorips.devtools.abstraction.AFolder;
 import org.faktorips.devtools.abstraction.AMarker;
 import org.faktorips.devtools.abstraction.AProject;
 import org.faktorips.devtools.abstraction.AResource;
@@ -96,6 +101,7 @@ import org.faktorips.devtools.model.type.IAssociation;
 import org.faktorips.devtools.model.type.IAttribute;
 import org.faktorips.runtime.Message;
 import org.faktorips.runtime.MessageList;
+import org.faktorips.util.StringUtil;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
@@ -265,6 +271,88 @@ public class IpsBuilderTest extends AbstractIpsPluginTest {
 
     }
 
+    /**
+     * Writes a text file for every policy component type. Records the threads it builds on.
+     */
+    private static class ParallelTestArtefactBuilder extends AbstractArtefactBuilder {
+
+        private static final String FOLDER = "parallelTestArtefacts";
+
+        private final Set<String> buildThreads;
+
+        public ParallelTestArtefactBuilder(Set<String> buildThreads) {
+            super(new TestIpsArtefactBuilderSet());
+            this.buildThreads = buildThreads;
+        }
+
+        @Override
+        public boolean isParallelBuildSupported() {
+            return true;
+        }
+
+        @Override
+        public void build(IIpsSrcFile ipsSrcFile) {
+            buildThreads.add(Thread.currentThread().getName());
+            IPolicyCmptType pcType = (IPolicyCmptType)ipsSrcFile.getIpsObject();
+            AFile file = ipsSrcFile.getIpsProject().getProject().getFolder(FOLDER)
+                    .getFile(pcType.getName() + ".txt");
+            createFileIfNotThere(file);
+            String content = pcType.getQualifiedName() + " extends " + pcType.getSupertype();
+            writeToFile(file, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), true, false);
+        }
+
+        @Override
+        public boolean isBuilderFor(IIpsSrcFile ipsSrcFile) {
+            return ipsSrcFile.getIpsObjectType().equals(IpsObjectType.POLICY_CMPT_TYPE);
+        }
+
+        @Override
+        public void delete(IIpsSrcFile ipsSrcFile) {
+            // nothing to delete
+        }
+
+        @Override
+        public String getName() {
+            return "ParallelTestArtefactBuilder";
+        }
+
+        @Override
+        public boolean isBuildingInternalArtifacts() {
+            return false;
+        }
+
+    }
+
+    /**
+     * Creates a new builder set for every call, as every worker thread of a parallel build needs
+     * builders of its own.
+     */
+    private static class ParallelTestBuilderSetInfo extends TestArtefactBuilderSetInfo {
+
+        private final IIpsProject ipsProject;
+
+        private final Set<String> buildThreads;
+
+        public ParallelTestBuilderSetInfo(IIpsProject ipsProject, Set<String> buildThreads) {
+            super(newBuilderSet(ipsProject, buildThreads));
+            this.ipsProject = ipsProject;
+            this.buildThreads = buildThreads;
+        }
+
+        private static TestIpsArtefactBuilderSet newBuilderSet(IIpsProject ipsProject, Set<String> buildThreads) {
+            TestIpsArtefactBuilderSet builderSet = new TestIpsArtefactBuilderSet(
+                    new IIpsArtefactBuilder[] { new ParallelTestArtefactBuilder(buildThreads) });
+            builderSet.setIpsProject(ipsProject);
+            return builderSet;
+        }
+
+        @Override
+        public IIpsArtefactBuilderSet create(IIpsProject project) {
+            return ipsProject.equals(project) ? newBuilderSet(ipsProject, buildThreads) : null;
+        }
+
+    }
+
     @Test
     public void testMarkerHandling() throws Exception {
         if (Abstractions.isEclipseRunning()) {
@@ -985,6 +1073,67 @@ public class IpsBuilderTest extends AbstractIpsPluginTest {
         ((IpsModel)project.getIpsModel()).setIpsArtefactBuilderSetInfos(builderSetInfos);
     }
 
+    @Test
+    public void testFullBuild_ParallelBuildLikeSequentialBuild() throws Exception {
+        IIpsProjectProperties props = ipsProject.getProperties();
+        props.setBuilderSetId(TestIpsArtefactBuilderSet.ID);
+        ipsProject.setProperties(props);
+        Set<String> buildThreads = ConcurrentHashMap.newKeySet();
+        IpsModel model = (IpsModel)ipsProject.getIpsModel();
+        model.setIpsArtefactBuilderSetInfos(new IIpsArtefactBuilderSetInfo[] {
+                new ParallelTestBuilderSetInfo(ipsProject, buildThreads) });
+        for (int i = 0; i < IpsBuilder.MIN_PARALLEL_BUILD_FILES; i++) {
+            IPolicyCmptType pcType = newPolicyCmptTypeWithoutProductCmptType(ipsProject, "Policy" + i);
+            if (i % 10 == 0) {
+                pcType.setSupertype("UnknownSupertype");
+            }
+            pcType.getIpsSrcFile().save(null);
+        }
+
+        ipsProject.getProject().build(ABuildKind.FULL, null);
+        Map<String, String> sequentialArtefacts = readParallelTestArtefacts();
+        Map<String, Set<String>> sequentialMarkers = readProblemMarkers();
+        ipsProject.getProject().getFolder(ParallelTestArtefactBuilder.FOLDER).delete(null);
+        ipsProject.getProject().deleteMarkers(IpsBuilder.PROBLEM_MARKER, true, AResourceTreeTraversalDepth.INFINITE);
+        buildThreads.clear();
+        TestIpsArtefactBuilderSet builderSet = (TestIpsArtefactBuilderSet)model.getIpsArtefactBuilderSet(ipsProject,
+                false);
+        builderSet.getConfig().getProperties().put(AbstractBuilderSet.CONFIG_PARALLEL_BUILD_THREADS, 2);
+        ipsProject.getProject().build(ABuildKind.FULL, null);
+
+        assertEquals(IpsBuilder.MIN_PARALLEL_BUILD_FILES, sequentialArtefacts.size());
+        assertFalse(sequentialMarkers.isEmpty());
+        assertEquals(sequentialArtefacts, readParallelTestArtefacts());
+        assertEquals(sequentialMarkers, readProblemMarkers());
+        assertFalse(buildThreads.isEmpty());
+        assertTrue(buildThreads.stream().allMatch(name -> name.startsWith("Faktor-IPS build worker")));
+    }
+
+    private Map<String, String> readParallelTestArtefacts() throws Exception {
+        Map<String, String> artefacts = new TreeMap<>();
+        AFolder folder = ipsProject.getProject().getFolder(ParallelTestArtefactBuilder.FOLDER);
+        for (AResource resource : folder.getMembers()) {
+            artefacts.put(resource.getName(),
+                    StringUtil.readFromInputStream(((AFile)resource).getContents(), StandardCharsets.UTF_8));
+        }
+        return artefacts;
+    }
+
+    private Map<String, Set<String>> readProblemMarkers() {
+        Map<String, Set<String>> markers = new TreeMap<>();
+        for (IIpsSrcFile ipsSrcFile : root.getDefaultIpsPackageFragment().getIpsSrcFiles()) {
+            Set<String> messages = new TreeSet<>();
+            for (AMarker marker : ipsSrcFile.getCorrespondingResource().findMarkers(IpsBuilder.PROBLEM_MARKER, true,
+                    AResourceTreeTraversalDepth.RESOURCE_ONLY)) {
+                messages.add(marker.getAttribute(IMarker.SEVERITY) + " " + marker.getAttribute(IMarker.MESSAGE));
+            }
+            if (!messages.isEmpty()) {
+                markers.put(ipsSrcFile.getName(), messages);
+            }
+        }
+        return markers;
+    }
+
     @Test
     public void testCreateMarkersFromMessageList_keepSameMarkers() throws Exception {
         AMarker marker1 = mock(AMarker.class);
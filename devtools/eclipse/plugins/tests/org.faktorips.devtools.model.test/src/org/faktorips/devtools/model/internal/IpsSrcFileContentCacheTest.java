@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.devtools.model.internal;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.function.Consumer;
+
+import org.faktorips.abstracttest.AbstractIpsPluginTest;
+import org.faktorips.devtools.model.IIpsModel;
+import org.faktorips.devtools.model.internal.ipsobject.IpsSrcFileContent;
+import org.faktorips.devtools.model.ipsobject.IIpsSrcFile;
+import org.faktorips.devtools.model.ipsproject.IIpsProject;
+import org.faktorips.devtools.model.pctype.IPolicyCmptType;
+import org.faktorips.util.StringUtil;
+import org.junit.Test;
+
+public class IpsSrcFileContentCacheTest extends AbstractIpsPluginTest {
+
+    @SuppressWarnings("unchecked")
+    private Consumer<IIpsSrcFile> releaseListener = mock(Consumer.class);
+
+    private IpsSrcFileContentCache cache = new IpsSrcFileContentCache(2, releaseListener);
+
+    private IpsSrcFileContent newContent() {
+        IIpsSrcFile file = mock(IIpsSrcFile.class);
+        IpsSrcFileContent content = mock(IpsSrcFileContent.class);
+        when(content.getIpsSrcFile()).thenReturn(file);
+        cache.put(file, content);
+        return content;
+    }
+
+    @Test
+    public void testPutIfAbsent() {
+        IIpsSrcFile file = mock(IIpsSrcFile.class);
+        IpsSrcFileContent content = mock(IpsSrcFileContent.class);
+        IpsSrcFileContent otherContent = mock(IpsSrcFileContent.class);
+
+        assertSame(content, cache.putIfAbsent(file, content));
+        assertSame(content, cache.putIfAbsent(file, otherContent));
+        assertSame(content, cache.get(file));
+    }
+
+    @Test
+    public void testRemove() {
+        IpsSrcFileContent content = newContent();
+
+        cache.remove(content.getIpsSrcFile());
+
+        assertNull(cache.get(content.getIpsSrcFile()));
+        assertFalse(cache.getFiles().contains(content.getIpsSrcFile()));
+    }
+
+    @Test
+    public void testContentUsed_ReleasesLeastRecentlyUsed() {
+        IpsSrcFileContent content1 = newContent();
+        IpsSrcFileContent content2 = newContent();
+        IpsSrcFileContent content3 = newContent();
+
+        cache.contentUsed(content1);
+        cache.contentUsed(content2);
+        cache.contentUsed(content1);
+        cache.contentUsed(content3);
+
+        assertFalse(cache.getFiles().contains(content2.getIpsSrcFile()));
+        assertTrue(cache.getFiles().contains(content1.getIpsSrcFile()));
+        assertTrue(cache.getFiles().contains(content3.getIpsSrcFile()));
+        verify(releaseListener).accept(content2.getIpsSrcFile());
+        verify(releaseListener, never()).accept(content1.getIpsSrcFile());
+    }
+
+    @Test
+    public void testGet_ReleasedContentStillInUse() {
+        IpsSrcFileContent content1 = newContent();
+        IpsSrcFileContent content2 = newContent();
+        IpsSrcFileContent content3 = newContent();
+        cache.contentUsed(content1);
+        cache.contentUsed(content2);
+        cache.contentUsed(content3);
+
+        assertSame(content1, cache.get(content1.getIpsSrcFile()));
+        assertTrue(cache.getFiles().contains(content1.getIpsSrcFile()));
+    }
+
+    @Test
+    public void testRemove_ReleasedContent() {
+        IpsSrcFileContent content1 = newContent();
+        IpsSrcFileContent content2 = newContent();
+        IpsSrcFileContent content3 = newContent();
+        cache.contentUsed(content1);
+        cache.contentUsed(content2);
+        cache.contentUsed(content3);
+
+        cache.remove(content1.getIpsSrcFile());
+
+        assertNull(cache.get(content1.getIpsSrcFile()));
+    }
+
+    @Test
+    public void testContentUsed_ModifiedContentNotReleased() {
+        IpsSrcFileContent content1 = newContent();
+        IpsSrcFileContent content2 = newContent();
+        IpsSrcFileContent content3 = newContent();
+        when(content1.isModified()).thenReturn(true);
+
+        cache.contentUsed(content1);
+        cache.contentUsed(content2);
+        cache.contentUsed(content3);
+
+        assertTrue(cache.getFiles().contains(content1.getIpsSrcFile()));
+        assertFalse(cache.getFiles().contains(content2.getIpsSrcFile()));
+    }
+
+    @Test
+    public void testContentUsed_PinnedContentNotReleased() {
+        IpsSrcFileContent content1 = newContent();
+        IpsSrcFileContent content2 = newContent();
+        IpsSrcFileContent content3 = newContent();
+        cache.pin(content1.getIpsSrcFile());
+        cache.pin(content1.getIpsSrcFile());
+        cache.unpin(content1.getIpsSrcFile());
+
+        cache.contentUsed(content1);
+        cache.contentUsed(content2);
+        cache.contentUsed(content3);
+
+        assertTrue(cache.isPinned(content1.getIpsSrcFile()));
+        assertTrue(cache.getFiles().contains(content1.getIpsSrcFile()));
+        assertFalse(cache.getFiles().contains(content2.getIpsSrcFile()));
+    }
+
+    @Test
+    public void testUnpin() {
+        IIpsSrcFile file = mock(IIpsSrcFile.class);
+        cache.pin(file);
+
+        cache.unpin(file);
+
+        assertFalse(cache.isPinned(file));
+    }
+
+    @Test
+    public void testContentUsed_Unbounded() {
+        cache.setMaxLoadedContents(0);
+        IpsSrcFileContent content1 = newContent();
+        IpsSrcFileContent content2 = newContent();
+        IpsSrcFileContent content3 = newContent();
+
+        cache.contentUsed(content1);
+        cache.contentUsed(content2);
+        cache.contentUsed(content3);
+
+        assertSame(content1, cache.get(content1.getIpsSrcFile()));
+        assertSame(content2, cache.get(content2.getIpsSrcFile()));
+        assertSame(content3, cache.get(content3.getIpsSrcFile()));
+    }
+
+    @Test
+    public void testSetMaxLoadedContents_ReleasesExcessContents() {
+        IpsSrcFileContent content1 = newContent();
+        IpsSrcFileContent content2 = newContent();
+        cache.contentUsed(content1);
+        cache.contentUsed(content2);
+
+        cache.setMaxLoadedContents(1);
+
+        assertFalse(cache.getFiles().contains(content1.getIpsSrcFile()));
+        assertTrue(cache.getFiles().contains(content2.getIpsSrcFile()));
+    }
+
+    @Test
+    public void testModifyReleasedIpsObjectAndSave() throws Exception {
+        IIpsProject ipsProject = newIpsProject();
+        IPolicyCmptType type = newPolicyCmptType(ipsProject, "A");
+        IPolicyCmptType otherType = newPolicyCmptType(ipsProject, "B");
+        type.getIpsSrcFile().save(null);
+        otherType.getIpsSrcFile().save(null);
+        IpsModel model = (IpsModel)IIpsModel.get();
+        int maxLoadedContents = model.getMaxLoadedIpsSrcFileContents();
+        model.setMaxLoadedIpsSrcFileContents(1);
+        try {
+            type.getIpsSrcFile().getIpsObject();
+            otherType.getIpsSrcFile().getIpsObject();
+            assertFalse(model.getIpsSrcFilesInternal().contains(type.getIpsSrcFile()));
+
+            type.newPolicyCmptTypeAttribute("changedAfterRelease");
+            type.getIpsSrcFile().save(null);
+
+            assertSame(type, type.getIpsSrcFile().getIpsObject());
+            String xml = StringUtil.readFromInputStream(type.getIpsSrcFile().getCorrespondingFile().getContents(),
+                    ipsProject.getXmlFileCharset());
+            assertThat(xml, containsString("changedAfterRelease"));
+        } finally {
+            model.setMaxLoadedIpsSrcFileContents(maxLoadedContents);
+        }
+    }
+
+}
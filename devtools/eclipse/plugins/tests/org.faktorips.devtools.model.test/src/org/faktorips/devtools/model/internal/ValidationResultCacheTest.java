@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.devtools.model.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.faktorips.devtools.model.builder.IDependencyGraph;
+import org.faktorips.devtools.model.dependency.IDependency;
+import org.faktorips.devtools.model.ipsobject.IIpsObjectPartContainer;
+import org.faktorips.devtools.model.ipsobject.IIpsSrcFile;
+import org.faktorips.devtools.model.ipsobject.IpsObjectType;
+import org.faktorips.devtools.model.ipsobject.QualifiedNameType;
+import org.faktorips.devtools.model.ipsproject.IIpsProject;
+import org.faktorips.runtime.Message;
+import org.faktorips.runtime.MessageList;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ValidationResultCacheTest {
+
+    private IIpsProject ipsProject = mock(IIpsProject.class);
+
+    private IDependencyGraph graph = mock(IDependencyGraph.class);
+
+    private ValidationResultCache cache = new ValidationResultCache(() -> new IDependencyGraph[] { graph });
+
+    private IIpsObjectPartContainer superType;
+
+    private IIpsObjectPartContainer subType;
+
+    private IIpsObjectPartContainer unrelatedType;
+
+    @Before
+    public void setUp() {
+        when(graph.getIpsProject()).thenReturn(ipsProject);
+        when(graph.getDependants(any(QualifiedNameType.class))).thenReturn(new IDependency[0]);
+        superType = newContainer("SuperType");
+        subType = newContainer("SubType");
+        unrelatedType = newContainer("UnrelatedType");
+        IDependency dependency = mock(IDependency.class);
+        when(dependency.getSource()).thenReturn(qualifiedNameType(subType));
+        when(graph.getDependants(qualifiedNameType(superType))).thenReturn(new IDependency[] { dependency });
+    }
+
+    private IIpsObjectPartContainer newContainer(String name) {
+        return newContainer(name, IpsObjectType.POLICY_CMPT_TYPE);
+    }
+
+    private IIpsObjectPartContainer newContainer(String name, IpsObjectType type) {
+        IIpsSrcFile file = newFile(name, type);
+        IIpsObjectPartContainer container = mock(IIpsObjectPartContainer.class);
+        when(container.getIpsSrcFile()).thenReturn(file);
+        cache.putResult(container, new MessageList());
+        return container;
+    }
+
+    private IIpsSrcFile newFile(String name, IpsObjectType type) {
+        IIpsSrcFile file = mock(IIpsSrcFile.class);
+        when(file.getIpsProject()).thenReturn(ipsProject);
+        when(file.getQualifiedNameType()).thenReturn(new QualifiedNameType(name, type));
+        when(file.getIpsObjectType()).thenReturn(type);
+        return file;
+    }
+
+    private QualifiedNameType qualifiedNameType(IIpsObjectPartContainer container) {
+        return container.getIpsSrcFile().getQualifiedNameType();
+    }
+
+    @Test
+    public void testGetResult_ModifyingResultDoesNotChangeCache() {
+        MessageList result = new MessageList(Message.newError("code", "text"));
+        cache.putResult(superType, result);
+        result.clear();
+
+        MessageList cachedResult = cache.getResult(superType);
+        cachedResult.add(Message.newWarning("code", "text"));
+
+        assertEquals(1, cachedResult.size());
+        assertEquals(1, cache.getResult(superType).size());
+        assertTrue(cache.getResult(subType).isEmpty());
+    }
+
+    @Test
+    public void testPutResult_Null() {
+        cache.putResult(superType, null);
+
+        assertNull(cache.getResult(superType));
+    }
+
+    @Test
+    public void testRemoveStaleData_RemovesDependants() {
+        cache.removeStaleData(superType.getIpsSrcFile());
+
+        assertNull(cache.getResult(superType));
+        assertNull(cache.getResult(subType));
+        assertNotNull(cache.getResult(unrelatedType));
+    }
+
+    @Test
+    public void testRemoveStaleData_KeepsDependencies() {
+        cache.removeStaleData(subType.getIpsSrcFile());
+
+        assertNotNull(cache.getResult(superType));
+        assertNull(cache.getResult(subType));
+        assertNotNull(cache.getResult(unrelatedType));
+    }
+
+    @Test
+    public void testRemoveStaleData_RemovesFilesChangedBefore() {
+        cache.removeStaleData(unrelatedType.getIpsSrcFile());
+        cache.putResult(unrelatedType, new MessageList());
+
+        cache.removeStaleData(subType.getIpsSrcFile());
+
+        assertNull(cache.getResult(unrelatedType));
+        assertNotNull(cache.getResult(superType));
+    }
+
+    @Test
+    public void testRemoveStaleData_NoDependencyGraph() {
+        cache = new ValidationResultCache();
+        superType = newContainer("SuperType");
+        unrelatedType = newContainer("UnrelatedType");
+
+        cache.removeStaleData(superType.getIpsSrcFile());
+
+        assertNull(cache.getResult(superType));
+        assertNull(cache.getResult(unrelatedType));
+    }
+
+    @Test
+    public void testRemoveStaleData_ProductCmptRemovesAllProductCmpts() {
+        IIpsObjectPartContainer productCmpt = newContainer("ProductCmpt", IpsObjectType.PRODUCT_CMPT);
+        IIpsObjectPartContainer otherProductCmpt = newContainer("OtherProductCmpt", IpsObjectType.PRODUCT_CMPT);
+
+        cache.removeStaleData(productCmpt.getIpsSrcFile());
+
+        assertNull(cache.getResult(productCmpt));
+        assertNull(cache.getResult(otherProductCmpt));
+        assertNotNull(cache.getResult(unrelatedType));
+    }
+
+    @Test
+    public void testRemoveStaleDataOfAddedOrRemovedFile_RemovesSameQualifiedName() {
+        IIpsSrcFile addedFile = newFile("UnrelatedType", IpsObjectType.ENUM_TYPE);
+
+        cache.removeStaleDataOfAddedOrRemovedFile(addedFile);
+
+        assertNull(cache.getResult(unrelatedType));
+        assertNotNull(cache.getResult(superType));
+        assertNotNull(cache.getResult(subType));
+    }
+
+    @Test
+    public void testRemoveStaleDataOfAddedOrRemovedFile_RemovesDependants() {
+        IIpsSrcFile removedFile = superType.getIpsSrcFile();
+
+        cache.removeStaleDataOfAddedOrRemovedFile(removedFile);
+
+        assertNull(cache.getResult(superType));
+        assertNull(cache.getResult(subType));
+        assertNotNull(cache.getResult(unrelatedType));
+    }
+
+    @Test
+    public void testClear() {
+        cache.removeStaleData(unrelatedType.getIpsSrcFile());
+        cache.putResult(unrelatedType, new MessageList());
+
+        cache.clear();
+        cache.putResult(unrelatedType, new MessageList());
+        cache.removeStaleData(subType.getIpsSrcFile());
+
+        assertNull(cache.getResult(superType));
+        assertNotNull(cache.getResult(unrelatedType));
+    }
+
+    @Test
+    public void testGetHitRate() {
+        cache.getResult(superType);
+        cache.getResult(subType);
+        cache.getResult(unrelatedType);
+        cache.putResult(superType, null);
+        cache.getResult(superType);
+
+        assertEquals(3, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0.75, cache.getHitRate(), 0);
+
+        cache.resetStatistics();
+
+        assertEquals(0, cache.getHitRate(), 0);
+    }
+
+}
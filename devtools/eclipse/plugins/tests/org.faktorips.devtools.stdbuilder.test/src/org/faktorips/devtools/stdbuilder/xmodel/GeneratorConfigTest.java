@@ -52,6 +52,28 @@ public class GeneratorConfigTest {
         assertFalse(generatorConfig.isGenerateSerializablePolicyCmptSupport());
     }
 
+    @Test
+    public void testIsGenerateCompactTableIndices() {
+        assertFalse(generatorConfig.isGenerateCompactTableIndices());
+
+        when(config.getPropertyValueAsBoolean(StandardBuilderSet.CONFIG_PROPERTY_COMPACT_TABLE_INDICES))
+                .thenReturn(true);
+
+        assertThat(generatorConfig.isGenerateCompactTableIndices(), is(true));
+    }
+
+    @Test
+    public void testIsOffHeapTableStructure() {
+        assertFalse(generatorConfig.isOffHeapTableStructure("tables.RateTable"));
+
+        when(config.getPropertyValueAsString(StandardBuilderSet.CONFIG_PROPERTY_OFF_HEAP_TABLE_STRUCTURES))
+                .thenReturn("tables.OtherTable; tables.RateTable");
+
+        assertThat(generatorConfig.isOffHeapTableStructure("tables.RateTable"), is(true));
+        assertThat(generatorConfig.isOffHeapTableStructure("tables.OtherTable"), is(true));
+        assertThat(generatorConfig.isOffHeapTableStructure("tables.Rate"), is(false));
+    }
+
     @Test
     public void testGetBaseClassPolicyCmptType() {
         when(config.getPropertyValueAsString(StandardBuilderSet.CONFIG_PROPERTY_BASE_CLASS_POLICY_CMPT_TYPE))
@@ -11,12 +11,14 @@
 package org.faktorips.runtime.formula.groovy;
 
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
+import org.codehaus.groovy.runtime.InvokerHelper;
 import org.faktorips.runtime.formula.AbstractFormulaEvaluator;
 
 import groovy.lang.Binding;
-import groovy.lang.GroovyShell;
+import groovy.lang.GroovyClassLoader;
 import groovy.lang.Script;
 
 /**
@@ -26,6 +28,11 @@ import groovy.lang.Script;
  * in which context the method should run. These are referenced as 'this' within the method. That
  * means the method is expected to run within the context of the product component or product
  * component generation.
+ * <p>
+ * The evaluator only holds the compiled script class. Every evaluation creates a new script instance
+ * with its own {@link Binding}, so an evaluator could be used by several threads concurrently and
+ * the script class could be shared by evaluators with the same formulas (see
+ * {@link GroovyFormulaEvaluatorFactory}).
  *
  * @author dirmeier
  */
@@ -33,38 +40,64 @@ public class GroovyFormulaEvaluator extends AbstractFormulaEvaluator {
 
     public static final String THIS_CLASS_VAR = "thizProductCmptGeneration"; //$NON-NLS-1$
 
-    private final Binding binding = new Binding();
-
-    private final Script groovyScript;
+    private final Class<? extends Script> scriptClass;
 
     /**
      * The constructor expects the product component or product component generation and a list of
      * java method, one for every formula that should be evaluated by this formula evaluator. The
      * methods should be designed to run in the context of the product component generation. The
      * product component generation should be referenced as 'this' within the methods body.
+     * <p>
+     * The formulas are compiled by a new class loader. Use a {@link GroovyFormulaEvaluatorFactory}
+     * to share the compiled formulas between evaluators.
      *
      * @param object the product component or product component generation in which context the
      *            compiled expression methods would run
      * @param nameToExpressionMap a list of compiled expression methods, one for each formula
      */
     public GroovyFormulaEvaluator(Object object, Map<String, String> nameToExpressionMap) {
+        this(object, nameToExpressionMap, GroovyFormulaEvaluatorFactory.parse(new GroovyClassLoader(),
+                getSourceCode(nameToExpressionMap)));
+    }
+
+    /**
+     * Creates an evaluator using an already compiled script class. The script class must be
+     * compiled from the {@link #getSourceCode(Map) source code} of the given formulas.
+     *
+     * @param object the product component or product component generation in which context the
+     *            compiled expression methods would run
+     * @param nameToExpressionMap a list of compiled expression methods, one for each formula
+     * @param scriptClass the compiled script containing the formula methods
+     */
+    public GroovyFormulaEvaluator(Object object, Map<String, String> nameToExpressionMap,
+            Class<? extends Script> scriptClass) {
         super(object, nameToExpressionMap);
-        binding.setVariable(THIS_CLASS_VAR, object);
-        GroovyShell groovyShell = new GroovyShell(binding);
-        String sourceCode = getSourceCode(getNameToExpressionMap());
-        groovyScript = groovyShell.parse(sourceCode);
+        this.scriptClass = scriptClass;
     }
 
-    private String getSourceCode(Map<String, String> expressionMap) {
-        return expressionMap.values()
+    /**
+     * Returns the normalized groovy source code for the given formulas. The formulas are ordered by
+     * their names and line separators are unified, so the same formulas always result in the same
+     * source code.
+     */
+    public static String getSourceCode(Map<String, String> expressionMap) {
+        return new TreeMap<>(expressionMap).values()
                 .stream()
                 .map(f -> f.replaceAll("this([\\.\\s])", THIS_CLASS_VAR + "$1"))
+                .map(f -> f.replace("\r\n", "\n").replace('\r', '\n').trim())
                 .collect(Collectors.joining("\n"));
     }
 
+    Class<? extends Script> getScriptClass() {
+        return scriptClass;
+    }
+
     @Override
     protected Object evaluateInternal(String formularName, Object... parameters) {
-        return groovyScript.invokeMethod(formularName, parameters);
+        Binding binding = new Binding();
+        binding.setVariable(THIS_CLASS_VAR, getObject());
+        Script script = InvokerHelper.createScript(scriptClass, binding);
+        return script.invokeMethod(formularName, parameters);
     }
 
 }
@@ -11,20 +11,84 @@
 package org.faktorips.runtime.formula.groovy;
 
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.faktorips.runtime.formula.IFormulaEvaluator;
 import org.faktorips.runtime.formula.IFormulaEvaluatorFactory;
 
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.Script;
+
 /**
  * This is a {@link IFormulaEvaluatorFactory} creating {@link GroovyFormulaEvaluator}s.
+ * <p>
+ * Many product component generations share the same formulas. The factory compiles every distinct
+ * (normalized) formula source code only once and caches the resulting script class. All script
+ * classes are loaded by a single {@link GroovyClassLoader} per factory. Because every evaluation
+ * runs on a new script instance, the cached classes could be shared by all evaluators and threads.
  * 
  * @author dirmeier
  */
 public class GroovyFormulaEvaluatorFactory implements IFormulaEvaluatorFactory {
 
+    private final ConcurrentMap<String, Class<? extends Script>> scriptClasses = new ConcurrentHashMap<>();
+
+    private final ClassLoader parentClassLoader;
+
+    private volatile GroovyClassLoader groovyClassLoader;
+
+    /**
+     * Creates a factory that loads the classes referenced by the formulas using the context class
+     * loader of the current thread, just like a new {@link groovy.lang.GroovyShell} would do.
+     */
+    public GroovyFormulaEvaluatorFactory() {
+        this(Thread.currentThread().getContextClassLoader());
+    }
+
+    /**
+     * Creates a factory that loads the classes referenced by the formulas using the given class
+     * loader.
+     * 
+     * @param parentClassLoader the parent of the class loader compiling the formulas
+     */
+    public GroovyFormulaEvaluatorFactory(ClassLoader parentClassLoader) {
+        this.parentClassLoader = parentClassLoader;
+        groovyClassLoader = new GroovyClassLoader(parentClassLoader);
+    }
+
     @Override
     public IFormulaEvaluator createFormulaEvaluator(Object object, Map<String, String> nameToCompiledExpressionMap) {
-        return new GroovyFormulaEvaluator(object, nameToCompiledExpressionMap);
+        return new GroovyFormulaEvaluator(object, nameToCompiledExpressionMap,
+                getScriptClass(GroovyFormulaEvaluator.getSourceCode(nameToCompiledExpressionMap)));
+    }
+
+    /**
+     * Returns the compiled script class for the given source code. The source code is compiled only
+     * if it was not compiled by this factory before.
+     */
+    Class<? extends Script> getScriptClass(String sourceCode) {
+        return scriptClasses.computeIfAbsent(sourceCode, s -> parse(groovyClassLoader, s));
+    }
+
+    /**
+     * Returns the number of distinct formula sources compiled by this factory.
+     */
+    public int getCompiledScriptCount() {
+        return scriptClasses.size();
+    }
+
+    /**
+     * Removes all compiled script classes from the cache and replaces the class loader, so the
+     * classes could be unloaded once no evaluator references them anymore.
+     */
+    public void clearCache() {
+        groovyClassLoader = new GroovyClassLoader(parentClassLoader);
+        scriptClasses.clear();
+    }
+
+    static Class<? extends Script> parse(GroovyClassLoader classLoader, String sourceCode) {
+        return classLoader.parseClass(sourceCode).asSubclass(Script.class);
     }
 
 }
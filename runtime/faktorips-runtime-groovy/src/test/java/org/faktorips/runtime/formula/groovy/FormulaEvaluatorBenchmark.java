@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.formula.groovy;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.faktorips.runtime.InMemoryRuntimeRepository;
+import org.faktorips.runtime.formula.IFormulaEvaluator;
+import org.faktorips.runtime.formula.IFormulaEvaluatorFactory;
+import org.faktorips.runtime.formula.JavaFormulaEvaluatorFactory;
+import org.faktorips.runtime.internal.ProductComponent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the time to evaluate a formula with the {@link GroovyFormulaEvaluator} and with the
+ * {@link org.faktorips.runtime.formula.JavaFormulaEvaluator}. The formula is a typical premium
+ * calculation reading attributes of the generation and calculating with a parameter. As a baseline
+ * <code>generated</code> calls the same code compiled into the generation class, like the code
+ * generator does if formulas are not evaluated at runtime.
+ * <p>
+ * The benchmark <code>createEvaluator</code> measures the time to create an evaluator for a
+ * generation whose formulas were already compiled for another generation.
+ * <p>
+ * Run {@link #main(String[])} to start the benchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class FormulaEvaluatorBenchmark {
+
+    private static final Map<String, String> FORMULAS = new LinkedHashMap<>();
+
+    static {
+        FORMULAS.put("premium", "public int computePremium(int age) {\n"
+                + "    return this.getBasePremium() + (age > 50 ? this.getFactor() * (age - 50) : 0);\n"
+                + "}");
+    }
+
+    @Param({ "generated", "java", "groovy" })
+    private String evaluator;
+
+    private BenchmarkGeneration generation;
+
+    private IFormulaEvaluator formulaEvaluator;
+
+    private IFormulaEvaluatorFactory factory;
+
+    private int age;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ProductComponent productCmpt = new TestProductComponent(new InMemoryRuntimeRepository(), "id", "kind",
+                "version");
+        generation = new BenchmarkGeneration(productCmpt);
+        factory = "groovy".equals(evaluator) ? new GroovyFormulaEvaluatorFactory()
+                : new JavaFormulaEvaluatorFactory();
+        formulaEvaluator = factory.createFormulaEvaluator(generation, FORMULAS);
+        age = 60;
+    }
+
+    @Benchmark
+    public int evaluate() {
+        if ("generated".equals(evaluator)) {
+            return generation.computePremiumGenerated(age);
+        }
+        return (Integer)formulaEvaluator.evaluate("computePremium", age);
+    }
+
+    @Benchmark
+    public IFormulaEvaluator createEvaluator() {
+        return factory.createFormulaEvaluator(generation, FORMULAS);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(FormulaEvaluatorBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+    public static class BenchmarkGeneration extends TestProductCmptGeneration {
+
+        public BenchmarkGeneration(ProductComponent productCmpt) {
+            super(productCmpt);
+        }
+
+        public int getBasePremium() {
+            return 100;
+        }
+
+        public int getFactor() {
+            return 3;
+        }
+
+        public int computePremiumGenerated(int age) {
+            return getBasePremium() + (age > 50 ? getFactor() * (age - 50) : 0);
+        }
+
+    }
+
+}
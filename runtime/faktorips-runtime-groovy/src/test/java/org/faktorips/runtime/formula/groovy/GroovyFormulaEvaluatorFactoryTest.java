@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.formula.groovy;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.faktorips.runtime.InMemoryRuntimeRepository;
+import org.junit.Test;
+
+public class GroovyFormulaEvaluatorFactoryTest {
+
+    private final GroovyFormulaEvaluatorFactory factory = new GroovyFormulaEvaluatorFactory(
+            getClass().getClassLoader());
+
+    @Test
+    public void testCreateFormulaEvaluator_SameSourceSharesScriptClass() {
+        TestProductComponent cmpt = new TestProductComponent(new InMemoryRuntimeRepository(), "id", "kind", "v");
+        TestProductCmptGeneration gen1 = new TestProductCmptGeneration(cmpt);
+        TestProductCmptGeneration gen2 = new TestProductCmptGeneration(cmpt);
+        Map<String, String> expressions = new LinkedHashMap<>();
+        expressions.put("one", "public int one() { return 1 }");
+        expressions.put("two", "public int two() { return 2 }");
+        Map<String, String> reorderedExpressions = new LinkedHashMap<>();
+        reorderedExpressions.put("two", "public int two() { return 2 }\r\n");
+        reorderedExpressions.put("one", "public int one() { return 1 }");
+
+        GroovyFormulaEvaluator evaluator1 = (GroovyFormulaEvaluator)factory.createFormulaEvaluator(gen1,
+                expressions);
+        GroovyFormulaEvaluator evaluator2 = (GroovyFormulaEvaluator)factory.createFormulaEvaluator(gen2,
+                reorderedExpressions);
+
+        assertThat(evaluator2.getScriptClass(), is(sameInstance(evaluator1.getScriptClass())));
+        assertThat(factory.getCompiledScriptCount(), is(1));
+        assertThat(evaluator1.getObject(), is(gen1));
+        assertThat(evaluator2.getObject(), is(gen2));
+        assertThat(evaluator2.evaluate("two"), is(2));
+    }
+
+    @Test
+    public void testCreateFormulaEvaluator_DifferentSource() {
+        TestProductComponent cmpt = new TestProductComponent(new InMemoryRuntimeRepository(), "id", "kind", "v");
+        Map<String, String> expressions1 = new LinkedHashMap<>();
+        expressions1.put("one", "public int one() { return 1 }");
+        Map<String, String> expressions2 = new LinkedHashMap<>();
+        expressions2.put("one", "public int one() { return 11 }");
+
+        GroovyFormulaEvaluator evaluator1 = (GroovyFormulaEvaluator)factory.createFormulaEvaluator(cmpt,
+                expressions1);
+        GroovyFormulaEvaluator evaluator2 = (GroovyFormulaEvaluator)factory.createFormulaEvaluator(cmpt,
+                expressions2);
+
+        assertThat(evaluator2.getScriptClass(), is(not(sameInstance(evaluator1.getScriptClass()))));
+        assertThat(evaluator1.evaluate("one"), is(1));
+        assertThat(evaluator2.evaluate("one"), is(11));
+    }
+
+    @Test
+    public void testClearCache() {
+        TestProductComponent cmpt = new TestProductComponent(new InMemoryRuntimeRepository(), "id", "kind", "v");
+        Map<String, String> expressions = new LinkedHashMap<>();
+        expressions.put("one", "public int one() { return 1 }");
+        GroovyFormulaEvaluator evaluator1 = (GroovyFormulaEvaluator)factory.createFormulaEvaluator(cmpt,
+                expressions);
+
+        factory.clearCache();
+        GroovyFormulaEvaluator evaluator2 = (GroovyFormulaEvaluator)factory.createFormulaEvaluator(cmpt,
+                expressions);
+
+        assertThat(evaluator2.getScriptClass(), is(not(sameInstance(evaluator1.getScriptClass()))));
+        assertThat(evaluator1.evaluate("one"), is(1));
+        assertThat(factory.getCompiledScriptCount(), is(1));
+    }
+
+}
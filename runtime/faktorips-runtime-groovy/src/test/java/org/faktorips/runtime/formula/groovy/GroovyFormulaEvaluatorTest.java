@@ -12,8 +12,13 @@ package org.faktorips.runtime.formula.groovy;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.faktorips.runtime.IConfigurableModelObject;
 import org.faktorips.runtime.IRuntimeRepository;
@@ -83,6 +88,42 @@ public class GroovyFormulaEvaluatorTest {
         assertGetString(evaluator);
     }
 
+    @Test
+    public void testEvaluate_Concurrently() throws Exception {
+        GroovyFormulaEvaluatorFactory factory = new GroovyFormulaEvaluatorFactory(getClass().getClassLoader());
+        List<MyCmptGeneration> generations = new ArrayList<>();
+        List<IFormulaEvaluator> evaluators = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            MyCmptGeneration gen = new MyCmptGeneration(testCmpt);
+            gen.var1 = i;
+            gen.var2 = 100;
+            generations.add(gen);
+            evaluators.add(factory.createFormulaEvaluator(gen, expressions));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < evaluators.size(); i++) {
+                IFormulaEvaluator evaluator = evaluators.get(i);
+                int expected = generations.get(i).var1 + generations.get(i).var2;
+                results.add(executor.submit(() -> {
+                    for (int j = 0; j < 200; j++) {
+                        if (!Integer.valueOf(expected).equals(evaluator.evaluate("add"))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertEquals(true, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, factory.getCompiledScriptCount());
+    }
+
     private void assertGetString(IFormulaEvaluator evaluator) {
         String testString = "asd";
         assertEquals(testString, evaluator.evaluate("getString", testString));
@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongBiFunction;
+
+import org.faktorips.runtime.caching.BoundedCache;
+import org.faktorips.runtime.caching.CacheStatistics;
+import org.faktorips.runtime.caching.IComputable;
+import org.faktorips.runtime.internal.AbstractCacheFactory;
+
+/**
+ * Cache factory that creates a {@link BoundedCache} for each object type. In contrast to the
+ * {@link DefaultCacheFactory} the cached objects are not released all at once under memory pressure
+ * but the caches are limited by a maximum number of entries or a maximum weight per object type and
+ * the least recently used objects are evicted first. Optionally the objects expire after a
+ * configured time.
+ * <p>
+ * The settings are configured per value class of the cache, that is {@link IProductComponent},
+ * {@link IProductComponentGeneration}, {@link ITable}, {@link java.util.List List} for enumeration
+ * values or the class of a custom runtime object. Classes without explicit settings use the default
+ * settings, which are unbounded and without expiry.
+ * <p>
+ * The factory keeps a reference to the last cache created for every value class so that the
+ * statistics could be read with {@link #getStatistics()} and entries could be invalidated with
+ * {@link #invalidate(Class, Object)}.
+ */
+public class BoundedCacheFactory extends AbstractCacheFactory {
+
+    private final Map<Class<?>, Long> maximumSizeMap = new HashMap<>();
+
+    private final Map<Class<?>, Long> maximumWeightMap = new HashMap<>();
+
+    private final Map<Class<?>, ToLongBiFunction<Object, Object>> weigherMap = new HashMap<>();
+
+    private final Map<Class<?>, Long> expireAfterWriteMap = new HashMap<>();
+
+    private final Map<Class<?>, BoundedCache<?, ?>> caches = new ConcurrentHashMap<>();
+
+    private long defaultMaximumSize = BoundedCache.UNLIMITED;
+
+    private long defaultExpireAfterWriteNanos;
+
+    private int concurrencyLevel = 16;
+
+    /**
+     * Creates a cache factory whose caches are unbounded until they are configured by the setter
+     * methods.
+     */
+    public BoundedCacheFactory() {
+        super();
+    }
+
+    /**
+     * Creates a cache factory that limits the caches for product components, product component
+     * generations and tables to the given number of entries. The classes are loaded with the given
+     * class loader which must be the one used by the runtime repository.
+     */
+    public BoundedCacheFactory(ClassLoader cl, long maximumProductCmpts, long maximumProductCmptGenerations,
+            long maximumTables) {
+        super();
+        try {
+            setMaximumSize(cl.loadClass(IProductComponent.class.getName()), maximumProductCmpts);
+            setMaximumSize(cl.loadClass(IProductComponentGeneration.class.getName()), maximumProductCmptGenerations);
+            setMaximumSize(cl.loadClass(ITable.class.getName()), maximumTables);
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Limits the number of cached objects of the given type.
+     */
+    public void setMaximumSize(Class<?> typeClass, long maximumSize) {
+        maximumSizeMap.put(typeClass, maximumSize);
+        maximumWeightMap.remove(typeClass);
+        weigherMap.remove(typeClass);
+    }
+
+    /**
+     * Limits the total weight of the cached objects of the given type. The weigher is called once
+     * for every loaded object, for example to use the number of rows as weight of a table.
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> void setMaximumWeight(Class<V> typeClass,
+            long maximumWeight,
+            ToLongBiFunction<? super K, ? super V> weigher) {
+        maximumWeightMap.put(typeClass, maximumWeight);
+        weigherMap.put(typeClass, (ToLongBiFunction<Object, Object>)weigher);
+        maximumSizeMap.remove(typeClass);
+    }
+
+    /**
+     * Sets the maximum number of cached objects for all types without explicit settings.
+     */
+    public void setDefaultMaximumSize(long defaultMaximumSize) {
+        this.defaultMaximumSize = defaultMaximumSize;
+    }
+
+    /**
+     * Lets the cached objects of the given type expire after the given duration. A duration of 0
+     * disables the expiry.
+     */
+    public void setExpireAfterWrite(Class<?> typeClass, long duration, TimeUnit unit) {
+        expireAfterWriteMap.put(typeClass, unit.toNanos(duration));
+    }
+
+    /**
+     * Sets the expiry for all types without explicit settings. A duration of 0 disables the
+     * expiry.
+     */
+    public void setDefaultExpireAfterWrite(long duration, TimeUnit unit) {
+        defaultExpireAfterWriteNanos = unit.toNanos(duration);
+    }
+
+    public void setConcurrencyLevel(int concurrencyLevel) {
+        this.concurrencyLevel = concurrencyLevel;
+    }
+
+    public int getConcurrencyLevel() {
+        return concurrencyLevel;
+    }
+
+    @Override
+    public <K, V> BoundedCache<K, V> createCache(IComputable<K, V> computable) {
+        Class<?> valueClass = computable.getValueClass();
+        BoundedCache.Builder<K, V> builder = BoundedCache.builder(computable).concurrencyLevel(concurrencyLevel)
+                .expireAfterWrite(expireAfterWriteMap.getOrDefault(valueClass, defaultExpireAfterWriteNanos),
+                        TimeUnit.NANOSECONDS);
+        if (weigherMap.containsKey(valueClass)) {
+            builder.maximumWeight(maximumWeightMap.get(valueClass), weigherMap.get(valueClass));
+        } else {
+            long maximumSize = maximumSizeMap.getOrDefault(valueClass, defaultMaximumSize);
+            if (maximumSize != BoundedCache.UNLIMITED) {
+                builder.maximumSize(maximumSize);
+            }
+        }
+        BoundedCache<K, V> cache = builder.build();
+        caches.put(valueClass, cache);
+        return cache;
+    }
+
+    /**
+     * Returns the statistics of the last cache created for every value class.
+     */
+    public Map<Class<?>, CacheStatistics> getStatistics() {
+        Map<Class<?>, CacheStatistics> statistics = new LinkedHashMap<>();
+        caches.forEach((c, cache) -> statistics.put(c, cache.getStatistics()));
+        return statistics;
+    }
+
+    /**
+     * Returns the statistics of the last cache created for the given value class or
+     * <code>null</code> if no such cache was created.
+     */
+    public CacheStatistics getStatistics(Class<?> typeClass) {
+        BoundedCache<?, ?> cache = caches.get(typeClass);
+        return cache == null ? null : cache.getStatistics();
+    }
+
+    /**
+     * Removes the object with the given key from the last cache created for the given value class.
+     * The key is the id of a product component, the {@link GenerationId} of a generation, the
+     * qualified name of a table or custom object or the class of an enumeration.
+     */
+    @SuppressWarnings("unchecked")
+    public void invalidate(Class<?> typeClass, Object key) {
+        BoundedCache<Object, ?> cache = (BoundedCache<Object, ?>)caches.get(typeClass);
+        if (cache != null) {
+            cache.invalidate(key);
+        }
+    }
+
+    /**
+     * Removes all objects from all caches created by this factory.
+     */
+    public void invalidateAll() {
+        caches.values().forEach(BoundedCache::invalidateAll);
+    }
+
+}
@@ -13,15 +13,21 @@ package org.faktorips.runtime;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.faktorips.runtime.internal.AbstractClassLoadingRuntimeRepository;
 import org.faktorips.runtime.internal.DateTime;
+import org.faktorips.runtime.internal.GenerationElementCache;
 import org.faktorips.runtime.internal.IpsStringUtils;
+import org.faktorips.runtime.internal.StaxElementReader;
 import org.faktorips.runtime.internal.toc.CustomTocEntryObject;
 import org.faktorips.runtime.internal.toc.EnumContentTocEntry;
 import org.faktorips.runtime.internal.toc.GenerationTocEntry;
@@ -32,7 +38,6 @@ import org.faktorips.runtime.internal.toc.TestCaseTocEntry;
 import org.faktorips.runtime.internal.toc.TocEntry;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
 import org.xml.sax.ErrorHandler;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
@@ -72,6 +77,12 @@ public class ClassloaderRuntimeRepository extends AbstractClassLoadingRuntimeRep
     /** Path to the resource containing the toc. **/
     private final String tocResourcePath;
 
+    /** Parses every product component only once for all of its generations. */
+    private final GenerationElementCache generationElementCache = new GenerationElementCache(
+            this::getDocumentElementInternal);
+
+    private volatile boolean streamingProductCmptXml;
+
     /**
      * Creates a new repository that loads its contents from the given classloader and the given
      * package. Uses the default toc resource name. Uses the default document builder available via
@@ -145,7 +156,7 @@ public class ClassloaderRuntimeRepository extends AbstractClassLoadingRuntimeRep
      *             contents.
      * @throws RuntimeException if the table of contents can't be read.
      */
-    private ClassloaderRuntimeRepository(String tocResource, ClassLoader cl, ICacheFactory cacheFactory) {
+    protected ClassloaderRuntimeRepository(String tocResource, ClassLoader cl, ICacheFactory cacheFactory) {
         super(tocResource, cacheFactory, cl);
         if ((tocResource == null) || (cl == null)) {
             throw new NullPointerException();
@@ -217,38 +228,39 @@ public class ClassloaderRuntimeRepository extends AbstractClassLoadingRuntimeRep
         return new ClassloaderRuntimeRepository(tocResource, cl, cacheFactory);
     }
 
+    /**
+     * Returns the path of the resource containing the table of contents.
+     * 
+     * @since 22.12
+     */
+    protected String getTocResourcePath() {
+        return tocResourcePath;
+    }
+
+    /**
+     * Returns the document builder used to parse the XML files of product components, generations,
+     * test cases and custom objects. The table of contents is read with a streaming parser and does
+     * not use this document builder.
+     */
     protected DocumentBuilder getDocumentBuilder() {
         return docBuilderHolder.get();
     }
 
     @Override
     protected ReadonlyTableOfContents loadTableOfContents() {
-        InputStream is = null;
-        Document doc;
-        try {
-            is = getClassLoader().getResourceAsStream(tocResourcePath);
-            if (is == null) {
-                throw new IllegalArgumentException("Can't find table of contents file " + tocResourcePath);
-            }
-            doc = getDocumentBuilder().parse(is);
-            // CSOFF: IllegalCatch
-        } catch (Exception e) {
-            throw new RuntimeException("Error loading table of contents from " + tocResourcePath, e);
-        } finally {
-            if (is != null) {
-                try {
-                    is.close();
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
-                }
-            }
+        InputStream is = getClassLoader().getResourceAsStream(tocResourcePath);
+        if (is == null) {
+            throw new RuntimeException("Error loading table of contents from " + tocResourcePath,
+                    new IllegalArgumentException("Can't find table of contents file " + tocResourcePath));
         }
-        try {
-            Element tocElement = doc.getDocumentElement();
+        try (InputStream tocStream = is) {
             ReadonlyTableOfContents toc = new ReadonlyTableOfContents(getClassLoader());
-            toc.initFromXml(tocElement);
+            toc.initFromXml(tocStream);
             return toc;
-        } catch (Exception e) {
+        } catch (IOException | XMLStreamException e) {
+            throw new RuntimeException("Error loading table of contents from " + tocResourcePath, e);
+            // CSOFF: IllegalCatch
+        } catch (RuntimeException e) {
             // CSON: IllegalCatch
             throw new RuntimeException("Error creating toc from xml.", e);
         }
@@ -259,26 +271,95 @@ public class ClassloaderRuntimeRepository extends AbstractClassLoadingRuntimeRep
         return tocEntry.getImplementationClassName();
     }
 
+    /**
+     * Returns whether the XML files of product components are read with a streaming parser.
+     * 
+     * @see #setStreamingProductCmptXml(boolean)
+     * @since 22.12
+     */
+    public boolean isStreamingProductCmptXml() {
+        return streamingProductCmptXml;
+    }
+
+    /**
+     * Sets whether the XML files of product components are read with a streaming parser instead of
+     * parsing the whole file into a DOM. If so, the element of a product component is created
+     * without the elements of its generations, and the element of a generation is created without
+     * the product component's other content. That way the memory needed to load a product component
+     * or generation does not depend on the number of generations in its file.
+     * <p>
+     * As the file is read again for every generation, this is slower than the default if many
+     * generations of the same product component are loaded. Note that code searching for
+     * descendants of a product component's element, for example
+     * {@link Element#getElementsByTagName(String)}, does not find elements of the generations.
+     * 
+     * @since 22.12
+     */
+    public void setStreamingProductCmptXml(boolean streamingProductCmptXml) {
+        this.streamingProductCmptXml = streamingProductCmptXml;
+    }
+
     @Override
     protected Element getDocumentElement(ProductCmptTocEntry tocEntry) {
+        if (streamingProductCmptXml) {
+            return readProductCmptElement(tocEntry);
+        }
         return getDocumentElementInternal(tocEntry);
     }
 
     @Override
     protected Element getDocumentElement(GenerationTocEntry tocEntry) {
-        Element docElement = getDocumentElement(tocEntry.getParent());
-        NodeList nl = docElement.getChildNodes();
-        DateTime validFrom = tocEntry.getValidFrom();
-        for (int i = 0; i < nl.getLength(); i++) {
-            if ("Generation".equals(nl.item(i).getNodeName())) {
-                Element genElement = (Element)nl.item(i);
-                DateTime generationValidFrom = DateTime.parseIso(genElement.getAttribute("validFrom"));
-                if (validFrom.equals(generationValidFrom)) {
-                    return genElement;
+        if (streamingProductCmptXml) {
+            return readGenerationElement(tocEntry);
+        }
+        return generationElementCache.getGenerationElement(tocEntry);
+    }
+
+    private Element readProductCmptElement(ProductCmptTocEntry tocEntry) {
+        return readProductCmptXml(tocEntry.getXmlResourceName(), reader -> {
+            Document document = StaxElementReader.newDocument();
+            Element element = StaxElementReader.readElement(reader, document, GenerationTocEntry.XML_TAG::equals);
+            document.appendChild(element);
+            return element;
+        });
+    }
+
+    private Element readGenerationElement(GenerationTocEntry tocEntry) {
+        Element genElement = readProductCmptXml(tocEntry.getParent().getXmlResourceName(), reader -> {
+            while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                if (GenerationTocEntry.XML_TAG.equals(StaxElementReader.getElementName(reader))
+                        && tocEntry.getValidFrom().equals(DateTime.parseIso(
+                                reader.getAttributeValue(null, GenerationTocEntry.PROPERTY_VALID_FROM)))) {
+                    Document document = StaxElementReader.newDocument();
+                    Element element = StaxElementReader.readElement(reader, document, name -> false);
+                    document.appendChild(element);
+                    return element;
                 }
+                StaxElementReader.skipElement(reader);
             }
+            return null;
+        });
+        if (genElement == null) {
+            throw new RuntimeException("Can't find the generation for the toc entry " + tocEntry);
+        }
+        return genElement;
+    }
+
+    private Element readProductCmptXml(String resource, XmlElementReader elementReader) {
+        InputStream is = getClassLoader().getResourceAsStream(resource);
+        if (is == null) {
+            throw new RuntimeException("Can't find resource " + resource);
+        }
+        try (Reader streamReader = new InputStreamReader(is, StandardCharsets.UTF_8)) {
+            XMLStreamReader reader = StaxElementReader.createReader(streamReader);
+            try {
+                return elementReader.read(reader);
+            } finally {
+                reader.close();
+            }
+        } catch (IOException | XMLStreamException e) {
+            throw new RuntimeException("Can't parse xml resource " + resource, e);
         }
-        throw new RuntimeException("Can't find the generation for the toc entry " + tocEntry);
     }
 
     @Override
@@ -306,6 +387,18 @@ public class ClassloaderRuntimeRepository extends AbstractClassLoadingRuntimeRep
         if (is == null) {
             throw new RuntimeException("Can't find resource " + resource + " for toc entry " + tocEntry);
         }
+        return parse(resource, is);
+    }
+
+    private Element getDocumentElementInternal(String resource) {
+        InputStream is = getClassLoader().getResourceAsStream(resource);
+        if (is == null) {
+            throw new RuntimeException("Can't find resource " + resource);
+        }
+        return parse(resource, is);
+    }
+
+    private Element parse(String resource, InputStream is) {
         Document doc;
         try {
             doc = getDocumentBuilder().parse(new InputSource(new InputStreamReader(is, StandardCharsets.UTF_8)));
@@ -375,6 +468,11 @@ public class ClassloaderRuntimeRepository extends AbstractClassLoadingRuntimeRep
         return getDocumentElementInternal(tocEntry);
     }
 
+    @FunctionalInterface
+    private interface XmlElementReader {
+        Element read(XMLStreamReader reader) throws XMLStreamException;
+    }
+
     private static final class EmptyInputStream extends InputStream {
         @Override
         public int read() throws IOException {
@@ -10,6 +10,8 @@
 
 package org.faktorips.runtime;
 
+import java.util.function.Function;
+
 import org.faktorips.runtime.model.type.AssociationKind;
 
 /**
@@ -173,4 +175,31 @@ public interface IDeltaComputationOptions {
         return false;
     }
 
+    /**
+     * Returns a function computing an identity key for the objects of the given association, or
+     * <code>null</code> if the objects can only be compared with {@link #isSame(IModelObject,
+     * IModelObject)}.
+     * <p>
+     * If the {@link #getMethod(String) delta computation method} is
+     * {@link IDeltaComputationOptions.ComputationMethod#BY_OBJECT BY_OBJECT}, every object of the
+     * original association has to be compared with the objects of the reference association to
+     * find the same object. With an identity key, the objects are found using a hash map instead of
+     * calling {@link #isSame(IModelObject, IModelObject)} for every pair of objects, so the delta of
+     * associations with thousands of objects can be computed in linear time.
+     * <p>
+     * The keys must be consistent with {@link #isSame(IModelObject, IModelObject)}: Two objects of
+     * the association must have {@link Object#equals(Object) equal} keys if and only if they are
+     * the same. For example if coverages are the same if they are of the same coverage type, the
+     * key could be the coverage type.
+     * 
+     * @param association the name of the association
+     * @return the function returning the identity key of an object of the association or
+     *             <code>null</code> to use {@link #isSame(IModelObject, IModelObject)}
+     * 
+     * @since 22.12
+     */
+    default Function<IModelObject, Object> getIdentityKeyExtractor(String association) {
+        return null;
+    }
+
 }
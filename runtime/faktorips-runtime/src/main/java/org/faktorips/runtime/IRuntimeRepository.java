@@ -10,9 +10,13 @@
 
 package org.faktorips.runtime;
 
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.Calendar;
+import java.util.GregorianCalendar;
 import java.util.List;
 import java.util.Set;
+import java.util.TimeZone;
 
 import javax.xml.bind.JAXBContext;
 
@@ -222,6 +226,29 @@ public interface IRuntimeRepository {
      */
     IProductComponentGeneration getProductComponentGeneration(String id, Calendar effectiveDate);
 
+    /**
+     * Returns the product component generation identified by the id and effective at the start of
+     * the given day in the {@link TimeZone#getDefault() default time zone}. Same as
+     * {@link #getProductComponentGeneration(String, Calendar)} with a calendar set to the start of
+     * the day, but repositories may look up the generation without creating a calendar. Returns
+     * <code>null</code> if either the id or the effective date is <code>null</code> or no
+     * generation is effective on the given day.
+     * 
+     * @param id The product component's id.
+     * @param effectiveDate The process' effective date
+     * 
+     * @return The product component generation or <code>null</code>.
+     * 
+     * @since 22.12
+     */
+    default IProductComponentGeneration getProductComponentGenerationAt(String id, LocalDate effectiveDate) {
+        if (effectiveDate == null) {
+            return null;
+        }
+        return getProductComponentGeneration(id,
+                GregorianCalendar.from(effectiveDate.atStartOfDay(ZoneId.systemDefault())));
+    }
+
     /**
      * Returns the product component generation identified by the id and the effective date. Same as
      * getProductComponentGeneration(String id, Calendar effectiveDate) but throws an exception if
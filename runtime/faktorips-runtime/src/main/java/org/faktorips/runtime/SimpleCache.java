@@ -17,6 +17,17 @@ import org.faktorips.runtime.caching.IComputable;
 /**
  * Simple cache that just uses a HashMap to cache objects and never releases them. This Cache is
  * thread safe but not very high-performance.
+ * <p>
+ * By default a missing object is computed while holding a lock on the whole cache, so a slow
+ * computation blocks every other thread that misses the cache. If the cache is created with
+ * per-key locking (see {@link #SimpleCache(IComputable, int, boolean)}), only threads requesting
+ * the same key are blocked while an object is computed.
+ * <p>
+ * <code>null</code> results are not cached. With per-key locking, threads that waited for the
+ * computation of a key get the outcome of that computation, that is <code>null</code> or the
+ * exception thrown by the {@link IComputable}, instead of computing the key again. Threads
+ * requesting the key after the computation has finished compute it again. With the lock on the
+ * whole cache, every thread computes a key again that has no cached result.
  * 
  * @author Jan Ortmann
  */
@@ -24,6 +35,7 @@ public class SimpleCache implements IComputable<Object, Object> {
 
     private final ConcurrentHashMap<Object, Object> objects;
     private final IComputable<Object, Object> computable;
+    private final ConcurrentHashMap<Object, Computation> locks;
 
     public SimpleCache(IComputable<Object, Object> computable) {
         this(computable, 16);
@@ -33,8 +45,21 @@ public class SimpleCache implements IComputable<Object, Object> {
      * 
      */
     public SimpleCache(IComputable<Object, Object> computable, int initialCapacity) {
+        this(computable, initialCapacity, false);
+    }
+
+    /**
+     * Creates a new cache.
+     * 
+     * @param computable the {@link IComputable} to load new objects
+     * @param initialCapacity the initial capacity of the internal map
+     * @param lockPerKey <code>true</code> to lock only the requested key while computing a missing
+     *            object, <code>false</code> to lock the whole cache
+     */
+    public SimpleCache(IComputable<Object, Object> computable, int initialCapacity, boolean lockPerKey) {
         this.computable = computable;
         objects = new ConcurrentHashMap<>(initialCapacity);
+        locks = lockPerKey ? new ConcurrentHashMap<>() : null;
     }
 
     @Override
@@ -43,18 +68,37 @@ public class SimpleCache implements IComputable<Object, Object> {
         if (result != null) {
             return result;
         }
-        synchronized (this) {
-            result = objects.get(key);
-            if (result != null) {
-                return result;
+        if (locks == null) {
+            synchronized (this) {
+                return computeAndPut(key);
             }
-            result = computable.compute(key);
-            if (result != null) {
-                objects.put(key, result);
-                return result;
+        }
+        Computation computation = locks.computeIfAbsent(key, k -> new Computation());
+        try {
+            synchronized (computation) {
+                if (computation.done) {
+                    return computation.getResult();
+                }
+                return computation.compute(key);
             }
-            return null;
+        } finally {
+            // the result is already visible in objects, so threads that create a new computation for
+            // the same key will find it in the double check
+            locks.remove(key, computation);
+        }
+    }
+
+    private Object computeAndPut(Object key) throws InterruptedException {
+        Object result = objects.get(key);
+        if (result != null) {
+            return result;
+        }
+        result = computable.compute(key);
+        if (result != null) {
+            objects.put(key, result);
+            return result;
         }
+        return null;
     }
 
     @Override
@@ -62,4 +106,48 @@ public class SimpleCache implements IComputable<Object, Object> {
         return computable.getValueClass();
     }
 
+    /**
+     * The computation of a key that threads waiting for the same key share. Guarded by its own
+     * monitor. If the computing thread is interrupted, the computation is not done and the waiting
+     * threads compute the key themselves.
+     */
+    private class Computation {
+
+        private boolean done;
+
+        private Object result;
+
+        private RuntimeException exception;
+
+        private Error error;
+
+        private Object compute(Object key) throws InterruptedException {
+            try {
+                result = computeAndPut(key);
+                done = true;
+                return result;
+                // CSOFF: IllegalCatch
+            } catch (RuntimeException e) {
+                // CSON: IllegalCatch
+                exception = e;
+                done = true;
+                throw e;
+            } catch (Error e) {
+                error = e;
+                done = true;
+                throw e;
+            }
+        }
+
+        private Object getResult() {
+            if (exception != null) {
+                throw exception;
+            }
+            if (error != null) {
+                throw error;
+            }
+            return result;
+        }
+    }
+
 }
@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import org.faktorips.runtime.internal.RepositorySnapshot;
+import org.faktorips.runtime.internal.RepositorySnapshotWriter;
+import org.faktorips.runtime.internal.Table;
+import org.faktorips.runtime.internal.toc.EnumContentTocEntry;
+import org.faktorips.runtime.internal.toc.ReadonlyTableOfContents;
+import org.faktorips.runtime.internal.toc.TableContentTocEntry;
+
+/**
+ * A {@link ClassloaderRuntimeRepository} that reads the table of contents, the table contents and
+ * the enumeration contents from a binary {@link RepositorySnapshot} instead of parsing their XML.
+ * The snapshot is created at build time by the {@link RepositorySnapshotWriter} and must be
+ * available as resource next to the table of contents, named as returned by
+ * {@link RepositorySnapshot#getSnapshotResourcePath(String)}. If the snapshot is stored in a file,
+ * it is memory mapped and the tables and enumerations are decoded only when they are loaded.
+ * <p>
+ * If there is no snapshot, it cannot be read or it was created from another table of contents than
+ * the current one, the repository reads the XML files like a {@link ClassloaderRuntimeRepository}.
+ * Every table and enumeration content is compared with the checksum stored in the snapshot when it
+ * is loaded, and read from XML if the file changed after the snapshot was created.
+ * Product components, generations, test cases and custom objects are always read from XML.
+ * 
+ * @since 22.12
+ */
+public class SnapshotRuntimeRepository extends ClassloaderRuntimeRepository {
+
+    /**
+     * The snapshot or <code>null</code> if the XML files are read. The super constructor loads the
+     * table of contents before the initializers of this class run, so the field has no initializer
+     * and {@link #loadTableOfContents()} assigns it in every case.
+     */
+    private RepositorySnapshot snapshot;
+
+    /**
+     * Creates a new repository that loads its contents from the given classloader and the given
+     * package. Uses the default toc resource name.
+     * 
+     * @see ClassloaderRuntimeRepository#ClassloaderRuntimeRepository(ClassLoader, String)
+     */
+    public SnapshotRuntimeRepository(ClassLoader cl, String basePackage) {
+        this(cl, basePackage, TABLE_OF_CONTENTS_FILE, new DefaultCacheFactory(cl));
+    }
+
+    /**
+     * Creates a new repository that loads its contents from the given classloader and the given
+     * package and toc resource.
+     * 
+     * @see ClassloaderRuntimeRepository#ClassloaderRuntimeRepository(ClassLoader, String, String,
+     *          ICacheFactory)
+     */
+    public SnapshotRuntimeRepository(ClassLoader cl, String basePackage, String pathToToc,
+            ICacheFactory cacheFactory) {
+        super(cl, basePackage, pathToToc, cacheFactory);
+    }
+
+    /**
+     * Creates a new repository that loads its contents from the given toc resource and classloader.
+     * 
+     * @param tocResource Path to the resource containing the toc file. E.g.
+     *            "org/faktorips/sample/internal/faktorips-repository-toc.xml"
+     * @param cl The classloader to use.
+     * @param cacheFactory The CacheFactory used to create the cache objects in the repository
+     */
+    public SnapshotRuntimeRepository(String tocResource, ClassLoader cl, ICacheFactory cacheFactory) {
+        super(tocResource, cl, cacheFactory);
+    }
+
+    /**
+     * Returns whether the contents are read from the snapshot or, if there is no valid snapshot,
+     * from XML.
+     */
+    public boolean isSnapshotUsed() {
+        return snapshot != null;
+    }
+
+    @Override
+    protected ReadonlyTableOfContents loadTableOfContents() {
+        RepositorySnapshot loadedSnapshot = loadSnapshot();
+        if (loadedSnapshot != null) {
+            try {
+                ReadonlyTableOfContents toc = new ReadonlyTableOfContents(getClassLoader());
+                toc.initFromXml(loadedSnapshot.createTocElement());
+                snapshot = loadedSnapshot;
+                return toc;
+                // CSOFF: IllegalCatch
+            } catch (RuntimeException e) {
+                // CSON: IllegalCatch
+                // an invalid snapshot is ignored, the XML files are read instead
+            }
+        }
+        snapshot = null;
+        return super.loadTableOfContents();
+    }
+
+    private RepositorySnapshot loadSnapshot() {
+        String snapshotResourcePath = RepositorySnapshot.getSnapshotResourcePath(getTocResourcePath());
+        try {
+            RepositorySnapshot loadedSnapshot = RepositorySnapshot.load(getClassLoader(), snapshotResourcePath);
+            if (loadedSnapshot != null && loadedSnapshot.getTocChecksum() == computeChecksum(getTocResourcePath())) {
+                return loadedSnapshot;
+            }
+            // CSOFF: IllegalCatch
+        } catch (IOException | RuntimeException e) {
+            // CSON: IllegalCatch
+            // an invalid snapshot is ignored, the XML files are read instead
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether the snapshot contains the content stored in the given xml resource and the
+     * resource was not changed after the snapshot was created.
+     */
+    private boolean isSnapshotCurrent(String xmlResourceName) {
+        try {
+            return snapshot.getContentChecksum(xmlResourceName) == computeChecksum(xmlResourceName);
+        } catch (IOException e) {
+            // the XML is read and reports the error
+            return false;
+        }
+    }
+
+    private long computeChecksum(String resource) throws IOException {
+        try (InputStream is = getClassLoader().getResourceAsStream(resource)) {
+            if (is == null) {
+                // the XML is read and reports the missing resource
+                return -1;
+            }
+            return RepositorySnapshot.computeChecksum(is);
+        }
+    }
+
+    @Override
+    protected void initTable(Table<?> table, TableContentTocEntry tocEntry) {
+        if (snapshot != null && snapshot.containsTable(tocEntry.getXmlResourceName())
+                && isSnapshotCurrent(tocEntry.getXmlResourceName())) {
+            table.initFromRows(snapshot.getTableRows(tocEntry.getXmlResourceName()), this,
+                    tocEntry.getIpsObjectId());
+        } else {
+            super.initTable(table, tocEntry);
+        }
+    }
+
+    @Override
+    protected List<List<Object>> getEnumValueList(EnumContentTocEntry tocEntry) {
+        if (snapshot != null && snapshot.containsEnumContent(tocEntry.getXmlResourceName())
+                && isSnapshotCurrent(tocEntry.getXmlResourceName())) {
+            return snapshot.getEnumValues(tocEntry.getXmlResourceName());
+        }
+        return super.getEnumValueList(tocEntry);
+    }
+
+}
@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import org.faktorips.runtime.internal.AbstractTocBasedRuntimeRepository;
+
+/**
+ * Options for {@link AbstractTocBasedRuntimeRepository#warmUp(WarmUpOptions)}, that loads the
+ * objects of a runtime repository in advance instead of on their first access.
+ * <p>
+ * Instances are created using a {@link Builder}:
+ * 
+ * <pre>
+ * WarmUpOptions options = WarmUpOptions.builder()
+ *         .executor(Executors.newFixedThreadPool(4))
+ *         .entryTypes(EntryType.PRODUCT_COMPONENTS, EntryType.TABLES)
+ *         .progressListener((type, completed, total) -&gt; log(completed + "/" + total))
+ *         .build();
+ * </pre>
+ */
+public class WarmUpOptions {
+
+    private final Executor executor;
+
+    private final Set<EntryType> entryTypes;
+
+    private final IProgressListener progressListener;
+
+    private WarmUpOptions(Builder builder) {
+        executor = builder.executor;
+        entryTypes = Collections.unmodifiableSet(EnumSet.copyOf(builder.entryTypes));
+        progressListener = builder.progressListener;
+    }
+
+    /**
+     * Returns the options to load all objects using the {@link ForkJoinPool#commonPool() common
+     * fork-join pool} without progress listener.
+     */
+    public static WarmUpOptions defaults() {
+        return builder().build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * The executor running the loading tasks, one task per object.
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * The types of objects that are loaded.
+     */
+    public Set<EntryType> getEntryTypes() {
+        return entryTypes;
+    }
+
+    /**
+     * The listener notified about the progress.
+     */
+    public IProgressListener getProgressListener() {
+        return progressListener;
+    }
+
+    /**
+     * The types of objects that could be loaded in advance. The types are loaded in the order of
+     * this enumeration.
+     */
+    public enum EntryType {
+
+        ENUM_CONTENTS,
+
+        TABLES,
+
+        PRODUCT_COMPONENTS,
+
+        /**
+         * All generations of all product components. The product components are loaded along with
+         * their generations even if {@link #PRODUCT_COMPONENTS} is not selected.
+         */
+        PRODUCT_COMPONENT_GENERATIONS
+
+    }
+
+    /**
+     * Listener that is notified every time an object is loaded or failed to load. As the objects
+     * are loaded in parallel the listener may be called by several threads at the same time.
+     */
+    @FunctionalInterface
+    public interface IProgressListener {
+
+        IProgressListener NONE = (type, completed, total) -> {
+            // no progress reporting
+        };
+
+        /**
+         * Called after an object was loaded.
+         * 
+         * @param type the type of the loaded object
+         * @param completed the number of objects of all types that are loaded so far
+         * @param total the number of objects of all types that are loaded by the warm-up
+         */
+        void progress(EntryType type, int completed, int total);
+
+    }
+
+    /**
+     * Builder for {@link WarmUpOptions}. By default all types of objects are loaded using the
+     * {@link ForkJoinPool#commonPool() common fork-join pool}.
+     */
+    public static class Builder {
+
+        private Executor executor = ForkJoinPool.commonPool();
+
+        private Set<EntryType> entryTypes = EnumSet.allOf(EntryType.class);
+
+        private IProgressListener progressListener = IProgressListener.NONE;
+
+        private Builder() {
+            // use WarmUpOptions.builder()
+        }
+
+        /**
+         * Sets the executor that runs the loading tasks, for example a fixed thread pool to limit
+         * the number of threads, an executor creating virtual threads or
+         * <code>Runnable::run</code> to load all objects in the calling thread.
+         */
+        public Builder executor(Executor executor) {
+            if (executor == null) {
+                throw new NullPointerException("The executor must not be null.");
+            }
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Sets the types of objects that are loaded.
+         */
+        public Builder entryTypes(EntryType first, EntryType... rest) {
+            entryTypes = EnumSet.of(first, rest);
+            return this;
+        }
+
+        public Builder progressListener(IProgressListener progressListener) {
+            this.progressListener = progressListener == null ? IProgressListener.NONE : progressListener;
+            return this;
+        }
+
+        public WarmUpOptions build() {
+            return new WarmUpOptions(this);
+        }
+    }
+
+}
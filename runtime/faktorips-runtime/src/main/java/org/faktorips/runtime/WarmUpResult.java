@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.faktorips.runtime.WarmUpOptions.EntryType;
+import org.faktorips.runtime.internal.AbstractTocBasedRuntimeRepository;
+
+/**
+ * The result of {@link AbstractTocBasedRuntimeRepository#warmUp(WarmUpOptions)}: the number of
+ * loaded objects and the elapsed time per type of object and the objects that could not be loaded.
+ */
+public class WarmUpResult {
+
+    private final Map<EntryType, Integer> loadedCounts;
+
+    private final Map<EntryType, Long> elapsedNanos;
+
+    private final List<Failure> failures;
+
+    public WarmUpResult(Map<EntryType, Integer> loadedCounts, Map<EntryType, Long> elapsedNanos,
+            List<Failure> failures) {
+        this.loadedCounts = Collections.unmodifiableMap(new EnumMap<>(loadedCounts));
+        this.elapsedNanos = Collections.unmodifiableMap(new EnumMap<>(elapsedNanos));
+        this.failures = Collections.unmodifiableList(failures);
+    }
+
+    /**
+     * Returns the number of objects of the given type that were loaded successfully.
+     */
+    public int getLoadedCount(EntryType type) {
+        return loadedCounts.getOrDefault(type, 0);
+    }
+
+    /**
+     * Returns the time elapsed while loading the objects of the given type.
+     */
+    public long getElapsedTime(EntryType type, TimeUnit unit) {
+        return unit.convert(elapsedNanos.getOrDefault(type, 0L), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the objects that could not be loaded.
+     */
+    public List<Failure> getFailures() {
+        return failures;
+    }
+
+    /**
+     * Returns <code>true</code> if all objects were loaded without failure.
+     */
+    public boolean isSuccessful() {
+        return failures.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("WarmUpResult [");
+        for (Map.Entry<EntryType, Integer> entry : loadedCounts.entrySet()) {
+            sb.append(entry.getKey()).append(": ").append(entry.getValue()).append(" in ")
+                    .append(getElapsedTime(entry.getKey(), TimeUnit.MILLISECONDS)).append("ms, ");
+        }
+        return sb.append("failures: ").append(failures.size()).append(']').toString();
+    }
+
+    /**
+     * An object that could not be loaded.
+     */
+    public static class Failure {
+
+        private final EntryType type;
+
+        private final String id;
+
+        private final Throwable exception;
+
+        public Failure(EntryType type, String id, Throwable exception) {
+            this.type = type;
+            this.id = id;
+            this.exception = exception;
+        }
+
+        public EntryType getType() {
+            return type;
+        }
+
+        /**
+         * The id of the object that could not be loaded, for generations the id of the product
+         * component followed by the valid from date.
+         */
+        public String getId() {
+            return id;
+        }
+
+        public Throwable getException() {
+            return exception;
+        }
+
+        @Override
+        public String toString() {
+            return type + " " + id + ": " + exception;
+        }
+    }
+
+}
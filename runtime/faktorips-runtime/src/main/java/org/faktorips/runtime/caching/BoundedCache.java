@@ -0,0 +1,418 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.caching;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * A thread safe cache with a bounded size that loads missing objects by calling an
+ * {@link IComputable}. In contrast to the {@link Memoizer} the cached values are held by strong
+ * references and are only removed
+ * <ul>
+ * <li>when the maximum number of entries or the maximum weight is exceeded (least recently used
+ * entries are evicted first),</li>
+ * <li>when an entry is older than the configured expiry time or</li>
+ * <li>when they are explicitly invalidated by {@link #invalidate(Object)} or
+ * {@link #invalidateAll()}.</li>
+ * </ul>
+ * The cache is divided into segments with their own lock and their own LRU order (segmented LRU).
+ * The computation of a missing value is done outside of the segment lock, so a slow computation only
+ * blocks threads that request the same key.
+ * <p>
+ * Every cache collects counters for hits, misses, load time and evictions that could be read by
+ * {@link #getStatistics()}.
+ * <p>
+ * Instances are created using a {@link Builder}:
+ * 
+ * <pre>
+ * BoundedCache&lt;String, ITable&lt;?&gt;&gt; cache = BoundedCache.builder(computable)
+ *         .maximumWeight(1_000_000, (k, t) -&gt; t.getAllRows().size())
+ *         .expireAfterWrite(1, TimeUnit.HOURS)
+ *         .build();
+ * </pre>
+ * 
+ * @param <K> the type of the keys
+ * @param <V> the type of the cached values
+ */
+public class BoundedCache<K, V> implements IComputable<K, V> {
+
+    /** Indicates that there is no limit for the size or weight of the cache. */
+    public static final long UNLIMITED = -1;
+
+    private final IComputable<K, V> computable;
+
+    private final Segment<K, V>[] segments;
+
+    private final ToLongBiFunction<? super K, ? super V> weigher;
+
+    private final long expireAfterWriteNanos;
+
+    private final LongSupplier ticker;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder loadSuccessCount = new LongAdder();
+
+    private final LongAdder loadFailureCount = new LongAdder();
+
+    private final LongAdder totalLoadTime = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    private BoundedCache(Builder<K, V> builder) {
+        computable = builder.computable;
+        weigher = builder.weigher;
+        expireAfterWriteNanos = builder.expireAfterWriteNanos;
+        ticker = builder.ticker;
+        long limit = weigher == null ? builder.maximumSize : builder.maximumWeight;
+        int segmentCount = limit == UNLIMITED ? builder.concurrencyLevel
+                : (int)Math.max(1, Math.min(builder.concurrencyLevel, limit));
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            long segmentLimit = limit == UNLIMITED ? UNLIMITED
+                    : limit / segmentCount + (i < limit % segmentCount ? 1 : 0);
+            segments[i] = new Segment<>(segmentLimit);
+        }
+    }
+
+    /**
+     * Creates a new {@link Builder} for a cache that loads its values by calling the given
+     * {@link IComputable}.
+     */
+    public static <K, V> Builder<K, V> builder(IComputable<K, V> computable) {
+        return new Builder<>(computable);
+    }
+
+    @Override
+    public V compute(K key) throws InterruptedException {
+        Segment<K, V> segment = segmentFor(key);
+        // In case of CancellationException we want to try again - in all other cases we exit with
+        // return or throwing an exception
+        while (true) {
+            Entry<K, V> entry;
+            boolean loading = false;
+            synchronized (segment) {
+                entry = segment.map.get(key);
+                if (entry != null && isExpired(entry)) {
+                    segment.remove(key);
+                    evictionCount.increment();
+                    entry = null;
+                }
+                if (entry == null) {
+                    entry = new Entry<>(key, new FutureTask<>(() -> load(key)));
+                    segment.map.put(key, entry);
+                    loading = true;
+                }
+            }
+            if (loading) {
+                missCount.increment();
+                entry.future.run();
+            } else {
+                hitCount.increment();
+            }
+            try {
+                V value = entry.future.get();
+                if (loading) {
+                    loaded(segment, entry, value);
+                }
+                return value;
+            } catch (CancellationException e) {
+                removeIfSame(segment, entry);
+                // try again: while (true)
+            } catch (ExecutionException e) {
+                removeIfSame(segment, entry);
+                throw Memoizer.launderThrowable(e.getCause());
+            }
+        }
+    }
+
+    private V load(K key) throws InterruptedException {
+        long start = ticker.getAsLong();
+        boolean success = false;
+        try {
+            V value = computable.compute(key);
+            success = true;
+            return value;
+        } finally {
+            totalLoadTime.add(ticker.getAsLong() - start);
+            if (success) {
+                loadSuccessCount.increment();
+            } else {
+                loadFailureCount.increment();
+            }
+        }
+    }
+
+    private void loaded(Segment<K, V> segment, Entry<K, V> entry, V value) {
+        synchronized (segment) {
+            if (segment.map.get(entry.key) != entry) {
+                // invalidated while loading
+                return;
+            }
+            if (value == null) {
+                // null values are not cached, like in the Memoizer
+                segment.map.remove(entry.key);
+                return;
+            }
+            entry.weight = weigher == null ? 1 : weigher.applyAsLong(entry.key, value);
+            entry.writeTime = ticker.getAsLong();
+            entry.loaded = true;
+            segment.weight += entry.weight;
+            evictionCount.add(segment.evict());
+        }
+    }
+
+    private void removeIfSame(Segment<K, V> segment, Entry<K, V> entry) {
+        synchronized (segment) {
+            if (segment.map.get(entry.key) == entry) {
+                segment.remove(entry.key);
+            }
+        }
+    }
+
+    private boolean isExpired(Entry<K, V> entry) {
+        return expireAfterWriteNanos > 0 && entry.loaded
+                && ticker.getAsLong() - entry.writeTime >= expireAfterWriteNanos;
+    }
+
+    private Segment<K, V> segmentFor(Object key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return segments[(h & Integer.MAX_VALUE) % segments.length];
+    }
+
+    /**
+     * Removes the value for the given key from the cache. The next call of {@link #compute(Object)}
+     * with this key loads the value again.
+     */
+    public void invalidate(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.remove(key);
+        }
+    }
+
+    /**
+     * Removes all values from the cache.
+     */
+    public void invalidateAll() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.map.clear();
+                segment.weight = 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of entries currently in the cache, including the entries that are still
+     * loading.
+     */
+    public long size() {
+        long size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.map.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns a snapshot of the counters of this cache.
+     */
+    public CacheStatistics getStatistics() {
+        long size = 0;
+        long weight = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.map.size();
+                weight += segment.weight;
+            }
+        }
+        return new CacheStatistics(hitCount.sum(), missCount.sum(), loadSuccessCount.sum(), loadFailureCount.sum(),
+                totalLoadTime.sum(), evictionCount.sum(), size, weight);
+    }
+
+    @Override
+    public Class<? super V> getValueClass() {
+        return computable.getValueClass();
+    }
+
+    /**
+     * One segment of the cache. All fields are guarded by the segment's monitor.
+     */
+    private static class Segment<K, V> {
+
+        /** Entries in access order, the least recently used entry first. */
+        private final LinkedHashMap<K, Entry<K, V>> map = new LinkedHashMap<>(16, 0.75f, true);
+
+        private final long limit;
+
+        private long weight;
+
+        private Segment(long limit) {
+            this.limit = limit;
+        }
+
+        private void remove(K key) {
+            Entry<K, V> removed = map.remove(key);
+            if (removed != null && removed.loaded) {
+                weight -= removed.weight;
+            }
+        }
+
+        /**
+         * Removes the least recently used loaded entries until the segment is within its limit.
+         * Entries that are still loading are never evicted.
+         * 
+         * @return the number of evicted entries
+         */
+        private int evict() {
+            if (limit == UNLIMITED) {
+                return 0;
+            }
+            int evicted = 0;
+            Iterator<Entry<K, V>> iterator = map.values().iterator();
+            while (weight > limit && iterator.hasNext()) {
+                Entry<K, V> entry = iterator.next();
+                if (entry.loaded) {
+                    iterator.remove();
+                    weight -= entry.weight;
+                    evicted++;
+                }
+            }
+            return evicted;
+        }
+    }
+
+    private static class Entry<K, V> {
+
+        private final K key;
+
+        private final FutureTask<V> future;
+
+        /* the following fields are guarded by the segment's monitor */
+
+        private boolean loaded;
+
+        private long weight;
+
+        private long writeTime;
+
+        private Entry(K key, FutureTask<V> future) {
+            this.key = key;
+            this.future = future;
+        }
+    }
+
+    /**
+     * Builder for {@link BoundedCache}. By default a cache is unbounded and its entries never
+     * expire.
+     */
+    public static class Builder<K, V> {
+
+        private final IComputable<K, V> computable;
+
+        private long maximumSize = UNLIMITED;
+
+        private long maximumWeight = UNLIMITED;
+
+        private ToLongBiFunction<? super K, ? super V> weigher;
+
+        private long expireAfterWriteNanos;
+
+        private int concurrencyLevel = 16;
+
+        private LongSupplier ticker = System::nanoTime;
+
+        private Builder(IComputable<K, V> computable) {
+            this.computable = computable;
+        }
+
+        /**
+         * Limits the number of entries in the cache. Cannot be combined with
+         * {@link #maximumWeight(long, ToLongBiFunction)}.
+         */
+        public Builder<K, V> maximumSize(long maximumSize) {
+            if (maximumSize < 0) {
+                throw new IllegalArgumentException("The maximum size must not be negative: " + maximumSize);
+            }
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * Limits the total weight of the entries in the cache. The weight of an entry is computed
+         * once by the given weigher after the value is loaded. Cannot be combined with
+         * {@link #maximumSize(long)}.
+         */
+        public Builder<K, V> maximumWeight(long maximumWeight, ToLongBiFunction<? super K, ? super V> weigher) {
+            if (maximumWeight < 0) {
+                throw new IllegalArgumentException("The maximum weight must not be negative: " + maximumWeight);
+            }
+            this.maximumWeight = maximumWeight;
+            this.weigher = weigher;
+            return this;
+        }
+
+        /**
+         * Removes entries from the cache once the given duration has elapsed after the value was
+         * loaded. A duration of 0 disables the expiry.
+         */
+        public Builder<K, V> expireAfterWrite(long duration, TimeUnit unit) {
+            if (duration < 0) {
+                throw new IllegalArgumentException("The duration must not be negative: " + duration);
+            }
+            expireAfterWriteNanos = unit.toNanos(duration);
+            return this;
+        }
+
+        /**
+         * Sets the number of segments that could be accessed concurrently. Default is 16.
+         */
+        public Builder<K, V> concurrencyLevel(int concurrencyLevel) {
+            if (concurrencyLevel < 1) {
+                throw new IllegalArgumentException("The concurrency level must be positive: " + concurrencyLevel);
+            }
+            this.concurrencyLevel = concurrencyLevel;
+            return this;
+        }
+
+        /**
+         * Sets the time source in nanoseconds used for expiry and load time statistics. Default is
+         * {@link System#nanoTime()}.
+         */
+        public Builder<K, V> ticker(LongSupplier ticker) {
+            this.ticker = ticker;
+            return this;
+        }
+
+        public BoundedCache<K, V> build() {
+            if (maximumSize != UNLIMITED && weigher != null) {
+                throw new IllegalStateException("Maximum size and maximum weight cannot be combined");
+            }
+            return new BoundedCache<>(this);
+        }
+    }
+
+}
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.caching;
+
+/**
+ * An immutable snapshot of the counters of a {@link BoundedCache}. All counters are accumulated
+ * since the cache was created.
+ */
+public final class CacheStatistics {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long loadSuccessCount;
+    private final long loadFailureCount;
+    private final long totalLoadTime;
+    private final long evictionCount;
+    private final long size;
+    private final long weight;
+
+    // CSOFF: ParameterNumber
+    public CacheStatistics(long hitCount, long missCount, long loadSuccessCount, long loadFailureCount,
+            long totalLoadTime, long evictionCount, long size, long weight) {
+        // CSON: ParameterNumber
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.loadSuccessCount = loadSuccessCount;
+        this.loadFailureCount = loadFailureCount;
+        this.totalLoadTime = totalLoadTime;
+        this.evictionCount = evictionCount;
+        this.size = size;
+        this.weight = weight;
+    }
+
+    /**
+     * The number of requests that returned an already cached (or currently loading) value.
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * The number of requests that had to load the value.
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * The total number of requests.
+     */
+    public long getRequestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * The ratio of hits to requests or 1.0 if there was no request yet.
+     */
+    public double getHitRate() {
+        long requestCount = getRequestCount();
+        return requestCount == 0 ? 1.0 : (double)hitCount / requestCount;
+    }
+
+    /**
+     * The number of loads that finished without an exception, including loads that returned
+     * <code>null</code>.
+     */
+    public long getLoadSuccessCount() {
+        return loadSuccessCount;
+    }
+
+    /**
+     * The number of loads that threw an exception.
+     */
+    public long getLoadFailureCount() {
+        return loadFailureCount;
+    }
+
+    /**
+     * The total time in nanoseconds spent loading values.
+     */
+    public long getTotalLoadTime() {
+        return totalLoadTime;
+    }
+
+    /**
+     * The average time in nanoseconds spent loading a value.
+     */
+    public double getAverageLoadPenalty() {
+        long loadCount = loadSuccessCount + loadFailureCount;
+        return loadCount == 0 ? 0.0 : (double)totalLoadTime / loadCount;
+    }
+
+    /**
+     * The number of entries that were removed because the cache exceeded its maximum size or
+     * weight or because they were expired. Explicitly invalidated entries are not counted.
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * The number of entries in the cache when this snapshot was taken.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * The total weight of all entries in the cache when this snapshot was taken. If the cache has no
+     * weigher every entry has the weight 1.
+     */
+    public long getWeight() {
+        return weight;
+    }
+
+    /**
+     * Returns the sum of this and the given statistics.
+     */
+    public CacheStatistics plus(CacheStatistics other) {
+        return new CacheStatistics(hitCount + other.hitCount, missCount + other.missCount,
+                loadSuccessCount + other.loadSuccessCount, loadFailureCount + other.loadFailureCount,
+                totalLoadTime + other.totalLoadTime, evictionCount + other.evictionCount, size + other.size,
+                weight + other.weight);
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStatistics [hitCount=" + hitCount + ", missCount=" + missCount + ", loadSuccessCount="
+                + loadSuccessCount + ", loadFailureCount=" + loadFailureCount + ", totalLoadTime=" + totalLoadTime
+                + ", evictionCount=" + evictionCount + ", size=" + size + ", weight=" + weight + "]";
+    }
+
+}
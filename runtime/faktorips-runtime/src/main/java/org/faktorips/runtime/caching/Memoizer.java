@@ -28,6 +28,11 @@ import java.util.function.Function;
  * 
  * It is extended by the soft reference mechanism so references could be garbage collected in case
  * of memory needs.
+ * <p>
+ * Every key is computed at most once at a time: concurrent requests for the same key wait for the
+ * running computation instead of starting another one, while requests for other keys are not
+ * blocked. There is no lock on the whole cache. A key is only computed again after its value was
+ * garbage collected, the computation returned <code>null</code> or failed.
  * 
  * @author dirmeier
  */
@@ -107,14 +112,17 @@ public class Memoizer<K, V> implements IComputable<K, V> {
                 SoftValue<V> softValue = future.get();
                 if (softValue == null) {
                     // computable returned null
-                    cache.remove(key);
+                    cache.remove(key, future);
                     return null;
-                } else if (softValue.get() == null) {
-                    // softreference was garbaged
-                    cache.remove(softValue.key);
+                }
+                V value = softValue.get();
+                if (value == null) {
+                    // softreference was garbaged - only remove our own future, another thread may
+                    // already have started a new computation for the same key
+                    cache.remove(key, future);
                     // try again: while (true)
                 } else {
-                    return softValue.get();
+                    return value;
                 }
             } catch (CancellationException e) {
                 cache.remove(key, future);
@@ -126,13 +134,27 @@ public class Memoizer<K, V> implements IComputable<K, V> {
     }
 
     /**
-     * Go through the ReferenceQueue and remove garbage collected SoftValue objects.
+     * Go through the ReferenceQueue and remove garbage collected SoftValue objects. An entry is only
+     * removed if it still holds the garbage collected value and not a newer computation.
      */
     private void processQueue() {
         Reference<? extends V> ref;
         while ((ref = queue.poll()) != null) {
             SoftValue<? extends V> sv = (SoftValue<? extends V>)ref;
-            cache.remove(sv.key);
+            @SuppressWarnings("unchecked")
+            K key = (K)sv.key;
+            cache.computeIfPresent(key, (k, future) -> holds(future, sv) ? null : future);
+        }
+    }
+
+    private static boolean holds(Future<? extends SoftValue<?>> future, SoftValue<?> softValue) {
+        if (!future.isDone() || future.isCancelled()) {
+            return false;
+        }
+        try {
+            return future.get() == softValue;
+        } catch (InterruptedException | ExecutionException e) {
+            return false;
         }
     }
 
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.formula;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A class compiled by the {@link JavaFormulaCompiler} together with the method handles to create
+ * instances and to call the formula methods. The handles are created once per class and are shared
+ * by all evaluators using the same formulas.
+ */
+class CompiledFormulaClass {
+
+    private final MethodHandle constructor;
+
+    private final Map<String, FormulaMethod[]> methods;
+
+    /**
+     * Creates the method handles for the given compiled class.
+     * 
+     * @throws IllegalArgumentException if a formula method is not public, as it could not be called
+     */
+    CompiledFormulaClass(Class<?> formulaClass, Class<?> thisType) {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        List<String> nonPublicMethods = new ArrayList<>();
+        try {
+            constructor = lookup.findConstructor(formulaClass, MethodType.methodType(void.class, thisType))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            Map<String, List<FormulaMethod>> methodsByName = new HashMap<>();
+            for (Method method : formulaClass.getDeclaredMethods()) {
+                if (method.isSynthetic()) {
+                    continue;
+                }
+                if (Modifier.isPublic(method.getModifiers())) {
+                    methodsByName.computeIfAbsent(method.getName(), n -> new ArrayList<>())
+                            .add(new FormulaMethod(method, lookup.unreflect(method)));
+                } else {
+                    nonPublicMethods.add(method.getName());
+                }
+            }
+            if (!nonPublicMethods.isEmpty()) {
+                throw new IllegalArgumentException("Can't call the formulas " + nonPublicMethods + " of "
+                        + thisType.getName() + " as they are not public");
+            }
+            methods = new HashMap<>();
+            methodsByName.forEach((name, list) -> methods.put(name, list.toArray(new FormulaMethod[list.size()])));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Creates a new instance of the formula class running in the context of the given product
+     * component or generation.
+     */
+    Object newInstance(Object thiz) {
+        try {
+            return constructor.invokeExact(thiz);
+            // CSOFF: IllegalCatch
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            // CSON: IllegalCatch
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Calls the formula with the given name on the given instance of the formula class. If the
+     * formula is overloaded, the first method whose parameter types match the given parameters is
+     * called.
+     * 
+     * @throws IllegalArgumentException if there is no matching formula
+     */
+    // CSOFF: IllegalThrows
+    Object invoke(Object instance, String name, Object... parameters) throws Throwable {
+        // CSON: IllegalThrows
+        FormulaMethod[] candidates = methods.get(name);
+        if (candidates != null) {
+            for (FormulaMethod candidate : candidates) {
+                if (candidate.matches(parameters)) {
+                    return candidate.handle.invokeExact(instance, parameters);
+                }
+            }
+        }
+        throw new IllegalArgumentException("There is no formula " + name + " for " + parameters.length
+                + " parameters");
+    }
+
+    private static class FormulaMethod {
+
+        private final Class<?>[] parameterTypes;
+
+        /** handle of type (Object, Object[])Object */
+        private final MethodHandle handle;
+
+        private FormulaMethod(Method method, MethodHandle handle) {
+            parameterTypes = method.getParameterTypes();
+            this.handle = handle.asType(MethodType.genericMethodType(parameterTypes.length + 1))
+                    .asSpreader(Object[].class, parameterTypes.length);
+        }
+
+        private boolean matches(Object[] parameters) {
+            if (parameters.length != parameterTypes.length) {
+                return false;
+            }
+            for (int i = 0; i < parameters.length; i++) {
+                Class<?> type = parameterTypes[i];
+                if (parameters[i] == null ? type.isPrimitive() : !wrap(type).isInstance(parameters[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static Class<?> wrap(Class<?> type) {
+            if (!type.isPrimitive()) {
+                return type;
+            }
+            return MethodType.methodType(type).wrap().returnType();
+        }
+    }
+
+}
@@ -0,0 +1,354 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.formula;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Modifier;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.JavaFileObject.Kind;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+
+import org.faktorips.values.Decimal;
+
+/**
+ * Compiles the Java source code of formulas, as it is written to the XML files by the code
+ * generator, to a class that could be loaded into the running JVM. All formulas of a product
+ * component or generation are compiled into one class. The class gets a constructor with the
+ * product component or generation as parameter and every reference to <code>this</code> within a
+ * formula is replaced with that object.
+ * <p>
+ * The compiler needs the system Java compiler, that means the application has to run on a JDK. As
+ * the Java compiler cannot find classes by means of class loaders, the classes referenced by the
+ * formulas must be located in local directories or JAR files, see
+ * {@link #checkEnvironment(JavaCompiler)}.
+ */
+class JavaFormulaCompiler {
+
+    static final String PACKAGE_NAME = "org.faktorips.runtime.formula.compiled";
+
+    static final String THIS_FIELD = "thiz";
+
+    private static final Pattern THIS_PATTERN = Pattern.compile("\\bthis([\\.\\s])");
+
+    private static final Pattern IMPORT_PATTERN = Pattern.compile("^\\s*import\\s+[^;]+;\\s*$",
+            Pattern.MULTILINE);
+
+    private final JavaCompiler compiler;
+
+    private final AtomicInteger classCounter = new AtomicInteger();
+
+    /**
+     * Creates a compiler using the given system Java compiler.
+     * 
+     * @throws IllegalStateException if the environment does not support compiling formulas
+     * @see #checkEnvironment(JavaCompiler)
+     */
+    JavaFormulaCompiler(JavaCompiler compiler) {
+        String problem = checkEnvironment(compiler);
+        if (problem != null) {
+            throw new IllegalStateException(problem);
+        }
+        this.compiler = compiler;
+    }
+
+    /**
+     * Checks whether formulas could be compiled in the running environment. That requires a system
+     * Java compiler and the Faktor-IPS runtime and value types being loaded from local directories
+     * or JAR files, as the Java compiler finds the referenced classes on a class path only. This is
+     * not the case for example in an OSGi container or for JAR files nested in another JAR file.
+     * 
+     * @param compiler the system Java compiler, <code>null</code> if the application does not run
+     *            on a JDK
+     * @return a description of the problem or <code>null</code> if formulas could be compiled
+     */
+    static String checkEnvironment(JavaCompiler compiler) {
+        if (compiler == null) {
+            return "No system Java compiler found, formulas could only be compiled when running on a JDK";
+        }
+        for (Class<?> requiredClass : Arrays.asList(JavaFormulaCompiler.class, Decimal.class)) {
+            if (!isOnLocalClassPath(requiredClass)) {
+                return "The classes of " + requiredClass.getProtectionDomain().getCodeSource().getLocation()
+                        + " are not located in a local directory or JAR file, so formulas could not reference them";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether the given class is loaded from a local directory or JAR file the Java compiler
+     * could read. Classes without code source, like the classes of the JRE, are found by the compiler
+     * anyway.
+     */
+    private static boolean isOnLocalClassPath(Class<?> type) {
+        CodeSource codeSource = type.getProtectionDomain().getCodeSource();
+        return codeSource == null || codeSource.getLocation() == null || toPath(codeSource.getLocation()) != null;
+    }
+
+    /**
+     * Returns the normalized source code of the given formulas. The formulas are ordered by their
+     * names and line separators are unified, so the same formulas always result in the same source
+     * code.
+     */
+    static String getSourceCode(Map<String, String> nameToExpressionMap) {
+        return new TreeMap<>(nameToExpressionMap).values()
+                .stream()
+                .map(f -> f.replace("\r\n", "\n").replace('\r', '\n').trim())
+                .collect(Collectors.joining("\n"));
+    }
+
+    /**
+     * Returns the most specific public type of the given object's class that could be referenced
+     * by the compiled class.
+     */
+    static Class<?> getAccessibleType(Class<?> objectClass) {
+        for (Class<?> type = objectClass; type != null; type = type.getSuperclass()) {
+            if (isAccessible(type)) {
+                return type;
+            }
+        }
+        return Object.class;
+    }
+
+    private static boolean isAccessible(Class<?> type) {
+        for (Class<?> c = type; c != null; c = c.getEnclosingClass()) {
+            if (!Modifier.isPublic(c.getModifiers()) || c.isAnonymousClass() || c.isLocalClass()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compiles the given formula source code and loads the resulting class with the given class
+     * loader.
+     * 
+     * @param sourceCode the normalized source code of the formulas, see {@link #getSourceCode(Map)}
+     * @param thisType the type of the product component or generation referenced as
+     *            <code>this</code> in the formulas
+     * @param classLoader the class loader defining the compiled class
+     * @return the compiled class
+     * @throws IllegalArgumentException if the formulas could not be compiled, for example because
+     *             the type of <code>this</code> is not located on a local class path
+     */
+    Class<?> compile(String sourceCode, Class<?> thisType, FormulaClassLoader classLoader) {
+        for (Class<?> type = thisType; type != null; type = type.getSuperclass()) {
+            if (!isOnLocalClassPath(type)) {
+                throw new IllegalArgumentException("Can't compile the formulas for " + thisType.getName()
+                        + " as " + type.getName() + " is not located in a local directory or JAR file");
+            }
+        }
+        String simpleName = "Formulas" + classCounter.incrementAndGet();
+        String className = PACKAGE_NAME + '.' + simpleName;
+        String classSource = createClassSource(simpleName, sourceCode, thisType);
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        Map<String, byte[]> classFiles;
+        try (MemoryFileManager fileManager = new MemoryFileManager(
+                compiler.getStandardFileManager(diagnostics, null, null))) {
+            List<String> options = Arrays.asList("-classpath", getClassPath(thisType, classLoader), "-proc:none",
+                    "-nowarn");
+            JavaFileObject source = new SourceFile(className, classSource);
+            boolean success = compiler
+                    .getTask(null, fileManager, diagnostics, options, null, Collections.singletonList(source))
+                    .call();
+            if (!success) {
+                throw new IllegalArgumentException("Can't compile the formulas for " + thisType.getName() + ":\n"
+                        + diagnostics.getDiagnostics().stream()
+                                .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+                                .map(d -> d.getLineNumber() + ": " + d.getMessage(null))
+                                .collect(Collectors.joining("\n"))
+                        + "\n" + classSource);
+            }
+            classFiles = fileManager.classFiles;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Can't compile the formulas for " + thisType.getName(), e);
+        }
+        classLoader.addClassFiles(classFiles);
+        try {
+            return classLoader.loadClass(className);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String createClassSource(String simpleName, String sourceCode, Class<?> thisType) {
+        Set<String> imports = new LinkedHashSet<>();
+        Matcher importMatcher = IMPORT_PATTERN.matcher(sourceCode);
+        while (importMatcher.find()) {
+            imports.add(importMatcher.group().trim());
+        }
+        String methods = THIS_PATTERN.matcher(IMPORT_PATTERN.matcher(sourceCode).replaceAll(""))
+                .replaceAll(THIS_FIELD + "$1");
+        String thisTypeName = thisType.getCanonicalName();
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("package ").append(PACKAGE_NAME).append(";\n");
+        imports.forEach(i -> sb.append(i).append('\n'));
+        sb.append("public final class ").append(simpleName).append(" {\n");
+        sb.append("private final ").append(thisTypeName).append(' ').append(THIS_FIELD).append(";\n");
+        sb.append("public ").append(simpleName).append('(').append(thisTypeName).append(' ').append(THIS_FIELD)
+                .append(") { this.").append(THIS_FIELD).append(" = ").append(THIS_FIELD).append("; }\n");
+        sb.append(methods).append("\n}\n");
+        return sb.toString();
+    }
+
+    /**
+     * The compiler cannot use class loaders to find the referenced classes. Instead the class path
+     * is collected from the code sources of the product component's type hierarchy, the URLs of
+     * the class loaders and the system class path.
+     */
+    private static String getClassPath(Class<?> thisType, ClassLoader classLoader) {
+        Set<String> entries = new LinkedHashSet<>();
+        for (Class<?> type = thisType; type != null; type = type.getSuperclass()) {
+            addCodeSource(entries, type);
+        }
+        addCodeSource(entries, JavaFormulaCompiler.class);
+        for (ClassLoader cl = classLoader; cl != null; cl = cl.getParent()) {
+            if (cl instanceof URLClassLoader) {
+                for (URL url : ((URLClassLoader)cl).getURLs()) {
+                    addUrl(entries, url);
+                }
+            }
+        }
+        entries.addAll(Arrays.asList(System.getProperty("java.class.path", "").split(File.pathSeparator)));
+        entries.remove("");
+        return String.join(File.pathSeparator, entries);
+    }
+
+    private static void addCodeSource(Set<String> entries, Class<?> type) {
+        CodeSource codeSource = type.getProtectionDomain().getCodeSource();
+        if (codeSource != null && codeSource.getLocation() != null) {
+            addUrl(entries, codeSource.getLocation());
+        }
+    }
+
+    private static void addUrl(Set<String> entries, URL url) {
+        String path = toPath(url);
+        if (path != null) {
+            entries.add(path);
+        }
+    }
+
+    /**
+     * Returns the local file system path of the given URL or <code>null</code> if it does not
+     * denote a local file the compiler could use.
+     */
+    private static String toPath(URL url) {
+        if ("file".equals(url.getProtocol())) {
+            try {
+                return Paths.get(url.toURI()).toString();
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                // not a local file, the compiler could not use it anyway
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The class loader defining the compiled formula classes. Its parent is the class loader of the
+     * product component classes, so the formulas could reference all classes of the product model.
+     */
+    static class FormulaClassLoader extends ClassLoader {
+
+        private final Map<String, byte[]> classFiles = new HashMap<>();
+
+        FormulaClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        private synchronized void addClassFiles(Map<String, byte[]> newClassFiles) {
+            classFiles.putAll(newClassFiles);
+        }
+
+        @Override
+        protected synchronized Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] bytes = classFiles.remove(name);
+            if (bytes == null) {
+                throw new ClassNotFoundException(name);
+            }
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+    private static class SourceFile extends SimpleJavaFileObject {
+
+        private final String source;
+
+        private SourceFile(String className, String source) {
+            super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.source = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return source;
+        }
+    }
+
+    private static class MemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+        private final Map<String, byte[]> classFiles = new HashMap<>();
+
+        private MemoryFileManager(StandardJavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(JavaFileManager.Location location,
+                String className,
+                Kind kind,
+                FileObject sibling) {
+            return new SimpleJavaFileObject(URI.create("mem:///" + className.replace('.', '/') + kind.extension),
+                    kind) {
+                @Override
+                public OutputStream openOutputStream() {
+                    return new ByteArrayOutputStream() {
+                        @Override
+                        public void close() throws IOException {
+                            super.close();
+                            classFiles.put(className, toByteArray());
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+}
@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.formula;
+
+import java.util.Map;
+
+/**
+ * A formula evaluator that calls the formulas compiled to Java byte code by a
+ * {@link JavaFormulaEvaluatorFactory}. Evaluating a formula is a method handle call on an instance
+ * of the compiled class, there is no interpretation or dynamic dispatch involved.
+ * <p>
+ * The evaluator holds no mutable state and could be used by several threads concurrently.
+ */
+public class JavaFormulaEvaluator extends AbstractFormulaEvaluator {
+
+    private final CompiledFormulaClass formulaClass;
+
+    private final Object formulas;
+
+    JavaFormulaEvaluator(Object object, Map<String, String> nameToExpressionMap, CompiledFormulaClass formulaClass) {
+        super(object, nameToExpressionMap);
+        this.formulaClass = formulaClass;
+        formulas = formulaClass.newInstance(object);
+    }
+
+    CompiledFormulaClass getFormulaClass() {
+        return formulaClass;
+    }
+
+    @Override
+    protected Object evaluateInternal(String formularName, Object... parameters) throws Exception {
+        try {
+            return formulaClass.invoke(formulas, formularName, parameters);
+            // CSOFF: IllegalCatch
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            // CSON: IllegalCatch
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,230 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.formula;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.faktorips.runtime.formula.JavaFormulaCompiler.FormulaClassLoader;
+
+/**
+ * A {@link IFormulaEvaluatorFactory} compiling the Java source code of the formulas to byte code.
+ * The source code generated for the formulas is already valid Java, so it is compiled using the
+ * system Java compiler and loaded by a class loader below the class loader of the product component
+ * classes. Compared to interpreting the formulas with a scripting language, the formulas run as fast
+ * as generated code and no scripting runtime is needed.
+ * <p>
+ * Every distinct formula source code is compiled once per product component class. All evaluators
+ * with the same formulas share the compiled class. The compiled classes are attached to the product
+ * component class and the class loaders are referenced weakly, so the factory does not prevent
+ * redeployed class loaders from being garbage collected.
+ * <p>
+ * The system Java compiler is only available if the application runs on a JDK. The classes
+ * referenced by the formulas must be found on the class path, in a {@link java.net.URLClassLoader}
+ * or in the code source of the product component class. Whether a compiler is available and the
+ * Faktor-IPS runtime is located on a local class path is checked when the factory is created. If
+ * not, all evaluators are created by the fallback factory. If the formulas could not be compiled,
+ * for example because they access non-public members or a formula method is not public, the
+ * fallback factory is used, too. Without fallback factory an {@link IllegalStateException} or
+ * {@link IllegalArgumentException} is thrown instead.
+ */
+public class JavaFormulaEvaluatorFactory implements IFormulaEvaluatorFactory {
+
+    // null if formulas could not be compiled in the running environment
+    private final JavaFormulaCompiler compiler;
+
+    private final IFormulaEvaluatorFactory fallbackFactory;
+
+    // the formula class loaders by their parent; the values are weak, too, as every formula class
+    // loader references its parent
+    private final Map<ClassLoader, WeakReference<FormulaClassLoader>> classLoaders = Collections
+            .synchronizedMap(new WeakHashMap<>());
+
+    // the compilation results by product component class and source code; a ClassValue keeps the
+    // results with the class, so they don't prevent the class from being unloaded
+    private volatile CompiledClasses compiledClasses = new CompiledClasses();
+
+    private final AtomicInteger compiledClassCount = new AtomicInteger();
+
+    /**
+     * Creates a factory without fallback. Formulas that could not be compiled result in an
+     * {@link IllegalArgumentException}.
+     * 
+     * @throws IllegalStateException if no system Java compiler is available or the Faktor-IPS
+     *             runtime is not located on a local class path
+     */
+    public JavaFormulaEvaluatorFactory() {
+        this(null);
+    }
+
+    /**
+     * Creates a factory that uses the given factory for formulas that could not be compiled.
+     * 
+     * @param fallbackFactory the factory creating evaluators for formulas that could not be
+     *            compiled, may be <code>null</code>
+     * @throws IllegalStateException if no fallback factory is given and no system Java compiler is
+     *             available or the Faktor-IPS runtime is not located on a local class path
+     */
+    public JavaFormulaEvaluatorFactory(IFormulaEvaluatorFactory fallbackFactory) {
+        this(fallbackFactory, ToolProvider.getSystemJavaCompiler());
+    }
+
+    /**
+     * Creates a factory compiling the formulas with the given Java compiler.
+     * 
+     * @param systemCompiler the Java compiler, <code>null</code> if none is available
+     */
+    JavaFormulaEvaluatorFactory(IFormulaEvaluatorFactory fallbackFactory, JavaCompiler systemCompiler) {
+        this.fallbackFactory = fallbackFactory;
+        String problem = JavaFormulaCompiler.checkEnvironment(systemCompiler);
+        if (problem == null) {
+            compiler = new JavaFormulaCompiler(systemCompiler);
+        } else if (fallbackFactory != null) {
+            compiler = null;
+        } else {
+            throw new IllegalStateException(problem);
+        }
+    }
+
+    /**
+     * Returns whether this factory compiles the formulas. If not, because the running environment
+     * does not support compiling formulas, all evaluators are created by the fallback factory.
+     */
+    public boolean isCompilingFormulas() {
+        return compiler != null;
+    }
+
+    @Override
+    public IFormulaEvaluator createFormulaEvaluator(Object object, Map<String, String> nameToCompiledExpressionMap) {
+        if (compiler == null) {
+            return fallbackFactory.createFormulaEvaluator(object, nameToCompiledExpressionMap);
+        }
+        Class<?> thisType = JavaFormulaCompiler.getAccessibleType(object.getClass());
+        String sourceCode = JavaFormulaCompiler.getSourceCode(nameToCompiledExpressionMap);
+        CompilationResult result = getCompilationResult(sourceCode, thisType);
+        if (result.failure != null) {
+            if (fallbackFactory != null) {
+                return fallbackFactory.createFormulaEvaluator(object, nameToCompiledExpressionMap);
+            }
+            // a new exception for every caller, as the cached failure is shared by all threads
+            throw new IllegalArgumentException(result.failure.getMessage(), result.failure);
+        }
+        return new JavaFormulaEvaluator(object, nameToCompiledExpressionMap, result.formulaClass);
+    }
+
+    /**
+     * Returns the cached result for the given source code or compiles it. The source code is
+     * compiled outside of any map operation, so compiling does not block threads requesting other
+     * formulas. Threads requesting the same source code wait for the compilation. If the
+     * compilation fails unexpectedly, the waiting threads get a new exception caused by the
+     * failure.
+     */
+    private CompilationResult getCompilationResult(String sourceCode, Class<?> thisType) {
+        ConcurrentMap<String, CompletableFuture<CompilationResult>> results = compiledClasses.get(thisType);
+        CompletableFuture<CompilationResult> result = results.get(sourceCode);
+        if (result == null) {
+            CompletableFuture<CompilationResult> newResult = new CompletableFuture<>();
+            result = results.putIfAbsent(sourceCode, newResult);
+            if (result == null) {
+                result = newResult;
+                try {
+                    newResult.complete(compile(sourceCode, thisType));
+                    compiledClassCount.incrementAndGet();
+                    // CSOFF: IllegalCatch
+                } catch (RuntimeException | Error e) {
+                    // CSON: IllegalCatch
+                    results.remove(sourceCode, newResult);
+                    newResult.completeExceptionally(e);
+                    throw e;
+                }
+            }
+        }
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Can't compile the formulas for " + thisType.getName(), e.getCause());
+        }
+    }
+
+    private CompilationResult compile(String sourceCode, Class<?> thisType) {
+        ClassLoader parent = thisType.getClassLoader() == null ? getClass().getClassLoader()
+                : thisType.getClassLoader();
+        FormulaClassLoader classLoader = getFormulaClassLoader(parent);
+        try {
+            return new CompilationResult(
+                    new CompiledFormulaClass(compiler.compile(sourceCode, thisType, classLoader), thisType), null);
+        } catch (IllegalArgumentException e) {
+            return new CompilationResult(null, e);
+        }
+    }
+
+    private FormulaClassLoader getFormulaClassLoader(ClassLoader parent) {
+        synchronized (classLoaders) {
+            WeakReference<FormulaClassLoader> reference = classLoaders.get(parent);
+            FormulaClassLoader classLoader = reference == null ? null : reference.get();
+            if (classLoader == null) {
+                classLoader = new FormulaClassLoader(parent);
+                classLoaders.put(parent, new WeakReference<>(classLoader));
+            }
+            return classLoader;
+        }
+    }
+
+    /**
+     * Returns the number of distinct formula sources compiled by this factory since the cache was
+     * last cleared, including the sources that could not be compiled.
+     */
+    public int getCompiledClassCount() {
+        return compiledClassCount.get();
+    }
+
+    /**
+     * Removes all compiled classes from the cache and releases the class loaders, so the classes
+     * could be unloaded once no evaluator references them anymore.
+     */
+    public void clearCache() {
+        compiledClasses = new CompiledClasses();
+        classLoaders.clear();
+        compiledClassCount.set(0);
+    }
+
+    private static class CompiledClasses
+            extends ClassValue<ConcurrentMap<String, CompletableFuture<CompilationResult>>> {
+
+        @Override
+        protected ConcurrentMap<String, CompletableFuture<CompilationResult>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    }
+
+    private static class CompilationResult {
+
+        private final CompiledFormulaClass formulaClass;
+
+        private final IllegalArgumentException failure;
+
+        private CompilationResult(CompiledFormulaClass formulaClass, IllegalArgumentException failure) {
+            this.formulaClass = formulaClass;
+            this.failure = failure;
+        }
+    }
+
+}
@@ -11,7 +11,6 @@
 package org.faktorips.runtime.internal;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -45,8 +44,13 @@ import org.faktorips.runtime.caching.IComputable;
  * it in the cache and the {@link ConcurrentHashMap} ensures that it is stored completely
  * initialized before another thread would get access.
  * <p>
- * There is still potentially more performance by synchronizing for different keys instead of
- * blocking for every cache instance. This would be more complicated and should be well-considered.
+ * Blocking the whole cache instance means that one slow computation, for example of a big table,
+ * blocks every other miss in the same cache. Therefore the caches created by the
+ * {@link org.faktorips.runtime.DefaultCacheFactory DefaultCacheFactory} (see
+ * {@link org.faktorips.runtime.caching.Memoizer Memoizer}) and the
+ * {@link org.faktorips.runtime.BoundedCacheFactory BoundedCacheFactory} only block threads that
+ * request the same key while it is computed. The {@link org.faktorips.runtime.SimpleCache
+ * SimpleCache} could be configured to lock per key, too.
  * 
  * @author dirmeier
  */
@@ -58,7 +62,7 @@ public abstract class AbstractCachingRuntimeRepository extends AbstractRuntimeRe
     private volatile IComputable<String, ITable<?>> tableCacheByQName;
     private volatile IComputable<Class<?>, List<?>> enumValuesCacheByClass;
     private List<XmlAdapter<?, ?>> enumXmlAdapters;
-    private volatile Map<Class<?>, IComputable<String, Object>> customRuntimeObjectsByTypeCache = new HashMap<>();
+    private final Map<Class<?>, IComputable<String, ?>> customRuntimeObjectsByTypeCache = new ConcurrentHashMap<>();
 
     public AbstractCachingRuntimeRepository(String name, ICacheFactory cacheFactory, ClassLoader cl) {
         super(name);
@@ -106,7 +110,16 @@ public abstract class AbstractCachingRuntimeRepository extends AbstractRuntimeRe
     protected abstract IProductComponent getNotCachedProductComponent(String id);
 
     protected IProductComponentGeneration getProductComponentGenerationInternal(String id, DateTime validFrom) {
-        GenerationId generationId = new GenerationId(id, validFrom);
+        return getProductComponentGenerationInternal(new GenerationId(id, validFrom));
+    }
+
+    /**
+     * Returns the product component generation with the given id from the cache, loading it if it
+     * is not cached yet.
+     * 
+     * @since 22.12
+     */
+    protected IProductComponentGeneration getProductComponentGenerationInternal(GenerationId generationId) {
         try {
             return productCmptGenerationCache.compute(generationId);
         } catch (InterruptedException e) {
@@ -166,13 +179,8 @@ public abstract class AbstractCachingRuntimeRepository extends AbstractRuntimeRe
 
     private <T> IComputable<String, T> getCache(Class<T> type) {
         @SuppressWarnings("unchecked")
-        IComputable<String, T> cache = (IComputable<String, T>)customRuntimeObjectsByTypeCache.get(type);
-        if (cache == null) {
-            cache = initCache(type);
-            @SuppressWarnings("unchecked")
-            IComputable<String, Object> cache2 = (IComputable<String, Object>)cache;
-            customRuntimeObjectsByTypeCache.put(type, cache2);
-        }
+        IComputable<String, T> cache = (IComputable<String, T>)customRuntimeObjectsByTypeCache
+                .computeIfAbsent(type, t -> initCache(type));
         return cache;
     }
 
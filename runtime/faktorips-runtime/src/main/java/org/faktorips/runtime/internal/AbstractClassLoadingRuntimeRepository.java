@@ -10,15 +10,19 @@
 
 package org.faktorips.runtime.internal;
 
-import java.beans.Expression;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
@@ -50,15 +54,29 @@ import org.xml.sax.SAXException;
  * {@link AbstractTocBasedRuntimeRepository} and the concrete runtime repositories. This abstract
  * layer is responsible for loading the classes and instantiates the objects. The content of the
  * objects - the concrete data - is provided by the concrete implementation.
+ * <p>
+ * The constructors of product components, product component generations and enumeration values are
+ * looked up only once per implementation class. They are cached as {@link MethodHandle method
+ * handles} that are invoked for every new instance.
  * 
  * @author dirmeier
  */
 public abstract class AbstractClassLoadingRuntimeRepository extends AbstractTocBasedRuntimeRepository {
 
+    private static final MethodType PRODUCT_CMPT_CONSTRUCTOR_TYPE = MethodType.methodType(ProductComponent.class,
+            IRuntimeRepository.class, String.class, String.class, String.class);
+
     private final ClassLoader cl;
 
     private final ProductVariantRuntimeHelper productVariantHelper = new ProductVariantRuntimeHelper();
 
+    private final Map<Class<?>, MethodHandle> productCmptConstructors = new ConcurrentHashMap<>();
+
+    // generation constructors by generation class and product component class
+    private final Map<Class<?>, Map<Class<?>, MethodHandle>> productCmptGenConstructors = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, MethodHandle> enumValueConstructors = new ConcurrentHashMap<>();
+
     /**
      * 
      * @param name The name of the runtime repository
@@ -91,52 +109,80 @@ public abstract class AbstractClassLoadingRuntimeRepository extends AbstractTocB
             String ipsObjectId,
             String kindId,
             String versionId) {
-        ProductComponent productCmpt;
+        MethodHandle constructor = getProductComponentConstructor(implementationClassName);
         try {
-            Constructor<?> constructor = getProductComponentConstructor(implementationClassName);
-            productCmpt = (ProductComponent)constructor
-                    .newInstance(this, ipsObjectId, kindId, versionId);
-        } catch (IllegalAccessException | InstantiationException | InvocationTargetException e) {
+            return (ProductComponent)constructor.invokeExact((IRuntimeRepository)this, ipsObjectId, kindId,
+                    versionId);
+        } catch (Error e) {
+            throw e;
+            // CSOFF: IllegalCatch
+        } catch (Throwable e) {
+            // CSON: IllegalCatch
             throw new RuntimeException("Can't create product component instance for class name \""
                     + implementationClassName + "\". RuntimeId=" + ipsObjectId, e);
         }
-        return productCmpt;
     }
 
-    private Constructor<?> getProductComponentConstructor(String implementationClassName) {
+    private MethodHandle getProductComponentConstructor(String implementationClassName) {
+        Class<?> implClass = getClass(implementationClassName, getClassLoader());
+        return productCmptConstructors.computeIfAbsent(implClass, this::findProductComponentConstructor);
+    }
+
+    private MethodHandle findProductComponentConstructor(Class<?> implClass) {
         try {
-            Class<?> implClass = getClass(implementationClassName, getClassLoader());
             Class<?> runtimeRepoClass = getClass(IRuntimeRepository.class.getName(), getClassLoader());
-            return implClass
-                    .getConstructor(runtimeRepoClass, String.class, String.class, String.class);
-        } catch (NoSuchMethodException e) {
+            Constructor<?> constructor = implClass.getConstructor(runtimeRepoClass, String.class, String.class,
+                    String.class);
+            return MethodHandles.lookup().unreflectConstructor(constructor).asType(PRODUCT_CMPT_CONSTRUCTOR_TYPE);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
             throw new RuntimeException(
-                    "Can't create product component instance for class name \"" + implementationClassName);
+                    "Can't create product component instance for class name \"" + implClass.getName(), e);
         }
     }
 
     @Override
     protected <T> List<T> createEnumValues(EnumContentTocEntry tocEntry, Class<T> enumClass) {
-        List<List<Object>> enumValueList = getEnumValueListFromSaxHandler(tocEntry);
+        List<List<Object>> enumValueList = getEnumValueList(tocEntry);
         if (enumValueList.isEmpty()) {
             return Collections.emptyList();
         } else {
-            Constructor<T> constructor = getCandidateConstructorThrowRuntimeException(tocEntry, enumClass,
-                    getParameterSize(enumValueList));
-            return getCreatedEnumValueList(tocEntry, enumValueList, constructor,
+            int parameterSize = getParameterSize(enumValueList);
+            MethodHandle constructor = getEnumValueConstructor(tocEntry, enumClass, parameterSize);
+            return getCreatedEnumValueList(tocEntry, enumValueList,
+                    constructor.asSpreader(Object[].class, parameterSize),
                     getEnumValuesDefinedInType(enumClass).size());
         }
     }
 
+    /**
+     * Returns the constructor for the enumeration values with the given number of parameters as
+     * {@link MethodHandle} of the {@link MethodType#genericMethodType(int) generic type}.
+     */
+    private MethodHandle getEnumValueConstructor(EnumContentTocEntry tocEntry, Class<?> enumClass, int parameterSize) {
+        MethodHandle constructor = enumValueConstructors.get(enumClass);
+        if (constructor == null || constructor.type().parameterCount() != parameterSize) {
+            Constructor<?> candidate = getCandidateConstructorThrowRuntimeException(tocEntry, enumClass,
+                    parameterSize);
+            candidate.setAccessible(true);
+            try {
+                constructor = MethodHandles.lookup().unreflectConstructor(candidate)
+                        .asType(MethodType.genericMethodType(parameterSize));
+            } catch (IllegalAccessException e) {
+                throw createCannotInstantiateException(e, tocEntry);
+            }
+            enumValueConstructors.put(enumClass, constructor);
+        }
+        return constructor;
+    }
+
     private <T> List<T> getCreatedEnumValueList(EnumContentTocEntry tocEntry,
             List<List<Object>> enumValueList,
-            Constructor<T> constructor,
+            MethodHandle constructor,
             int startIndex) {
         T enumValue = null;
         ArrayList<T> enumValues = new ArrayList<>();
         int valueCounterForIndexParameter = startIndex;
         for (List<Object> enumValueAsStrings : enumValueList) {
-            constructor.setAccessible(true);
             Object[] enumAttributeValues = enumValueAsStrings.toArray();
             Object[] parameters = new Object[enumAttributeValues.length + 2];
             setValuesForParamters(valueCounterForIndexParameter, enumAttributeValues, parameters);
@@ -171,7 +217,14 @@ public abstract class AbstractClassLoadingRuntimeRepository extends AbstractTocB
         return constructor;
     }
 
-    private List<List<Object>> getEnumValueListFromSaxHandler(EnumContentTocEntry tocEntry) {
+    /**
+     * Returns the values of the enumeration content described by the toc entry, every value as
+     * list of its attribute values. The default implementation parses the XML returned by
+     * {@link #getXmlAsStream(EnumContentTocEntry)}.
+     * 
+     * @since 22.12
+     */
+    protected List<List<Object>> getEnumValueList(EnumContentTocEntry tocEntry) {
         InputStream xmlAsStream = getXmlAsStream(tocEntry);
         if (isAvailable(xmlAsStream)) {
             return parseEnumValues(tocEntry, xmlAsStream);
@@ -249,14 +302,19 @@ public abstract class AbstractClassLoadingRuntimeRepository extends AbstractTocB
         return (currentConstructor.getModifiers() & Modifier.PROTECTED) > 0;
     }
 
-    private <T> T createEnumValue(Constructor<T> constructor, Object[] parameters, TocEntry tocEntry) {
-        T enumValue;
+    private <T> T createEnumValue(MethodHandle constructor, Object[] parameters, TocEntry tocEntry) {
         try {
-            enumValue = constructor.newInstance(parameters);
-        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            @SuppressWarnings("unchecked")
+            // the constructor was found in the enumeration class T
+            T enumValue = (T)constructor.invokeExact(parameters);
+            return enumValue;
+        } catch (Error e) {
+            throw e;
+            // CSOFF: IllegalCatch
+        } catch (Throwable e) {
+            // CSON: IllegalCatch
             throw createCannotInstantiateException(e, tocEntry);
         }
-        return enumValue;
     }
 
     @Override
@@ -281,21 +339,54 @@ public abstract class AbstractClassLoadingRuntimeRepository extends AbstractTocB
 
     protected ProductComponentGeneration createProductComponentGenerationInstance(GenerationTocEntry tocEntry,
             ProductComponent productCmpt) {
-        ProductComponentGeneration productCmptGen;
-        // CSOFF: IllegalCatch
-        // Must catch Exception because of ugly java API in Expression
+        Class<?> implClass = getClass(getProductComponentGenerationImplClass(tocEntry), cl);
+        Map<Class<?>, MethodHandle> constructors = productCmptGenConstructors.computeIfAbsent(implClass,
+                $ -> new ConcurrentHashMap<>());
+        MethodHandle constructor = constructors.get(productCmpt.getClass());
+        if (constructor == null) {
+            constructor = findProductComponentGenerationConstructor(implClass, productCmpt.getClass(), tocEntry);
+            constructors.put(productCmpt.getClass(), constructor);
+        }
         try {
-            Class<?> implClass = getClass(getProductComponentGenerationImplClass(tocEntry), cl);
-            Expression expression = new Expression(implClass, "new", new Object[] { productCmpt });
-            productCmptGen = (ProductComponentGeneration)expression.getValue();
-        } catch (Exception e) {
+            return (ProductComponentGeneration)constructor.invoke(productCmpt);
+        } catch (Error e) {
+            throw e;
+            // CSOFF: IllegalCatch
+        } catch (Throwable e) {
+            // CSON: IllegalCatch
             throw createCannotInstantiateException(e, tocEntry);
         }
-        // CSON: IllegalCatch
-        return productCmptGen;
     }
 
-    private RuntimeException createCannotInstantiateException(Exception e, TocEntry tocEntry) {
+    /**
+     * Finds the public constructor of the generation class with a single parameter that accepts the
+     * product component. If there are several such constructors the one with the most specific
+     * parameter type is used.
+     */
+    private MethodHandle findProductComponentGenerationConstructor(Class<?> implClass,
+            Class<?> productCmptClass,
+            TocEntry tocEntry) {
+        Constructor<?> constructor = null;
+        for (Constructor<?> candidate : implClass.getConstructors()) {
+            Class<?>[] parameterTypes = candidate.getParameterTypes();
+            if (parameterTypes.length == 1 && parameterTypes[0].isAssignableFrom(productCmptClass)
+                    && (constructor == null
+                            || constructor.getParameterTypes()[0].isAssignableFrom(parameterTypes[0]))) {
+                constructor = candidate;
+            }
+        }
+        if (constructor == null) {
+            throw new RuntimeException("Can't create instance for toc entry " + tocEntry + ": " + implClass.getName()
+                    + " has no constructor accepting " + productCmptClass.getName());
+        }
+        try {
+            return MethodHandles.lookup().unreflectConstructor(constructor);
+        } catch (IllegalAccessException e) {
+            throw createCannotInstantiateException(e, tocEntry);
+        }
+    }
+
+    private RuntimeException createCannotInstantiateException(Throwable e, TocEntry tocEntry) {
         return new RuntimeException("Can't create instance for toc entry " + tocEntry, e);
     }
 
@@ -330,6 +421,18 @@ public abstract class AbstractClassLoadingRuntimeRepository extends AbstractTocB
             throw createCannotInstantiateException(e, tocEntry);
         }
 
+        initTable(table, tocEntry);
+        return table;
+    }
+
+    /**
+     * Initializes the new table with the rows of the table content described by the toc entry. The
+     * default implementation parses the XML returned by
+     * {@link #getXmlAsStream(TableContentTocEntry)}.
+     * 
+     * @since 22.12
+     */
+    protected void initTable(Table<?> table, TableContentTocEntry tocEntry) {
         InputStream is = getXmlAsStream(tocEntry);
 
         try {
@@ -345,7 +448,6 @@ public abstract class AbstractClassLoadingRuntimeRepository extends AbstractTocB
                 throw new RuntimeException("Unable to close the input stream for : " + tocEntry.getIpsObjectId(), e);
             }
         }
-        return table;
     }
 
     private Constructor<?> getTableConstructor(Class<?> implClass, TableContentTocEntry tocEntry) {
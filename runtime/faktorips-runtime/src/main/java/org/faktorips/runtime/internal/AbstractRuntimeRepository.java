@@ -11,20 +11,21 @@
 package org.faktorips.runtime.internal;
 
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.security.PrivilegedAction;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.GregorianCalendar;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TimeZone;
 import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.bind.JAXBContext;
@@ -73,6 +74,8 @@ public abstract class AbstractRuntimeRepository implements IRuntimeRepository {
 
     private Map<Class<?>, IEnumValueLookupService<?>> enumValueLookups = new ConcurrentHashMap<>();
 
+    private final Map<Class<?>, EnumValueIndex<?>> enumValueIndices = new ConcurrentHashMap<>();
+
     private IFormulaEvaluatorFactory formulaEvaluatorFactory;
 
     private IRuntimeRepositoryLookup runtimeRepositoryLookup;
@@ -249,6 +252,37 @@ public abstract class AbstractRuntimeRepository implements IRuntimeRepository {
         return null;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The effective date is the start of the given day in the {@link TimeZone#getDefault() default
+     * time zone}. The point in time is computed without creating a {@link Calendar}.
+     */
+    @Override
+    public final IProductComponentGeneration getProductComponentGenerationAt(String id, LocalDate effectiveDate) {
+        if (effectiveDate == null) {
+            return null;
+        }
+        TimeZone zone = TimeZone.getDefault();
+        long effectiveDateInMillis = DateTime.toTimeInMillisecs(effectiveDate, zone);
+        IProductComponentGeneration pcGen = getProductComponentGenerationInternal(id, effectiveDateInMillis);
+        if (pcGen != null) {
+            DateTime validTo = pcGen.getProductComponent().getValidTo();
+            if (validTo != null && validTo.toTimeInMillisecs(zone) < effectiveDateInMillis) {
+                // If validTo is set and is before effectiveDate, the generation is invalid
+                return null;
+            }
+            return pcGen;
+        }
+        for (IRuntimeRepository repository : repositories) {
+            pcGen = repository.getProductComponentGenerationAt(id, effectiveDate);
+            if (pcGen != null) {
+                return pcGen;
+            }
+        }
+        return null;
+    }
+
     /**
      * Same as getProductComponentGeneration(String id, Calendar effectiveDate) but searches only in
      * this repository and not the ones this repository depends on.
@@ -256,6 +290,21 @@ public abstract class AbstractRuntimeRepository implements IRuntimeRepository {
     protected abstract IProductComponentGeneration getProductComponentGenerationInternal(String id,
             Calendar effectiveDate);
 
+    /**
+     * Same as {@link #getProductComponentGenerationInternal(String, Calendar)} with the effective
+     * date given in milliseconds since the epoch. Repositories that can look up generations without
+     * a {@link Calendar} should override this method; by default a calendar in the default time zone
+     * is created.
+     * 
+     * @since 22.12
+     */
+    protected IProductComponentGeneration getProductComponentGenerationInternal(String id,
+            long effectiveDateInMillis) {
+        Calendar effectiveDate = new GregorianCalendar();
+        effectiveDate.setTimeInMillis(effectiveDateInMillis);
+        return getProductComponentGenerationInternal(id, effectiveDate);
+    }
+
     @Override
     public final <T extends IProductComponent> List<T> getAllProductComponents(Class<T> productCmptClass) {
         List<T> result = new ArrayList<>();
@@ -681,23 +730,67 @@ public abstract class AbstractRuntimeRepository implements IRuntimeRepository {
         if (lookup != null) {
             return lookup.getEnumValue(id);
         }
-        List<T> enumValues = getEnumValues(clazz);
-        try {
-            Method enumValueIdMethod = clazz.getDeclaredMethod("getEnumValueId"); //$NON-NLS-1$
-            enumValueIdMethod.setAccessible(true);
-            for (T enumValue : enumValues) {
-                Object idValue = enumValueIdMethod.invoke(enumValue);
-                if (id.equals(idValue)) {
-                    return enumValue;
+        return getEnumValueIndex(clazz).getEnumValue(clazz, id);
+    }
+
+    /**
+     * Returns the index mapping the ids of the enumeration values to the values. The index is
+     * created when the values are requested for the first time and created again whenever
+     * {@link #getEnumValuesInternal(Class)} returns another list, for example because the
+     * enumeration cache was reset.
+     * <p>
+     * If this repository has no values for the enumeration class, the index of the first
+     * referenced repository having values of its own is used. The referenced repository validates
+     * its index itself. If no referenced repository has values, the index of the values defined in
+     * the type is cached as long as {@link #getEnumValuesDefinedInType(Class)} returns the same
+     * values.
+     */
+    private <T> EnumValueIndex<T> getEnumValueIndex(Class<T> clazz) {
+        List<T> internalValues = getEnumValuesInternal(clazz);
+        if (internalValues == null) {
+            return getReferencedEnumValueIndex(clazz);
+        }
+        @SuppressWarnings("unchecked")
+        EnumValueIndex<T> index = (EnumValueIndex<T>)enumValueIndices.get(clazz);
+        if (index == null || !index.isCreatedFrom(internalValues)) {
+            // no synchronization, in worst case two threads create equal indices
+            index = createEnumValueIndex(clazz, internalValues);
+            enumValueIndices.put(clazz, index);
+        }
+        return index;
+    }
+
+    private <T> EnumValueIndex<T> createEnumValueIndex(Class<T> clazz, List<T> internalValues) {
+        List<T> allValues = new ArrayList<>(getEnumValuesDefinedInType(clazz));
+        allValues.addAll(internalValues);
+        return EnumValueIndex.create(clazz, allValues, internalValues);
+    }
+
+    /**
+     * Returns the index for an enumeration class this repository has no values for. Like
+     * {@link #getEnumValues(Class)}, the values of the first referenced repository whose values
+     * differ from the values defined in the type are used.
+     */
+    private <T> EnumValueIndex<T> getReferencedEnumValueIndex(Class<T> clazz) {
+        List<T> valuesFromType = getEnumValuesDefinedInType(clazz);
+        for (IRuntimeRepository repository : repositories) {
+            if (repository instanceof AbstractRuntimeRepository) {
+                EnumValueIndex<T> index = ((AbstractRuntimeRepository)repository).getEnumValueIndex(clazz);
+                if (!index.isDefinedInTypeOnly()) {
+                    return index;
                 }
+            } else if (!repository.getEnumValues(clazz).equals(valuesFromType)) {
+                return EnumValueIndex.delegatingTo(repository, null);
             }
-        } catch (NoSuchMethodException e) {
-            throw new IllegalArgumentException(
-                    "The provided enumeration class doesn't provide an identifying method getEnumValueId.", e); //$NON-NLS-1$
-        } catch (SecurityException | IllegalAccessException | InvocationTargetException e) {
-            throwUnableToCallMethodException(e);
         }
-        return null;
+        @SuppressWarnings("unchecked")
+        EnumValueIndex<T> index = (EnumValueIndex<T>)enumValueIndices.get(clazz);
+        if (index == null || !index.isDefinedInType(valuesFromType)) {
+            // no synchronization, in worst case two threads create equal indices
+            index = EnumValueIndex.definedInType(clazz, valuesFromType);
+            enumValueIndices.put(clazz, index);
+        }
+        return index;
     }
 
     @Override
@@ -713,10 +806,6 @@ public abstract class AbstractRuntimeRepository implements IRuntimeRepository {
         return result;
     }
 
-    private void throwUnableToCallMethodException(Exception e) {
-        throw new IllegalStateException("Unable to call the getEnumValueId of the provided enumeration value.", e); //$NON-NLS-1$
-    }
-
     @Override
     public final <T> List<T> getEnumValues(Class<T> clazz) {
         return Collections.unmodifiableList(getEnumValuesOriginal(clazz));
@@ -780,7 +869,10 @@ public abstract class AbstractRuntimeRepository implements IRuntimeRepository {
 
     private <T> List<T> getEnumValuesDefinedInTypeByReflection(Class<T> enumClass) {
         if (enumClass.isEnum()) {
-            return Arrays.asList(enumClass.getEnumConstants());
+            List<?> previousValues = ENUMVALUECACHE.putIfAbsent(enumClass,
+                    Arrays.asList(enumClass.getEnumConstants()));
+            return previousValues != null ? castPreviousValues(previousValues)
+                    : getCachedEnumValuesDefinedInType(enumClass);
         }
         try {
             Field valuesField = enumClass.getDeclaredField("VALUES");
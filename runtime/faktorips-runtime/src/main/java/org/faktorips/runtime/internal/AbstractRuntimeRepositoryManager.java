@@ -15,14 +15,27 @@ import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.faktorips.runtime.IRuntimeRepository;
 import org.faktorips.runtime.IRuntimeRepositoryManager;
+import org.faktorips.runtime.WarmUpOptions;
 
 /**
  * The {@link AbstractRuntimeRepositoryManager} manages the referenced
  * {@link IRuntimeRepositoryManager}. It delegates the up-to-date check and the creation of new
  * repositories to the subclass.
+ * <p>
+ * By default {@link #getCurrentRuntimeRepository()} checks on every call whether the repository is
+ * up to date and creates a new one in the calling thread if not. Every thread requesting the
+ * repository waits until the new repository is created. To reduce the number of checks a
+ * {@link #setPollInterval(long, TimeUnit) poll interval} could be set. In the
+ * {@link #setAsyncRefresh(Executor, WarmUpOptions) asynchronous refresh mode} the check and the
+ * creation of a new repository are done in the background while the old repository is still
+ * returned. The new repository replaces the old one once it is completely created.
  */
 public abstract class AbstractRuntimeRepositoryManager implements IRuntimeRepositoryManager {
 
@@ -30,6 +43,13 @@ public abstract class AbstractRuntimeRepositoryManager implements IRuntimeReposi
     private List<IRuntimeRepositoryManager> managers = new CopyOnWriteArrayList<>();
     private volatile List<IRuntimeRepositoryManager> allManagers;
 
+    private volatile long pollIntervalNanos;
+    private volatile long lastCheckNanos;
+    private volatile Executor refreshExecutor;
+    private volatile WarmUpOptions warmUpOptions;
+    private volatile RuntimeException lastRefreshFailure;
+    private final AtomicBoolean refreshRunning = new AtomicBoolean();
+
     /**
      * Creates a new {@link AbstractRuntimeRepositoryManager}
      */
@@ -45,33 +65,162 @@ public abstract class AbstractRuntimeRepositoryManager implements IRuntimeReposi
      */
     @Override
     @Deprecated
-    public synchronized IRuntimeRepository getActualRuntimeRepository() {
+    public IRuntimeRepository getActualRuntimeRepository() {
         return getCurrentRuntimeRepository();
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * If a poll interval is set, the up-to-date check is skipped until the interval has elapsed
+     * since the last check. In the asynchronous refresh mode this method never waits for a new
+     * repository, except for the very first call that creates the first repository.
+     */
     @Override
     public IRuntimeRepository getCurrentRuntimeRepository() {
         IRuntimeRepository runtimeRepository = currentRuntimeRepository;
-        if (isRepositoryUpToDate(runtimeRepository) && areReferencedRepositoriesUpToDate()) {
+        if (runtimeRepository != null && !isCheckDue()) {
+            return runtimeRepository;
+        }
+        Executor executor = refreshExecutor;
+        if (runtimeRepository != null && executor != null) {
+            startRefresh(executor);
+            return runtimeRepository;
+        }
+        if (isUpToDate(runtimeRepository)) {
+            lastCheckNanos = System.nanoTime();
             return runtimeRepository;
         } else {
             synchronized (this) {
                 runtimeRepository = currentRuntimeRepository;
-                if (!(isRepositoryUpToDate(runtimeRepository) && areReferencedRepositoriesUpToDate())) {
-                    runtimeRepository = createNewRuntimeRepository();
-                    for (IRuntimeRepositoryManager manager : managers) {
-                        IRuntimeRepository referencedRuntimeRepository = manager.getCurrentRuntimeRepository();
-                        if (referencedRuntimeRepository != null) {
-                            runtimeRepository.addDirectlyReferencedRepository(referencedRuntimeRepository);
-                        }
-                    }
-                    currentRuntimeRepository = runtimeRepository;
+                if (!isUpToDate(runtimeRepository)) {
+                    currentRuntimeRepository = createNewRuntimeRepositoryWithReferences();
                 }
+                lastCheckNanos = System.nanoTime();
                 return currentRuntimeRepository;
             }
         }
     }
 
+    private boolean isCheckDue() {
+        long interval = pollIntervalNanos;
+        return interval <= 0 || System.nanoTime() - lastCheckNanos >= interval;
+    }
+
+    private boolean isUpToDate(IRuntimeRepository runtimeRepository) {
+        return isRepositoryUpToDate(runtimeRepository) && areReferencedRepositoriesUpToDate(runtimeRepository);
+    }
+
+    private IRuntimeRepository createNewRuntimeRepositoryWithReferences() {
+        IRuntimeRepository runtimeRepository = createNewRuntimeRepository();
+        for (IRuntimeRepositoryManager manager : managers) {
+            IRuntimeRepository referencedRuntimeRepository = manager.getCurrentRuntimeRepository();
+            if (referencedRuntimeRepository != null) {
+                runtimeRepository.addDirectlyReferencedRepository(referencedRuntimeRepository);
+            }
+        }
+        return runtimeRepository;
+    }
+
+    private void startRefresh(Executor executor) {
+        if (refreshRunning.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::refresh);
+            } catch (RejectedExecutionException e) {
+                refreshRunning.set(false);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Checks whether the current repository is up to date and, if not, creates and warms up a new
+     * repository and swaps it in. Runs in a thread of the refresh executor.
+     */
+    private void refresh() {
+        try {
+            IRuntimeRepository runtimeRepository = currentRuntimeRepository;
+            if (!isUpToDate(runtimeRepository)) {
+                IRuntimeRepository newRuntimeRepository = createNewRuntimeRepositoryWithReferences();
+                WarmUpOptions options = warmUpOptions;
+                if (options != null && newRuntimeRepository instanceof AbstractTocBasedRuntimeRepository) {
+                    ((AbstractTocBasedRuntimeRepository)newRuntimeRepository).warmUp(options);
+                }
+                synchronized (this) {
+                    if (currentRuntimeRepository == runtimeRepository) {
+                        currentRuntimeRepository = newRuntimeRepository;
+                    }
+                }
+            }
+            lastRefreshFailure = null;
+            // CSOFF: IllegalCatch
+        } catch (RuntimeException e) {
+            // CSON: IllegalCatch
+            // the old repository is still used and the next check tries again
+            lastRefreshFailure = e;
+        } finally {
+            lastCheckNanos = System.nanoTime();
+            refreshRunning.set(false);
+        }
+    }
+
+    /**
+     * Sets the minimum time between two checks whether the repository is up to date. Within this
+     * time {@link #getCurrentRuntimeRepository()} returns the current repository without any check.
+     * A poll interval of 0, the default, checks on every call.
+     */
+    public void setPollInterval(long duration, TimeUnit unit) {
+        pollIntervalNanos = unit.toNanos(duration);
+    }
+
+    /**
+     * Returns the poll interval in the given time unit.
+     * 
+     * @see #setPollInterval(long, TimeUnit)
+     */
+    public long getPollInterval(TimeUnit unit) {
+        return unit.convert(pollIntervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Switches to the asynchronous refresh mode. In this mode the check whether the repository is
+     * up to date is done by a task of the given executor and {@link #getCurrentRuntimeRepository()}
+     * returns the current repository immediately. If the repository is out of date, the task
+     * creates a new repository, warms it up if warm-up options are given and the repository
+     * supports it, and replaces the current repository with the new one. A failed refresh is
+     * available by {@link #getLastRefreshFailure()} and is repeated on the next check.
+     * <p>
+     * Use a poll interval together with this mode to avoid a check being started on every call.
+     * 
+     * @param executor the executor running the refresh task or <code>null</code> to switch back to
+     *            the synchronous mode
+     * @param warmUpOptions the options to warm up new repositories, may be <code>null</code> to
+     *            skip the warm-up
+     * 
+     * @see AbstractTocBasedRuntimeRepository#warmUp(WarmUpOptions)
+     */
+    public void setAsyncRefresh(Executor executor, WarmUpOptions warmUpOptions) {
+        this.warmUpOptions = warmUpOptions;
+        refreshExecutor = executor;
+    }
+
+    /**
+     * Returns <code>true</code> if this manager is in the asynchronous refresh mode.
+     * 
+     * @see #setAsyncRefresh(Executor, WarmUpOptions)
+     */
+    public boolean isAsyncRefresh() {
+        return refreshExecutor != null;
+    }
+
+    /**
+     * Returns the exception thrown by the last refresh in the asynchronous refresh mode or
+     * <code>null</code> if the last refresh was successful.
+     */
+    public RuntimeException getLastRefreshFailure() {
+        return lastRefreshFailure;
+    }
+
     /**
      * Checks whether the {@link IRuntimeRepository} is up to date or not. If this method returns
      * {@code false}, a new repository has to be created.
@@ -93,11 +242,12 @@ public abstract class AbstractRuntimeRepositoryManager implements IRuntimeReposi
      * Returns {@code true} if no manager directly referenced from this one did change its
      * repository.
      * 
+     * @param runtimeRepository the repository whose referenced repositories are checked
      * @return whether no directly referenced repository changed
      */
-    private boolean areReferencedRepositoriesUpToDate() {
+    private boolean areReferencedRepositoriesUpToDate(IRuntimeRepository runtimeRepository) {
         List<IRuntimeRepository> directReferencedRepos = new ArrayList<>(
-                currentRuntimeRepository.getDirectlyReferencedRepositories());
+                runtimeRepository.getDirectlyReferencedRepositories());
         for (IRuntimeRepositoryManager manager : managers) {
             IRuntimeRepository referencedRepository = manager.getCurrentRuntimeRepository();
             if (referencedRepository != null) {
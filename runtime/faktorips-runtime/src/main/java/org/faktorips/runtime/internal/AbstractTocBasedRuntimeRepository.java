@@ -14,12 +14,19 @@ import java.lang.reflect.Constructor;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.xml.bind.annotation.adapters.XmlAdapter;
 
@@ -29,6 +36,10 @@ import org.faktorips.runtime.IProductComponent;
 import org.faktorips.runtime.IProductComponentGeneration;
 import org.faktorips.runtime.IRuntimeRepository;
 import org.faktorips.runtime.ITable;
+import org.faktorips.runtime.WarmUpOptions;
+import org.faktorips.runtime.WarmUpOptions.EntryType;
+import org.faktorips.runtime.WarmUpResult;
+import org.faktorips.runtime.WarmUpResult.Failure;
 import org.faktorips.runtime.internal.toc.CustomTocEntryObject;
 import org.faktorips.runtime.internal.toc.EnumContentTocEntry;
 import org.faktorips.runtime.internal.toc.GenerationTocEntry;
@@ -45,6 +56,9 @@ import org.faktorips.runtime.test.IpsTestCaseBase;
 /**
  * Abstract base implementation of runtime repository that uses a table of contents to lazily load
  * the product data. This implementation also manages the caches.
+ * <p>
+ * To avoid the loading costs on first access the objects could be loaded in advance by
+ * {@link #warmUp(WarmUpOptions)}.
  * 
  * @author Jan Ortmann
  */
@@ -118,11 +132,24 @@ public abstract class AbstractTocBasedRuntimeRepository extends AbstractCachingR
 
     @Override
     protected IProductComponentGeneration getProductComponentGenerationInternal(String id, Calendar effectiveDate) {
+        if (effectiveDate == null) {
+            return null;
+        }
+        return getProductComponentGenerationInternal(id, effectiveDate.getTimeInMillis());
+    }
+
+    @Override
+    protected IProductComponentGeneration getProductComponentGenerationInternal(String id,
+            long effectiveDateInMillis) {
         ProductCmptTocEntry tocEntry = toc.getProductCmptTocEntry(id);
         if (tocEntry == null) {
             return null;
         }
-        return getProductComponentGenerationAtValidFromOrNull(id, tocEntry.findGenerationEntry(effectiveDate));
+        GenerationTocEntry generationTocEntry = tocEntry.getGenerationEntry(effectiveDateInMillis);
+        if (generationTocEntry == null) {
+            return null;
+        }
+        return getProductComponentGenerationInternal(generationTocEntry.getGenerationId());
     }
 
     @Override
@@ -358,4 +385,102 @@ public abstract class AbstractTocBasedRuntimeRepository extends AbstractCachingR
 
     protected abstract <T> T createCustomObject(CustomTocEntryObject<T> tocEntry);
 
+    /**
+     * Loads the objects listed in the table of contents into the caches of this repository, so that
+     * later requests don't have to parse the XML data. Only the objects of the types selected by
+     * the options are loaded. Referenced repositories are not warmed up.
+     * <p>
+     * The objects of one type are loaded in parallel by the executor of the options, one task per
+     * object. The types are loaded one after the other in the order of {@link EntryType}. This
+     * method blocks until all objects are loaded. An object that could not be loaded does not stop
+     * the warm-up but is reported in the result.
+     * <p>
+     * Note that the objects could only be held in the caches as long as the {@link ICacheFactory}
+     * of this repository allows, for example a limited cache would evict the objects loaded first.
+     * 
+     * @param options the options selecting the types of objects, the executor and the progress
+     *            listener
+     * @return the number of loaded objects and elapsed time per type and the failures
+     */
+    public WarmUpResult warmUp(WarmUpOptions options) {
+        Map<EntryType, Map<String, Runnable>> tasksByType = new EnumMap<>(EntryType.class);
+        for (EntryType type : options.getEntryTypes()) {
+            tasksByType.put(type, createWarmUpTasks(type));
+        }
+        int total = tasksByType.values().stream().mapToInt(Map::size).sum();
+        AtomicInteger completed = new AtomicInteger();
+        Map<EntryType, Integer> loadedCounts = new EnumMap<>(EntryType.class);
+        Map<EntryType, Long> elapsedNanos = new EnumMap<>(EntryType.class);
+        Queue<Failure> failures = new ConcurrentLinkedQueue<>();
+        for (Map.Entry<EntryType, Map<String, Runnable>> typeTasks : tasksByType.entrySet()) {
+            EntryType type = typeTasks.getKey();
+            AtomicInteger loaded = new AtomicInteger();
+            long start = System.nanoTime();
+            List<CompletableFuture<Void>> futures = new ArrayList<>(typeTasks.getValue().size());
+            for (Map.Entry<String, Runnable> task : typeTasks.getValue().entrySet()) {
+                futures.add(CompletableFuture
+                        .runAsync(() -> runWarmUpTask(type, task.getKey(), task.getValue(), loaded, failures),
+                                options.getExecutor())
+                        .thenRun(() -> options.getProgressListener().progress(type, completed.incrementAndGet(),
+                                total)));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).join();
+            elapsedNanos.put(type, System.nanoTime() - start);
+            loadedCounts.put(type, loaded.get());
+        }
+        return new WarmUpResult(loadedCounts, elapsedNanos, new ArrayList<>(failures));
+    }
+
+    private void runWarmUpTask(EntryType type,
+            String id,
+            Runnable task,
+            AtomicInteger loaded,
+            Queue<Failure> failures) {
+        try {
+            task.run();
+            loaded.incrementAndGet();
+            // CSOFF: IllegalCatch
+        } catch (RuntimeException | LinkageError e) {
+            // CSON: IllegalCatch
+            failures.add(new Failure(type, id, e));
+        }
+    }
+
+    /**
+     * Creates the tasks loading all objects of the given type, mapped by the id of the object.
+     */
+    private Map<String, Runnable> createWarmUpTasks(EntryType type) {
+        Map<String, Runnable> tasks = new LinkedHashMap<>();
+        switch (type) {
+            case ENUM_CONTENTS:
+                for (EnumContentTocEntry entry : toc.getEnumContentTocEntries()) {
+                    tasks.put(entry.getIpsObjectId(), () -> getEnumValuesInternal(
+                            getClass(entry.getImplementationClassName(), getClassLoader())));
+                }
+                break;
+            case TABLES:
+                for (TableContentTocEntry entry : toc.getTableTocEntries()) {
+                    tasks.put(entry.getIpsObjectId(), () -> getTableInternal(entry.getIpsObjectQualifiedName()));
+                }
+                break;
+            case PRODUCT_COMPONENTS:
+                for (ProductCmptTocEntry entry : toc.getProductCmptTocEntries()) {
+                    tasks.put(entry.getIpsObjectId(), () -> getProductComponentInternal(entry.getIpsObjectId()));
+                }
+                break;
+            case PRODUCT_COMPONENT_GENERATIONS:
+                for (ProductCmptTocEntry entry : toc.getProductCmptTocEntries()) {
+                    for (GenerationTocEntry genEntry : entry.getGenerationEntries()) {
+                        tasks.put(entry.getIpsObjectId() + ' ' + genEntry.getValidFrom().toIsoFormat(),
+                                () -> getProductComponentGenerationInternal(entry.getIpsObjectId(),
+                                        genEntry.getValidFrom()));
+                    }
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown entry type " + type);
+        }
+        return tasks;
+    }
+
 }
@@ -11,6 +11,7 @@
 package org.faktorips.runtime.internal;
 
 import java.io.Serializable;
+import java.time.LocalDate;
 import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.StringTokenizer;
@@ -34,6 +35,8 @@ public class DateTime implements Comparable<DateTime>, Serializable {
      */
     private static final long serialVersionUID = 908669872768116989L;
 
+    private static final long MILLISECS_PER_DAY = 24 * 60 * 60 * 1000L;
+
     private int year;
     private int month;
     private int day;
@@ -43,6 +46,12 @@ public class DateTime implements Comparable<DateTime>, Serializable {
 
     private int hashCode;
 
+    /**
+     * The result of the last call of {@link #toTimeInMillisecs(TimeZone)}, as most calls use the
+     * same time zone.
+     */
+    private transient volatile TimeInMillisecs timeInMillisecs;
+
     public DateTime(int year, int month, int day) {
         this(year, month, day, 0, 0, 0);
     }
@@ -119,8 +128,44 @@ public class DateTime implements Comparable<DateTime>, Serializable {
         return second;
     }
 
+    /**
+     * Returns the point in time this date time represents in the given time zone. The result for
+     * the last time zone is cached, so calling this method repeatedly with the same or an equal
+     * time zone does not create a calendar every time.
+     */
     public long toTimeInMillisecs(TimeZone zone) {
-        return toGregorianCalendar(zone).getTimeInMillis();
+        TimeInMillisecs cached = timeInMillisecs;
+        if (cached != null && (cached.zone == zone || cached.zone.equals(zone))) {
+            return cached.millisecs;
+        }
+        long millisecs = toGregorianCalendar(zone).getTimeInMillis();
+        // a copy of the time zone, as time zones are mutable
+        timeInMillisecs = new TimeInMillisecs((TimeZone)zone.clone(), millisecs);
+        return millisecs;
+    }
+
+    /**
+     * Returns the point in time the given date starts in the given time zone, the same as the
+     * milliseconds of a {@link GregorianCalendar} in the given time zone set to the date. A
+     * calendar is only created if the offset of the time zone changes around the date, for all
+     * other dates the point in time is computed directly.
+     * 
+     * @since 22.12
+     */
+    public static long toTimeInMillisecs(LocalDate date, TimeZone zone) {
+        long utcMillisecs = date.toEpochDay() * MILLISECS_PER_DAY;
+        int offset = zone.getOffset(utcMillisecs - MILLISECS_PER_DAY);
+        if (offset == zone.getOffset(utcMillisecs + MILLISECS_PER_DAY)) {
+            long millisecs = utcMillisecs - offset;
+            if (zone.getOffset(millisecs) == offset) {
+                return millisecs;
+            }
+        }
+        // the day starts in or near a daylight saving time transition
+        GregorianCalendar calendar = new GregorianCalendar(zone);
+        calendar.clear();
+        calendar.set(date.getYear(), date.getMonthValue() - 1, date.getDayOfMonth());
+        return calendar.getTimeInMillis();
     }
 
     public Date toDate(TimeZone zone) {
@@ -179,4 +224,16 @@ public class DateTime implements Comparable<DateTime>, Serializable {
         return second - other.second;
     }
 
+    private static final class TimeInMillisecs {
+
+        private final TimeZone zone;
+
+        private final long millisecs;
+
+        private TimeInMillisecs(TimeZone zone, long millisecs) {
+            this.zone = zone;
+            this.millisecs = millisecs;
+        }
+    }
+
 }
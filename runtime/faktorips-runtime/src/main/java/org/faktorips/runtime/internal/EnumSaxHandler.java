@@ -49,6 +49,23 @@ public class EnumSaxHandler extends DefaultHandler {
 
     private boolean isNull;
 
+    private final boolean useDefaultLocale;
+
+    public EnumSaxHandler() {
+        this(true);
+    }
+
+    /**
+     * Creates a handler that uses the {@link Locale#getDefault() default locale} as default locale
+     * of international strings that do not specify one if <code>useDefaultLocale</code> is
+     * <code>true</code>. Otherwise the default locale of these international strings is
+     * <code>null</code>, so it can be resolved later, like the {@link RepositorySnapshotWriter}
+     * does.
+     */
+    EnumSaxHandler(boolean useDefaultLocale) {
+        this.useDefaultLocale = useDefaultLocale;
+    }
+
     @Override
     public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
         if (ENUM_VALUE_NAME.equals(qName)) {
@@ -90,8 +107,8 @@ public class EnumSaxHandler extends DefaultHandler {
             enumValues.add(enumValue);
             enumValue = null;
         } else if (InternationalStringXmlReaderWriter.XML_TAG.equals(qName)) {
-            internationalString = new DefaultInternationalString(localizedStrings, ObjectUtil.defaultIfNull(
-                    defaultLocale, Locale.getDefault()));
+            internationalString = new DefaultInternationalString(localizedStrings,
+                    useDefaultLocale ? ObjectUtil.defaultIfNull(defaultLocale, Locale.getDefault()) : defaultLocale);
         }
     }
 
@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.faktorips.runtime.IRuntimeRepository;
+
+/**
+ * Maps the ids of the values of one enumeration class to the values, so
+ * {@link AbstractRuntimeRepository#getEnumValue(Class, Object)} does not need to search all values.
+ * <p>
+ * An index is created from the values returned by
+ * {@link AbstractRuntimeRepository#getEnumValuesInternal(Class)}. The repository checks with
+ * {@link #isCreatedFrom(List)} whether these values are still the same instance, so the index is
+ * created again as soon as the enumeration cache of the repository was reset or evicted the values.
+ * If neither the repository nor its referenced repositories have content for the enumeration class,
+ * the index contains the values defined in the type only. The repository checks with
+ * {@link #isDefinedInType(List)} whether these values are still the same. If a referenced
+ * repository that is no {@link AbstractRuntimeRepository} has content, the index delegates to that
+ * repository. Such an index is not cached by the repository, as the referenced repositories may
+ * change.
+ */
+class EnumValueIndex<T> {
+
+    private static final MethodType ID_ACCESSOR_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private final List<T> internalValues;
+
+    private final List<T> valuesFromType;
+
+    private final Map<Object, T> valuesById;
+
+    private final IRuntimeRepository delegate;
+
+    private EnumValueIndex(List<T> internalValues, List<T> valuesFromType, Map<Object, T> valuesById,
+            IRuntimeRepository delegate) {
+        this.internalValues = internalValues;
+        this.valuesFromType = valuesFromType;
+        this.valuesById = valuesById;
+        this.delegate = delegate;
+    }
+
+    /**
+     * Creates an index for the given values.
+     * 
+     * @param enumClass the enumeration class declaring the method <code>getEnumValueId()</code>
+     * @param values all values of the enumeration class
+     * @param internalValues the values returned by
+     *            {@link AbstractRuntimeRepository#getEnumValuesInternal(Class)} the values were
+     *            collected from
+     * @throws IllegalArgumentException if the enumeration class does not declare the method
+     *             <code>getEnumValueId()</code>
+     * @throws IllegalStateException if the method <code>getEnumValueId()</code> could not be called
+     */
+    static <T> EnumValueIndex<T> create(Class<T> enumClass, List<T> values, List<T> internalValues) {
+        return new EnumValueIndex<>(internalValues, null, index(enumClass, values), null);
+    }
+
+    /**
+     * Creates an index for the values defined in the type, used if no repository has values for
+     * the enumeration class.
+     * 
+     * @param enumClass the enumeration class declaring the method <code>getEnumValueId()</code>
+     * @param valuesFromType the values returned by
+     *            {@link AbstractRuntimeRepository#getEnumValuesDefinedInType(Class)}
+     * @see #create(Class, List, List)
+     */
+    static <T> EnumValueIndex<T> definedInType(Class<T> enumClass, List<T> valuesFromType) {
+        return new EnumValueIndex<>(null, valuesFromType, index(enumClass, valuesFromType), null);
+    }
+
+    private static <T> Map<Object, T> index(Class<T> enumClass, List<T> values) {
+        MethodHandle idAccessor = getIdAccessor(enumClass);
+        Map<Object, T> valuesById = new HashMap<>(values.size() * 4 / 3 + 1);
+        for (T value : values) {
+            Object id = getId(idAccessor, value);
+            if (id != null) {
+                // the first value with an id wins, like in a sequential search
+                valuesById.putIfAbsent(id, value);
+            }
+        }
+        return valuesById;
+    }
+
+    /**
+     * Creates an index that delegates all lookups to the given repository providing the values of
+     * the enumeration class.
+     */
+    static <T> EnumValueIndex<T> delegatingTo(IRuntimeRepository repository, List<T> internalValues) {
+        return new EnumValueIndex<>(internalValues, null, null, repository);
+    }
+
+    private static MethodHandle getIdAccessor(Class<?> enumClass) {
+        try {
+            Method enumValueIdMethod = enumClass.getDeclaredMethod("getEnumValueId");
+            enumValueIdMethod.setAccessible(true);
+            return MethodHandles.lookup().unreflect(enumValueIdMethod).asType(ID_ACCESSOR_TYPE);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(
+                    "The provided enumeration class doesn't provide an identifying method getEnumValueId.", e);
+        } catch (SecurityException | IllegalAccessException e) {
+            throw unableToCallMethod(e);
+        }
+    }
+
+    private static Object getId(MethodHandle idAccessor, Object value) {
+        try {
+            return idAccessor.invokeExact(value);
+            // CSOFF: IllegalCatch
+        } catch (Throwable e) {
+            // CSON: IllegalCatch
+            throw unableToCallMethod(e);
+        }
+    }
+
+    private static IllegalStateException unableToCallMethod(Throwable e) {
+        return new IllegalStateException("Unable to call the getEnumValueId of the provided enumeration value.", e);
+    }
+
+    /**
+     * Returns whether this index was created from the given values, that means the very same list
+     * instance.
+     */
+    boolean isCreatedFrom(List<?> currentInternalValues) {
+        return internalValues == currentInternalValues;
+    }
+
+    /**
+     * Returns whether this index contains only the values defined in the type, because no
+     * repository has values for the enumeration class.
+     */
+    boolean isDefinedInTypeOnly() {
+        return valuesFromType != null;
+    }
+
+    /**
+     * Returns whether this index contains only the given values defined in the type, that means
+     * the very same list instance or an equal list.
+     */
+    boolean isDefinedInType(List<?> currentValuesFromType) {
+        return valuesFromType != null
+                && (valuesFromType == currentValuesFromType || valuesFromType.equals(currentValuesFromType));
+    }
+
+    /**
+     * Returns the value with the given id or <code>null</code> if there is no such value.
+     */
+    T getEnumValue(Class<T> enumClass, Object id) {
+        if (delegate != null) {
+            return delegate.getEnumValue(enumClass, id);
+        } else {
+            return valuesById.get(id);
+        }
+    }
+
+}
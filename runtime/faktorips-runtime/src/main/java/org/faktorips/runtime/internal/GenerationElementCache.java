@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.faktorips.runtime.caching.Memoizer;
+import org.faktorips.runtime.internal.toc.GenerationTocEntry;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * Provides the XML elements of product component generations. The generations of a product
+ * component are stored in the XML file of the product component. Instead of parsing the whole file
+ * and searching the generation's element for every single generation, the file is parsed only once
+ * and all generation elements are indexed by their valid from date. Each generation element is
+ * detached into a document of its own, so the document of the product component can be released
+ * right after parsing. The generation elements are held by soft references and are released if
+ * memory gets low.
+ * <p>
+ * DOM implementations are not thread safe even if the document is only read. That is why every
+ * element returned by {@link #getGenerationElement(GenerationTocEntry)} is a copy in a document of
+ * its own that could be used by the calling thread without further synchronization.
+ */
+public class GenerationElementCache {
+
+    private final Memoizer<String, GenerationElements> cache;
+
+    /**
+     * Creates a new cache that uses the given function to parse the XML resource of a product
+     * component and to return its document element.
+     * 
+     * @param documentElementLoader function returning the document element for the name of an XML
+     *            resource
+     */
+    public GenerationElementCache(Function<String, Element> documentElementLoader) {
+        cache = Memoizer.of(GenerationElements.class,
+                resource -> new GenerationElements(documentElementLoader.apply(resource)));
+    }
+
+    /**
+     * Returns the XML element of the generation identified by the given table of contents entry.
+     * 
+     * @throws RuntimeException if the XML resource of the product component does not contain the
+     *             generation
+     */
+    public Element getGenerationElement(GenerationTocEntry tocEntry) {
+        GenerationElements generationElements;
+        try {
+            generationElements = cache.compute(tocEntry.getParent().getXmlResourceName());
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+        Element genElement = generationElements.copyOf(tocEntry.getValidFrom());
+        if (genElement == null) {
+            throw new RuntimeException("Can't find the generation for the toc entry " + tocEntry);
+        }
+        return genElement;
+    }
+
+    /**
+     * Returns all generation elements found in the given product component element, indexed by
+     * their valid from date.
+     */
+    public static Map<DateTime, Element> getGenerationElements(Element productCmptElement) {
+        Map<DateTime, Element> genElements = new HashMap<>();
+        NodeList nl = productCmptElement.getChildNodes();
+        for (int i = 0; i < nl.getLength(); i++) {
+            Node node = nl.item(i);
+            if (node.getNodeType() == Node.ELEMENT_NODE && GenerationTocEntry.XML_TAG.equals(node.getNodeName())) {
+                Element genElement = (Element)node;
+                genElements.put(DateTime.parseIso(genElement.getAttribute(GenerationTocEntry.PROPERTY_VALID_FROM)),
+                        genElement);
+            }
+        }
+        return genElements;
+    }
+
+    /**
+     * Copies the given element into a new document of its own.
+     */
+    private static Element copyToNewDocument(Element element) {
+        Document document = element.getOwnerDocument().getImplementation().createDocument(null, null, null);
+        Element copy = (Element)document.importNode(element, true);
+        document.appendChild(copy);
+        return copy;
+    }
+
+    /**
+     * The indexed generation elements of one parsed product component document, each detached into
+     * a document of its own. All access to the elements is guarded by the monitor of this object.
+     */
+    private static class GenerationElements {
+
+        private final Map<DateTime, Element> genElements = new HashMap<>();
+
+        private GenerationElements(Element productCmptElement) {
+            getGenerationElements(productCmptElement)
+                    .forEach((validFrom, genElement) -> genElements.put(validFrom, copyToNewDocument(genElement)));
+        }
+
+        private synchronized Element copyOf(DateTime validFrom) {
+            Element genElement = genElements.get(validFrom);
+            if (genElement == null) {
+                return null;
+            }
+            return copyToNewDocument(genElement);
+        }
+    }
+
+}
@@ -0,0 +1,232 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores the column values of a table, as they are read from XML, in a memory mapped file instead
+ * of the Java heap. The values are stored column by column: every distinct value is stored once as
+ * UTF-8 and every cell refers to its value by an index. That is why a column containing only a few
+ * distinct values, like most key columns of rating tables, needs four bytes per row.
+ * <p>
+ * The file has the following layout, all numbers are big endian <code>int</code>s:
+ * <ol>
+ * <li>the {@link #MAGIC magic number}, the number of rows, the number of columns and the number of
+ * distinct values</li>
+ * <li>for every distinct value the offset of its end in the value bytes</li>
+ * <li>for every column and within the column for every row the index of the value or
+ * {@link #NULL_VALUE}</li>
+ * <li>the UTF-8 bytes of all distinct values</li>
+ * </ol>
+ * The values are read with absolute methods only, so a store can be read by several threads at the
+ * same time.
+ * 
+ * @since 22.12
+ */
+public class MappedColumnStore {
+
+    /** The first four bytes of a column store file, "FICS". */
+    static final int MAGIC = 0x46494353;
+
+    /** The index used for a cell whose value is <code>null</code>. */
+    static final int NULL_VALUE = -1;
+
+    private static final int HEADER_SIZE = 16;
+
+    private final ByteBuffer buffer;
+
+    private final int rowCount;
+
+    private final int columnCount;
+
+    private final int valueEndsStart;
+
+    private final int cellsStart;
+
+    private final int valueBytesStart;
+
+    MappedColumnStore(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("The buffer does not contain a column store.");
+        }
+        rowCount = buffer.getInt(4);
+        columnCount = buffer.getInt(8);
+        int valueCount = buffer.getInt(12);
+        valueEndsStart = HEADER_SIZE;
+        cellsStart = valueEndsStart + 4 * valueCount;
+        valueBytesStart = cellsStart + 4 * rowCount * columnCount;
+    }
+
+    /**
+     * Maps the given file written by a {@link Writer}. The file is not needed to read the store as
+     * long as the file system keeps the data of deleted but mapped files, like Unix file systems do.
+     */
+    public static MappedColumnStore map(File file) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+                FileChannel channel = randomAccessFile.getChannel()) {
+            return new MappedColumnStore(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    /**
+     * Returns the value of the given cell, <code>null</code> if the cell's value is
+     * <code>null</code>.
+     */
+    public String getValue(int row, int column) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", row count: " + rowCount);
+        }
+        if (column < 0 || column >= columnCount) {
+            throw new IndexOutOfBoundsException("Column: " + column + ", column count: " + columnCount);
+        }
+        int valueIndex = buffer.getInt(cellsStart + 4 * (column * rowCount + row));
+        if (valueIndex == NULL_VALUE) {
+            return null;
+        }
+        int start = valueIndex == 0 ? 0 : buffer.getInt(valueEndsStart + 4 * (valueIndex - 1));
+        int end = buffer.getInt(valueEndsStart + 4 * valueIndex);
+        byte[] bytes = new byte[end - start];
+        ByteBuffer view = buffer.duplicate();
+        // Buffer#position(int) because ByteBuffer#position(int) does not exist in Java 8
+        ((Buffer)view).position(valueBytesStart + start);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the values of all columns of the given row like they are passed to
+     * {@link Table#addRow(List, org.faktorips.runtime.IRuntimeRepository)}.
+     */
+    public List<String> getRow(int row) {
+        String[] values = new String[columnCount];
+        for (int column = 0; column < columnCount; column++) {
+            values[column] = getValue(row, column);
+        }
+        return Arrays.asList(values);
+    }
+
+    /**
+     * Collects the rows of a table and writes them to a column store file. While the rows are
+     * collected, every cell needs four bytes of heap and every distinct value is held once.
+     */
+    public static class Writer {
+
+        private final Map<String, Integer> valueIndices = new HashMap<>();
+
+        private final List<String> values = new ArrayList<>();
+
+        private int[] cells = new int[256];
+
+        private int rowCount;
+
+        private int columnCount = -1;
+
+        /**
+         * Adds a row. The list may be reused for the next row. All rows must have the same number
+         * of columns.
+         * 
+         * @throws IllegalArgumentException if the row has another number of columns than the rows
+         *             added before
+         */
+        public void addRow(List<String> columns) {
+            if (columnCount < 0) {
+                columnCount = columns.size();
+            } else if (columns.size() != columnCount) {
+                throw new IllegalArgumentException("Row " + rowCount + " has " + columns.size()
+                        + " columns, expected " + columnCount);
+            }
+            int start = rowCount * columnCount;
+            if (start + columnCount > cells.length) {
+                cells = Arrays.copyOf(cells, Math.max(cells.length * 2, start + columnCount));
+            }
+            for (int column = 0; column < columnCount; column++) {
+                cells[start + column] = index(columns.get(column));
+            }
+            rowCount++;
+        }
+
+        private int index(String value) {
+            if (value == null) {
+                return NULL_VALUE;
+            }
+            return valueIndices.computeIfAbsent(value, v -> {
+                values.add(v);
+                return values.size() - 1;
+            });
+        }
+
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        /**
+         * Writes the collected rows to the given file and maps it.
+         * 
+         * @throws IOException if the file cannot be written or is too large to be mapped
+         */
+        public MappedColumnStore writeAndMap(File file) throws IOException {
+            int columns = Math.max(columnCount, 0);
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(file), 64 * 1024))) {
+                out.writeInt(MAGIC);
+                out.writeInt(rowCount);
+                out.writeInt(columns);
+                out.writeInt(values.size());
+                List<byte[]> valueBytes = new ArrayList<>(values.size());
+                long end = 0;
+                for (String value : values) {
+                    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    valueBytes.add(bytes);
+                    end += bytes.length;
+                    out.writeInt((int)Math.min(end, Integer.MAX_VALUE));
+                }
+                long size = HEADER_SIZE + 4L * values.size() + 4L * rowCount * columns + end;
+                if (size > Integer.MAX_VALUE) {
+                    throw new IOException("The table is too large to be mapped, it would need " + size + " bytes");
+                }
+                for (int column = 0; column < columns; column++) {
+                    for (int row = 0; row < rowCount; row++) {
+                        out.writeInt(cells[row * columns + column]);
+                    }
+                }
+                for (byte[] bytes : valueBytes) {
+                    out.write(bytes);
+                }
+            }
+            return map(file);
+        }
+    }
+
+}
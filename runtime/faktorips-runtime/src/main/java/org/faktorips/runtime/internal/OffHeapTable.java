@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.AbstractList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+
+import org.faktorips.runtime.IRuntimeRepository;
+
+/**
+ * The base class for generated table classes that keep the content of very large tables out of the
+ * Java heap. When the table is initialized from XML or from rows, the column values are written to
+ * a {@link MappedColumnStore memory mapped file}. The {@link #rows} are a view on this file that
+ * creates a row object by means of {@link #createRow(List, IRuntimeRepository)} every time it is
+ * accessed.
+ * <p>
+ * The search structures of a generated subclass do not hold the row objects but the indices of the
+ * rows in {@link #rows}. The generated find methods resolve the found indices with
+ * {@link #getRow(Integer)} or {@link #getRows(Set)}. Only the key values of the search structures
+ * and the distinct column values used while the table is initialized remain on the heap.
+ * <p>
+ * If the table is created from a list of row objects, for example in unit tests, the rows are kept
+ * in memory.
+ * 
+ * @since 22.12
+ */
+public abstract class OffHeapTable<R> extends Table<R> {
+
+    /**
+     * The writer collecting the rows while the table is initialized, <code>null</code> otherwise.
+     */
+    private MappedColumnStore.Writer writer;
+
+    private IRuntimeRepository productRepository;
+
+    /**
+     * Is used by the generated class to create a row from the values read from XML. In contrast to
+     * {@link #addRow(List, IRuntimeRepository)} this method is called every time a row is accessed.
+     * 
+     * @param values the values of the row's columns
+     * @param productRepository the repository used to create enumeration values
+     */
+    protected abstract R createRow(List<String> values, IRuntimeRepository productRepository);
+
+    /**
+     * Adds the row to the column store while the table is initialized, otherwise the row created
+     * by {@link #createRow(List, IRuntimeRepository)} is added to the rows in memory.
+     */
+    @Override
+    protected final void addRow(List<String> columns, IRuntimeRepository productRepository) {
+        if (writer != null) {
+            writer.addRow(columns);
+        } else {
+            rows.add(createRow(columns, productRepository));
+        }
+    }
+
+    @Override
+    public void initFromXml(InputStream is, IRuntimeRepository productRepository, String qualifiedTableName)
+            throws Exception {
+        startStoring(productRepository);
+        try {
+            super.initFromXml(is, productRepository, qualifiedTableName);
+        } finally {
+            writer = null;
+        }
+    }
+
+    @Override
+    public void initFromRows(Iterable<List<String>> rowValues,
+            IRuntimeRepository productRepository,
+            String qualifiedTableName) {
+        startStoring(productRepository);
+        try {
+            super.initFromRows(rowValues, productRepository, qualifiedTableName);
+        } finally {
+            writer = null;
+        }
+    }
+
+    private void startStoring(IRuntimeRepository repository) {
+        writer = new MappedColumnStore.Writer();
+        productRepository = repository;
+    }
+
+    /**
+     * Replaces the rows collected while the table is initialized by a view on the mapped column
+     * store before the search structures are initialized.
+     */
+    @Override
+    protected void init() {
+        if (writer != null) {
+            rows = new MappedRowList(storeRows(writer));
+            writer = null;
+        }
+        super.init();
+    }
+
+    private MappedColumnStore storeRows(MappedColumnStore.Writer rowWriter) {
+        try {
+            File file = createStorageFile();
+            try {
+                return rowWriter.writeAndMap(file);
+            } finally {
+                // the mapping stays readable, file systems not deleting mapped files delete it on exit
+                if (!file.delete()) {
+                    file.deleteOnExit();
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Can't store the rows of the table " + getName(), e);
+        }
+    }
+
+    /**
+     * Creates the file the column values are written to. The default implementation creates a
+     * temporary file in the directory given by the system property <code>java.io.tmpdir</code>.
+     * <p>
+     * Subclasses may override to store the column values in another directory, for example on a
+     * faster disk.
+     */
+    protected File createStorageFile() throws IOException {
+        return File.createTempFile("faktorips-table", ".bin");
+    }
+
+    /**
+     * Is used by the generated find methods to resolve the index of a found row. Returns
+     * <code>null</code> if the index is <code>null</code>.
+     */
+    protected R getRow(Integer rowIndex) {
+        return rowIndex == null ? null : rows.get(rowIndex);
+    }
+
+    /**
+     * Is used by the generated find methods to resolve the index of a found row. Returns the given
+     * default row if the index is <code>null</code>.
+     */
+    protected R getRow(Integer rowIndex, R defaultRow) {
+        return rowIndex == null ? defaultRow : rows.get(rowIndex);
+    }
+
+    /**
+     * Is used by the generated find methods to resolve the indices of the found rows. The rows are
+     * returned in the order of the table.
+     */
+    protected Set<R> getRows(Set<Integer> rowIndices) {
+        Set<R> result = new LinkedHashSet<>();
+        rowIndices.stream().sorted().forEach(rowIndex -> result.add(rows.get(rowIndex)));
+        return result;
+    }
+
+    /**
+     * The rows of a table stored in a {@link MappedColumnStore}. Every access creates a new row
+     * object.
+     */
+    private class MappedRowList extends AbstractList<R> implements RandomAccess {
+
+        private final MappedColumnStore store;
+
+        MappedRowList(MappedColumnStore store) {
+            this.store = store;
+        }
+
+        @Override
+        public R get(int index) {
+            return createRow(store.getRow(index), productRepository);
+        }
+
+        @Override
+        public int size() {
+            return store.getRowCount();
+        }
+    }
+
+}
@@ -0,0 +1,490 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.faktorips.values.DefaultInternationalString;
+import org.faktorips.values.LocalizedString;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * A binary snapshot of a table of contents together with the rows of the table contents and the
+ * values of the enumeration contents it references. The snapshot is created at build time by the
+ * {@link RepositorySnapshotWriter} and read by the
+ * {@link org.faktorips.runtime.SnapshotRuntimeRepository}, so the repository does not need to parse
+ * the XML of the table of contents, the tables and the enumerations.
+ * <p>
+ * All strings are stored once in a string table and decoded when they are used for the first time.
+ * The table rows and enumeration values are decoded when the table or enumeration is loaded. If the
+ * snapshot is read from a file, the file is memory mapped, so only the parts that are used are read
+ * from disk.
+ * <p>
+ * The snapshot stores the checksum of the table of contents and of every table and enumeration
+ * content file it was created from. The repository compares these checksums with the current
+ * files, so a file that was changed after the snapshot was created is read from XML.
+ * <p>
+ * The format of a snapshot, all numbers as big-endian <code>int</code>s unless stated otherwise:
+ * 
+ * <pre>
+ * magic, version, CRC32 of the table of contents file (as long)
+ * string count, string offsets (count + 1), UTF-8 bytes of all strings
+ * the element of the table of contents
+ * table count, (xml resource name, CRC32 of the file (as long), data offset) per table
+ * enum count, (xml resource name, CRC32 of the file (as long), data offset) per enumeration content
+ * the data of the tables and enumeration contents
+ * </pre>
+ * 
+ * Strings are referenced by their index in the string table, <code>-1</code> is
+ * <code>null</code>. An element consists of its tag, the attribute count, the name and value of
+ * every attribute, the child count and the children, every child starting with
+ * {@link #ELEMENT_NODE} or {@link #TEXT_NODE}. The data of a table is the row count and for every
+ * row the column count and the values. The data of an enumeration content is the value count, the
+ * attribute count and the attribute values of all values, every attribute value starting with
+ * {@link #NULL_VALUE}, {@link #STRING_VALUE} or {@link #INTERNATIONAL_STRING_VALUE}. The default
+ * locale of an international string is <code>null</code> if the XML does not specify it, it is
+ * resolved to the {@link Locale#getDefault() default locale} when the values are read.
+ * 
+ * @since 22.12
+ */
+public class RepositorySnapshot {
+
+    /** The file extension of snapshot files. */
+    public static final String FILE_EXTENSION = ".snapshot";
+
+    static final int MAGIC = 0x46495053;
+
+    static final int VERSION = 2;
+
+    static final int INDEX_ENTRY_SIZE = 16;
+
+    static final int NULL_STRING = -1;
+
+    static final byte ELEMENT_NODE = 1;
+
+    static final byte TEXT_NODE = 2;
+
+    static final byte NULL_VALUE = 0;
+
+    static final byte STRING_VALUE = 1;
+
+    static final byte INTERNATIONAL_STRING_VALUE = 2;
+
+    private final ByteBuffer buffer;
+
+    private final long tocChecksum;
+
+    private final int stringOffsetsPosition;
+
+    private final int stringDataPosition;
+
+    private final String[] strings;
+
+    private final int tocPosition;
+
+    private final Map<String, ContentIndexEntry> tableIndex;
+
+    private final Map<String, ContentIndexEntry> enumIndex;
+
+    /**
+     * Creates a snapshot reading the given buffer.
+     * 
+     * @throws IllegalArgumentException if the buffer does not contain a snapshot of this version
+     */
+    public RepositorySnapshot(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.limit() < 16 || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("The buffer does not contain a repository snapshot");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported repository snapshot version " + buffer.getInt(4));
+        }
+        tocChecksum = buffer.getLong(8);
+        int stringCount = buffer.getInt(16);
+        strings = new String[stringCount];
+        stringOffsetsPosition = 20;
+        stringDataPosition = stringOffsetsPosition + (stringCount + 1) * 4;
+        tocPosition = stringDataPosition + buffer.getInt(stringOffsetsPosition + stringCount * 4);
+        int position = skipNode(tocPosition);
+        int tableCount = buffer.getInt(position);
+        int tableIndexPosition = position + 4;
+        int enumCount = buffer.getInt(tableIndexPosition + tableCount * INDEX_ENTRY_SIZE);
+        int enumIndexPosition = tableIndexPosition + tableCount * INDEX_ENTRY_SIZE + 4;
+        int dataPosition = enumIndexPosition + enumCount * INDEX_ENTRY_SIZE;
+        tableIndex = readIndex(tableIndexPosition, tableCount, dataPosition);
+        enumIndex = readIndex(enumIndexPosition, enumCount, dataPosition);
+    }
+
+    /**
+     * Reads the snapshot from the given resource. If the resource is a file, it is memory mapped,
+     * otherwise it is read completely.
+     * 
+     * @return the snapshot or <code>null</code> if there is no such resource
+     * @throws IOException if the resource cannot be read
+     * @throws IllegalArgumentException if the resource does not contain a snapshot of this version
+     */
+    public static RepositorySnapshot load(ClassLoader classLoader, String resource) throws IOException {
+        URL url = classLoader.getResource(resource);
+        if (url == null) {
+            return null;
+        }
+        if ("file".equals(url.getProtocol())) {
+            try (FileChannel channel = FileChannel.open(Paths.get(url.toURI()), StandardOpenOption.READ)) {
+                return new RepositorySnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            } catch (URISyntaxException e) {
+                throw new IOException("Invalid snapshot file " + url, e);
+            }
+        }
+        try (InputStream is = url.openStream()) {
+            return new RepositorySnapshot(ByteBuffer.wrap(readAllBytes(is)));
+        }
+    }
+
+    /**
+     * Returns the path of the snapshot resource for the given table of contents resource, that is
+     * the path of the table of contents with the file extension {@value #FILE_EXTENSION} instead
+     * of <code>.xml</code>.
+     */
+    public static String getSnapshotResourcePath(String tocResourcePath) {
+        String path = tocResourcePath.endsWith(".xml")
+                ? tocResourcePath.substring(0, tocResourcePath.length() - ".xml".length())
+                : tocResourcePath;
+        return path + FILE_EXTENSION;
+    }
+
+    /**
+     * Computes the checksum of a table of contents, table content or enumeration content file that
+     * is stored in the snapshot to detect snapshots that are older than the file.
+     */
+    public static long computeChecksum(InputStream tocContent) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] bytes = new byte[8192];
+        int read;
+        while ((read = tocContent.read(bytes)) >= 0) {
+            crc.update(bytes, 0, read);
+        }
+        return crc.getValue();
+    }
+
+    static byte[] readAllBytes(InputStream is) throws IOException {
+        byte[] bytes = new byte[Math.max(is.available(), 8192)];
+        int length = 0;
+        int read;
+        while ((read = is.read(bytes, length, bytes.length - length)) >= 0) {
+            length += read;
+            if (length == bytes.length) {
+                byte[] newBytes = new byte[bytes.length * 2];
+                System.arraycopy(bytes, 0, newBytes, 0, length);
+                bytes = newBytes;
+            }
+        }
+        byte[] result = new byte[length];
+        System.arraycopy(bytes, 0, result, 0, length);
+        return result;
+    }
+
+    /**
+     * Returns the checksum of the table of contents file the snapshot was created from.
+     * 
+     * @see #computeChecksum(InputStream)
+     */
+    public long getTocChecksum() {
+        return tocChecksum;
+    }
+
+    /**
+     * Returns the checksum of the table content or enumeration content file stored in the given xml
+     * resource at the time the snapshot was created.
+     * 
+     * @see #computeChecksum(InputStream)
+     * @throws IllegalArgumentException if the snapshot contains neither a table nor an enumeration
+     *             content stored in the resource
+     */
+    public long getContentChecksum(String xmlResourceName) {
+        ContentIndexEntry entry = tableIndex.get(xmlResourceName);
+        if (entry == null) {
+            entry = enumIndex.get(xmlResourceName);
+        }
+        if (entry == null) {
+            throw new IllegalArgumentException("The snapshot does not contain the content " + xmlResourceName);
+        }
+        return entry.checksum;
+    }
+
+    /**
+     * Creates the element of the table of contents, which can be read by
+     * {@link org.faktorips.runtime.internal.toc.AbstractReadonlyTableOfContents#initFromXml(Element)}.
+     */
+    public Element createTocElement() {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            Document document = factory.newDocumentBuilder().newDocument();
+            Element tocElement = (Element)createNode(document, tocPosition + 1);
+            document.appendChild(tocElement);
+            return tocElement;
+        } catch (ParserConfigurationException e) {
+            throw new RuntimeException("Error creating document builder.", e);
+        }
+    }
+
+    /**
+     * Returns whether the snapshot contains the rows of the table content stored in the given xml
+     * resource.
+     */
+    public boolean containsTable(String xmlResourceName) {
+        return tableIndex.containsKey(xmlResourceName);
+    }
+
+    /**
+     * Returns the rows of the table content stored in the given xml resource, every row as a list
+     * of the column values. The rows are decoded while iterating and the list of the column values
+     * is reused for every row, like the {@link TableSaxHandler} does.
+     * 
+     * @throws IllegalArgumentException if the snapshot does not contain the table
+     */
+    public Iterable<List<String>> getTableRows(String xmlResourceName) {
+        ContentIndexEntry entry = tableIndex.get(xmlResourceName);
+        if (entry == null) {
+            throw new IllegalArgumentException("The snapshot does not contain the table " + xmlResourceName);
+        }
+        int position = entry.position;
+        int rowCount = buffer.getInt(position);
+        return () -> new TableRowIterator(position + 4, rowCount);
+    }
+
+    /**
+     * Returns whether the snapshot contains the values of the enumeration content stored in the
+     * given xml resource.
+     */
+    public boolean containsEnumContent(String xmlResourceName) {
+        return enumIndex.containsKey(xmlResourceName);
+    }
+
+    /**
+     * Returns the values of the enumeration content stored in the given xml resource, in the same
+     * form as {@link EnumSaxHandler#getEnumValueList()}.
+     * 
+     * @throws IllegalArgumentException if the snapshot does not contain the enumeration content
+     */
+    public List<List<Object>> getEnumValues(String xmlResourceName) {
+        ContentIndexEntry entry = enumIndex.get(xmlResourceName);
+        if (entry == null) {
+            throw new IllegalArgumentException(
+                    "The snapshot does not contain the enumeration content " + xmlResourceName);
+        }
+        int position = entry.position;
+        int valueCount = buffer.getInt(position);
+        int attributeCount = buffer.getInt(position + 4);
+        int next = position + 8;
+        List<List<Object>> enumValues = new ArrayList<>(valueCount);
+        for (int i = 0; i < valueCount; i++) {
+            List<Object> enumValue = new ArrayList<>(attributeCount);
+            for (int j = 0; j < attributeCount; j++) {
+                byte kind = buffer.get(next++);
+                if (kind == STRING_VALUE) {
+                    enumValue.add(getString(buffer.getInt(next)));
+                    next += 4;
+                } else if (kind == INTERNATIONAL_STRING_VALUE) {
+                    String defaultLanguage = getString(buffer.getInt(next));
+                    Locale defaultLocale = defaultLanguage == null ? Locale.getDefault() : new Locale(defaultLanguage);
+                    int localizedStringCount = buffer.getInt(next + 4);
+                    next += 8;
+                    List<LocalizedString> localizedStrings = new ArrayList<>(localizedStringCount);
+                    for (int k = 0; k < localizedStringCount; k++) {
+                        localizedStrings.add(new LocalizedString(new Locale(getString(buffer.getInt(next))),
+                                getString(buffer.getInt(next + 4))));
+                        next += 8;
+                    }
+                    enumValue.add(new DefaultInternationalString(localizedStrings, defaultLocale));
+                } else {
+                    enumValue.add(null);
+                }
+            }
+            enumValues.add(enumValue);
+        }
+        return enumValues;
+    }
+
+    private Map<String, ContentIndexEntry> readIndex(int position, int count, int dataPosition) {
+        if (count == 0) {
+            return Collections.emptyMap();
+        }
+        Map<String, ContentIndexEntry> index = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            int entryPosition = position + i * INDEX_ENTRY_SIZE;
+            index.put(getString(buffer.getInt(entryPosition)), new ContentIndexEntry(buffer.getLong(entryPosition + 4),
+                    dataPosition + buffer.getInt(entryPosition + 12)));
+        }
+        return index;
+    }
+
+    /**
+     * Returns the string with the given index, decoding it if it is used for the first time.
+     */
+    private String getString(int index) {
+        if (index == NULL_STRING) {
+            return null;
+        }
+        String string = strings[index];
+        if (string == null) {
+            // no synchronization, in worst case two threads decode equal strings
+            int start = buffer.getInt(stringOffsetsPosition + index * 4);
+            int end = buffer.getInt(stringOffsetsPosition + index * 4 + 4);
+            if (buffer.hasArray()) {
+                string = new String(buffer.array(), buffer.arrayOffset() + stringDataPosition + start, end - start,
+                        StandardCharsets.UTF_8);
+            } else {
+                byte[] bytes = new byte[end - start];
+                ByteBuffer view = buffer.duplicate();
+                // Buffer#position(int) because ByteBuffer#position(int) does not exist in Java 8
+                ((Buffer)view).position(stringDataPosition + start);
+                view.get(bytes);
+                string = new String(bytes, StandardCharsets.UTF_8);
+            }
+            strings[index] = string;
+        }
+        return string;
+    }
+
+    /**
+     * Returns the position after the node starting at the given position.
+     */
+    private int skipNode(int position) {
+        if (buffer.get(position) == TEXT_NODE) {
+            return position + 5;
+        }
+        int attributeCount = buffer.getInt(position + 5);
+        int next = position + 9 + attributeCount * 8;
+        int childCount = buffer.getInt(next);
+        next += 4;
+        for (int i = 0; i < childCount; i++) {
+            next = skipNode(next);
+        }
+        return next;
+    }
+
+    /**
+     * Creates the element starting with its tag at the given position.
+     */
+    private Element createNode(Document document, int position) {
+        Element element = document.createElement(getString(buffer.getInt(position)));
+        int attributeCount = buffer.getInt(position + 4);
+        int next = position + 8;
+        for (int i = 0; i < attributeCount; i++) {
+            element.setAttribute(getString(buffer.getInt(next)), getString(buffer.getInt(next + 4)));
+            next += 8;
+        }
+        int childCount = buffer.getInt(next);
+        next += 4;
+        for (int i = 0; i < childCount; i++) {
+            if (buffer.get(next) == TEXT_NODE) {
+                element.appendChild(document.createTextNode(getString(buffer.getInt(next + 1))));
+            } else {
+                element.appendChild(createNode(document, next + 1));
+            }
+            next = skipNode(next);
+        }
+        return element;
+    }
+
+    private static class ContentIndexEntry {
+
+        private final long checksum;
+
+        private final int position;
+
+        ContentIndexEntry(long checksum, int position) {
+            this.checksum = checksum;
+            this.position = position;
+        }
+    }
+
+    private class TableRowIterator implements Iterator<List<String>> {
+
+        private final int rowCount;
+
+        private final List<String> row = new AbstractList<String>() {
+
+            @Override
+            public String get(int index) {
+                if (index >= columnCount) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + columnCount);
+                }
+                return values[index];
+            }
+
+            @Override
+            public int size() {
+                return columnCount;
+            }
+        };
+
+        private String[] values = new String[0];
+
+        private int columnCount;
+
+        private int next;
+
+        private int rowIndex;
+
+        TableRowIterator(int position, int rowCount) {
+            this.rowCount = rowCount;
+            next = position;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return rowIndex < rowCount;
+        }
+
+        @Override
+        public List<String> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            columnCount = buffer.getInt(next);
+            next += 4;
+            if (values.length < columnCount) {
+                values = new String[columnCount];
+            }
+            for (int i = 0; i < columnCount; i++) {
+                values[i] = getString(buffer.getInt(next));
+                next += 4;
+            }
+            rowIndex++;
+            return row;
+        }
+    }
+
+}
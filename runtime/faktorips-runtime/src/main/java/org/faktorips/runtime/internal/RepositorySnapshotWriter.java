@@ -0,0 +1,318 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.faktorips.runtime.IRuntimeRepository;
+import org.faktorips.runtime.internal.toc.EnumContentTocEntry;
+import org.faktorips.runtime.internal.toc.ReadonlyTableOfContents;
+import org.faktorips.runtime.internal.toc.TableContentTocEntry;
+import org.faktorips.values.DefaultInternationalString;
+import org.faktorips.values.LocalizedString;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+/**
+ * Writes a {@link RepositorySnapshot} of a table of contents and the table and enumeration
+ * contents it references. The writer is meant to be called at build time, after the table of
+ * contents and the content files were generated, for example by the <code>exec-maven-plugin</code>
+ * with the project's class path:
+ * 
+ * <pre>
+ * java org.faktorips.runtime.internal.RepositorySnapshotWriter
+ *     org/faktorips/sample/internal/faktorips-repository-toc.xml target/classes
+ * </pre>
+ * 
+ * The snapshot is written next to the table of contents, named as returned by
+ * {@link RepositorySnapshot#getSnapshotResourcePath(String)}.
+ * 
+ * @since 22.12
+ */
+public class RepositorySnapshotWriter {
+
+    private final ClassLoader classLoader;
+
+    private final Map<String, Integer> stringIndices = new HashMap<>();
+
+    private final List<String> strings = new ArrayList<>();
+
+    /**
+     * Creates a writer loading the table of contents and the content files from the given class
+     * loader.
+     */
+    public RepositorySnapshotWriter(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * Writes the snapshot of the given table of contents resource to the output directory. The
+     * first argument is the path of the table of contents resource, the second one the output
+     * directory, for example the class output folder.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: RepositorySnapshotWriter <toc resource> <output directory>");
+        }
+        File snapshotFile = new File(args[1], RepositorySnapshot.getSnapshotResourcePath(args[0]));
+        File parent = snapshotFile.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Can't create directory " + parent);
+        }
+        try (OutputStream out = new FileOutputStream(snapshotFile)) {
+            new RepositorySnapshotWriter(Thread.currentThread().getContextClassLoader()).write(args[0], out);
+        }
+    }
+
+    /**
+     * Writes the snapshot of the given table of contents resource and all table and enumeration
+     * contents it references to the output stream.
+     */
+    public void write(String tocResourcePath, OutputStream out) throws IOException {
+        byte[] tocContent = readResource(tocResourcePath);
+        Element tocElement = parseToc(tocResourcePath, tocContent);
+        ReadonlyTableOfContents toc = new ReadonlyTableOfContents(classLoader);
+        toc.initFromXml(tocElement);
+
+        ByteArrayOutputStream tocBytes = new ByteArrayOutputStream();
+        writeNode(tocElement, new DataOutputStream(tocBytes));
+
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        DataOutputStream dataOut = new DataOutputStream(data);
+        Map<Integer, IndexEntry> tableIndex = new LinkedHashMap<>();
+        for (TableContentTocEntry tableEntry : toc.getTableTocEntries()) {
+            String resource = tableEntry.getXmlResourceName();
+            if (!tableIndex.containsKey(index(resource)) && classLoader.getResource(resource) != null) {
+                byte[] content = readResource(resource);
+                tableIndex.put(index(resource), new IndexEntry(checksum(content), dataOut.size()));
+                writeTable(resource, content, dataOut);
+            }
+        }
+        Map<Integer, IndexEntry> enumIndex = new LinkedHashMap<>();
+        for (EnumContentTocEntry enumEntry : toc.getEnumContentTocEntries()) {
+            String resource = enumEntry.getXmlResourceName();
+            if (!IpsStringUtils.isBlank(resource) && !enumIndex.containsKey(index(resource))
+                    && classLoader.getResource(resource) != null) {
+                byte[] content = readResource(resource);
+                enumIndex.put(index(resource), new IndexEntry(checksum(content), dataOut.size()));
+                writeEnumContent(resource, content, dataOut);
+            }
+        }
+        dataOut.flush();
+
+        DataOutputStream snapshot = new DataOutputStream(out);
+        snapshot.writeInt(RepositorySnapshot.MAGIC);
+        snapshot.writeInt(RepositorySnapshot.VERSION);
+        snapshot.writeLong(checksum(tocContent));
+        writeStrings(snapshot);
+        tocBytes.writeTo(snapshot);
+        writeIndex(tableIndex, snapshot);
+        writeIndex(enumIndex, snapshot);
+        data.writeTo(snapshot);
+        snapshot.flush();
+    }
+
+    private byte[] readResource(String resource) throws IOException {
+        try (InputStream is = classLoader.getResourceAsStream(resource)) {
+            if (is == null) {
+                throw new IllegalArgumentException("Can't find resource " + resource);
+            }
+            return RepositorySnapshot.readAllBytes(is);
+        }
+    }
+
+    private long checksum(byte[] content) throws IOException {
+        return RepositorySnapshot.computeChecksum(new ByteArrayInputStream(content));
+    }
+
+    private Element parseToc(String tocResourcePath, byte[] tocContent) {
+        try {
+            return DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                    .parse(new ByteArrayInputStream(tocContent)).getDocumentElement();
+            // CSOFF: IllegalCatch
+        } catch (Exception e) {
+            // CSON: IllegalCatch
+            throw new RuntimeException("Error loading table of contents from " + tocResourcePath, e);
+        }
+    }
+
+    private int index(String string) {
+        if (string == null) {
+            return RepositorySnapshot.NULL_STRING;
+        }
+        return stringIndices.computeIfAbsent(string, s -> {
+            strings.add(s);
+            return strings.size() - 1;
+        });
+    }
+
+    private void writeNode(Element element, DataOutputStream out) throws IOException {
+        out.writeByte(RepositorySnapshot.ELEMENT_NODE);
+        out.writeInt(index(element.getNodeName()));
+        int attributeCount = element.getAttributes().getLength();
+        out.writeInt(attributeCount);
+        for (int i = 0; i < attributeCount; i++) {
+            Node attribute = element.getAttributes().item(i);
+            out.writeInt(index(attribute.getNodeName()));
+            out.writeInt(index(attribute.getNodeValue()));
+        }
+        List<Node> children = new ArrayList<>();
+        NodeList childNodes = element.getChildNodes();
+        for (int i = 0; i < childNodes.getLength(); i++) {
+            Node child = childNodes.item(i);
+            if (child instanceof Element
+                    || (child.getNodeType() == Node.TEXT_NODE && !IpsStringUtils.isBlank(child.getNodeValue()))
+                    || child.getNodeType() == Node.CDATA_SECTION_NODE) {
+                children.add(child);
+            }
+        }
+        out.writeInt(children.size());
+        for (Node child : children) {
+            if (child instanceof Element) {
+                writeNode((Element)child, out);
+            } else {
+                out.writeByte(RepositorySnapshot.TEXT_NODE);
+                out.writeInt(index(child.getNodeValue()));
+            }
+        }
+    }
+
+    private void writeTable(String resource, byte[] content, DataOutputStream out) throws IOException {
+        RecordingTable table = new RecordingTable();
+        try (InputStream is = new ByteArrayInputStream(content)) {
+            table.initFromXml(is, null, resource);
+            // CSOFF: IllegalCatch
+        } catch (Exception e) {
+            // CSON: IllegalCatch
+            throw new IOException("Can't parse xml for table " + resource, e);
+        }
+        out.writeInt(table.getAllRows().size());
+        for (List<String> row : table.getAllRows()) {
+            out.writeInt(row.size());
+            for (String value : row) {
+                out.writeInt(index(value));
+            }
+        }
+    }
+
+    private void writeEnumContent(String resource, byte[] content, DataOutputStream out) throws IOException {
+        // the default locale is resolved when the snapshot is read, not at build time
+        EnumSaxHandler saxHandler = new EnumSaxHandler(false);
+        try (InputStream is = new ByteArrayInputStream(content)) {
+            SAXParser saxParser = SAXParserFactory.newInstance().newSAXParser();
+            saxParser.parse(new InputSource(is), saxHandler);
+            // CSOFF: IllegalCatch
+        } catch (Exception e) {
+            // CSON: IllegalCatch
+            throw new IOException("Can't parse the enumeration content of the resource " + resource, e);
+        }
+        List<List<Object>> enumValues = saxHandler.getEnumValueList();
+        out.writeInt(enumValues.size());
+        out.writeInt(enumValues.isEmpty() ? 0 : enumValues.get(0).size());
+        for (List<Object> enumValue : enumValues) {
+            if (enumValue.size() != enumValues.get(0).size()) {
+                throw new IOException("The values of the enumeration content " + resource
+                        + " have a different number of attribute values");
+            }
+            for (Object attributeValue : enumValue) {
+                writeEnumAttributeValue(attributeValue, out);
+            }
+        }
+    }
+
+    private void writeEnumAttributeValue(Object attributeValue, DataOutputStream out) throws IOException {
+        if (attributeValue == null) {
+            out.writeByte(RepositorySnapshot.NULL_VALUE);
+        } else if (attributeValue instanceof DefaultInternationalString) {
+            DefaultInternationalString internationalString = (DefaultInternationalString)attributeValue;
+            out.writeByte(RepositorySnapshot.INTERNATIONAL_STRING_VALUE);
+            Locale defaultLocale = internationalString.getDefaultLocale();
+            out.writeInt(index(defaultLocale == null ? null : defaultLocale.toString()));
+            out.writeInt(internationalString.getLocalizedStrings().size());
+            for (LocalizedString localizedString : internationalString.getLocalizedStrings()) {
+                out.writeInt(index(localizedString.getLocale().toString()));
+                out.writeInt(index(localizedString.getValue()));
+            }
+        } else {
+            out.writeByte(RepositorySnapshot.STRING_VALUE);
+            out.writeInt(index((String)attributeValue));
+        }
+    }
+
+    private void writeStrings(DataOutputStream out) throws IOException {
+        out.writeInt(strings.size());
+        ByteArrayOutputStream stringData = new ByteArrayOutputStream();
+        out.writeInt(0);
+        for (String string : strings) {
+            stringData.write(string.getBytes(StandardCharsets.UTF_8));
+            out.writeInt(stringData.size());
+        }
+        stringData.writeTo(out);
+    }
+
+    private void writeIndex(Map<Integer, IndexEntry> index, DataOutputStream out) throws IOException {
+        out.writeInt(index.size());
+        for (Map.Entry<Integer, IndexEntry> entry : index.entrySet()) {
+            out.writeInt(entry.getKey());
+            out.writeLong(entry.getValue().checksum);
+            out.writeInt(entry.getValue().offset);
+        }
+    }
+
+    private static class IndexEntry {
+
+        private final long checksum;
+
+        private final int offset;
+
+        IndexEntry(long checksum, int offset) {
+            this.checksum = checksum;
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * Collects the rows of a table content as parsed by the {@link TableSaxHandler}.
+     */
+    private static class RecordingTable extends Table<List<String>> {
+
+        @Override
+        protected void addRow(List<String> columns, IRuntimeRepository productRepository) {
+            rows.add(new ArrayList<>(columns));
+        }
+
+        @Override
+        protected void initKeyMaps() {
+            // no keys
+        }
+    }
+
+}
@@ -0,0 +1,205 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.function.Predicate;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Reads XML elements from a stream using StAX. In contrast to parsing a whole document with a
+ * {@link javax.xml.parsers.DocumentBuilder}, a caller can read the children of a large document
+ * element one after the other, so only the element that is currently processed is held in memory,
+ * and can skip child elements it does not need without creating their nodes.
+ * <p>
+ * The elements are created like a not namespace aware {@link javax.xml.parsers.DocumentBuilder}
+ * would create them: text, CDATA sections and comments are kept as separate nodes, adjacent text is
+ * merged into one text node.
+ * 
+ * @since 22.12
+ */
+public enum StaxElementReader {
+    /* no instances */;
+
+    /**
+     * The property of the JDK's StAX implementation to report CDATA sections as such instead of
+     * characters.
+     */
+    private static final String REPORT_CDATA_EVENT = "http://java.sun.com/xml/stream/properties/report-cdata-event";
+
+    /**
+     * The StAX factories are not guaranteed to be thread safe, the JDK implementation even reuses
+     * closed readers. That is why every thread uses a factory of its own.
+     */
+    private static final ThreadLocal<XMLInputFactory> INPUT_FACTORY = ThreadLocal
+            .withInitial(StaxElementReader::createInputFactory);
+
+    StaxElementReader() {
+        // Utility class not to be instantiated.
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        if (factory.isPropertySupported(REPORT_CDATA_EVENT)) {
+            factory.setProperty(REPORT_CDATA_EVENT, Boolean.TRUE);
+        }
+        return factory;
+    }
+
+    /**
+     * Creates a reader for the given stream that is positioned at the start of the document
+     * element. The encoding is read from the XML declaration.
+     * 
+     * @throws XMLStreamException if the stream does not contain a document element
+     */
+    public static XMLStreamReader createReader(InputStream is) throws XMLStreamException {
+        return moveToDocumentElement(INPUT_FACTORY.get().createXMLStreamReader(is));
+    }
+
+    /**
+     * Creates a reader for the given character stream that is positioned at the start of the
+     * document element.
+     * 
+     * @throws XMLStreamException if the stream does not contain a document element
+     */
+    public static XMLStreamReader createReader(Reader reader) throws XMLStreamException {
+        return moveToDocumentElement(INPUT_FACTORY.get().createXMLStreamReader(reader));
+    }
+
+    private static XMLStreamReader moveToDocumentElement(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                return reader;
+            }
+        }
+        throw new XMLStreamException("The xml document hasn't got a document element.");
+    }
+
+    /**
+     * Creates a new empty document that is used to create the elements read by
+     * {@link #readElement(XMLStreamReader, Document, Predicate)}.
+     */
+    public static Document newDocument() {
+        try {
+            return DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        } catch (ParserConfigurationException e) {
+            throw new RuntimeException("Error creating document builder.", e);
+        }
+    }
+
+    /**
+     * Returns the name of the element the reader is positioned at, including its prefix if there
+     * is one.
+     */
+    public static String getElementName(XMLStreamReader reader) {
+        return qualifiedName(reader.getPrefix(), reader.getLocalName());
+    }
+
+    /**
+     * Reads the element the reader is positioned at and all its content. The element is created by
+     * but not added to the given document. Child elements whose name matches the given predicate
+     * are skipped, their descendants are skipped as well. Afterwards the reader is positioned at the
+     * end of the element.
+     * 
+     * @param reader a reader positioned at the start of an element
+     * @param document the document creating the nodes
+     * @param skippedChildren matches the names of the child elements that are not read
+     */
+    public static Element readElement(XMLStreamReader reader, Document document, Predicate<String> skippedChildren)
+            throws XMLStreamException {
+        Element element = createElement(reader, document);
+        Node parent = element;
+        int depth = 1;
+        while (depth > 0) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    if (parent == element && skippedChildren.test(getElementName(reader))) {
+                        skipElement(reader);
+                    } else {
+                        parent = parent.appendChild(createElement(reader, document));
+                        depth++;
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    parent = parent.getParentNode();
+                    depth--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.SPACE:
+                    appendText(parent, document, reader.getText());
+                    break;
+                case XMLStreamConstants.CDATA:
+                    parent.appendChild(document.createCDATASection(reader.getText()));
+                    break;
+                case XMLStreamConstants.COMMENT:
+                    parent.appendChild(document.createComment(reader.getText()));
+                    break;
+                default:
+                    // processing instructions and entity references are not part of the elements
+                    break;
+            }
+        }
+        return element;
+    }
+
+    /**
+     * Skips the element the reader is positioned at. Afterwards the reader is positioned at the end
+     * of the element.
+     */
+    public static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static Element createElement(XMLStreamReader reader, Document document) {
+        Element element = document.createElement(getElementName(reader));
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            element.setAttribute(qualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)),
+                    reader.getAttributeValue(i));
+        }
+        return element;
+    }
+
+    private static void appendText(Node parent, Document document, String text) {
+        Node lastChild = parent.getLastChild();
+        if (lastChild != null && lastChild.getNodeType() == Node.TEXT_NODE) {
+            lastChild.setNodeValue(lastChild.getNodeValue() + text);
+        } else {
+            parent.appendChild(document.createTextNode(text));
+        }
+    }
+
+    private static String qualifiedName(String prefix, String localName) {
+        return prefix == null || prefix.isEmpty() ? localName : prefix + ':' + localName;
+    }
+
+}
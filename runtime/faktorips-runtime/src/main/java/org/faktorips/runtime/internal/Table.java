@@ -83,6 +83,24 @@ public abstract class Table<R> implements ITable<R> {
         init();
     }
 
+    /**
+     * Initializes this object with the given rows, every row as a list of the column values like
+     * they are read from XML. The lists may be reused for several rows.
+     * 
+     * @since 22.12
+     */
+    public void initFromRows(Iterable<List<String>> rowValues,
+            IRuntimeRepository productRepository,
+            String qualifiedTableName) {
+        rows = new ArrayList<>(200);
+        name = qualifiedTableName;
+        for (List<String> columns : rowValues) {
+            addRow(columns, productRepository);
+        }
+        ((ArrayList<R>)rows).trimToSize();
+        init();
+    }
+
     protected void init() {
         initKeyMaps();
         performAdditionalInitializations();
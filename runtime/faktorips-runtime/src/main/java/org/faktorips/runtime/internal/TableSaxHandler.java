@@ -11,16 +11,12 @@
 package org.faktorips.runtime.internal;
 
 import java.io.IOException;
-import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 import com.opencsv.CSVParser;
 import com.opencsv.CSVParserBuilder;
-import com.opencsv.CSVReader;
-import com.opencsv.CSVReaderBuilder;
-import com.opencsv.exceptions.CsvValidationException;
 
 import org.faktorips.runtime.IRuntimeRepository;
 import org.xml.sax.Attributes;
@@ -29,6 +25,9 @@ import org.xml.sax.helpers.DefaultHandler;
 
 /**
  * SAX event handler class for ips table contents.
+ * <p>
+ * The characters of a value are collected in one reused buffer. Table contents in CSV format are
+ * parsed line by line while they are read, so the CSV text is never held as a whole.
  * 
  * @author Joerg Ortmann
  */
@@ -48,8 +47,11 @@ public class TableSaxHandler extends DefaultHandler {
     // contains all column values,
     private List<String> columns = new ArrayList<>(20);
 
-    // buffer to store the characters inside the value node
-    private StringBuilder textBuilder = null;
+    // buffer to store the characters inside the value node or of the current CSV line
+    private final StringBuilder textBuilder = new StringBuilder();
+
+    // true if characters were found inside the current value node
+    private boolean hasText;
 
     // true if the parser is inside the row node
     private boolean insideRowNode;
@@ -63,6 +65,16 @@ public class TableSaxHandler extends DefaultHandler {
     // true if the current value node represents the null value
     private boolean nullValue;
 
+    // parses the lines of the CSV content
+    private CSVParser csvParser;
+
+    // the columns of a CSV row whose quoted value continues in the next line
+    private String[] pendingCsvColumns;
+
+    // true if the last CSV character was a carriage return, that ends a line together with a
+    // following line feed
+    private boolean afterCarriageReturn;
+
     // the product repository to get product information from
     private IRuntimeRepository productRepository;
 
@@ -75,7 +87,7 @@ public class TableSaxHandler extends DefaultHandler {
     public void endElement(String uri, String localName, String qName) throws SAXException {
         if (ROWS.equals(qName) && insideCsvContent) {
             insideCsvContent = false;
-            initFromCsv(getText());
+            endCsv();
         } else if (ROW.equals(qName)) {
             insideRowNode = false;
             table.addRow(columns, productRepository);
@@ -83,12 +95,11 @@ public class TableSaxHandler extends DefaultHandler {
         } else if (isColumnValueNode(qName)) {
             insideValueNode = false;
             columns.add(getText());
-            textBuilder = null;
         }
     }
 
     private String getText() {
-        if (textBuilder != null) {
+        if (hasText) {
             return textBuilder.toString();
         } else {
             return nullValue ? null : IpsStringUtils.EMPTY;
@@ -99,11 +110,16 @@ public class TableSaxHandler extends DefaultHandler {
     public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
         if (ROWS.equals(qName)) {
             insideCsvContent = isFormatCsv(attributes);
+            if (insideCsvContent) {
+                startCsv();
+            }
         } else if (ROW.equals(qName)) {
             insideRowNode = true;
         } else if (isColumnValueNode(qName)) {
             insideValueNode = true;
             nullValue = Boolean.parseBoolean(attributes.getValue("isNull"));
+            textBuilder.setLength(0);
+            hasText = false;
         }
     }
 
@@ -114,16 +130,13 @@ public class TableSaxHandler extends DefaultHandler {
 
     @Override
     public void characters(char[] buf, int offset, int len) throws SAXException {
-        if (!insideValueNode && !insideCsvContent) {
-            // ignore characters which are not inside a value node
-            return;
-        }
-        String s = new String(buf, offset, len);
-        if (textBuilder == null) {
-            textBuilder = new StringBuilder(s);
-        } else {
-            textBuilder.append(s);
+        if (insideCsvContent) {
+            csvCharacters(buf, offset, len);
+        } else if (insideValueNode) {
+            textBuilder.append(buf, offset, len);
+            hasText = true;
         }
+        // ignore characters which are not inside a value node
     }
 
     /*
@@ -134,29 +147,78 @@ public class TableSaxHandler extends DefaultHandler {
         return VALUE.equals(nodeName) && insideRowNode;
     }
 
-    private void initFromCsv(String csv) {
-        try (StringReader stringReader = new StringReader(csv)) {
-            try {
-                getClass().getClassLoader().loadClass("com.opencsv.CSVReader");
-            } catch (ClassNotFoundException e) {
-                throw new RuntimeException("Failed to load OpenCSV", e);
+    private void startCsv() {
+        try {
+            getClass().getClassLoader().loadClass("com.opencsv.CSVParser");
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException("Failed to load OpenCSV", e);
+        }
+        csvParser = new CSVParserBuilder().withSeparator('|').withQuoteChar('"').withEscapeChar('\\').build();
+        textBuilder.setLength(0);
+        pendingCsvColumns = null;
+        afterCarriageReturn = false;
+    }
+
+    /**
+     * Splits the characters into lines like {@link java.io.BufferedReader#readLine()} does for the
+     * {@link com.opencsv.CSVReader}: a line ends with a line feed, a carriage return or both.
+     */
+    private void csvCharacters(char[] buf, int offset, int len) {
+        int lineStart = offset;
+        int end = offset + len;
+        for (int i = offset; i < end; i++) {
+            char c = buf[i];
+            if (c == '\n' || c == '\r') {
+                textBuilder.append(buf, lineStart, i - lineStart);
+                lineStart = i + 1;
+                if (c == '\r' || !afterCarriageReturn) {
+                    parseCsvLine();
+                }
+                afterCarriageReturn = c == '\r';
+            } else {
+                afterCarriageReturn = false;
             }
-            CSVParser csvParser = new CSVParserBuilder().withSeparator('|').withQuoteChar('"').withEscapeChar('\\')
-                    .build();
-            try (CSVReader csvReader = new CSVReaderBuilder(stringReader).withCSVParser(csvParser).build()) {
-                String[] csvLine;
-                while ((csvLine = csvReader.readNext()) != null) {
-                    for (int i = 0; i < csvLine.length; i++) {
-                        if (NULL_VALUE.equals(csvLine[i])) {
-                            csvLine[i] = null;
-                        }
-                    }
-                    table.addRow(Arrays.asList(csvLine), productRepository);
+        }
+        textBuilder.append(buf, lineStart, end - lineStart);
+    }
+
+    private void endCsv() {
+        if (textBuilder.length() > 0) {
+            parseCsvLine();
+        }
+        if (csvParser.isPending()) {
+            throw new RuntimeException("Un-terminated quoted field at end of CSV content");
+        }
+        csvParser = null;
+    }
+
+    private void parseCsvLine() {
+        String[] csvLine;
+        try {
+            csvLine = csvParser.parseLineMulti(textBuilder.toString());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        textBuilder.setLength(0);
+        if (csvLine.length > 0) {
+            pendingCsvColumns = pendingCsvColumns == null ? csvLine : concat(pendingCsvColumns, csvLine);
+        }
+        if (!csvParser.isPending() && pendingCsvColumns != null) {
+            String[] row = pendingCsvColumns;
+            pendingCsvColumns = null;
+            for (int i = 0; i < row.length; i++) {
+                if (NULL_VALUE.equals(row[i])) {
+                    row[i] = null;
                 }
-            } catch (IOException | CsvValidationException e) {
-                throw new RuntimeException(e);
             }
+            table.addRow(Arrays.asList(row), productRepository);
         }
     }
 
+    private static String[] concat(String[] first, String[] second) {
+        String[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
 }
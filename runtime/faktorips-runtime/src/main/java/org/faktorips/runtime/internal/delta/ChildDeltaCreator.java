@@ -12,7 +12,13 @@ package org.faktorips.runtime.internal.delta;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 
 import org.faktorips.runtime.IDeltaComputationOptions;
 import org.faktorips.runtime.IDeltaSupport;
@@ -154,10 +160,11 @@ public class ChildDeltaCreator {
     private void createChildDeltasPerObject(ModelObjectDelta delta,
             List<? extends IModelObject> originals,
             List<? extends IModelObject> refObjects) {
+        ObjectMatcher matcher = createObjectMatcher(originals, refObjects);
         int removeCounter = 0;
         int size = originals.size();
         for (int i = 0; i < size; i++) {
-            IModelObjectDelta childDelta = createRemoveMoveOrChangeDelta(originals.get(i), i, refObjects);
+            IModelObjectDelta childDelta = createRemoveMoveOrChangeDelta(originals.get(i), i, refObjects, matcher);
             updateAssociationInfo(childDelta);
             delta.addChildDelta(childDelta);
             if (childDelta.isRemoved()) {
@@ -170,19 +177,22 @@ public class ChildDeltaCreator {
             return;
         }
         for (int i = 0; i < refSize; i++) {
-            boolean exists = false;
-            for (int j = 0; j < size; j++) {
-                if (options.isSame(originals.get(j), refObjects.get(i))) {
-                    exists = true;
-                    break;
-                }
-            }
-            if (!exists) {
+            if (!matcher.hasSameOriginal(i)) {
                 delta.addChildDelta(ModelObjectDelta.newAddDelta(refObjects.get(i), association, kind, options));
             }
         }
     }
 
+    private ObjectMatcher createObjectMatcher(List<? extends IModelObject> originals,
+            List<? extends IModelObject> refObjects) {
+        Function<IModelObject, Object> keyExtractor = options.getIdentityKeyExtractor(association);
+        if (keyExtractor == null) {
+            return new SameObjectMatcher(originals, refObjects, options);
+        } else {
+            return new IdentityKeyMatcher(originals, refObjects, keyExtractor);
+        }
+    }
+
     private void updateAssociationInfo(IModelObjectDelta childDelta) {
         ((ModelObjectDelta)childDelta).setAssociation(association);
         ((ModelObjectDelta)childDelta).setAssociationKind(kind);
@@ -190,40 +200,146 @@ public class ChildDeltaCreator {
 
     private final IModelObjectDelta createRemoveMoveOrChangeDelta(IModelObject original,
             int position,
-            List<? extends IModelObject> refObjects) {
+            List<? extends IModelObject> refObjects,
+            ObjectMatcher matcher) {
 
-        int refSize = refObjects.size();
-        if (position < refSize && options.isSame(original, refObjects.get(position))) {
-            IModelObject refObject = refObjects.get(position);
-            if (kind == AssociationKind.Composition) {
-                return ((IDeltaSupport)original).computeDelta(refObject, options);
-            } else {
-                return ModelObjectDelta.newEmptyDelta(original, refObject);
+        int refPosition = matcher.indexOfSameRefObject(position);
+        if (refPosition < 0) {
+            return ModelObjectDelta.newRemoveDelta(original, association, kind, options);
+        }
+        IModelObject refObject = refObjects.get(refPosition);
+        IModelObjectDelta childDelta;
+        if (kind == AssociationKind.Composition) {
+            childDelta = ((IDeltaSupport)original).computeDelta(refObject, options);
+        } else {
+            childDelta = ModelObjectDelta.newEmptyDelta(original, refObject);
+        }
+        if (refPosition != position) {
+            markMoved((ModelObjectDelta)childDelta);
+        }
+        return childDelta;
+    }
+
+    private void markMoved(ModelObjectDelta delta) {
+        if (!options.ignoreMoved()) {
+            delta.markMoved();
+        }
+    }
+
+    /**
+     * Finds the objects that are the same in the original and the reference objects of an
+     * association.
+     */
+    private interface ObjectMatcher {
+
+        /**
+         * Returns the position of the reference object that is the same as the original object at
+         * the given position or -1 if there is no such object. If the reference object at the same
+         * position is the same, that position is returned, otherwise the first position of a same
+         * object.
+         */
+        int indexOfSameRefObject(int originalPosition);
+
+        /**
+         * Returns whether there is an original object that is the same as the reference object at
+         * the given position.
+         */
+        boolean hasSameOriginal(int refPosition);
+
+    }
+
+    /**
+     * Compares the objects pairwise using {@link IDeltaComputationOptions#isSame(IModelObject,
+     * IModelObject)}.
+     */
+    private static final class SameObjectMatcher implements ObjectMatcher {
+
+        private final List<? extends IModelObject> originals;
+
+        private final List<? extends IModelObject> refObjects;
+
+        private final IDeltaComputationOptions options;
+
+        private SameObjectMatcher(List<? extends IModelObject> originals, List<? extends IModelObject> refObjects,
+                IDeltaComputationOptions options) {
+            this.originals = originals;
+            this.refObjects = refObjects;
+            this.options = options;
+        }
+
+        @Override
+        public int indexOfSameRefObject(int originalPosition) {
+            IModelObject original = originals.get(originalPosition);
+            int refSize = refObjects.size();
+            if (originalPosition < refSize && options.isSame(original, refObjects.get(originalPosition))) {
+                return originalPosition;
             }
+            // check for moved object
+            for (int i = 0; i < refSize; i++) {
+                if (i != originalPosition && options.isSame(original, refObjects.get(i))) {
+                    return i;
+                }
+            }
+            return -1;
         }
-        // check for moved object
-        for (int i = 0; i < refSize; i++) {
-            if (i != position) {
-                IModelObject refObject = refObjects.get(i);
+
+        @Override
+        public boolean hasSameOriginal(int refPosition) {
+            IModelObject refObject = refObjects.get(refPosition);
+            for (IModelObject original : originals) {
                 if (options.isSame(original, refObject)) {
-                    if (kind == AssociationKind.Composition) {
-                        IModelObjectDelta childDelta = ((IDeltaSupport)original).computeDelta(refObject, options);
-                        markMoved((ModelObjectDelta)childDelta);
-                        return childDelta;
-                    } else {
-                        ModelObjectDelta delta = ModelObjectDelta.newEmptyDelta(original, refObject);
-                        markMoved(delta);
-                        return delta;
-                    }
+                    return true;
                 }
             }
+            return false;
         }
-        return ModelObjectDelta.newRemoveDelta(original, association, kind, options);
     }
 
-    private void markMoved(ModelObjectDelta delta) {
-        if (!options.ignoreMoved()) {
-            delta.markMoved();
+    /**
+     * Matches the objects by the keys of the
+     * {@link IDeltaComputationOptions#getIdentityKeyExtractor(String) identity key extractor}. The
+     * keys of all objects are computed once and the positions of the reference objects are stored
+     * in a hash map, so no pairwise comparison is needed.
+     */
+    private static final class IdentityKeyMatcher implements ObjectMatcher {
+
+        private final Object[] originalKeys;
+
+        private final Object[] refKeys;
+
+        private final Map<Object, Integer> firstRefPositionByKey;
+
+        private final Set<Object> keysOfOriginals;
+
+        private IdentityKeyMatcher(List<? extends IModelObject> originals, List<? extends IModelObject> refObjects,
+                Function<IModelObject, Object> keyExtractor) {
+            originalKeys = new Object[originals.size()];
+            keysOfOriginals = new HashSet<>(originals.size() * 4 / 3 + 1);
+            for (int i = 0; i < originalKeys.length; i++) {
+                originalKeys[i] = keyExtractor.apply(originals.get(i));
+                keysOfOriginals.add(originalKeys[i]);
+            }
+            refKeys = new Object[refObjects.size()];
+            firstRefPositionByKey = new HashMap<>(refObjects.size() * 4 / 3 + 1);
+            for (int i = 0; i < refKeys.length; i++) {
+                refKeys[i] = keyExtractor.apply(refObjects.get(i));
+                firstRefPositionByKey.putIfAbsent(refKeys[i], i);
+            }
+        }
+
+        @Override
+        public int indexOfSameRefObject(int originalPosition) {
+            Object key = originalKeys[originalPosition];
+            if (originalPosition < refKeys.length && Objects.equals(key, refKeys[originalPosition])) {
+                return originalPosition;
+            }
+            Integer refPosition = firstRefPositionByKey.get(key);
+            return refPosition == null ? -1 : refPosition;
+        }
+
+        @Override
+        public boolean hasSameOriginal(int refPosition) {
+            return keysOfOriginals.contains(refKeys[refPosition]);
         }
     }
 
@@ -273,6 +389,11 @@ public class ChildDeltaCreator {
         public boolean ignoreMoved() {
             return options.ignoreMoved();
         }
+
+        @Override
+        public Function<IModelObject, Object> getIdentityKeyExtractor(String association) {
+            return options.getIdentityKeyExtractor(association);
+        }
     }
 
 }
@@ -13,6 +13,7 @@ package org.faktorips.runtime.internal.tableindex;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 /**
@@ -100,6 +101,41 @@ public abstract class AbstractMapStructure<K, V extends SearchStructure<R> & Mer
         return resultSet;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The unique values of the nested structures are combined directly, so no result set is
+     * created.
+     */
+    @Override
+    public R getUnique() {
+        R result = findUnique();
+        if (result == null) {
+            throw new NoSuchElementException();
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The unique values of the nested structures are combined directly, so no result set is
+     * created.
+     */
+    @Override
+    public R getUnique(R defaultValue) {
+        R result = findUnique();
+        return result == null ? defaultValue : result;
+    }
+
+    private R findUnique() {
+        R result = null;
+        for (V value : getMap().values()) {
+            result = combineUnique(result, value.getUnique(null));
+        }
+        return result;
+    }
+
     protected Map<K, V> getMap() {
         return map;
     }
@@ -0,0 +1,350 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal.tableindex;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.faktorips.values.ObjectUtil;
+
+/**
+ * A compact alternative to the {@link RangeStructure} that stores its ranges in sorted arrays
+ * instead of a {@link java.util.TreeMap}. Lookups use a binary search and the structure needs no
+ * map entry object per range. If all keys are {@link Integer Integers} or all keys are
+ * {@link Long Longs}, the keys are stored as primitive <code>long</code> values, so no boxed key
+ * object is kept at all.
+ * <p>
+ * The behavior is the same as in a {@link RangeStructure} with the same {@link RangeType}: Putting
+ * a value for an existing key merges the values, and {@link #get(Object)} returns the value of the
+ * range containing the key.
+ * <p>
+ * The structure is designed to be set up completely before it is read. Values that are put into
+ * the structure are collected unsorted and the arrays are sorted once when the structure is read
+ * for the first time. Sorting is thread safe, so a structure could be read by several threads once
+ * it is set up.
+ * 
+ * @see RangeStructure
+ * @see RangeType
+ */
+public class ArrayRangeStructure<K extends Comparable<? super K>, V extends SearchStructure<R> & MergeAndCopyStructure<V>, R>
+        extends SearchStructure<R> implements MergeAndCopyStructure<ArrayRangeStructure<K, V, R>> {
+
+    private static final SearchStructure<?> EMPTY = new EmptySearchStructure<>();
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private final RangeType rangeType;
+
+    /** The keys, <code>null</code> if the keys are stored in {@link #longKeys}. */
+    private Object[] keys;
+
+    /** The keys as primitive values if all keys are of the {@link #longKeyClass}. */
+    private long[] longKeys;
+
+    /** {@link Integer} or {@link Long} if the keys are stored in {@link #longKeys}. */
+    private Class<?> longKeyClass;
+
+    private Object[] values;
+
+    private int size;
+
+    private volatile boolean sorted = true;
+
+    /**
+     * @param rangeType defines how the bounds of ranges should be handled. Must not be
+     *            <code>null</code>.
+     * @throws NullPointerException if the {@link RangeType} is <code>null</code>
+     */
+    ArrayRangeStructure(RangeType rangeType) {
+        if (rangeType == null) {
+            throw new NullPointerException("RangeType must not be null");
+        }
+        this.rangeType = rangeType;
+        keys = new Object[INITIAL_CAPACITY];
+        values = new Object[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Creates an empty {@link ArrayRangeStructure}.
+     */
+    public static <K extends Comparable<? super K>, V extends SearchStructure<R> & MergeAndCopyStructure<V>, R> ArrayRangeStructure<K, V, R> create(
+            RangeType keyType) {
+        return new ArrayRangeStructure<>(keyType);
+    }
+
+    /**
+     * Creates a new {@link ArrayRangeStructure} and adds the given key-value pair.
+     */
+    public static <K extends Comparable<? super K>, V extends SearchStructure<R> & MergeAndCopyStructure<V>, R> ArrayRangeStructure<K, V, R> createWith(
+            RangeType keyType,
+            K key,
+            V value) {
+        ArrayRangeStructure<K, V, R> structure = new ArrayRangeStructure<>(keyType);
+        structure.put(key, value);
+        return structure;
+    }
+
+    /**
+     * Puts a new element in the structure. If there is already a value for the given key, the two
+     * values will be merged together. Thus existing values will never be overwritten.
+     * 
+     * @param key key that maps to the specified value
+     * @param value value to be associated with the specified key.
+     * @throws NullPointerException if the key is <code>null</code>
+     * @see RangeStructure#put(Object, SearchStructure)
+     */
+    public synchronized void put(K key, V value) {
+        if (key == null) {
+            throw new NullPointerException("The key must not be null");
+        }
+        if (keys == null) {
+            keys = boxKeys();
+            longKeys = null;
+            longKeyClass = null;
+        }
+        if (size == keys.length) {
+            int capacity = Math.max(INITIAL_CAPACITY, size * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        keys[size] = key;
+        values[size] = value;
+        size++;
+        sorted = false;
+    }
+
+    @Override
+    public SearchStructure<R> get(Object key) {
+        if (ObjectUtil.isNull(key)) {
+            return emptyResult();
+        }
+        ensureSorted();
+        @SuppressWarnings("unchecked")
+        K kKey = (K)key;
+        int index = indexOf(kKey);
+        if (index < 0) {
+            return emptyResult();
+        }
+        return getValue(index);
+    }
+
+    @Override
+    public Set<R> get() {
+        ensureSorted();
+        Set<R> resultSet = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            resultSet.addAll(getValue(i).get());
+        }
+        return resultSet;
+    }
+
+    @Override
+    public R getUnique() {
+        R result = findUnique();
+        if (result == null) {
+            throw new NoSuchElementException();
+        }
+        return result;
+    }
+
+    @Override
+    public R getUnique(R defaultValue) {
+        R result = findUnique();
+        return result == null ? defaultValue : result;
+    }
+
+    private R findUnique() {
+        ensureSorted();
+        R result = null;
+        for (int i = 0; i < size; i++) {
+            result = combineUnique(result, getValue(i).getUnique(null));
+        }
+        return result;
+    }
+
+    @Override
+    public void merge(ArrayRangeStructure<K, V, R> otherStructure) {
+        otherStructure.ensureSorted();
+        for (int i = 0; i < otherStructure.size; i++) {
+            put(otherStructure.getKey(i), otherStructure.getValue(i));
+        }
+    }
+
+    @Override
+    public ArrayRangeStructure<K, V, R> copy() {
+        ensureSorted();
+        ArrayRangeStructure<K, V, R> copy = new ArrayRangeStructure<>(rangeType);
+        for (int i = 0; i < size; i++) {
+            copy.put(getKey(i), getValue(i).copy());
+        }
+        return copy;
+    }
+
+    /**
+     * Returns the number of ranges in this structure.
+     */
+    public int size() {
+        ensureSorted();
+        return size;
+    }
+
+    /**
+     * Returns the index of the value for the given key or -1 if there is no range containing the
+     * key.
+     */
+    @SuppressWarnings("deprecation")
+    private int indexOf(K key) {
+        int index = binarySearch(key);
+        boolean found = index >= 0;
+        int insertionPoint = found ? index : -index - 1;
+        switch (rangeType) {
+            case LOWER_BOUND_EQUAL:
+                return found ? index : insertionPoint - 1;
+            case LOWER_BOUND:
+                return insertionPoint - 1;
+            case UPPER_BOUND_EQUAL:
+                return insertionPoint < size ? insertionPoint : -1;
+            case UPPER_BOUND:
+                int higher = found ? index + 1 : insertionPoint;
+                return higher < size ? higher : -1;
+            default:
+                throw new IllegalStateException("Unknown range type " + rangeType);
+        }
+    }
+
+    private int binarySearch(K key) {
+        if (longKeys != null) {
+            return Arrays.binarySearch(longKeys, 0, size, ((Number)longKeyClass.cast(key)).longValue());
+        } else {
+            return Arrays.binarySearch(keys, 0, size, key);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private K getKey(int index) {
+        if (longKeys != null) {
+            return (K)box(longKeys[index]);
+        } else {
+            return (K)keys[index];
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V getValue(int index) {
+        return (V)values[index];
+    }
+
+    private Object box(long key) {
+        if (longKeyClass == Integer.class) {
+            return Integer.valueOf((int)key);
+        } else {
+            return Long.valueOf(key);
+        }
+    }
+
+    private Object[] boxKeys() {
+        Object[] boxedKeys = new Object[values.length];
+        for (int i = 0; i < size; i++) {
+            boxedKeys[i] = box(longKeys[i]);
+        }
+        return boxedKeys;
+    }
+
+    private void ensureSorted() {
+        if (!sorted) {
+            synchronized (this) {
+                if (!sorted) {
+                    sortAndMerge();
+                    sorted = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sorts the keys and merges the values of equal keys in the order they were put. Afterwards
+     * the arrays are trimmed to their size and the keys are converted to primitive values if
+     * possible.
+     */
+    @SuppressWarnings("unchecked")
+    private void sortAndMerge() {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        // stable sort, so values put earlier are merged with the values put later
+        Arrays.sort(order, Comparator.comparing(i -> (K)keys[i]));
+        Object[] sortedKeys = new Object[size];
+        Object[] sortedValues = new Object[size];
+        int newSize = 0;
+        for (Integer i : order) {
+            K key = (K)keys[i];
+            V value = (V)values[i];
+            if (newSize > 0 && ((K)sortedKeys[newSize - 1]).compareTo(key) == 0) {
+                ((V)sortedValues[newSize - 1]).merge(value);
+            } else {
+                sortedKeys[newSize] = key;
+                sortedValues[newSize] = value;
+                newSize++;
+            }
+        }
+        size = newSize;
+        values = Arrays.copyOf(sortedValues, newSize);
+        longKeyClass = getLongKeyClass(sortedKeys, newSize);
+        if (longKeyClass != null) {
+            longKeys = new long[newSize];
+            for (int i = 0; i < newSize; i++) {
+                longKeys[i] = ((Number)sortedKeys[i]).longValue();
+            }
+            keys = null;
+        } else {
+            keys = Arrays.copyOf(sortedKeys, newSize);
+        }
+    }
+
+    private static Class<?> getLongKeyClass(Object[] keys, int size) {
+        if (size == 0) {
+            return null;
+        }
+        Class<?> keyClass = keys[0].getClass();
+        if (keyClass != Integer.class && keyClass != Long.class) {
+            return null;
+        }
+        for (int i = 1; i < size; i++) {
+            if (keys[i].getClass() != keyClass) {
+                return null;
+            }
+        }
+        return keyClass;
+    }
+
+    @SuppressWarnings("unchecked")
+    private SearchStructure<R> emptyResult() {
+        return (SearchStructure<R>)EMPTY;
+    }
+
+    @Override
+    public String toString() {
+        ensureSorted();
+        StringBuilder sb = new StringBuilder("ArrayRangeStructure [").append(rangeType).append(": ");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(getKey(i)).append('=').append(getValue(i));
+        }
+        return sb.append(']').toString();
+    }
+
+}
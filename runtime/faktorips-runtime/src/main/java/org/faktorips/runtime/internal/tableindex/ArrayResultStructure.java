@@ -0,0 +1,245 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal.tableindex;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A compact alternative to the {@link ResultStructure}. The result values are stored in an array
+ * instead of a {@link java.util.HashSet}, so a result with a single row needs only the structure
+ * and a one element array instead of a set, a map, a hash table and a map entry.
+ * <p>
+ * The values are kept in the order they were added. Duplicates that result from merging are
+ * removed once when the structure is read for the first time after a merge, so {@link #get()}
+ * returns a set like the {@link ResultStructure} does. Reading is thread safe once the structure is
+ * set up.
+ */
+public class ArrayResultStructure<R> extends SearchStructure<R> implements
+        MergeAndCopyStructure<ArrayResultStructure<R>> {
+
+    private static final Object[] EMPTY_ARRAY = new Object[0];
+
+    private static final int LINEAR_DISTINCT_LIMIT = 8;
+
+    private Object[] results;
+
+    private int size;
+
+    private volatile boolean distinct = true;
+
+    ArrayResultStructure() {
+        results = EMPTY_ARRAY;
+    }
+
+    ArrayResultStructure(R result) {
+        results = new Object[] { result };
+        size = 1;
+    }
+
+    ArrayResultStructure(Set<R> result) {
+        results = result.toArray();
+        size = results.length;
+    }
+
+    /**
+     * Creates a new {@link ArrayResultStructure} with the given resultValue as its only result
+     * value.
+     */
+    public static <R> ArrayResultStructure<R> createWith(R resultValue) {
+        return new ArrayResultStructure<>(resultValue);
+    }
+
+    /**
+     * Creates a new {@link ArrayResultStructure} with the given set of result values.
+     */
+    public static <R> ArrayResultStructure<R> createWith(Set<R> resultValues) {
+        return new ArrayResultStructure<>(resultValues);
+    }
+
+    @Override
+    public SearchStructure<R> get(Object key) {
+        return this;
+    }
+
+    @Override
+    public Set<R> get() {
+        ensureDistinct();
+        return new ArraySet<>(results, size);
+    }
+
+    @Override
+    public R getUnique() {
+        ensureDistinct();
+        if (size > 1) {
+            throw new AssertionError("There are multiple values for a unique key.");
+        } else if (size == 0) {
+            throw new NoSuchElementException();
+        } else {
+            return getResult(0);
+        }
+    }
+
+    @Override
+    public R getUnique(R defaultValue) {
+        ensureDistinct();
+        if (size > 1) {
+            throw new AssertionError("There are multiple values for a unique key.");
+        } else if (size == 0) {
+            return defaultValue;
+        } else {
+            return getResult(0);
+        }
+    }
+
+    @Override
+    public synchronized void merge(ArrayResultStructure<R> otherStructure) {
+        otherStructure.ensureDistinct();
+        int otherSize = otherStructure.size;
+        if (otherSize == 0) {
+            return;
+        }
+        if (size + otherSize > results.length) {
+            results = Arrays.copyOf(results, Math.max(size + otherSize, size * 2));
+        }
+        System.arraycopy(otherStructure.results, 0, results, size, otherSize);
+        size += otherSize;
+        distinct = false;
+    }
+
+    @Override
+    public ArrayResultStructure<R> copy() {
+        ensureDistinct();
+        ArrayResultStructure<R> copy = new ArrayResultStructure<>();
+        copy.results = Arrays.copyOf(results, size);
+        copy.size = size;
+        return copy;
+    }
+
+    @SuppressWarnings("unchecked")
+    private R getResult(int index) {
+        return (R)results[index];
+    }
+
+    private void ensureDistinct() {
+        if (!distinct) {
+            synchronized (this) {
+                if (!distinct) {
+                    removeDuplicates();
+                    distinct = true;
+                }
+            }
+        }
+    }
+
+    private void removeDuplicates() {
+        if (size <= LINEAR_DISTINCT_LIMIT) {
+            // a new array, because sets returned by get() must not change
+            Object[] distinctResults = new Object[size];
+            int newSize = 0;
+            for (int i = 0; i < size; i++) {
+                if (!contains(distinctResults, newSize, results[i])) {
+                    distinctResults[newSize++] = results[i];
+                }
+            }
+            size = newSize;
+            results = Arrays.copyOf(distinctResults, newSize);
+        } else {
+            results = new LinkedHashSet<>(Arrays.asList(results).subList(0, size)).toArray();
+            size = results.length;
+        }
+    }
+
+    private static boolean contains(Object[] array, int size, Object o) {
+        for (int i = 0; i < size; i++) {
+            if (Objects.equals(array[i], o)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return get().hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if ((obj == null) || (getClass() != obj.getClass())) {
+            return false;
+        }
+        @SuppressWarnings("unchecked")
+        ArrayResultStructure<R> other = (ArrayResultStructure<R>)obj;
+        return get().equals(other.get());
+    }
+
+    @Override
+    public String toString() {
+        return "ArrayResultStructure " + get();
+    }
+
+    /**
+     * An unmodifiable view of the distinct values in an array.
+     */
+    private static class ArraySet<R> extends AbstractSet<R> {
+
+        private final Object[] elements;
+
+        private final int size;
+
+        private ArraySet(Object[] elements, int size) {
+            this.elements = elements;
+            this.size = size;
+        }
+
+        @Override
+        public Iterator<R> iterator() {
+            return new Iterator<R>() {
+
+                private int index;
+
+                @Override
+                public boolean hasNext() {
+                    return index < size;
+                }
+
+                @SuppressWarnings("unchecked")
+                @Override
+                public R next() {
+                    if (index >= size) {
+                        throw new NoSuchElementException();
+                    }
+                    return (R)elements[index++];
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return ArrayResultStructure.contains(elements, size, o);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+}
@@ -63,6 +63,26 @@ public class ResultStructure<R> extends SearchStructure<R> implements MergeAndCo
         return Collections.unmodifiableSet(resultSet);
     }
 
+    @Override
+    public R getUnique() {
+        if (resultSet.size() > 1) {
+            throw new AssertionError("There are multiple values for a unique key.");
+        } else {
+            return resultSet.iterator().next();
+        }
+    }
+
+    @Override
+    public R getUnique(R defaultValue) {
+        if (resultSet.size() > 1) {
+            throw new AssertionError("There are multiple values for a unique key.");
+        } else if (resultSet.isEmpty()) {
+            return defaultValue;
+        } else {
+            return resultSet.iterator().next();
+        }
+    }
+
     @Override
     public void merge(ResultStructure<R> otherStructure) {
         resultSet.addAll(otherStructure.resultSet);
@@ -107,4 +107,20 @@ public abstract class SearchStructure<R> {
             return set.iterator().next();
         }
     }
+
+    /**
+     * Combines the unique value found so far with the unique value of another nested structure
+     * without creating a result set. <code>null</code> stands for a structure without a value.
+     * 
+     * @throws AssertionError if both values are present but not equal
+     */
+    static <R> R combineUnique(R result, R nestedResult) {
+        if (result == null) {
+            return nestedResult;
+        } else if (nestedResult == null || result.equals(nestedResult)) {
+            return result;
+        } else {
+            throw new AssertionError("There are multiple values for a unique key.");
+        }
+    }
 }
@@ -11,7 +11,7 @@
 package org.faktorips.runtime.internal.tableindex;
 
 import java.sql.ResultSet;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.Set;
 
 /**
@@ -50,9 +50,7 @@ public class UniqueResultStructure<R> extends SearchStructure<R> implements
 
     @Override
     public Set<R> get() {
-        HashSet<R> result = new HashSet<>();
-        result.add(uniqueResult);
-        return result;
+        return Collections.singleton(uniqueResult);
     }
 
     @Override
@@ -10,14 +10,22 @@
 
 package org.faktorips.runtime.internal.toc;
 
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.Set;
 
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
 import org.faktorips.runtime.IRuntimeObject;
+import org.faktorips.runtime.internal.IpsStringUtils;
+import org.faktorips.runtime.internal.StaxElementReader;
 import org.faktorips.runtime.util.StringBuilderJoiner;
+import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 
@@ -108,13 +116,42 @@ public abstract class AbstractReadonlyTableOfContents implements IReadonlyTableO
         NodeList nl = tocElement.getChildNodes();
         for (int i = 0; i < nl.getLength(); i++) {
             if (nl.item(i) instanceof Element) {
-                Element entryElement = (Element)nl.item(i);
-                internalAddEntry(
-                        getTocEntryFactoriesByXmlTag().get(entryElement.getNodeName()).createFromXml(entryElement));
+                addEntry((Element)nl.item(i));
             }
         }
     }
 
+    /**
+     * Initializes the table of contents with data read from the given stream. In contrast to
+     * {@link #initFromXml(Element)} the table of contents is not parsed into a DOM at once, the
+     * entries are read one after the other and only the element of the current entry is held in
+     * memory. The stream is not closed.
+     * 
+     * @throws XMLStreamException if the stream does not contain a well-formed table of contents
+     * 
+     * @since 22.12
+     */
+    public void initFromXml(InputStream is) throws XMLStreamException {
+        XMLStreamReader reader = StaxElementReader.createReader(is);
+        try {
+            productDataVersion = reader.getAttributeValue(null, PRODUCT_DATA_VERSION_XML_ELEMENT);
+            if (productDataVersion == null) {
+                // like Element#getAttribute(String) for a missing attribute
+                productDataVersion = IpsStringUtils.EMPTY;
+            }
+            Document document = StaxElementReader.newDocument();
+            while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                addEntry(StaxElementReader.readElement(reader, document, name -> false));
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void addEntry(Element entryElement) {
+        internalAddEntry(getTocEntryFactoriesByXmlTag().get(entryElement.getNodeName()).createFromXml(entryElement));
+    }
+
     /**
      * Adds the entry to the table of contents.
      */
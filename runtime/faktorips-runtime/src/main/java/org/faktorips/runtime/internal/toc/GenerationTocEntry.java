@@ -12,6 +12,7 @@ package org.faktorips.runtime.internal.toc;
 
 import java.util.TimeZone;
 
+import org.faktorips.runtime.GenerationId;
 import org.faktorips.runtime.internal.DateTime;
 import org.w3c.dom.Element;
 
@@ -31,6 +32,7 @@ public class GenerationTocEntry extends TocEntry {
     private ProductCmptTocEntry parent;
     private DateTime validFrom;
     private long validFromAsLongInDefaultTimeZone;
+    private volatile GenerationId generationId;
 
     public GenerationTocEntry(ProductCmptTocEntry parent, DateTime validFrom, String className,
             String xmlResourceName) {
@@ -64,6 +66,22 @@ public class GenerationTocEntry extends TocEntry {
         return validFrom;
     }
 
+    /**
+     * Returns the id of the generation this entry describes, that is the id of the product
+     * component and the valid from date. The id is created only once, so it can be used as key to
+     * look up the loaded generation without creating any objects.
+     * 
+     * @since 22.12
+     */
+    public GenerationId getGenerationId() {
+        GenerationId id = generationId;
+        if (id == null) {
+            id = new GenerationId(parent.getIpsObjectId(), validFrom);
+            generationId = id;
+        }
+        return id;
+    }
+
     /**
      * Returns the point in time this generation is valid from in the given time zone. This method
      * never returns <code>null</code>.
@@ -11,14 +11,13 @@
 package org.faktorips.runtime.internal.toc;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.SortedMap;
 import java.util.TimeZone;
-import java.util.TreeMap;
 
 import org.faktorips.runtime.internal.DateTime;
 import org.w3c.dom.Element;
@@ -36,7 +35,11 @@ public class ProductCmptTocEntry extends TocEntryObject {
     public static final String PROPERTY_GENERATION_IMPL_CLASS_NAME = "generationImplClassName";
     public static final String XML_TAG = "ProductComponent";
 
-    private TreeMap<Long, GenerationTocEntry> generationEntries = createNewTreeMap();
+    /**
+     * The generation entries sorted ascending by their valid from date, so the entry valid at a
+     * point in time is found by a binary search without creating any objects.
+     */
+    private GenerationEntries generationEntries = GenerationEntries.EMPTY;
     /**
      * If this entry is a product component: the (runtime) id if of the product component kind,
      * empty string otherwise.
@@ -96,14 +99,18 @@ public class ProductCmptTocEntry extends TocEntryObject {
      * generation entries.
      */
     public List<GenerationTocEntry> getGenerationEntries() {
-        return new ArrayList<>(generationEntries.values());
+        List<GenerationTocEntry> entries = new ArrayList<>(generationEntries.size());
+        for (int i = generationEntries.size() - 1; i >= 0; i--) {
+            entries.add(generationEntries.entries[i]);
+        }
+        return entries;
     }
 
     /**
      * Returns the number of generation entries.
      */
     public int getNumberOfGenerationEntries() {
-        return generationEntries == null ? 0 : generationEntries.size();
+        return generationEntries.size();
     }
 
     /**
@@ -117,10 +124,7 @@ public class ProductCmptTocEntry extends TocEntryObject {
      * Sets the generation entries.
      */
     public void setGenerationEntries(List<GenerationTocEntry> entries) {
-        generationEntries = createNewTreeMap();
-        for (GenerationTocEntry entry : entries) {
-            generationEntries.put(entry.getValidFromInMillisec(TimeZone.getDefault()), entry);
-        }
+        generationEntries = new GenerationEntries(entries, TimeZone.getDefault());
     }
 
     /**
@@ -141,11 +145,8 @@ public class ProductCmptTocEntry extends TocEntryObject {
      * either no entry is found for the provided date or if the found one doesn't have a successor.
      */
     public Optional<GenerationTocEntry> findNextGenerationEntry(Calendar validFrom) {
-        SortedMap<Long, GenerationTocEntry> map = generationEntries.headMap(validFrom.getTimeInMillis());
-        if (map.isEmpty()) {
-            return Optional.empty();
-        }
-        return map.isEmpty() ? Optional.empty() : Optional.ofNullable(generationEntries.get(map.lastKey()));
+        int index = generationEntries.floorIndex(validFrom.getTimeInMillis());
+        return Optional.ofNullable(generationEntries.get(index + 1));
     }
 
     /**
@@ -167,13 +168,8 @@ public class ProductCmptTocEntry extends TocEntryObject {
      * predecessor.
      */
     public Optional<GenerationTocEntry> findPreviousGenerationEntry(Calendar validFrom) {
-        SortedMap<Long, GenerationTocEntry> map = generationEntries.tailMap(validFrom.getTimeInMillis() - 1);
-        if (map.isEmpty()) {
-            return Optional.empty();
-        }
-        Long key = map.firstKey();
-        return Optional.ofNullable(generationEntries.get(key));
-
+        int index = generationEntries.floorIndex(validFrom.getTimeInMillis() - 1);
+        return Optional.ofNullable(generationEntries.get(index));
     }
 
     /**
@@ -190,10 +186,7 @@ public class ProductCmptTocEntry extends TocEntryObject {
      * generations validity date.
      */
     public Optional<GenerationTocEntry> findLatestGenerationEntry() {
-        if (generationEntries.isEmpty()) {
-            return Optional.empty();
-        }
-        return Optional.ofNullable(generationEntries.get(generationEntries.firstKey()));
+        return Optional.ofNullable(generationEntries.get(generationEntries.size() - 1));
     }
 
     /**
@@ -216,12 +209,18 @@ public class ProductCmptTocEntry extends TocEntryObject {
         if (effectiveDate == null) {
             return Optional.empty();
         }
-        SortedMap<Long, GenerationTocEntry> map = generationEntries.tailMap(effectiveDate.getTimeInMillis() + 1);
-        if (map.isEmpty()) {
-            return Optional.empty();
-        }
-        Long key = map.firstKey();
-        return Optional.ofNullable(generationEntries.get(key));
+        return Optional.ofNullable(getGenerationEntry(effectiveDate.getTimeInMillis()));
+    }
+
+    /**
+     * Returns the toc entry for the generation valid at the given point in time in milliseconds
+     * since the epoch, or <code>null</code> if no generation is effective at this point in time.
+     * Like {@link #getGenerationEntry(Calendar)} but without creating any objects.
+     * 
+     * @since 22.12
+     */
+    public GenerationTocEntry getGenerationEntry(long effectiveDateInMillis) {
+        return generationEntries.get(generationEntries.floorIndex(effectiveDateInMillis + 1));
     }
 
     /**
@@ -239,7 +238,12 @@ public class ProductCmptTocEntry extends TocEntryObject {
      * {@link DateTime}. This is the most effective way to get a generation toc entry.
      */
     public Optional<GenerationTocEntry> findGenerationEntry(DateTime validAt) {
-        return Optional.ofNullable(generationEntries.get(validAt.toTimeInMillisecs(TimeZone.getDefault())));
+        long validFromInMillis = validAt.toTimeInMillisecs(TimeZone.getDefault());
+        int index = generationEntries.floorIndex(validFromInMillis);
+        if (index >= 0 && generationEntries.validFromInMillis[index] == validFromInMillis) {
+            return Optional.of(generationEntries.entries[index]);
+        }
+        return Optional.empty();
     }
 
     @Override
@@ -252,7 +256,7 @@ public class ProductCmptTocEntry extends TocEntryObject {
         }
         if (!getGenerationEntries().isEmpty()) {
             entryElement.setAttribute(PROPERTY_GENERATION_IMPL_CLASS_NAME, generationImplClassName);
-            for (GenerationTocEntry generationEntry : generationEntries.values()) {
+            for (GenerationTocEntry generationEntry : getGenerationEntries()) {
                 entryElement.appendChild(generationEntry.toXml(entryElement.getOwnerDocument()));
             }
         }
@@ -263,10 +267,6 @@ public class ProductCmptTocEntry extends TocEntryObject {
         return XML_TAG;
     }
 
-    private static TreeMap<Long, GenerationTocEntry> createNewTreeMap() {
-        return new TreeMap<>(Comparator.reverseOrder());
-    }
-
     @Override
     public int hashCode() {
         final int prime = 31;
@@ -274,7 +274,7 @@ public class ProductCmptTocEntry extends TocEntryObject {
         // using only the size of the generation entries is a quite weak implementation. But because
         // we know that most time the other properties are not the same we prefer the performance
         // of this implementation.
-        result = prime * result + ((generationEntries == null) ? 0 : generationEntries.size());
+        result = prime * result + generationEntries.size();
         result = prime * result + ((generationImplClassName == null) ? 0 : generationImplClassName.hashCode());
         result = prime * result + ((kindId == null) ? 0 : kindId.hashCode());
         result = prime * result + ((validTo == null) ? 0 : validTo.hashCode());
@@ -298,4 +298,69 @@ public class ProductCmptTocEntry extends TocEntryObject {
                 && super.equals(obj);
     }
 
+    /**
+     * The valid from dates in milliseconds and the generation entries, both sorted ascending by the
+     * valid from date. If several entries are valid from the same point in time, only the last one
+     * is kept.
+     */
+    private static final class GenerationEntries {
+
+        private static final GenerationEntries EMPTY = new GenerationEntries(new ArrayList<>(), TimeZone.getDefault());
+
+        private final long[] validFromInMillis;
+
+        private final GenerationTocEntry[] entries;
+
+        private GenerationEntries(List<GenerationTocEntry> entryList, TimeZone zone) {
+            List<GenerationTocEntry> sortedEntries = new ArrayList<>(entryList);
+            // the sort is stable, so entries with the same date keep their order
+            sortedEntries.sort(Comparator.comparingLong(e -> e.getValidFromInMillisec(zone)));
+            long[] validFroms = new long[sortedEntries.size()];
+            GenerationTocEntry[] uniqueEntries = new GenerationTocEntry[sortedEntries.size()];
+            int size = 0;
+            for (GenerationTocEntry entry : sortedEntries) {
+                long validFrom = entry.getValidFromInMillisec(zone);
+                if (size > 0 && validFroms[size - 1] == validFrom) {
+                    size--;
+                }
+                validFroms[size] = validFrom;
+                uniqueEntries[size] = entry;
+                size++;
+            }
+            validFromInMillis = Arrays.copyOf(validFroms, size);
+            entries = Arrays.copyOf(uniqueEntries, size);
+        }
+
+        int size() {
+            return entries.length;
+        }
+
+        /**
+         * Returns the index of the last entry valid from the given point in time or earlier, or -1
+         * if there is no such entry.
+         */
+        int floorIndex(long millis) {
+            int index = Arrays.binarySearch(validFromInMillis, millis);
+            return index >= 0 ? index : -index - 2;
+        }
+
+        GenerationTocEntry get(int index) {
+            return index >= 0 && index < entries.length ? entries[index] : null;
+        }
+
+        @Override
+        public int hashCode() {
+            return entries.length;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof GenerationEntries)) {
+                return false;
+            }
+            GenerationEntries other = (GenerationEntries)obj;
+            return Arrays.equals(validFromInMillis, other.validFromInMillis) && Arrays.equals(entries, other.entries);
+        }
+    }
+
 }
@@ -10,6 +10,7 @@
 
 package org.faktorips.runtime.internal.toc;
 
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -19,6 +20,8 @@ import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.Set;
 
+import javax.xml.stream.XMLStreamException;
+
 import org.faktorips.runtime.IRuntimeObject;
 import org.faktorips.runtime.internal.IpsStringUtils;
 import org.w3c.dom.Element;
@@ -30,6 +33,11 @@ import org.w3c.dom.Element;
  */
 public class ReadonlyTableOfContents extends AbstractReadonlyTableOfContents {
 
+    /**
+     * The estimated number of entries if the table of contents is read from a stream.
+     */
+    private static final int DEFAULT_TOC_SIZE = 256;
+
     /**
      * A map that contains the runtime id of product components as key and the TOC entry as value.
      */
@@ -103,6 +111,13 @@ public class ReadonlyTableOfContents extends AbstractReadonlyTableOfContents {
         super.initFromXml(tocElement);
     }
 
+    @Override
+    public void initFromXml(InputStream is) throws XMLStreamException {
+        // the number of entries is unknown before the stream is read
+        initHashMaps(DEFAULT_TOC_SIZE);
+        super.initFromXml(is);
+    }
+
     protected void initHashMaps(int tocSize) {
         /*
          * The size of the HashMaps is set to estimated values depending on the maximum size of the
@@ -31,11 +31,14 @@ public abstract class Association extends TypePart {
 
     private final Method getter;
 
+    private final MethodAccessor getterAccessor;
+
     public Association(Type type, Method getter) {
         super(getAssociationAnnotation(getter).name(), type,
                 getter.getAnnotation(IpsExtensionProperties.class), Deprecation.of(getter));
         annotation = getAssociationAnnotation(getter);
         this.getter = getter;
+        getterAccessor = new MethodAccessor(getter);
     }
 
     private static IpsAssociation getAssociationAnnotation(Method getterMethod) {
@@ -278,6 +281,13 @@ public abstract class Association extends TypePart {
         return getter;
     }
 
+    /**
+     * Calls the getter method of this association on the given source object.
+     */
+    Object invokeGetterMethod(Object source) {
+        return getterAccessor.invoke(source);
+    }
+
     public abstract Association createOverwritingAssociationFor(Type subType);
 
     @Override
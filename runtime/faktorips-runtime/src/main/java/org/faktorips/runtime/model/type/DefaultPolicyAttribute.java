@@ -15,6 +15,8 @@ import java.lang.reflect.Method;
 import java.util.Calendar;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.faktorips.runtime.IConfigurableModelObject;
 import org.faktorips.runtime.IModelObject;
@@ -51,11 +53,15 @@ public class DefaultPolicyAttribute extends PolicyAttribute {
 
     private final Method setter;
 
+    private final MethodAccessor getterAccessor;
+
+    private final MethodAccessor setterAccessor;
+
     private Method defaultValueGetter;
     private Method defaultValueSetter;
     private Field defaultField;
 
-    private Map<Type, Method> valueSetMethods = new HashMap<>(2);
+    private Map<Type, Optional<MethodAccessor>> valueSetMethods = new ConcurrentHashMap<>(2);
     private Method allowedValuesSetter;
 
     public DefaultPolicyAttribute(PolicyCmptType policyCmptType, Method getter, Method setter,
@@ -65,6 +71,8 @@ public class DefaultPolicyAttribute extends PolicyAttribute {
                 Deprecation.of(getter));
         this.getter = getter;
         this.setter = setter;
+        getterAccessor = MethodAccessor.of(getter);
+        setterAccessor = MethodAccessor.of(setter);
     }
 
     @Override
@@ -74,7 +82,7 @@ public class DefaultPolicyAttribute extends PolicyAttribute {
 
     @Override
     public Object getValue(IModelObject modelObject) {
-        return invokeMethod(getter, modelObject);
+        return getterAccessor.invoke(modelObject);
     }
 
     @Override
@@ -87,7 +95,7 @@ public class DefaultPolicyAttribute extends PolicyAttribute {
                         getName(), getType().getName()));
             }
         } else {
-            invokeMethod(setter, modelObject, value);
+            setterAccessor.invoke(modelObject, value);
         }
     }
 
@@ -176,20 +184,20 @@ public class DefaultPolicyAttribute extends PolicyAttribute {
 
     @Override
     public ValueSet<?> getValueSet(IModelObject modelObject, IValidationContext context) {
-        Method valueSetMethod = getValueSetMethod(getType());
+        MethodAccessor valueSetMethod = getValueSetMethod(getType());
 
         return getValueSet(valueSetMethod, modelObject, context);
     }
 
     @Override
     public ValueSet<?> getValueSet(IProductComponent source, Calendar effectiveDate, IValidationContext context) {
-        Method valueSetMethod = getValueSetMethod(getType().getProductCmptType());
+        MethodAccessor valueSetMethod = getValueSetMethod(getType().getProductCmptType());
         Object productObject = getRelevantProductObject(source, effectiveDate);
         return getValueSet(valueSetMethod, productObject, context);
     }
 
     // CSOFF: CyclomaticComplexity
-    private ValueSet<?> getValueSet(Method valueSetMethod, Object object, IValidationContext context) {
+    private ValueSet<?> getValueSet(MethodAccessor valueSetMethod, Object object, IValidationContext context) {
         if (valueSetMethod == null) {
             if (Boolean.class.equals(getDatatype()) || boolean.class.equals(getDatatype())) {
                 return new OrderedValueSet<>(!getDatatype().isPrimitive(), null, Boolean.TRUE, Boolean.FALSE);
@@ -212,10 +220,10 @@ public class DefaultPolicyAttribute extends PolicyAttribute {
                 }
             }
             return new UnrestrictedValueSet<>(!getDatatype().isPrimitive());
-        } else if (valueSetMethod.getParameterTypes().length == 0) {
-            return (ValueSet<?>)invokeMethod(valueSetMethod, object);
-        } else if (valueSetMethod.getParameterTypes().length == 1) {
-            return (ValueSet<?>)invokeMethod(valueSetMethod, object, context);
+        } else if (valueSetMethod.getMethod().getParameterCount() == 0) {
+            return (ValueSet<?>)valueSetMethod.invoke(object);
+        } else if (valueSetMethod.getMethod().getParameterCount() == 1) {
+            return (ValueSet<?>)valueSetMethod.invoke(object, context);
         } else {
             throw new IllegalStateException("The method for retrieving the allowed values of attribute: " + getName()
                     + " has too many arguments: " + valueSetMethod);
@@ -223,14 +231,10 @@ public class DefaultPolicyAttribute extends PolicyAttribute {
     }
     // CSON: CyclomaticComplexity
 
-    private Method getValueSetMethod(Type model) {
-        if (valueSetMethods.containsKey(model)) {
-            return valueSetMethods.get(model);
-        } else {
-            Method valueSetMethod = findValueSetMethod(model);
-            valueSetMethods.put(model, valueSetMethod);
-            return valueSetMethod;
-        }
+    private MethodAccessor getValueSetMethod(Type model) {
+        return valueSetMethods
+                .computeIfAbsent(model, t -> Optional.ofNullable(MethodAccessor.of(findValueSetMethod(t))))
+                .orElse(null);
     }
 
     @Override
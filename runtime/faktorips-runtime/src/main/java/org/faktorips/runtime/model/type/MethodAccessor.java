@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.model.type;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Calls a method of a generated class with no or one parameter, like a getter or a setter. Instead
+ * of calling the method by reflection every time, a functional accessor is created by the
+ * {@link LambdaMetafactory} when the method is called for the first time. The accessor calls the
+ * method like generated code does.
+ * <p>
+ * If the accessor cannot be created, for example because the class declaring the method is not
+ * visible to the class loader of the Faktor-IPS runtime, the method is called by reflection as
+ * before. Whether the accessor can be used is decided once when it is bound, the method is never
+ * called a second time by reflection after the accessor failed. Methods with more than one
+ * parameter are always called by reflection. Exceptions thrown by the method are wrapped in
+ * {@link IllegalArgumentException IllegalArgumentExceptions} just like
+ * {@link ModelElement#invokeMethod(Method, Object, Object...)} does.
+ */
+class MethodAccessor {
+
+    /** Marks a method that could not be bound and is called by reflection. */
+    private static final Object REFLECTION = new Object();
+
+    private final Method method;
+
+    /**
+     * A {@link Function} for methods without parameter, a {@link BiFunction} or {@link BiConsumer}
+     * for methods with one parameter, {@link #REFLECTION} if the method could not be bound or
+     * <code>null</code> if it was not bound yet.
+     */
+    private volatile Object accessor;
+
+    MethodAccessor(Method method) {
+        this.method = method;
+    }
+
+    /**
+     * Returns the {@link MethodAccessor} for the given method or <code>null</code> if the method is
+     * <code>null</code>.
+     */
+    static MethodAccessor of(Method method) {
+        return method == null ? null : new MethodAccessor(method);
+    }
+
+    Method getMethod() {
+        return method;
+    }
+
+    /**
+     * Calls the method without parameter on the given source object.
+     * 
+     * @throws IllegalArgumentException if the method could not be called or threw an exception
+     */
+    @SuppressWarnings("unchecked")
+    Object invoke(Object source) {
+        Object boundAccessor = getAccessor();
+        if (boundAccessor == REFLECTION) {
+            return ModelElement.invokeMethod(method, source);
+        }
+        try {
+            return ((Function<Object, Object>)boundAccessor).apply(source);
+            // CSOFF: IllegalCatch
+        } catch (RuntimeException e) {
+            // CSON: IllegalCatch
+            throw ModelElement.createGetterError(source, method, new Object[0], e);
+        }
+    }
+
+    /**
+     * Calls the method with one parameter on the given source object.
+     * 
+     * @return the result of the method or <code>null</code> if the method is <code>void</code>
+     * @throws IllegalArgumentException if the method could not be called or threw an exception
+     */
+    @SuppressWarnings("unchecked")
+    Object invoke(Object source, Object argument) {
+        Object boundAccessor = getAccessor();
+        if (boundAccessor == REFLECTION) {
+            return ModelElement.invokeMethod(method, source, argument);
+        }
+        try {
+            if (boundAccessor instanceof BiConsumer) {
+                ((BiConsumer<Object, Object>)boundAccessor).accept(source, argument);
+                return null;
+            } else {
+                return ((BiFunction<Object, Object, Object>)boundAccessor).apply(source, argument);
+            }
+            // CSOFF: IllegalCatch
+        } catch (RuntimeException e) {
+            // CSON: IllegalCatch
+            throw ModelElement.createGetterError(source, method, new Object[] { argument }, e);
+        }
+    }
+
+    /**
+     * Returns whether the method is called by a functional accessor instead of reflection. Binds
+     * the accessor if it was not bound yet.
+     */
+    boolean isBound() {
+        return getAccessor() != REFLECTION;
+    }
+
+    private Object getAccessor() {
+        Object boundAccessor = accessor;
+        if (boundAccessor == null) {
+            // no synchronization, in worst case two threads create equal accessors
+            boundAccessor = bind();
+            accessor = boundAccessor;
+        }
+        return boundAccessor;
+    }
+
+    private Object bind() {
+        if (method.getParameterCount() > 1 || !isVisible(method.getDeclaringClass())
+                || !isVisible(method.getReturnType())
+                || (method.getParameterCount() == 1 && !isVisible(method.getParameterTypes()[0]))) {
+            return REFLECTION;
+        }
+        boolean isVoid = method.getReturnType() == void.class;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle handle = lookup.unreflect(method);
+            MethodType instantiatedType = handle.type().wrap();
+            if (method.getParameterCount() == 0) {
+                if (isVoid) {
+                    return REFLECTION;
+                }
+                return LambdaMetafactory.metafactory(lookup, "apply", MethodType.methodType(Function.class),
+                        MethodType.methodType(Object.class, Object.class), handle, instantiatedType)
+                        .getTarget().invoke();
+            } else if (isVoid) {
+                return LambdaMetafactory.metafactory(lookup, "accept", MethodType.methodType(BiConsumer.class),
+                        MethodType.methodType(void.class, Object.class, Object.class), handle,
+                        instantiatedType.changeReturnType(void.class))
+                        .getTarget().invoke();
+            } else {
+                return LambdaMetafactory.metafactory(lookup, "apply", MethodType.methodType(BiFunction.class),
+                        MethodType.methodType(Object.class, Object.class, Object.class), handle, instantiatedType)
+                        .getTarget().invoke();
+            }
+            // CSOFF: IllegalCatch
+        } catch (Throwable e) {
+            // CSON: IllegalCatch
+            return REFLECTION;
+        }
+    }
+
+    /**
+     * The generated accessor class is defined by the class loader of this class, so it can only
+     * reference classes this class loader finds. Checking this when binding ensures that calling
+     * the accessor does not fail with a {@link LinkageError}.
+     */
+    private static boolean isVisible(Class<?> type) {
+        if (type.isPrimitive()) {
+            return true;
+        } else if (type.isArray()) {
+            return isVisible(type.getComponentType());
+        }
+        try {
+            return Class.forName(type.getName(), false, MethodAccessor.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return method.toString();
+    }
+
+}
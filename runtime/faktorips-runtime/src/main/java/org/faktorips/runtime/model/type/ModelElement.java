@@ -162,7 +162,7 @@ public abstract class ModelElement {
         }
     }
 
-    private static IllegalArgumentException createGetterError(Object source,
+    static IllegalArgumentException createGetterError(Object source,
             Method method,
             Object[] args,
             Throwable e) {
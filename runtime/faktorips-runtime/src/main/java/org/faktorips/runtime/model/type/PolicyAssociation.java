@@ -120,7 +120,7 @@ public class PolicyAssociation extends Association {
      */
     public List<IModelObject> getTargetObjects(IModelObject source) {
         List<IModelObject> targets = new ArrayList<>();
-        Object object = invokeMethod(getGetterMethod(), source);
+        Object object = invokeGetterMethod(source);
         if (object instanceof Iterable<?>) {
             for (Object target : (Iterable<?>)object) {
                 targets.add((IModelObject)target);
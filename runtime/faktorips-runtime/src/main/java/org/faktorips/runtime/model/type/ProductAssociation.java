@@ -102,7 +102,7 @@ public class ProductAssociation extends Association {
     public List<IProductComponent> getTargetObjects(IProductComponent productComponentSource, Calendar effectiveDate) {
         List<IProductComponent> targets = new ArrayList<>();
         Object source = getRelevantProductObject(productComponentSource, effectiveDate, isChangingOverTime());
-        Object returnValue = invokeMethod(getGetterMethod(), source);
+        Object returnValue = invokeGetterMethod(source);
         if (returnValue instanceof Iterable<?>) {
             for (Object target : (Iterable<?>)returnValue) {
                 targets.add((IProductComponent)target);
@@ -29,11 +29,14 @@ public class ProductAttribute extends Attribute {
 
     private final Method setter;
 
+    private final MethodAccessor getterAccessor;
+
     public ProductAttribute(Type type, boolean changingOverTime, Method getter, Method setter) {
         super(type, getter.getAnnotation(IpsAttribute.class), getter.getAnnotation(IpsExtensionProperties.class),
                 getInnermostGenericClass(getter.getGenericReturnType()), changingOverTime, Deprecation.of(getter));
         this.getter = getter;
         this.setter = setter;
+        getterAccessor = new MethodAccessor(getter);
     }
 
     /**
@@ -80,7 +83,7 @@ public class ProductAttribute extends Attribute {
      *            generation, if this attribute {@link #isChangingOverTime()}
      */
     public Object getValue(IProductComponent productComponent, Calendar effectiveDate) {
-        return invokeMethod(getter, getRelevantProductObject(productComponent, effectiveDate));
+        return getterAccessor.invoke(getRelevantProductObject(productComponent, effectiveDate));
     }
 
     /**
@@ -10,10 +10,13 @@
 
 package org.faktorips.runtime.productdataprovider;
 
+import java.io.IOException;
 import java.io.InputStream;
 
+import javax.xml.stream.XMLStreamException;
+
 import org.faktorips.runtime.IVersionChecker;
-import org.faktorips.runtime.internal.DateTime;
+import org.faktorips.runtime.internal.GenerationElementCache;
 import org.faktorips.runtime.internal.toc.CustomTocEntryObject;
 import org.faktorips.runtime.internal.toc.EnumContentTocEntry;
 import org.faktorips.runtime.internal.toc.GenerationTocEntry;
@@ -24,7 +27,6 @@ import org.faktorips.runtime.internal.toc.TestCaseTocEntry;
 import org.faktorips.runtime.internal.toc.TocEntryObject;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
 
 /**
  * The {@link ClassLoaderProductDataProvider} is an implementation of {@link IProductDataProvider}
@@ -47,6 +49,9 @@ public class ClassLoaderProductDataProvider extends AbstractProductDataProvider
 
     private final String tocResourcePath;
 
+    private final GenerationElementCache generationElementCache = new GenerationElementCache(
+            this::getDocumentElement);
+
     public ClassLoaderProductDataProvider(ClassLoaderDataSource dataSource, String tocResourcePath,
             boolean checkTocModifications) {
         super(IVersionChecker.STRICT);
@@ -60,10 +65,16 @@ public class ClassLoaderProductDataProvider extends AbstractProductDataProvider
     }
 
     private ReadonlyTableOfContents loadToc() {
-        Element tocElement = getDocumentElement(tocResourcePath);
-        ReadonlyTableOfContents rotoc = new ReadonlyTableOfContents(dataSource.getClassLoader());
-        rotoc.initFromXml(tocElement);
-        return rotoc;
+        try (InputStream is = dataSource.getResourceAsStream(tocResourcePath)) {
+            if (is == null) {
+                throw new IllegalArgumentException("Cannot find resource '" + tocResourcePath + "'");
+            }
+            ReadonlyTableOfContents rotoc = new ReadonlyTableOfContents(dataSource.getClassLoader());
+            rotoc.initFromXml(is);
+            return rotoc;
+        } catch (IOException | XMLStreamException e) {
+            throw new RuntimeException("Cannot parse xml resource '" + tocResourcePath + "'", e);
+        }
     }
 
     @Override
@@ -91,21 +102,9 @@ public class ClassLoaderProductDataProvider extends AbstractProductDataProvider
 
     @Override
     public Element getProductCmptGenerationData(GenerationTocEntry tocEntry) throws DataModifiedException {
-        Element docElement = getDocumentElement(tocEntry.getParent().getXmlResourceName());
-        NodeList nl = docElement.getChildNodes();
-        DateTime validFrom = tocEntry.getValidFrom();
-        for (int i = 0; i < nl.getLength(); i++) {
-            if (GenerationTocEntry.XML_TAG.equals(nl.item(i).getNodeName())) {
-                Element genElement = (Element)nl.item(i);
-                DateTime generationValidFrom = DateTime
-                        .parseIso(genElement.getAttribute(GenerationTocEntry.PROPERTY_VALID_FROM));
-                if (validFrom.equals(generationValidFrom)) {
-                    throwExceptionIfModified(tocEntry.getParent().getIpsObjectId(), getBaseVersion());
-                    return genElement;
-                }
-            }
-        }
-        throw new RuntimeException("Can't find the generation for the TOC entry '" + tocEntry + "'");
+        Element genElement = generationElementCache.getGenerationElement(tocEntry);
+        throwExceptionIfModified(tocEntry.getParent().getIpsObjectId(), getBaseVersion());
+        return genElement;
     }
 
     @Override
@@ -10,10 +10,14 @@
 
 package org.faktorips.runtime.productdataprovider;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
 import org.faktorips.runtime.DefaultCacheFactory;
 import org.faktorips.runtime.ICacheFactory;
 import org.faktorips.runtime.IRuntimeRepository;
 import org.faktorips.runtime.IRuntimeRepositoryManager;
+import org.faktorips.runtime.WarmUpOptions;
 import org.faktorips.runtime.formula.IFormulaEvaluator;
 import org.faktorips.runtime.formula.IFormulaEvaluatorFactory;
 import org.faktorips.runtime.internal.AbstractRuntimeRepositoryManager;
@@ -39,6 +43,8 @@ public class DetachedContentRuntimeRepositoryManager extends AbstractRuntimeRepo
      */
     private DetachedContentRuntimeRepositoryManager(Builder builder) {
         this.builder = builder;
+        setPollInterval(builder.pollIntervalNanos, TimeUnit.NANOSECONDS);
+        setAsyncRefresh(builder.refreshExecutor, builder.warmUpOptions);
     }
 
     /**
@@ -49,12 +55,12 @@ public class DetachedContentRuntimeRepositoryManager extends AbstractRuntimeRepo
      */
     @Override
     @Deprecated
-    public synchronized IDetachedContentRuntimeRepository getActualRuntimeRepository() {
+    public IDetachedContentRuntimeRepository getActualRuntimeRepository() {
         return getCurrentRuntimeRepository();
     }
 
     @Override
-    public synchronized IDetachedContentRuntimeRepository getCurrentRuntimeRepository() {
+    public IDetachedContentRuntimeRepository getCurrentRuntimeRepository() {
         IRuntimeRepository currentRuntimeRepository = super.getCurrentRuntimeRepository();
         if (currentRuntimeRepository instanceof DetachedContentRuntimeRepository) {
             return (IDetachedContentRuntimeRepository)currentRuntimeRepository;
@@ -87,6 +93,9 @@ public class DetachedContentRuntimeRepositoryManager extends AbstractRuntimeRepo
         private ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
         private IFormulaEvaluatorFactory formulaEvaluatorFactory;
         private ICacheFactory cacheFactory = new DefaultCacheFactory(classLoader);
+        private long pollIntervalNanos;
+        private Executor refreshExecutor;
+        private WarmUpOptions warmUpOptions;
 
         /**
          * The only mandatory parameter is the {@link IProductDataProviderFactory}. It is used to
@@ -173,6 +182,38 @@ public class DetachedContentRuntimeRepositoryManager extends AbstractRuntimeRepo
             return cacheFactory;
         }
 
+        /**
+         * Optionally you could specify the minimum time between two checks whether the product
+         * data has changed. By default the product data provider is asked on every call of
+         * {@link DetachedContentRuntimeRepositoryManager#getCurrentRuntimeRepository()}.
+         * 
+         * @param duration the poll interval
+         * @param unit the time unit of the poll interval
+         * 
+         * @see AbstractRuntimeRepositoryManager#setPollInterval(long, TimeUnit)
+         */
+        public Builder setPollInterval(long duration, TimeUnit unit) {
+            pollIntervalNanos = unit.toNanos(duration);
+            return this;
+        }
+
+        /**
+         * Optionally you could specify an executor to check for changed product data and to create
+         * the new repository in the background. Meanwhile the old repository is still used. If
+         * warm-up options are given, the new repository is warmed up before it replaces the old
+         * one.
+         * 
+         * @param executor the executor running the refresh
+         * @param warmUpOptions the options to warm up new repositories or <code>null</code>
+         * 
+         * @see AbstractRuntimeRepositoryManager#setAsyncRefresh(Executor, WarmUpOptions)
+         */
+        public Builder setAsyncRefresh(Executor executor, WarmUpOptions warmUpOptions) {
+            refreshExecutor = executor;
+            this.warmUpOptions = warmUpOptions;
+            return this;
+        }
+
         /**
          * This method builds a {@link DetachedContentRuntimeRepositoryManager}. All the values set
          * in the builder are used to create the manager and the
@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.validation;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+import org.faktorips.runtime.IModelObject;
+import org.faktorips.runtime.IValidationContext;
+import org.faktorips.runtime.MessageList;
+import org.faktorips.runtime.ValidationContext;
+import org.faktorips.runtime.model.IpsModel;
+import org.faktorips.runtime.model.type.AssociationKind;
+import org.faktorips.runtime.model.type.PolicyAssociation;
+import org.faktorips.runtime.model.type.PolicyAttribute;
+import org.faktorips.runtime.model.type.PolicyCmptType;
+
+/**
+ * Runs the {@link GenericRelevanceValidation} for all attributes of all model objects in a tree of
+ * model objects. The tree consists of the given root object and all objects that are reachable
+ * using {@link AssociationKind#Composition compositions}. Every object is validated only once, even
+ * if it is the target of several compositions, like a derived union and its subsets.
+ * <p>
+ * The attributes and compositions of a {@link PolicyCmptType} are collected once per model class
+ * and cached by the validation, so an instance should be reused to validate several trees. The
+ * value and the value set of every attribute are retrieved only once for all checks, and all value
+ * sets of one validation are retrieved with the same default {@link ValidationContext} instead of a
+ * new one per attribute like {@link PolicyAttribute#getValueSet(IModelObject)} does. Whether an
+ * attribute is validated is still decided by
+ * {@link IGenericAttributeValidationConfiguration#shouldValidate(PolicyAttribute, IModelObject)}.
+ * <p>
+ * If an {@link Executor} is given, the objects of the tree are validated in parallel. The messages
+ * are always returned in the same order as in a sequential validation: all objects in pre-order,
+ * that means every object before the targets of its compositions, and the attributes of an object
+ * in the order of {@link PolicyCmptType#getAttributes()}. The configuration as well as the value
+ * set methods of the model objects must be thread safe if an executor is used.
+ * 
+ * @since 22.12
+ */
+public class GenericRelevanceTreeValidation {
+
+    /** The number of model objects validated by one task if the validation runs in parallel. */
+    static final int OBJECTS_PER_TASK = 16;
+
+    private final IGenericAttributeValidationConfiguration config;
+
+    private final Executor executor;
+
+    private final Map<Class<?>, TypeValidation> typeValidations = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a validation that validates all objects of a tree in the calling thread.
+     */
+    public GenericRelevanceTreeValidation(IGenericAttributeValidationConfiguration config) {
+        this.config = requireNonNull(config, "config must not be null");
+        executor = null;
+    }
+
+    /**
+     * Creates a validation that validates the objects of a tree in parallel using the given
+     * executor, for example the {@link java.util.concurrent.ForkJoinPool#commonPool() common
+     * fork-join pool}.
+     */
+    public GenericRelevanceTreeValidation(IGenericAttributeValidationConfiguration config, Executor executor) {
+        this.config = requireNonNull(config, "config must not be null");
+        this.executor = requireNonNull(executor, "executor must not be null");
+    }
+
+    /**
+     * Validates all attributes of all model objects in the tree of the given root object using the
+     * validation context to {@link IValidationContext#getGenericAttributeValidationConfiguration()
+     * get} the {@link IGenericAttributeValidationConfiguration}.
+     * 
+     * @param root the root of the model object tree to validate
+     * @param validationContext the context containing information on what to validate and how to
+     *            create error messages
+     * @return the messages resulting from the validation or an empty message list if validation
+     *             was successful
+     */
+    public static MessageList of(IModelObject root, IValidationContext validationContext) {
+        return new GenericRelevanceTreeValidation(validationContext.getGenericAttributeValidationConfiguration())
+                .validate(root);
+    }
+
+    /**
+     * Validates all attributes of all model objects in the tree of the given root object.
+     * 
+     * @return A {@linkplain MessageList} with the validation results of all objects
+     */
+    public MessageList validate(IModelObject root) {
+        List<IModelObject> modelObjects = collectModelObjects(requireNonNull(root, "root must not be null"));
+        ValidationContext valueSetContext = new ValidationContext();
+        if (executor == null || modelObjects.size() <= OBJECTS_PER_TASK) {
+            return validate(modelObjects, valueSetContext);
+        }
+        List<CompletableFuture<MessageList>> tasks = new ArrayList<>();
+        for (int from = 0; from < modelObjects.size(); from += OBJECTS_PER_TASK) {
+            List<IModelObject> objectsOfTask = modelObjects.subList(from,
+                    Math.min(from + OBJECTS_PER_TASK, modelObjects.size()));
+            tasks.add(CompletableFuture.supplyAsync(() -> validate(objectsOfTask, valueSetContext), executor));
+        }
+        MessageList messages = new MessageList();
+        for (CompletableFuture<MessageList> task : tasks) {
+            messages.add(join(task));
+        }
+        return messages;
+    }
+
+    private MessageList validate(List<IModelObject> modelObjects, IValidationContext valueSetContext) {
+        MessageList messages = new MessageList();
+        for (IModelObject modelObject : modelObjects) {
+            getTypeValidation(modelObject).validate(modelObject, config, valueSetContext, messages);
+        }
+        return messages;
+    }
+
+    private static MessageList join(CompletableFuture<MessageList> task) {
+        try {
+            return task.join();
+        } catch (CompletionException e) {
+            // rethrow the exception of the attribute or configuration like a sequential validation
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException)e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error)e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the objects of the tree in pre-order, every object only once.
+     */
+    private List<IModelObject> collectModelObjects(IModelObject root) {
+        List<IModelObject> modelObjects = new ArrayList<>();
+        Set<IModelObject> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        collectModelObjects(root, modelObjects, visited);
+        return modelObjects;
+    }
+
+    private void collectModelObjects(IModelObject modelObject,
+            List<IModelObject> modelObjects,
+            Set<IModelObject> visited) {
+        if (modelObject == null || !visited.add(modelObject)) {
+            return;
+        }
+        modelObjects.add(modelObject);
+        for (PolicyAssociation composition : getTypeValidation(modelObject).compositions) {
+            for (IModelObject target : composition.getTargetObjects(modelObject)) {
+                collectModelObjects(target, modelObjects, visited);
+            }
+        }
+    }
+
+    private TypeValidation getTypeValidation(IModelObject modelObject) {
+        return typeValidations.computeIfAbsent(modelObject.getClass(),
+                c -> new TypeValidation(IpsModel.getPolicyCmptType(modelObject)));
+    }
+
+    /**
+     * The attributes and compositions of a {@link PolicyCmptType} including its super types.
+     */
+    private static class TypeValidation {
+
+        private final PolicyAttribute[] attributes;
+
+        private final Class<? extends IModelObject>[] definingModelObjectClasses;
+
+        private final List<PolicyAssociation> compositions = new ArrayList<>();
+
+        @SuppressWarnings("unchecked")
+        TypeValidation(PolicyCmptType policyCmptType) {
+            List<PolicyAttribute> allAttributes = policyCmptType.getAttributes();
+            attributes = allAttributes.toArray(new PolicyAttribute[allAttributes.size()]);
+            definingModelObjectClasses = new Class[attributes.length];
+            for (int i = 0; i < attributes.length; i++) {
+                // the class where generated code would call the generic validation of the attribute
+                definingModelObjectClasses[i] = attributes[i].getType().getJavaClass()
+                        .asSubclass(IModelObject.class);
+            }
+            for (PolicyAssociation association : policyCmptType.getAssociations()) {
+                if (association.getAssociationKind() == AssociationKind.Composition) {
+                    compositions.add(association);
+                }
+            }
+        }
+
+        void validate(IModelObject modelObject,
+                IGenericAttributeValidationConfiguration config,
+                IValidationContext valueSetContext,
+                MessageList messages) {
+            for (int i = 0; i < attributes.length; i++) {
+                new GenericRelevanceValidation(modelObject, definingModelObjectClasses[i], attributes[i], config,
+                        valueSetContext).validate(messages);
+            }
+        }
+    }
+
+}
@@ -16,6 +16,7 @@ import org.faktorips.runtime.IModelObject;
 import org.faktorips.runtime.IValidationContext;
 import org.faktorips.runtime.Message;
 import org.faktorips.runtime.MessageList;
+import org.faktorips.runtime.ValidationContext;
 import org.faktorips.runtime.internal.IpsStringUtils;
 import org.faktorips.runtime.model.IpsModel;
 import org.faktorips.runtime.model.type.PolicyAttribute;
@@ -34,16 +35,31 @@ public class GenericRelevanceValidation {
     private final PolicyAttribute policyAttribute;
     private final Class<? extends IModelObject> definingModelObjectClass;
     private final IGenericAttributeValidationConfiguration config;
+    private final IValidationContext valueSetContext;
 
     public GenericRelevanceValidation(IModelObject modelObject,
             Class<? extends IModelObject> definingModelObjectClass,
             PolicyAttribute policyAttribute,
             IGenericAttributeValidationConfiguration config) {
+        this(modelObject, definingModelObjectClass, policyAttribute, config, null);
+    }
+
+    /**
+     * Creates a validation that retrieves the value set using the given context instead of a new
+     * {@link ValidationContext} like {@link PolicyAttribute#getValueSet(IModelObject)} does, so
+     * several validations could share one context.
+     */
+    GenericRelevanceValidation(IModelObject modelObject,
+            Class<? extends IModelObject> definingModelObjectClass,
+            PolicyAttribute policyAttribute,
+            IGenericAttributeValidationConfiguration config,
+            IValidationContext valueSetContext) {
         this.modelObject = requireNonNull(modelObject, "modelObject must not be null");
         this.definingModelObjectClass = requireNonNull(definingModelObjectClass,
                 "definingModelObjectClass must not be null");
         this.policyAttribute = requireNonNull(policyAttribute, "policyAttribute must not be null");
         this.config = requireNonNull(config, "config must not be null");
+        this.valueSetContext = valueSetContext;
     }
 
     /**
@@ -85,32 +101,47 @@ public class GenericRelevanceValidation {
      */
     public MessageList validate() {
         MessageList messages = new MessageList();
+        validate(messages);
+        return messages;
+    }
 
+    /**
+     * Checks the attribute like {@link #validate()} and adds the validation results to the given
+     * {@link MessageList}. The value and the value set of the attribute are retrieved only once for
+     * all checks.
+     */
+    void validate(MessageList messages) {
         if (config.shouldValidate(policyAttribute, modelObject)) {
-            messages.add(validateValuePresentIfMandatory());
-            messages.add(validateValueNullIfIrrelevant());
-            messages.add(validateValueContainedIfPresent());
+            Object value = policyAttribute.getValue(modelObject);
+            ValueSet<Object> valueSet = getValueSet();
+            Relevance relevance = Relevance.of(valueSet);
+            boolean valuePresent = isValuePresent(value);
+            messages.add(validateValuePresentIfMandatory(valuePresent, relevance));
+            messages.add(validateValueNullIfIrrelevant(valuePresent, relevance));
+            messages.add(validateValueContainedIfPresent(value, valuePresent, relevance, valueSet));
         }
-        return messages;
     }
 
-    private Message validateValuePresentIfMandatory() {
-        if (isInvalidMandatory()) {
+    private Message validateValuePresentIfMandatory(boolean valuePresent, Relevance relevance) {
+        if (isInvalidMandatory(valuePresent, relevance)) {
             return config.createMessageForMissingMandatoryValue(policyAttribute, modelObject, definingModelObjectClass);
         }
         return null;
     }
 
-    private Message validateValueNullIfIrrelevant() {
-        if (isInvalidIrrelevance()) {
+    private Message validateValueNullIfIrrelevant(boolean valuePresent, Relevance relevance) {
+        if (isInvalidIrrelevance(valuePresent, relevance)) {
             return config.createMessageForValuePresentForIrrelevantAttribute(policyAttribute, modelObject,
                     definingModelObjectClass);
         }
         return null;
     }
 
-    private Message validateValueContainedIfPresent() {
-        if (isInvalidNotContained()) {
+    private Message validateValueContainedIfPresent(Object value,
+            boolean valuePresent,
+            Relevance relevance,
+            ValueSet<Object> valueSet) {
+        if (isInvalidNotContained(value, valuePresent, relevance, valueSet)) {
             return config.createMessageForValueNotInAllowedValueSet(policyAttribute, modelObject,
                     definingModelObjectClass);
         }
@@ -121,26 +152,27 @@ public class GenericRelevanceValidation {
      * Indicates whether the attribute has a mandatory field violation: If the attribute is a
      * mandatory field, the value must be != {@code null}.
      */
-    private boolean isInvalidMandatory() {
-        return !isValuePresent() && Relevance.isMandatory(modelObject, policyAttribute);
+    private boolean isInvalidMandatory(boolean valuePresent, Relevance relevance) {
+        return !valuePresent && relevance == Relevance.MANDATORY;
     }
 
     /**
      * Indicates whether the attribute has a violation of irrelevance: If the attribute is
      * irrelevant, the value must be {@code null}.
      */
-    private boolean isInvalidIrrelevance() {
-        return isValuePresent() && Relevance.isIrrelevant(modelObject, policyAttribute);
+    private boolean isInvalidIrrelevance(boolean valuePresent, Relevance relevance) {
+        return valuePresent && relevance == Relevance.IRRELEVANT;
     }
 
     /**
      * Indicates whether there is a violation of the value range for the attribute: If the attribute
      * is relevant, the value must be in the value range.
      */
-    private boolean isInvalidNotContained() {
-        ValueSet<Object> valueSet = getValueSet();
-        return Relevance.isRelevant(modelObject, policyAttribute) && isValuePresent() && valueSet != null
-                && !valueSet.contains(getValue());
+    private boolean isInvalidNotContained(Object value,
+            boolean valuePresent,
+            Relevance relevance,
+            ValueSet<Object> valueSet) {
+        return relevance != Relevance.IRRELEVANT && valuePresent && valueSet != null && !valueSet.contains(value);
     }
 
     /**
@@ -149,19 +181,18 @@ public class GenericRelevanceValidation {
      * a {@link String}, the value is also considered not present if the {@link String} is empty or
      * only contains whitespace.
      */
-    private boolean isValuePresent() {
-        Object value = policyAttribute.getValue(modelObject);
+    private static boolean isValuePresent(Object value) {
         return !(ObjectUtil.isNull(value)
                 || (value instanceof CharSequence && IpsStringUtils.isBlank(((CharSequence)value).toString())));
     }
 
-    private Object getValue() {
-        return policyAttribute.getValue(modelObject);
-    }
-
     @SuppressWarnings("unchecked")
     private <T> ValueSet<T> getValueSet() {
-        return (ValueSet<T>)policyAttribute.getValueSet(modelObject);
+        if (valueSetContext == null) {
+            return (ValueSet<T>)policyAttribute.getValueSet(modelObject);
+        } else {
+            return (ValueSet<T>)policyAttribute.getValueSet(modelObject, valueSetContext);
+        }
     }
 
     public enum Error {
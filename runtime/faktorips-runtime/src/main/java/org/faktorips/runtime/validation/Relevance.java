@@ -267,7 +267,17 @@ public enum Relevance {
      * object.
      */
     public static Relevance of(IModelObject modelObject, PolicyAttribute policyAttribute) {
-        ValueSet<?> valueSet = policyAttribute.getValueSet(modelObject);
+        return Relevance.of(policyAttribute.getValueSet(modelObject));
+    }
+
+    /**
+     * Returns the {@link Relevance} defined by the given value set. Use this method instead of
+     * {@link #of(IModelObject, PolicyAttribute)} if the value set is already known to avoid
+     * retrieving it again.
+     * 
+     * @since 22.12
+     */
+    public static Relevance of(@CheckForNull ValueSet<?> valueSet) {
         if (valueSet == null || valueSet.isEmpty()) {
             return Relevance.IRRELEVANT;
         } else if (valueSet.containsNull()) {
@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.faktorips.runtime.caching.BoundedCache;
+import org.faktorips.runtime.caching.CacheStatistics;
+import org.faktorips.runtime.caching.IComputable;
+import org.junit.Test;
+
+public class BoundedCacheFactoryTest {
+
+    @Test
+    public void testCreateCache_MaximumSize() throws InterruptedException {
+        BoundedCacheFactory factory = new BoundedCacheFactory();
+        factory.setMaximumSize(String.class, 1);
+        factory.setConcurrencyLevel(1);
+
+        BoundedCache<String, String> cache = factory.createCache(IComputable.of(String.class, String::toUpperCase));
+        cache.compute("a");
+        cache.compute("b");
+
+        assertThat(cache.size(), is(1L));
+        assertThat(factory.getStatistics(String.class).getEvictionCount(), is(1L));
+    }
+
+    @Test
+    public void testCreateCache_DefaultMaximumSize() throws InterruptedException {
+        BoundedCacheFactory factory = new BoundedCacheFactory();
+        factory.setDefaultMaximumSize(1);
+        factory.setConcurrencyLevel(1);
+
+        BoundedCache<String, Integer> cache = factory.createCache(IComputable.of(Integer.class, String::length));
+        cache.compute("a");
+        cache.compute("bb");
+
+        assertThat(cache.size(), is(1L));
+    }
+
+    @Test
+    public void testCreateCache_MaximumWeight() throws InterruptedException {
+        BoundedCacheFactory factory = new BoundedCacheFactory();
+        factory.setMaximumWeight(String.class, 3, (Object k, String v) -> v.length());
+        factory.setConcurrencyLevel(1);
+
+        BoundedCache<String, String> cache = factory.createCache(IComputable.of(String.class, String::toUpperCase));
+        cache.compute("ab");
+        cache.compute("cd");
+
+        assertThat(cache.size(), is(1L));
+        assertThat(cache.getStatistics().getWeight(), is(2L));
+    }
+
+    @Test
+    public void testCreateCache_Expiry() throws InterruptedException {
+        BoundedCacheFactory factory = new BoundedCacheFactory();
+        factory.setExpireAfterWrite(String.class, 1, TimeUnit.NANOSECONDS);
+
+        BoundedCache<String, String> cache = factory.createCache(IComputable.of(String.class, String::toUpperCase));
+        cache.compute("a");
+        Thread.sleep(1);
+        cache.compute("a");
+
+        assertThat(cache.getStatistics().getMissCount(), is(2L));
+    }
+
+    @Test
+    public void testInvalidate() throws InterruptedException {
+        BoundedCacheFactory factory = new BoundedCacheFactory();
+        BoundedCache<String, String> cache = factory.createCache(IComputable.of(String.class, String::toUpperCase));
+        cache.compute("a");
+        cache.compute("b");
+
+        factory.invalidate(String.class, "a");
+        factory.invalidate(Integer.class, "b");
+
+        assertThat(cache.size(), is(1L));
+    }
+
+    @Test
+    public void testWithClassloaderRuntimeRepository() {
+        ClassLoader cl = getClass().getClassLoader();
+        BoundedCacheFactory factory = new BoundedCacheFactory(cl, 1, 10, 10);
+        factory.setConcurrencyLevel(1);
+        ClassloaderRuntimeRepository repository = ClassloaderRuntimeRepository
+                .create("org/faktorips/runtime/testrepository/faktorips-repository-toc.xml", cl, factory);
+
+        IProductComponent motorBasic = repository.getProductComponent("motor.MotorBasic");
+        assertThat(repository.getProductComponent("motor.MotorBasic"), is(sameInstance(motorBasic)));
+        assertThat(repository.getProductComponent("motor.MotorPlus"), is(notNullValue()));
+        assertThat(repository.getProductComponent("motor.MotorBasic"), is(not(sameInstance(motorBasic))));
+
+        CacheStatistics statistics = factory.getStatistics(IProductComponent.class);
+        assertThat(statistics.getHitCount(), is(1L));
+        assertThat(statistics.getMissCount(), is(3L));
+        assertThat(statistics.getEvictionCount(), is(2L));
+        assertThat(statistics.getSize(), is(1L));
+        assertThat(factory.getStatistics().containsKey(IProductComponentGeneration.class), is(true));
+        assertThat(factory.getStatistics(Void.class), is(nullValue()));
+    }
+
+}
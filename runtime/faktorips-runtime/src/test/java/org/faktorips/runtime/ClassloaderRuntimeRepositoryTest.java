@@ -12,9 +12,12 @@ package org.faktorips.runtime;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.time.LocalDate;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.GregorianCalendar;
@@ -83,6 +86,20 @@ public class ClassloaderRuntimeRepositoryTest {
         assertNull(repository.getProductComponent("notThere"));
     }
 
+    @Test
+    public void testGetProductComponent_StreamingProductCmptXml() {
+        repository.setStreamingProductCmptXml(true);
+
+        MotorProduct motorPk = (MotorProduct)repository.getProductComponent("motor.MotorPlus");
+
+        assertTrue(repository.isStreamingProductCmptXml());
+        assertEquals(new DateTime(2010, 1, 16), motorPk.getValidTo());
+        assertEquals(new DateTime(2006, 1, 1),
+                ((MotorProductGen)motorPk.getGenerationBase(new GregorianCalendar(2006, 5, 1))).getValidFrom());
+        assertEquals(new DateTime(2007, 1, 1),
+                ((MotorProductGen)motorPk.getGenerationBase(new GregorianCalendar(2008, 5, 1))).getValidFrom());
+    }
+
     @Test
     public void testGetProductComponent_KindId_VersionId() {
         MotorProduct motorProduct = (MotorProduct)repository.getProductComponent("motor.MotorPlus", "2005-01");
@@ -122,6 +139,24 @@ public class ClassloaderRuntimeRepositoryTest {
         assertNotNull(motorProductGen);
     }
 
+    @Test
+    public void testGetProductComponentGenerationAt() {
+        assertNull(repository.getProductComponentGenerationAt("motor.MotorPlus", LocalDate.of(2004, 12, 31)));
+        assertNull(repository.getProductComponentGenerationAt("unknown", LocalDate.of(2005, 2, 1)));
+        assertNull(repository.getProductComponentGenerationAt("motor.MotorPlus", null));
+
+        IProductComponentGeneration gen2005 = repository.getProductComponentGenerationAt("motor.MotorPlus",
+                LocalDate.of(2005, 2, 1));
+        IProductComponentGeneration gen2006 = repository.getProductComponentGenerationAt("motor.MotorPlus",
+                LocalDate.of(2006, 2, 1));
+
+        assertSame(repository.getProductComponentGeneration("motor.MotorPlus", new GregorianCalendar(2005, 1, 1)),
+                gen2005);
+        assertSame(repository.getProductComponentGeneration("motor.MotorPlus", new GregorianCalendar(2006, 1, 1)),
+                gen2006);
+        assertNotSame(gen2005, gen2006);
+    }
+
     @Test
     public void testGetAllProductComponents_ByClass() {
         // get all motor products
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.faktorips.runtime.internal.GenerationElementCache;
+import org.faktorips.runtime.internal.toc.GenerationTocEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.w3c.dom.Element;
+
+/**
+ * Measures the cold loading of all generations of product components with many generations. Every
+ * invocation creates a new {@link ClassloaderRuntimeRepository} for a generated repository and loads
+ * every generation of every product component.
+ * <p>
+ * The <code>singleParse</code> repository parses every product component file once for all of its
+ * generations, the <code>parsePerGeneration</code> repository parses the file again for every
+ * generation and searches the generation's element, as it was done before the
+ * {@link GenerationElementCache} was introduced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class GenerationLoadingBenchmark {
+
+    private static final String TOC = "faktorips-repository-toc.xml";
+
+    private static final int PRODUCTS = 20;
+
+    private static final int ATTRIBUTES_PER_GENERATION = 20;
+
+    @Param({ "singleParse", "parsePerGeneration" })
+    private String repository;
+
+    @Param({ "1", "10", "30", "100" })
+    private int generations;
+
+    private Path directory;
+
+    private URLClassLoader classLoader;
+
+    @Setup(Level.Trial)
+    public void createRepository() throws IOException {
+        directory = Files.createTempDirectory("generations");
+        try (PrintWriter toc = new PrintWriter(directory.resolve(TOC).toFile(), StandardCharsets.UTF_8.name())) {
+            toc.println("<FaktorIps-TableOfContents>");
+            for (int p = 0; p < PRODUCTS; p++) {
+                String resource = "Product" + p + ".ipsproduct";
+                toc.println("<ProductComponent ipsObjectId=\"Product" + p + "\" ipsObjectQualifiedName=\"Product" + p
+                        + "\" kindId=\"Product" + p + "\" versionId=\"1\" xmlResource=\"" + resource
+                        + "\" implementationClass=\"org.faktorips.runtime.testrepository.motor.MotorProduct\">");
+                for (int g = 0; g < generations; g++) {
+                    toc.println("<Generation validFrom=\"" + validFrom(g) + "\" xmlResource=\"" + resource
+                            + "\" implementationClass=\"org.faktorips.runtime.testrepository.motor.MotorProductGen\"/>");
+                }
+                toc.println("</ProductComponent>");
+                writeProductCmpt(directory.resolve(resource).toFile());
+            }
+            toc.println("</FaktorIps-TableOfContents>");
+        }
+        classLoader = new URLClassLoader(new URL[] { directory.toUri().toURL() }, getClass().getClassLoader());
+    }
+
+    private void writeProductCmpt(File file) throws IOException {
+        try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8.name())) {
+            writer.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+            writer.println("<ProductCmpt>");
+            for (int g = 0; g < generations; g++) {
+                writer.println("<Generation validFrom=\"" + validFrom(g) + "\">");
+                for (int a = 0; a < ATTRIBUTES_PER_GENERATION; a++) {
+                    writer.println("<AttributeValue attribute=\"attribute" + a + "\"><Value isNull=\"false\">" + g
+                            + "</Value></AttributeValue>");
+                }
+                writer.println("</Generation>");
+            }
+            writer.println("</ProductCmpt>");
+        }
+    }
+
+    private static String validFrom(int generation) {
+        return (1900 + generation) + "-01-01";
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteRepository() throws IOException {
+        classLoader.close();
+        for (File file : directory.toFile().listFiles()) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public void loadAllGenerations(Blackhole blackhole) {
+        ClassloaderRuntimeRepository runtimeRepository = "singleParse".equals(repository)
+                ? new ClassloaderRuntimeRepository(classLoader, "", TOC, new DefaultCacheFactory(classLoader))
+                : new ParsePerGenerationRepository(classLoader);
+        for (IProductComponent productCmpt : runtimeRepository.getAllProductComponents()) {
+            blackhole.consume(runtimeRepository.getProductComponentGenerations(productCmpt));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(GenerationLoadingBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+    private static class ParsePerGenerationRepository extends ClassloaderRuntimeRepository {
+
+        public ParsePerGenerationRepository(ClassLoader cl) {
+            super(cl, "", TOC, new DefaultCacheFactory(cl));
+        }
+
+        @Override
+        protected Element getDocumentElement(GenerationTocEntry tocEntry) {
+            Element productCmptElement = getDocumentElement(tocEntry.getParent());
+            return GenerationElementCache.getGenerationElements(productCmptElement).get(tocEntry.getValidFrom());
+        }
+    }
+
+}
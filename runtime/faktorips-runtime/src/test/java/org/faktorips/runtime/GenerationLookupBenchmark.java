@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime;
+
+import java.time.LocalDate;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the lookup of an already loaded product component generation by id and effective date,
+ * with a {@link Calendar} created by the caller as usual, with a calendar created once and with a
+ * {@link LocalDate}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenerationLookupBenchmark {
+
+    private static final String PRODUCT_ID = "motor.MotorPlus";
+
+    private IRuntimeRepository repository;
+
+    private Calendar calendar;
+
+    private LocalDate localDate;
+
+    @Setup
+    public void setUp() {
+        repository = ClassloaderRuntimeRepository
+                .create("org/faktorips/runtime/testrepository/faktorips-repository-toc.xml");
+        calendar = new GregorianCalendar(2005, 6, 1);
+        localDate = LocalDate.of(2005, 7, 1);
+        if (repository.getProductComponentGenerationAt(PRODUCT_ID, localDate) != repository
+                .getProductComponentGeneration(PRODUCT_ID, calendar)) {
+            throw new IllegalStateException("The lookups return different generations");
+        }
+    }
+
+    @Benchmark
+    public IProductComponentGeneration lookupNewCalendar() {
+        return repository.getProductComponentGeneration(PRODUCT_ID, new GregorianCalendar(2005, 6, 1));
+    }
+
+    @Benchmark
+    public IProductComponentGeneration lookupCalendar() {
+        return repository.getProductComponentGeneration(PRODUCT_ID, calendar);
+    }
+
+    @Benchmark
+    public IProductComponentGeneration lookupLocalDate() {
+        return repository.getProductComponentGenerationAt(PRODUCT_ID, localDate);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(GenerationLookupBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+}
@@ -2,6 +2,12 @@ package org.faktorips.runtime;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.faktorips.runtime.caching.IComputable;
 import org.junit.Test;
@@ -24,6 +30,96 @@ public class SimpleCacheTest {
         assertThat(1, is(computedObjectOneAgain));
     }
 
+    @Test
+    public void testCompute_LockPerKey() throws Exception {
+        CountDownLatch slowLoadStarted = new CountDownLatch(1);
+        CountDownLatch releaseSlowLoad = new CountDownLatch(1);
+        IComputable<Object, Object> computable = IComputable.of(Object.class, key -> {
+            if ("slow".equals(key)) {
+                slowLoadStarted.countDown();
+                try {
+                    releaseSlowLoad.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return key;
+        });
+        SimpleCache cache = new SimpleCache(computable, 16, true);
+        Thread slowThread = new Thread(() -> {
+            try {
+                cache.compute("slow");
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        slowThread.start();
+        assertTrue(slowLoadStarted.await(10, TimeUnit.SECONDS));
+
+        // must not be blocked by the slow computation of another key
+        assertThat(cache.compute("fast"), is("fast"));
+
+        releaseSlowLoad.countDown();
+        slowThread.join();
+        assertThat(cache.compute("slow"), is("slow"));
+    }
+
+    @Test
+    public void testCompute_LockPerKey_Cached() throws InterruptedException {
+        IComputable<Object, Object> computable = IComputable.of(Object.class, this::getNotCachedNumber);
+        SimpleCache cache = new SimpleCache(computable, 16, true);
+
+        assertThat(cache.compute("One"), is(1));
+        assertThat(cache.compute("Two"), is(2));
+        assertThat(cache.compute("One"), is(1));
+    }
+
+    @Test
+    public void testCompute_LockPerKey_WaitingThreadGetsException() throws Exception {
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+        AtomicInteger computations = new AtomicInteger();
+        IComputable<Object, Object> computable = IComputable.of(Object.class, key -> {
+            computations.incrementAndGet();
+            loadStarted.countDown();
+            try {
+                releaseLoad.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            throw new IllegalArgumentException("failed");
+        });
+        SimpleCache cache = new SimpleCache(computable, 16, true);
+        AtomicReference<Exception> firstException = new AtomicReference<>();
+        AtomicReference<Exception> waitingException = new AtomicReference<>();
+        Thread firstThread = new Thread(() -> computeAndCatch(cache, firstException));
+        firstThread.start();
+        assertTrue(loadStarted.await(10, TimeUnit.SECONDS));
+        Thread waitingThread = new Thread(() -> computeAndCatch(cache, waitingException));
+        waitingThread.start();
+        while (waitingThread.getState() != Thread.State.BLOCKED) {
+            Thread.sleep(1);
+        }
+
+        releaseLoad.countDown();
+        firstThread.join();
+        waitingThread.join();
+
+        assertThat(computations.get(), is(1));
+        assertThat(firstException.get().getMessage(), is("failed"));
+        assertThat(waitingException.get(), is(firstException.get()));
+    }
+
+    private void computeAndCatch(SimpleCache cache, AtomicReference<Exception> exception) {
+        try {
+            cache.compute("key");
+            // CSOFF: IllegalCatch
+        } catch (Exception e) {
+            // CSON: IllegalCatch
+            exception.set(e);
+        }
+    }
+
     private Object getNotCachedNumber(@SuppressWarnings("unused") Object key) {
         return number++;
     }
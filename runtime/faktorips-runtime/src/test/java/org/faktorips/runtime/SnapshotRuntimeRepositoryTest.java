@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+
+import org.faktorips.runtime.DummyTocEntryFactory.DummyRuntimeObject;
+import org.faktorips.runtime.internal.RepositorySnapshot;
+import org.faktorips.runtime.internal.RepositorySnapshotWriter;
+import org.faktorips.runtime.internal.TestTable;
+import org.faktorips.runtime.testrepository.motor.MotorProduct;
+import org.faktorips.runtime.testrepository.motor.RateTable;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SnapshotRuntimeRepositoryTest {
+
+    private static final String TOC = "org/faktorips/runtime/testrepository/faktorips-repository-toc.xml";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private URLClassLoader snapshotClassLoader;
+
+    @After
+    public void closeClassLoader() throws IOException {
+        if (snapshotClassLoader != null) {
+            snapshotClassLoader.close();
+        }
+    }
+
+    @Test
+    public void testIsSnapshotUsed() throws IOException {
+        ClassLoader cl = createSnapshotClassLoader(TOC);
+
+        SnapshotRuntimeRepository repository = new SnapshotRuntimeRepository(TOC, cl, new DefaultCacheFactory(cl));
+
+        assertThat(repository.isSnapshotUsed(), is(true));
+    }
+
+    @Test
+    public void testIsSnapshotUsed_NoSnapshot() {
+        ClassLoader cl = getClass().getClassLoader();
+
+        SnapshotRuntimeRepository repository = new SnapshotRuntimeRepository(TOC, cl, new DefaultCacheFactory(cl));
+
+        assertThat(repository.isSnapshotUsed(), is(false));
+        assertThat(repository.getProductComponent("motor.MotorPlus"), is(notNullValue()));
+    }
+
+    @Test
+    public void testIsSnapshotUsed_ChangedToc() throws IOException {
+        String toc = "changed/faktorips-repository-toc.xml";
+        File tocFile = new File(temporaryFolder.getRoot(), toc);
+        tocFile.getParentFile().mkdirs();
+        try (InputStream is = getClass().getClassLoader().getResourceAsStream(TOC)) {
+            Files.copy(is, tocFile.toPath());
+        }
+        ClassLoader cl = createSnapshotClassLoader(toc);
+        Files.write(tocFile.toPath(), "<!-- changed -->".getBytes(), StandardOpenOption.APPEND);
+
+        SnapshotRuntimeRepository repository = new SnapshotRuntimeRepository(toc, cl, new DefaultCacheFactory(cl));
+
+        assertThat(repository.isSnapshotUsed(), is(false));
+        assertThat(repository.getProductComponent("motor.MotorPlus"), is(notNullValue()));
+    }
+
+    @Test
+    public void testIsSnapshotUsed_InvalidSnapshot() throws IOException {
+        File snapshotFile = new File(temporaryFolder.getRoot(), RepositorySnapshot.getSnapshotResourcePath(TOC));
+        snapshotFile.getParentFile().mkdirs();
+        Files.write(snapshotFile.toPath(), "no snapshot".getBytes());
+        snapshotClassLoader = new URLClassLoader(new URL[] { temporaryFolder.getRoot().toURI().toURL() },
+                getClass().getClassLoader());
+
+        SnapshotRuntimeRepository repository = new SnapshotRuntimeRepository(TOC, snapshotClassLoader,
+                new DefaultCacheFactory(snapshotClassLoader));
+
+        assertThat(repository.isSnapshotUsed(), is(false));
+        assertThat(repository.getProductComponent("motor.MotorPlus"), is(notNullValue()));
+    }
+
+    @Test
+    public void testGetTable_ChangedTableContent() throws IOException {
+        String toc = "org/faktorips/runtime/internal/RepositorySnapshotTest-toc.xml";
+        String table = "org/faktorips/runtime/internal/TableTest.xml";
+        ClassLoader changedTableClassLoader = new ClassLoader(getClass().getClassLoader()) {
+            @Override
+            public InputStream getResourceAsStream(String name) {
+                if (table.equals(name)) {
+                    return new ByteArrayInputStream(readResource(table).replace("KQV", "XYZ")
+                            .getBytes(StandardCharsets.UTF_8));
+                }
+                return super.getResourceAsStream(name);
+            }
+        };
+        ClassLoader cl = createSnapshotClassLoader(toc, changedTableClassLoader);
+
+        SnapshotRuntimeRepository repository = new SnapshotRuntimeRepository(toc, cl, new DefaultCacheFactory(cl));
+
+        assertThat(repository.isSnapshotUsed(), is(true));
+        String rows = ((TestTable)repository.getTable("tables.TestTable")).getAllRows().toString();
+        assertThat(rows.contains("KQV"), is(true));
+        assertThat(rows.contains("XYZ"), is(false));
+    }
+
+    @Test
+    public void testContents_SameAsClassloaderRuntimeRepository() throws IOException {
+        ClassLoader cl = createSnapshotClassLoader(TOC);
+        ClassloaderRuntimeRepository xmlRepository = ClassloaderRuntimeRepository.create(TOC,
+                getClass().getClassLoader());
+
+        SnapshotRuntimeRepository repository = new SnapshotRuntimeRepository(TOC, cl, new DefaultCacheFactory(cl));
+
+        assertThat(new HashSet<>(repository.getAllProductComponentIds()),
+                is(new HashSet<>(xmlRepository.getAllProductComponentIds())));
+        assertThat(repository.getAllProductComponents(MotorProduct.class).size(), is(2));
+        assertThat(repository.getLatestProductComponentGeneration(repository.getProductComponent("motor.MotorPlus"))
+                .getValidFrom(), is(xmlRepository.getLatestProductComponentGeneration(
+                        xmlRepository.getProductComponent("motor.MotorPlus")).getValidFrom()));
+        assertThat(repository.getAllTables().size(), is(xmlRepository.getAllTables().size()));
+        RateTable rateTable = (RateTable)repository.getTable("motor.RateTableAlternate");
+        assertThat(rateTable.getName(), is("motor.RateTableAlternate"));
+        assertThat(repository.getAllIpsTestCases(repository).size(), is(xmlRepository.getAllIpsTestCases(xmlRepository)
+                .size()));
+        assertThat(repository.getCustomRuntimeObject(DummyRuntimeObject.class, "dummy.DummyRuntimeObject"),
+                is(notNullValue()));
+    }
+
+    private ClassLoader createSnapshotClassLoader(String toc) throws IOException {
+        return createSnapshotClassLoader(toc, null);
+    }
+
+    private ClassLoader createSnapshotClassLoader(String toc, ClassLoader writerClassLoader) throws IOException {
+        snapshotClassLoader = new URLClassLoader(new URL[] { temporaryFolder.getRoot().toURI().toURL() },
+                getClass().getClassLoader());
+        File snapshotFile = new File(temporaryFolder.getRoot(), RepositorySnapshot.getSnapshotResourcePath(toc));
+        snapshotFile.getParentFile().mkdirs();
+        try (OutputStream out = new FileOutputStream(snapshotFile)) {
+            new RepositorySnapshotWriter(writerClassLoader == null ? snapshotClassLoader : writerClassLoader)
+                    .write(toc, out);
+        }
+        return snapshotClassLoader;
+    }
+
+    private String readResource(String resource) {
+        try {
+            return new String(Files.readAllBytes(Paths.get(getClass().getClassLoader().getResource(resource).toURI())),
+                    StandardCharsets.UTF_8);
+        } catch (IOException | URISyntaxException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+}
@@ -0,0 +1,200 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.caching;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class BoundedCacheTest {
+
+    private final AtomicInteger loadCount = new AtomicInteger();
+
+    private final IComputable<String, String> computable = IComputable.of(String.class, this::load);
+
+    private String load(String key) {
+        loadCount.incrementAndGet();
+        return "null".equals(key) ? null : key.toUpperCase();
+    }
+
+    @Test
+    public void testCompute() throws InterruptedException {
+        BoundedCache<String, String> cache = BoundedCache.builder(computable).build();
+
+        assertThat(cache.compute("a"), is("A"));
+        assertThat(cache.compute("a"), is("A"));
+        assertThat(cache.compute("b"), is("B"));
+
+        assertThat(loadCount.get(), is(2));
+        CacheStatistics statistics = cache.getStatistics();
+        assertThat(statistics.getHitCount(), is(1L));
+        assertThat(statistics.getMissCount(), is(2L));
+        assertThat(statistics.getLoadSuccessCount(), is(2L));
+        assertThat(statistics.getSize(), is(2L));
+    }
+
+    @Test
+    public void testCompute_NullIsNotCached() throws InterruptedException {
+        BoundedCache<String, String> cache = BoundedCache.builder(computable).build();
+
+        assertThat(cache.compute("null"), is(nullValue()));
+        assertThat(cache.compute("null"), is(nullValue()));
+
+        assertThat(loadCount.get(), is(2));
+        assertThat(cache.size(), is(0L));
+    }
+
+    @Test
+    public void testCompute_Exception() {
+        BoundedCache<String, String> cache = BoundedCache.builder(IComputable.<String, String> of(String.class, k -> {
+            throw new IllegalStateException(k);
+        })).build();
+
+        assertThrows(IllegalStateException.class, () -> cache.compute("a"));
+
+        assertThat(cache.size(), is(0L));
+        assertThat(cache.getStatistics().getLoadFailureCount(), is(1L));
+    }
+
+    @Test
+    public void testMaximumSize_EvictsLeastRecentlyUsed() throws InterruptedException {
+        BoundedCache<String, String> cache = BoundedCache.builder(computable).maximumSize(2).concurrencyLevel(1)
+                .build();
+
+        cache.compute("a");
+        cache.compute("b");
+        cache.compute("a");
+        cache.compute("c");
+
+        assertThat(cache.size(), is(2L));
+        assertThat(cache.getStatistics().getEvictionCount(), is(1L));
+        cache.compute("a");
+        assertThat(loadCount.get(), is(3));
+        cache.compute("b");
+        assertThat(loadCount.get(), is(4));
+    }
+
+    @Test
+    public void testMaximumWeight() throws InterruptedException {
+        BoundedCache<String, String> cache = BoundedCache.builder(computable)
+                .maximumWeight(5, (k, v) -> v.length()).concurrencyLevel(1).build();
+
+        cache.compute("abc");
+        cache.compute("de");
+        assertThat(cache.getStatistics().getWeight(), is(5L));
+
+        cache.compute("f");
+
+        assertThat(cache.size(), is(2L));
+        assertThat(cache.getStatistics().getWeight(), is(3L));
+        assertThat(cache.getStatistics().getEvictionCount(), is(1L));
+    }
+
+    @Test
+    public void testExpireAfterWrite() throws InterruptedException {
+        AtomicLong time = new AtomicLong();
+        BoundedCache<String, String> cache = BoundedCache.builder(computable).expireAfterWrite(10, TimeUnit.SECONDS)
+                .ticker(time::get).build();
+
+        cache.compute("a");
+        time.addAndGet(TimeUnit.SECONDS.toNanos(9));
+        cache.compute("a");
+        assertThat(loadCount.get(), is(1));
+
+        time.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        cache.compute("a");
+        assertThat(loadCount.get(), is(2));
+        assertThat(cache.getStatistics().getEvictionCount(), is(1L));
+    }
+
+    @Test
+    public void testInvalidate() throws InterruptedException {
+        BoundedCache<String, String> cache = BoundedCache.builder(computable).build();
+        cache.compute("a");
+        cache.compute("b");
+
+        cache.invalidate("a");
+
+        assertThat(cache.size(), is(1L));
+        cache.compute("a");
+        cache.compute("b");
+        assertThat(loadCount.get(), is(3));
+        assertThat(cache.getStatistics().getEvictionCount(), is(0L));
+    }
+
+    @Test
+    public void testInvalidateAll() throws InterruptedException {
+        BoundedCache<String, String> cache = BoundedCache.builder(computable).maximumWeight(10, (k, v) -> 1)
+                .build();
+        cache.compute("a");
+        cache.compute("b");
+
+        cache.invalidateAll();
+
+        assertThat(cache.size(), is(0L));
+        assertThat(cache.getStatistics().getWeight(), is(0L));
+    }
+
+    @Test
+    public void testCompute_SameKeyIsLoadedOnce() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BoundedCache<String, Object> cache = BoundedCache.builder(IComputable.<String, Object> of(Object.class, k -> {
+            loadCount.incrementAndGet();
+            loading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return new Object();
+        })).build();
+        Object[] results = new Object[2];
+        Thread first = new Thread(() -> results[0] = computeQuietly(cache, "a"));
+        first.start();
+        loading.await();
+        Thread second = new Thread(() -> results[1] = computeQuietly(cache, "a"));
+        second.start();
+
+        release.countDown();
+        first.join();
+        second.join();
+
+        assertThat(loadCount.get(), is(1));
+        assertThat(results[0], is(sameInstance(results[1])));
+    }
+
+    @Test
+    public void testBuild_SizeAndWeight() {
+        BoundedCache.Builder<String, String> builder = BoundedCache.builder(computable).maximumSize(1)
+                .maximumWeight(1, (k, v) -> 1);
+
+        assertThrows(IllegalStateException.class, builder::build);
+    }
+
+    private static <K, V> V computeQuietly(BoundedCache<K, V> cache, K key) {
+        try {
+            return cache.compute(key);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.caching;
+
+import java.util.concurrent.TimeUnit;
+
+import org.faktorips.runtime.BoundedCacheFactory;
+import org.faktorips.runtime.DefaultCacheFactory;
+import org.faktorips.runtime.SimpleCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures how long it takes to load product components into an empty cache when several threads
+ * hit the cache at the same time. Every thread requests {@link #KEYS_PER_THREAD} product ids, either
+ * ids no other thread requests (<code>disjoint</code>) or the same ids as all other threads in a
+ * different order (<code>overlapping</code>). Loading an id burns some CPU to simulate parsing the
+ * XML of a product component.
+ * <p>
+ * Run {@link #main(String[])} to compare the caches for 1 to 64 threads. The score is the time until
+ * all threads have loaded their ids, so lower is better.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 30)
+@Fork(1)
+public class CacheConcurrencyBenchmark {
+
+    static final int KEYS_PER_THREAD = 500;
+
+    @Param({ "memoizer", "simple", "simplePerKey", "bounded" })
+    private String cache;
+
+    @Param({ "disjoint", "overlapping" })
+    private String keys;
+
+    @Param({ "2000" })
+    private long loadTokens;
+
+    private IComputable<Object, Object> computable;
+
+    @Setup(Level.Iteration)
+    public void createCache() {
+        IComputable<Object, Object> loader = IComputable.of(Object.class, key -> {
+            Blackhole.consumeCPU(loadTokens);
+            return key;
+        });
+        switch (cache) {
+            case "memoizer":
+                computable = new DefaultCacheFactory(getClass().getClassLoader()).createCache(loader);
+                break;
+            case "simple":
+                computable = new SimpleCache(loader);
+                break;
+            case "simplePerKey":
+                computable = new SimpleCache(loader, 16, true);
+                break;
+            case "bounded":
+                computable = new BoundedCacheFactory().createCache(loader);
+                break;
+            default:
+                throw new IllegalArgumentException(cache);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ProductIds {
+
+        private String[] ids;
+
+        @Setup(Level.Trial)
+        public void createIds(CacheConcurrencyBenchmark benchmark, ThreadParams threadParams) {
+            int thread = threadParams.getThreadIndex();
+            ids = new String[KEYS_PER_THREAD];
+            for (int i = 0; i < KEYS_PER_THREAD; i++) {
+                if ("disjoint".equals(benchmark.keys)) {
+                    ids[i] = "product" + thread + "." + i;
+                } else {
+                    // every thread starts at a different id to overlap with the others
+                    ids[i] = "product." + (i + thread * 7) % KEYS_PER_THREAD;
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void loadProducts(ProductIds productIds, Blackhole blackhole) throws InterruptedException {
+        for (String id : productIds.ids) {
+            blackhole.consume(computable.compute(id));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[] { 1, 2, 4, 8, 16, 32, 64 }) {
+            Options options = new OptionsBuilder()
+                    .include(CacheConcurrencyBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build();
+            new Runner(options).run();
+        }
+    }
+
+}
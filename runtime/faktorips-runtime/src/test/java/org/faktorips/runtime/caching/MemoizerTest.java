@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.caching;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class MemoizerTest {
+
+    @Test
+    public void testCompute() throws InterruptedException {
+        AtomicInteger count = new AtomicInteger();
+        Memoizer<String, Object> memoizer = Memoizer.of(Object.class, k -> {
+            count.incrementAndGet();
+            return "null".equals(k) ? null : new Object();
+        });
+
+        Object a = memoizer.compute("a");
+
+        assertThat(memoizer.compute("a"), is(sameInstance(a)));
+        assertThat(memoizer.compute("null"), is(nullValue()));
+        assertThat(memoizer.compute("null"), is(nullValue()));
+        assertThat(count.get(), is(3));
+    }
+
+    @Test
+    public void testCompute_SameKeyConcurrently() throws Exception {
+        AtomicInteger count = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        Memoizer<String, Object> memoizer = Memoizer.of(Object.class, k -> {
+            count.incrementAndGet();
+            return new Object();
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return memoizer.compute("a");
+                }));
+            }
+            start.countDown();
+
+            Object first = results.get(0).get();
+            for (Future<Object> result : results) {
+                assertThat(result.get(), is(sameInstance(first)));
+            }
+            assertThat(count.get(), is(1));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCompute_OtherKeysAreNotBlocked() throws Exception {
+        CountDownLatch slowLoadStarted = new CountDownLatch(1);
+        CountDownLatch releaseSlowLoad = new CountDownLatch(1);
+        Memoizer<String, String> memoizer = Memoizer.of(String.class, k -> {
+            if ("slow".equals(k)) {
+                slowLoadStarted.countDown();
+                try {
+                    releaseSlowLoad.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return k;
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> slow = executor.submit(() -> memoizer.compute("slow"));
+            assertTrue(slowLoadStarted.await(10, TimeUnit.SECONDS));
+
+            assertThat(memoizer.compute("fast"), is("fast"));
+
+            releaseSlowLoad.countDown();
+            assertThat(slow.get(), is("slow"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
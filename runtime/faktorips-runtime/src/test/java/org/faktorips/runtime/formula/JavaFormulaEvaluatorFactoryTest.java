@@ -0,0 +1,244 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.formula;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.faktorips.runtime.FormulaExecutionException;
+import org.faktorips.runtime.InMemoryRuntimeRepository;
+import org.faktorips.runtime.internal.ProductComponent;
+import org.faktorips.runtime.internal.TestProductCmptGeneration;
+import org.faktorips.runtime.internal.TestProductComponent;
+import org.junit.Test;
+
+public class JavaFormulaEvaluatorFactoryTest {
+
+    private final JavaFormulaEvaluatorFactory factory = new JavaFormulaEvaluatorFactory();
+
+    private final TestProductComponent productCmpt = new TestProductComponent(new InMemoryRuntimeRepository(),
+            "id", "kind", "version");
+
+    @Test
+    public void testCreateFormulaEvaluator() {
+        FormulaGeneration gen = new FormulaGeneration(productCmpt);
+        Map<String, String> expressions = new LinkedHashMap<>();
+        expressions.put("add", "public int computeAdd() {\n return this.getVar1() + this.var2;\n}");
+        expressions.put("addWithParam", "public int computeAdd(int param) {\n return this.var2 + param;\n}");
+        expressions.put("text", "import java.math.BigDecimal;\n\n"
+                + "public String computeText(String text) {\n return text + new BigDecimal(\"1.50\");\n}");
+
+        IFormulaEvaluator evaluator = factory.createFormulaEvaluator(gen, expressions);
+
+        gen.var1 = 1;
+        gen.var2 = 3;
+        assertThat(evaluator.evaluate("computeAdd"), is(4));
+        gen.var1 = -1;
+        assertThat(evaluator.evaluate("computeAdd"), is(2));
+        assertThat(evaluator.evaluate("computeAdd", 10), is(13));
+        assertThat(evaluator.evaluate("computeText", "a"), is("a" + new BigDecimal("1.50")));
+        assertThat(evaluator.evaluate("computeText", (Object)null), is("null1.50"));
+        assertThat(evaluator.getObject(), is(sameInstance(gen)));
+        assertThat(evaluator.getNameToExpressionMap(), is(expressions));
+    }
+
+    @Test
+    public void testCreateFormulaEvaluator_SameSourceSharesClass() {
+        FormulaGeneration gen1 = new FormulaGeneration(productCmpt);
+        gen1.var2 = 1;
+        FormulaGeneration gen2 = new FormulaGeneration(productCmpt);
+        gen2.var2 = 2;
+        Map<String, String> expressions = new LinkedHashMap<>();
+        expressions.put("a", "public int computeA() { return this.var2; }");
+        expressions.put("b", "public int computeB() { return 2 * this.var2; }");
+        Map<String, String> reorderedExpressions = new LinkedHashMap<>();
+        reorderedExpressions.put("b", "public int computeB() { return 2 * this.var2; }\r\n");
+        reorderedExpressions.put("a", "public int computeA() { return this.var2; }");
+
+        JavaFormulaEvaluator evaluator1 = (JavaFormulaEvaluator)factory.createFormulaEvaluator(gen1, expressions);
+        JavaFormulaEvaluator evaluator2 = (JavaFormulaEvaluator)factory.createFormulaEvaluator(gen2,
+                reorderedExpressions);
+
+        assertThat(evaluator2.getFormulaClass(), is(sameInstance(evaluator1.getFormulaClass())));
+        assertThat(factory.getCompiledClassCount(), is(1));
+        assertThat(evaluator1.evaluate("computeB"), is(2));
+        assertThat(evaluator2.evaluate("computeB"), is(4));
+    }
+
+    @Test
+    public void testCreateFormulaEvaluator_DifferentSource() {
+        FormulaGeneration gen = new FormulaGeneration(productCmpt);
+        Map<String, String> expressions1 = new LinkedHashMap<>();
+        expressions1.put("a", "public int computeA() { return 1; }");
+        Map<String, String> expressions2 = new LinkedHashMap<>();
+        expressions2.put("a", "public int computeA() { return 2; }");
+
+        JavaFormulaEvaluator evaluator1 = (JavaFormulaEvaluator)factory.createFormulaEvaluator(gen, expressions1);
+        JavaFormulaEvaluator evaluator2 = (JavaFormulaEvaluator)factory.createFormulaEvaluator(gen, expressions2);
+
+        assertThat(evaluator2.getFormulaClass(), is(not(sameInstance(evaluator1.getFormulaClass()))));
+        assertThat(evaluator1.evaluate("computeA"), is(1));
+        assertThat(evaluator2.evaluate("computeA"), is(2));
+    }
+
+    @Test
+    public void testCreateFormulaEvaluator_CompilationError() {
+        FormulaGeneration gen = new FormulaGeneration(productCmpt);
+        Map<String, String> expressions = new LinkedHashMap<>();
+        expressions.put("a", "public int computeA() { return this.unknown; }");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> factory.createFormulaEvaluator(gen, expressions));
+
+        assertThat(exception.getMessage(), containsString("unknown"));
+    }
+
+    @Test
+    public void testCreateFormulaEvaluator_CompilationErrorNewExceptionPerCall() {
+        FormulaGeneration gen = new FormulaGeneration(productCmpt);
+        Map<String, String> expressions = new LinkedHashMap<>();
+        expressions.put("a", "public int computeA() { return this.unknown; }");
+
+        IllegalArgumentException exception1 = assertThrows(IllegalArgumentException.class,
+                () -> factory.createFormulaEvaluator(gen, expressions));
+        IllegalArgumentException exception2 = assertThrows(IllegalArgumentException.class,
+                () -> factory.createFormulaEvaluator(gen, expressions));
+
+        assertThat(exception2, is(not(sameInstance(exception1))));
+        assertThat(exception2.getCause(), is(sameInstance(exception1.getCause())));
+        assertThat(factory.getCompiledClassCount(), is(1));
+    }
+
+    @Test
+    public void testCreateFormulaEvaluator_NonPublicFormula() {
+        FormulaGeneration gen = new FormulaGeneration(productCmpt);
+        Map<String, String> expressions = new LinkedHashMap<>();
+        expressions.put("a", "public int computeA() { return 1; }");
+        expressions.put("b", "int computeB() { return 2; }");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> factory.createFormulaEvaluator(gen, expressions));
+
+        assertThat(exception.getMessage(), containsString("computeB"));
+    }
+
+    @Test
+    public void testCreateFormulaEvaluator_NoCompiler() {
+        IFormulaEvaluatorFactory fallbackFactory = mock(IFormulaEvaluatorFactory.class);
+        IFormulaEvaluator fallbackEvaluator = mock(IFormulaEvaluator.class);
+        JavaFormulaEvaluatorFactory factoryWithoutCompiler = new JavaFormulaEvaluatorFactory(fallbackFactory, null);
+        FormulaGeneration gen = new FormulaGeneration(productCmpt);
+        Map<String, String> expressions = new LinkedHashMap<>();
+        expressions.put("a", "public int computeA() { return 1; }");
+        when(fallbackFactory.createFormulaEvaluator(gen, expressions)).thenReturn(fallbackEvaluator);
+
+        assertThat(factoryWithoutCompiler.isCompilingFormulas(), is(false));
+        assertThat(factoryWithoutCompiler.createFormulaEvaluator(gen, expressions),
+                is(sameInstance(fallbackEvaluator)));
+        assertThat(factoryWithoutCompiler.getCompiledClassCount(), is(0));
+    }
+
+    @Test
+    public void testJavaFormulaEvaluatorFactory_NoCompilerWithoutFallback() {
+        assertThrows(IllegalStateException.class, () -> new JavaFormulaEvaluatorFactory(null, null));
+    }
+
+    @Test
+    public void testCreateFormulaEvaluator_Fallback() {
+        IFormulaEvaluatorFactory fallbackFactory = mock(IFormulaEvaluatorFactory.class);
+        IFormulaEvaluator fallbackEvaluator = mock(IFormulaEvaluator.class);
+        JavaFormulaEvaluatorFactory factoryWithFallback = new JavaFormulaEvaluatorFactory(fallbackFactory);
+        FormulaGeneration gen = new FormulaGeneration(productCmpt);
+        Map<String, String> expressions = new LinkedHashMap<>();
+        expressions.put("a", "public int computeA() { return this.unknown }");
+        when(fallbackFactory.createFormulaEvaluator(gen, expressions)).thenReturn(fallbackEvaluator);
+
+        assertThat(factoryWithFallback.createFormulaEvaluator(gen, expressions), is(sameInstance(fallbackEvaluator)));
+    }
+
+    @Test
+    public void testCreateFormulaEvaluator_NonPublicClass() {
+        NonPublicGeneration gen = new NonPublicGeneration(productCmpt);
+        Map<String, String> expressions = new LinkedHashMap<>();
+        expressions.put("a", "public Object computeA() { return this.getProductComponent(); }");
+
+        IFormulaEvaluator evaluator = factory.createFormulaEvaluator(gen, expressions);
+
+        assertThat(evaluator.evaluate("computeA"), is(sameInstance(productCmpt)));
+    }
+
+    @Test
+    public void testEvaluate_UnknownFormula() {
+        FormulaGeneration gen = new FormulaGeneration(productCmpt);
+        Map<String, String> expressions = new LinkedHashMap<>();
+        expressions.put("a", "public int computeA(int i) { return i; }");
+        IFormulaEvaluator evaluator = factory.createFormulaEvaluator(gen, expressions);
+
+        FormulaExecutionException exception = assertThrows(FormulaExecutionException.class,
+                () -> evaluator.evaluate("computeB"));
+        assertThat(exception.getCause(), is(instanceOf(IllegalArgumentException.class)));
+        assertThrows(FormulaExecutionException.class, () -> evaluator.evaluate("computeA", "x"));
+        assertThrows(FormulaExecutionException.class, () -> evaluator.evaluate("computeA", (Object)null));
+    }
+
+    @Test
+    public void testEvaluate_ExceptionInFormula() {
+        FormulaGeneration gen = new FormulaGeneration(productCmpt);
+        Map<String, String> expressions = new LinkedHashMap<>();
+        expressions.put("a", "public Object computeA() { throw new IllegalStateException(\"test\"); }");
+        IFormulaEvaluator evaluator = factory.createFormulaEvaluator(gen, expressions);
+
+        FormulaExecutionException exception = assertThrows(FormulaExecutionException.class,
+                () -> evaluator.evaluate("computeA"));
+        assertThat(exception.getCause(), is(instanceOf(IllegalStateException.class)));
+        assertThat(factory.getCompiledClassCount(), is(1));
+        factory.clearCache();
+        assertThat(factory.getCompiledClassCount(), is(0));
+    }
+
+    public static class FormulaGeneration extends TestProductCmptGeneration {
+
+        private int var1;
+
+        // CSOFF: VisibilityModifier
+        public int var2;
+        // CSON: VisibilityModifier
+
+        public FormulaGeneration(ProductComponent productCmpt) {
+            super(productCmpt);
+        }
+
+        public int getVar1() {
+            return var1;
+        }
+
+    }
+
+    private static class NonPublicGeneration extends TestProductCmptGeneration {
+
+        private NonPublicGeneration(ProductComponent productCmpt) {
+            super(productCmpt);
+        }
+
+    }
+
+}
@@ -11,6 +11,8 @@
 package org.faktorips.runtime.internal;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -203,6 +205,82 @@ public class AbstractClassLoadingRuntimeRepositoryTest {
         assertEquals(tocEntry.getIpsObjectId(), table.getName());
     }
 
+    @Test
+    public void testCreateProductComponentInstance() {
+        ProductComponent productCmpt = repo.createProductComponentInstance(TestProductComponent.class.getName(), "id",
+                "kindId", "versionId");
+        ProductComponent productCmpt2 = repo.createProductComponentInstance(TestProductComponent.class.getName(),
+                "id2", "kindId", "versionId");
+
+        assertThat(productCmpt instanceof TestProductComponent, is(true));
+        assertThat(productCmpt.getId(), is("id"));
+        assertThat(productCmpt.getRepository(), is(sameInstance(repo)));
+        assertThat(productCmpt2.getId(), is("id2"));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testCreateProductComponentInstance_NoConstructor() {
+        repo.createProductComponentInstance(TestProductCmptGeneration.class.getName(), "id", "kindId", "versionId");
+    }
+
+    @Test
+    public void testCreateProductComponentGenerationInstance() {
+        ProductComponent productCmpt = new TestProductComponent(repo, "id", "kindId", "versionId");
+        GenerationTocEntry tocEntry = new GenerationTocEntry(null, new DateTime(2020, 1, 1),
+                TestProductCmptGeneration.class.getName(), "");
+
+        ProductComponentGeneration generation = repo.createProductComponentGenerationInstance(tocEntry, productCmpt);
+        ProductComponentGeneration generation2 = repo.createProductComponentGenerationInstance(tocEntry, productCmpt);
+
+        assertThat(generation instanceof TestProductCmptGeneration, is(true));
+        assertThat(generation.getProductComponent(), is(sameInstance(productCmpt)));
+        assertThat(generation2, is(not(sameInstance(generation))));
+    }
+
+    @Test
+    public void testCreateProductComponentGenerationInstance_MostSpecificConstructor() {
+        GenerationTocEntry tocEntry = new GenerationTocEntry(null, new DateTime(2020, 1, 1),
+                TestGeneration.class.getName(), "");
+
+        TestGeneration generation = (TestGeneration)repo.createProductComponentGenerationInstance(tocEntry,
+                new TestProductComponent(repo, "id", "kindId", "versionId"));
+        TestGeneration generation2 = (TestGeneration)repo.createProductComponentGenerationInstance(tocEntry,
+                mock(ProductComponent.class));
+
+        assertThat(generation.specific, is(true));
+        assertThat(generation2.specific, is(false));
+    }
+
+    @Test
+    public void testCreateProductComponentGenerationInstance_MostSpecificConstructorAfterLessSpecific() {
+        GenerationTocEntry tocEntry = new GenerationTocEntry(null, new DateTime(2020, 1, 1),
+                TestGeneration.class.getName(), "");
+
+        TestGeneration generation = (TestGeneration)repo.createProductComponentGenerationInstance(tocEntry,
+                mock(ProductComponent.class));
+        TestGeneration generation2 = (TestGeneration)repo.createProductComponentGenerationInstance(tocEntry,
+                new TestProductComponent(repo, "id", "kindId", "versionId"));
+
+        assertThat(generation.specific, is(false));
+        assertThat(generation2.specific, is(true));
+    }
+
+    public static class TestGeneration extends TestProductCmptGeneration {
+
+        private final boolean specific;
+
+        public TestGeneration(ProductComponent productCmpt) {
+            super(productCmpt);
+            specific = false;
+        }
+
+        public TestGeneration(TestProductComponent productCmpt) {
+            super(productCmpt);
+            specific = true;
+        }
+
+    }
+
     public static class TestEnum {
 
         public static final List<TestEnum> VALUES = Arrays.asList(new TestEnum(0, "A", "A", null),
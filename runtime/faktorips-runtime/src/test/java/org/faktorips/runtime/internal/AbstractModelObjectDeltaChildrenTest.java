@@ -12,6 +12,7 @@ package org.faktorips.runtime.internal;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Function;
 
 import org.faktorips.runtime.IDeltaComputationOptions;
 import org.faktorips.runtime.IDeltaSupport;
@@ -82,6 +83,7 @@ public abstract class AbstractModelObjectDeltaChildrenTest {
 
         private final ComputationMethod computationMethod;
         private boolean subtree = false;
+        private boolean identityKey = false;
 
         public TestOptions(ComputationMethod computationMethod) {
             super();
@@ -115,6 +117,16 @@ public abstract class AbstractModelObjectDeltaChildrenTest {
             return this;
         }
 
+        public TestOptions withIdentityKey() {
+            identityKey = true;
+            return this;
+        }
+
+        @Override
+        public Function<IModelObject, Object> getIdentityKeyExtractor(String association) {
+            return identityKey ? o -> ((TestModelObject)o).id : null;
+        }
+
         @Override
         public boolean areValuesEqual(Class<?> modelClass, String property, Object value1, Object value2) {
             return false;
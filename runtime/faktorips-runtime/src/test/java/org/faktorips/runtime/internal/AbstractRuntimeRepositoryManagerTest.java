@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.faktorips.runtime.IRuntimeRepository;
+import org.faktorips.runtime.InMemoryRuntimeRepository;
+import org.faktorips.runtime.WarmUpOptions;
+import org.junit.Test;
+
+public class AbstractRuntimeRepositoryManagerTest {
+
+    private final List<Runnable> refreshTasks = new ArrayList<>();
+
+    @Test
+    public void testGetCurrentRuntimeRepository() {
+        TestRuntimeRepositoryManager manager = new TestRuntimeRepositoryManager(InMemoryRuntimeRepository::new);
+
+        IRuntimeRepository repository = manager.getCurrentRuntimeRepository();
+        assertThat(manager.getCurrentRuntimeRepository(), is(sameInstance(repository)));
+        manager.upToDate = false;
+
+        assertThat(manager.getCurrentRuntimeRepository(), is(not(sameInstance(repository))));
+        assertThat(manager.created, is(2));
+    }
+
+    @Test
+    public void testGetCurrentRuntimeRepository_PollInterval() {
+        TestRuntimeRepositoryManager manager = new TestRuntimeRepositoryManager(InMemoryRuntimeRepository::new);
+        manager.setPollInterval(1, TimeUnit.HOURS);
+
+        IRuntimeRepository repository = manager.getCurrentRuntimeRepository();
+        int checked = manager.checked;
+        manager.upToDate = false;
+
+        assertThat(manager.getCurrentRuntimeRepository(), is(sameInstance(repository)));
+        assertThat(manager.checked, is(checked));
+        assertThat(manager.getPollInterval(TimeUnit.MINUTES), is(60L));
+    }
+
+    @Test
+    public void testGetCurrentRuntimeRepository_AsyncRefresh() {
+        TestRuntimeRepositoryManager manager = new TestRuntimeRepositoryManager(InMemoryRuntimeRepository::new);
+        manager.setAsyncRefresh(refreshTasks::add, null);
+
+        IRuntimeRepository repository = manager.getCurrentRuntimeRepository();
+        assertThat(refreshTasks.size(), is(0));
+        manager.upToDate = false;
+
+        assertThat(manager.getCurrentRuntimeRepository(), is(sameInstance(repository)));
+        assertThat(manager.getCurrentRuntimeRepository(), is(sameInstance(repository)));
+        assertThat(refreshTasks.size(), is(1));
+
+        refreshTasks.get(0).run();
+        manager.upToDate = true;
+
+        IRuntimeRepository newRepository = manager.getCurrentRuntimeRepository();
+        assertThat(newRepository, is(not(sameInstance(repository))));
+        assertThat(manager.created, is(2));
+        assertThat(manager.isAsyncRefresh(), is(true));
+    }
+
+    @Test
+    public void testGetCurrentRuntimeRepository_AsyncRefreshFailure() {
+        TestRuntimeRepositoryManager manager = new TestRuntimeRepositoryManager(InMemoryRuntimeRepository::new);
+        manager.setAsyncRefresh(refreshTasks::add, null);
+        IRuntimeRepository repository = manager.getCurrentRuntimeRepository();
+        manager.upToDate = false;
+        manager.repositorySupplier = () -> {
+            throw new IllegalStateException();
+        };
+
+        manager.getCurrentRuntimeRepository();
+        refreshTasks.get(0).run();
+
+        assertThat(manager.getLastRefreshFailure(), is(notNullValue()));
+        assertThat(manager.getCurrentRuntimeRepository(), is(sameInstance(repository)));
+
+        manager.repositorySupplier = InMemoryRuntimeRepository::new;
+        refreshTasks.get(1).run();
+
+        assertThat(manager.getLastRefreshFailure(), is(nullValue()));
+        assertThat(manager.getCurrentRuntimeRepository(), is(not(sameInstance(repository))));
+    }
+
+    @Test
+    public void testGetCurrentRuntimeRepository_AsyncRefreshWarmUp() {
+        TestRuntimeRepositoryManager manager = new TestRuntimeRepositoryManager(InMemoryRuntimeRepository::new);
+        WarmUpOptions warmUpOptions = WarmUpOptions.defaults();
+        manager.setAsyncRefresh(refreshTasks::add, warmUpOptions);
+        manager.getCurrentRuntimeRepository();
+        AbstractTocBasedRuntimeRepository newRepository = mock(AbstractTocBasedRuntimeRepository.class);
+        manager.repositorySupplier = () -> newRepository;
+        manager.upToDate = false;
+
+        manager.getCurrentRuntimeRepository();
+        refreshTasks.get(0).run();
+
+        verify(newRepository).warmUp(warmUpOptions);
+        manager.upToDate = true;
+        assertThat(manager.getCurrentRuntimeRepository(), is(sameInstance(newRepository)));
+    }
+
+    private static class TestRuntimeRepositoryManager extends AbstractRuntimeRepositoryManager {
+
+        private volatile boolean upToDate = true;
+
+        private volatile Supplier<IRuntimeRepository> repositorySupplier;
+
+        private int created;
+
+        private int checked;
+
+        private TestRuntimeRepositoryManager(Supplier<IRuntimeRepository> repositorySupplier) {
+            this.repositorySupplier = repositorySupplier;
+        }
+
+        @Override
+        protected boolean isRepositoryUpToDate(IRuntimeRepository currentRuntimeRepository) {
+            checked++;
+            return currentRuntimeRepository != null && upToDate;
+        }
+
+        @Override
+        protected IRuntimeRepository createNewRuntimeRepository() {
+            IRuntimeRepository repository = repositorySupplier.get();
+            created++;
+            return repository;
+        }
+
+    }
+
+}
@@ -14,9 +14,11 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
@@ -224,6 +226,22 @@ public class AbstractRuntimeRepositoryTest {
         assertEquals(basePc, mainRepository.getAllProductComponents("baseKind").get(0));
     }
 
+    @Test
+    public void testGetProductComponentGenerationAt() {
+        LocalDate effectiveLocalDate = LocalDate.of(2006, 7, 1);
+        assertEquals(mainPcGen, mainRepository.getProductComponentGenerationAt("mainPc", effectiveLocalDate));
+        assertEquals(inAPcGen, mainRepository.getProductComponentGenerationAt("inAPc", effectiveLocalDate));
+        assertEquals(inBPcGen, mainRepository.getProductComponentGenerationAt("inBPc", effectiveLocalDate));
+        assertEquals(basePcGen, mainRepository.getProductComponentGenerationAt("basePc", effectiveLocalDate));
+
+        assertNull(mainRepository.getProductComponentGenerationAt("unknown", effectiveLocalDate));
+        assertNull(mainRepository.getProductComponentGenerationAt("mainPc", LocalDate.of(2000, 1, 1)));
+        assertNull(mainRepository.getProductComponentGenerationAt("mainPc", null));
+        // Tests with validTo
+        assertEquals(validToPcGen, mainRepository.getProductComponentGenerationAt("validToPc", LocalDate.of(2007, 1, 1)));
+        assertNull(mainRepository.getProductComponentGenerationAt("validToPc", LocalDate.of(2007, 1, 2)));
+    }
+
     @Test
     public void testGetProductComponentGeneration_ByIdAndEffectiveDate() {
         assertEquals(mainPcGen, mainRepository.getProductComponentGeneration("mainPc", effectiveDate));
@@ -485,6 +503,91 @@ public class AbstractRuntimeRepositoryTest {
         baseRepository.getExistingEnumValue(TestEnumValue.class, "unkownId");
     }
 
+    @Test
+    public void testGetEnumValue_WithoutLookup() {
+        TestEnumValue value1 = new TestEnumValue("1");
+        TestEnumValue value2 = new TestEnumValue("2");
+        baseRepository.putEnumValues(TestEnumValue.class, Arrays.asList(value1, value2));
+
+        assertSame(value1, baseRepository.getEnumValue(TestEnumValue.class, "1"));
+        assertSame(value2, baseRepository.getEnumValue(TestEnumValue.class, "2"));
+        assertNull(baseRepository.getEnumValue(TestEnumValue.class, "3"));
+    }
+
+    @Test
+    public void testGetEnumValue_WithoutLookup_ValuesChanged() {
+        TestEnumValue value1 = new TestEnumValue("1");
+        baseRepository.putEnumValues(TestEnumValue.class, Arrays.asList(value1));
+        assertSame(value1, baseRepository.getEnumValue(TestEnumValue.class, "1"));
+
+        TestEnumValue newValue1 = new TestEnumValue("1");
+        TestEnumValue value2 = new TestEnumValue("2");
+        baseRepository.putEnumValues(TestEnumValue.class, Arrays.asList(newValue1, value2));
+
+        assertSame(newValue1, baseRepository.getEnumValue(TestEnumValue.class, "1"));
+        assertSame(value2, baseRepository.getEnumValue(TestEnumValue.class, "2"));
+    }
+
+    @Test
+    public void testGetEnumValue_WithoutLookup_FromReferencedRepository() {
+        TestEnumValue value1 = new TestEnumValue("1");
+        baseRepository.putEnumValues(TestEnumValue.class, Arrays.asList(value1));
+
+        assertSame(value1, mainRepository.getEnumValue(TestEnumValue.class, "1"));
+        assertNull(mainRepository.getEnumValue(TestEnumValue.class, "2"));
+
+        TestEnumValue newValue1 = new TestEnumValue("1");
+        baseRepository.putEnumValues(TestEnumValue.class, Arrays.asList(newValue1));
+
+        assertSame(newValue1, mainRepository.getEnumValue(TestEnumValue.class, "1"));
+    }
+
+    @Test
+    public void testGetEnumValue_WithoutLookup_ReferencedRepositoryAddedLater() {
+        assertNull(mainRepository.getEnumValue(TestEnumValue.class, "1"));
+
+        InMemoryRuntimeRepository referencedRepository = new InMemoryRuntimeRepository();
+        TestEnumValue value1 = new TestEnumValue("1");
+        referencedRepository.putEnumValues(TestEnumValue.class, Arrays.asList(value1));
+        mainRepository.addDirectlyReferencedRepository(referencedRepository);
+
+        assertSame(value1, mainRepository.getEnumValue(TestEnumValue.class, "1"));
+    }
+
+    @Test
+    public void testGetEnumValue_WithoutLookup_DefinedInType() {
+        TypeDefinedEnum value1 = TypeDefinedEnum.VALUES.get(0);
+        TypeDefinedEnum value2 = TypeDefinedEnum.VALUES.get(1);
+        assertSame(value1, mainRepository.getEnumValue(TypeDefinedEnum.class, "1"));
+        int idCalls = TypeDefinedEnum.idCalls;
+
+        assertSame(value1, mainRepository.getEnumValue(TypeDefinedEnum.class, "1"));
+        assertSame(value2, mainRepository.getEnumValue(TypeDefinedEnum.class, "2"));
+        assertNull(mainRepository.getEnumValue(TypeDefinedEnum.class, "3"));
+
+        assertEquals(idCalls, TypeDefinedEnum.idCalls);
+    }
+
+    @Test
+    public void testGetEnumValue_WithoutLookup_DefinedInTypeReferencedRepositoryChanged() {
+        assertSame(TypeDefinedEnum.VALUES.get(0), mainRepository.getEnumValue(TypeDefinedEnum.class, "1"));
+        assertNull(mainRepository.getEnumValue(TypeDefinedEnum.class, "3"));
+
+        TypeDefinedEnum value3 = new TypeDefinedEnum("3");
+        baseRepository.putEnumValues(TypeDefinedEnum.class, Arrays.asList(value3));
+
+        assertSame(value3, mainRepository.getEnumValue(TypeDefinedEnum.class, "3"));
+        assertSame(TypeDefinedEnum.VALUES.get(0), mainRepository.getEnumValue(TypeDefinedEnum.class, "1"));
+    }
+
+    @Test
+    public void testGetEnumValue_WithoutLookup_DuplicateIds() {
+        TestEnumValue value1 = new TestEnumValue("1");
+        baseRepository.putEnumValues(TestEnumValue.class, Arrays.asList(value1, new TestEnumValue("1")));
+
+        assertSame(value1, baseRepository.getEnumValue(TestEnumValue.class, "1"));
+    }
+
     @Test
     public void testGetEnumValuesFromLookup() {
         Lookup lookup = new Lookup();
@@ -561,6 +664,26 @@ public class AbstractRuntimeRepositoryTest {
 
     }
 
+    public static class TypeDefinedEnum {
+
+        public static final List<TypeDefinedEnum> VALUES = Arrays.asList(new TypeDefinedEnum("1"),
+                new TypeDefinedEnum("2"));
+
+        private static volatile int idCalls;
+
+        private final String id;
+
+        private TypeDefinedEnum(String id) {
+            this.id = id;
+        }
+
+        public String getEnumValueId() {
+            idCalls++;
+            return id;
+        }
+
+    }
+
     private static class AbstractLookup implements IEnumValueLookupService<TestAbstractEnum> {
 
         private final TestConcreteExtensibleEnum extendedValue1 = new TestConcreteExtensibleEnum(2, "E1",
@@ -11,18 +11,27 @@
 package org.faktorips.runtime.internal;
 
 import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import org.faktorips.runtime.BoundedCacheFactory;
+import org.faktorips.runtime.ClassloaderRuntimeRepository;
 import org.faktorips.runtime.DefaultCacheFactory;
 import org.faktorips.runtime.IProductComponent;
 import org.faktorips.runtime.IProductComponentGeneration;
 import org.faktorips.runtime.IRuntimeRepository;
 import org.faktorips.runtime.ITable;
+import org.faktorips.runtime.WarmUpOptions;
+import org.faktorips.runtime.WarmUpOptions.EntryType;
+import org.faktorips.runtime.WarmUpResult;
+import org.faktorips.runtime.WarmUpResult.Failure;
 import org.faktorips.runtime.internal.toc.CustomTocEntryObject;
 import org.faktorips.runtime.internal.toc.EnumContentTocEntry;
 import org.faktorips.runtime.internal.toc.GenerationTocEntry;
@@ -59,6 +68,73 @@ public class AbstractTocBasedRuntimeRepositoryTest {
         assertThat(allEnumContentClasses, hasItems(EnumA.class, EnumB.class, EnumC.class, RealEnum.class));
     }
 
+    @Test
+    public void testWarmUp() {
+        ClassLoader cl = getClass().getClassLoader();
+        BoundedCacheFactory cacheFactory = new BoundedCacheFactory();
+        ClassloaderRuntimeRepository repository = ClassloaderRuntimeRepository
+                .create("org/faktorips/runtime/testrepository/faktorips-repository-toc.xml", cl, cacheFactory);
+
+        WarmUpResult result = repository.warmUp(WarmUpOptions.defaults());
+
+        assertThat(result.isSuccessful(), is(true));
+        assertThat(result.getLoadedCount(EntryType.ENUM_CONTENTS), is(0));
+        assertThat(result.getLoadedCount(EntryType.TABLES), is(2));
+        assertThat(result.getLoadedCount(EntryType.PRODUCT_COMPONENTS), is(3));
+        assertThat(result.getLoadedCount(EntryType.PRODUCT_COMPONENT_GENERATIONS), is(5));
+        assertThat(cacheFactory.getStatistics(IProductComponent.class).getSize(), is(3L));
+        assertThat(cacheFactory.getStatistics(IProductComponentGeneration.class).getSize(), is(5L));
+        assertThat(cacheFactory.getStatistics(ITable.class).getSize(), is(2L));
+    }
+
+    @Test
+    public void testWarmUp_EntryTypes() {
+        ClassLoader cl = getClass().getClassLoader();
+        BoundedCacheFactory cacheFactory = new BoundedCacheFactory();
+        ClassloaderRuntimeRepository repository = ClassloaderRuntimeRepository
+                .create("org/faktorips/runtime/testrepository/faktorips-repository-toc.xml", cl, cacheFactory);
+
+        WarmUpResult result = repository
+                .warmUp(WarmUpOptions.builder().entryTypes(EntryType.PRODUCT_COMPONENTS).build());
+
+        assertThat(result.getLoadedCount(EntryType.PRODUCT_COMPONENTS), is(3));
+        assertThat(result.getLoadedCount(EntryType.TABLES), is(0));
+        assertThat(cacheFactory.getStatistics(IProductComponent.class).getSize(), is(3L));
+        assertThat(cacheFactory.getStatistics(ITable.class).getSize(), is(0L));
+    }
+
+    @Test
+    public void testWarmUp_Progress() {
+        ClassloaderRuntimeRepository repository = ClassloaderRuntimeRepository
+                .create("org/faktorips/runtime/testrepository/faktorips-repository-toc.xml");
+        List<String> progress = new ArrayList<>();
+
+        repository.warmUp(WarmUpOptions.builder().executor(Runnable::run)
+                .entryTypes(EntryType.TABLES, EntryType.PRODUCT_COMPONENTS)
+                .progressListener((type, completed, total) -> progress.add(type + " " + completed + "/" + total))
+                .build());
+
+        assertThat(progress, is(Arrays.asList("TABLES 1/5", "TABLES 2/5", "PRODUCT_COMPONENTS 3/5",
+                "PRODUCT_COMPONENTS 4/5", "PRODUCT_COMPONENTS 5/5")));
+    }
+
+    @Test
+    public void testWarmUp_Failures() {
+        ClassloaderRuntimeRepository repository = ClassloaderRuntimeRepository
+                .create("org/faktorips/runtime/internal/WarmUpTestToc.xml");
+
+        WarmUpResult result = repository.warmUp(WarmUpOptions.defaults());
+
+        assertThat(result.isSuccessful(), is(false));
+        assertThat(result.getLoadedCount(EntryType.PRODUCT_COMPONENTS), is(1));
+        assertThat(result.getLoadedCount(EntryType.PRODUCT_COMPONENT_GENERATIONS), is(1));
+        assertThat(result.getFailures().size(), is(1));
+        Failure failure = result.getFailures().get(0);
+        assertThat(failure.getType(), is(EntryType.PRODUCT_COMPONENTS));
+        assertThat(failure.getId(), is("motor.Missing"));
+        assertThat(failure.getException(), is(instanceOf(RuntimeException.class)));
+    }
+
     private static final class EnumA {
         // an enum
     }
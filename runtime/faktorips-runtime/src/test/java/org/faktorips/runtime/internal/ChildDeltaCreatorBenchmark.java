@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.faktorips.runtime.IDeltaComputationOptions.ComputationMethod;
+import org.faktorips.runtime.internal.AbstractModelObjectDeltaChildrenTest.TestModelObject;
+import org.faktorips.runtime.internal.AbstractModelObjectDeltaChildrenTest.TestOptions;
+import org.faktorips.runtime.internal.delta.ChildDeltaCreator;
+import org.faktorips.runtime.model.type.AssociationKind;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the delta computation {@link ComputationMethod#BY_OBJECT by object} of a composition with
+ * {@link #children} children, comparing the objects pairwise with
+ * {@link TestOptions#isSame(org.faktorips.runtime.IModelObject, org.faktorips.runtime.IModelObject)
+ * isSame} and by an {@link TestOptions#getIdentityKeyExtractor(String) identity key}. The reference
+ * objects are the original objects with the first object moved to the end, every 100th object
+ * removed and as many new objects added.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChildDeltaCreatorBenchmark {
+
+    @Param({ "100", "10000" })
+    private int children;
+
+    @Param({ "false", "true" })
+    private boolean identityKey;
+
+    private List<TestModelObject> originals;
+
+    private List<TestModelObject> refObjects;
+
+    private ChildDeltaCreator childDeltaCreator;
+
+    @Setup
+    public void setUp() {
+        originals = new ArrayList<>(children);
+        refObjects = new ArrayList<>(children);
+        for (int i = 0; i < children; i++) {
+            originals.add(new TestModelObject("Child" + i));
+            if (i % 100 == 0) {
+                refObjects.add(new TestModelObject("NewChild" + i));
+            } else {
+                refObjects.add(new TestModelObject("Child" + i));
+            }
+        }
+        refObjects.add(refObjects.remove(0));
+        TestOptions options = new TestOptions(ComputationMethod.BY_OBJECT);
+        if (identityKey) {
+            options.withIdentityKey();
+        }
+        childDeltaCreator = new ChildDeltaCreator("children", AssociationKind.Composition, options);
+    }
+
+    @Benchmark
+    public ModelObjectDelta createChildDeltas() {
+        ModelObjectDelta delta = AbstractModelObjectDeltaChildrenTest.emptyParentDelta();
+        childDeltaCreator.createChildDeltas(delta, originals, refObjects);
+        return delta;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ChildDeltaCreatorBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+}
@@ -13,8 +13,11 @@ package org.faktorips.runtime.internal;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
+import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.TimeZone;
 
 import org.junit.Test;
 
@@ -54,4 +57,43 @@ public class DateTimeTest {
         assertEquals("2005-05-01 09:09:09", dt.toString());
     }
 
+    @Test
+    public void testToTimeInMillisecs_Cached() {
+        DateTime dt = new DateTime(2005, 5, 1, 10, 10, 10);
+        TimeZone berlin = TimeZone.getTimeZone("Europe/Berlin");
+        TimeZone newYork = TimeZone.getTimeZone("America/New_York");
+
+        assertEquals(dt.toDate(berlin).getTime(), dt.toTimeInMillisecs(berlin));
+        assertEquals(dt.toDate(berlin).getTime(), dt.toTimeInMillisecs(TimeZone.getTimeZone("Europe/Berlin")));
+        assertEquals(dt.toDate(newYork).getTime(), dt.toTimeInMillisecs(newYork));
+        assertEquals(dt.toDate(berlin).getTime(), dt.toTimeInMillisecs(berlin));
+    }
+
+    @Test
+    public void testToTimeInMillisecs_ZoneChangedAfterCall() {
+        DateTime dt = new DateTime(2005, 5, 1);
+        TimeZone zone = TimeZone.getTimeZone("Europe/Berlin");
+        long berlinMillisecs = dt.toTimeInMillisecs(zone);
+
+        zone.setRawOffset(0);
+
+        assertEquals(dt.toDate(zone).getTime(), dt.toTimeInMillisecs(zone));
+        assertEquals(berlinMillisecs + 60 * 60 * 1000L, dt.toTimeInMillisecs(zone));
+    }
+
+    @Test
+    public void testToTimeInMillisecs_LocalDate() {
+        for (String zoneId : Arrays.asList("UTC", "Europe/Berlin", "America/Sao_Paulo", "America/Havana",
+                "Asia/Tehran", "Pacific/Apia", "Australia/Lord_Howe")) {
+            TimeZone zone = TimeZone.getTimeZone(zoneId);
+            for (LocalDate date = LocalDate.of(2010, 1, 1); date.getYear() < 2013; date = date.plusDays(1)) {
+                GregorianCalendar cal = new GregorianCalendar(zone);
+                cal.clear();
+                cal.set(date.getYear(), date.getMonthValue() - 1, date.getDayOfMonth());
+
+                assertEquals(zoneId + " " + date, cal.getTimeInMillis(), DateTime.toTimeInMillisecs(date, zone));
+            }
+        }
+    }
+
 }
@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.faktorips.runtime.XmlAbstractTestCase;
+import org.faktorips.runtime.internal.toc.GenerationTocEntry;
+import org.faktorips.runtime.internal.toc.ProductCmptTocEntry;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Element;
+
+public class GenerationElementCacheTest extends XmlAbstractTestCase {
+
+    private static final String RESOURCE = "motor/MotorPlus.ipsproduct";
+
+    private final AtomicInteger parseCount = new AtomicInteger();
+
+    private Element productCmptElement;
+
+    private GenerationElementCache cache;
+
+    private ProductCmptTocEntry productCmptTocEntry;
+
+    @Before
+    public void setUp() {
+        productCmptElement = getTestDocument().getDocumentElement();
+        cache = new GenerationElementCache(resource -> {
+            assertThat(resource, is(RESOURCE));
+            parseCount.incrementAndGet();
+            return productCmptElement;
+        });
+        productCmptTocEntry = new ProductCmptTocEntry("motor.MotorPlus", "motor.MotorPlus", "motor.MotorPlus",
+                "2005-01", RESOURCE, "MotorProduct", "MotorProductGen", null);
+    }
+
+    @Test
+    public void testGetGenerationElements() {
+        Map<DateTime, Element> genElements = GenerationElementCache.getGenerationElements(productCmptElement);
+
+        assertThat(genElements.size(), is(3));
+        assertThat(genElements.get(new DateTime(2006, 1, 1)).getAttribute("validFrom"), is("2006-01-01"));
+    }
+
+    @Test
+    public void testGetGenerationElement() {
+        Element genElement = cache.getGenerationElement(createTocEntry(new DateTime(2006, 1, 1)));
+
+        assertThat(genElement.getAttribute("validFrom"), is("2006-01-01"));
+        Element attributeValue = (Element)genElement.getElementsByTagName("AttributeValue").item(0);
+        assertThat(attributeValue.getAttribute("value"), is("110"));
+    }
+
+    @Test
+    public void testGetGenerationElement_ParsedOnlyOnce() {
+        cache.getGenerationElement(createTocEntry(new DateTime(2005, 1, 1)));
+        cache.getGenerationElement(createTocEntry(new DateTime(2006, 1, 1)));
+        cache.getGenerationElement(createTocEntry(new DateTime(2007, 1, 1)));
+        cache.getGenerationElement(createTocEntry(new DateTime(2007, 1, 1)));
+
+        assertThat(parseCount.get(), is(1));
+    }
+
+    @Test
+    public void testGetGenerationElement_ReturnsCopyInOwnDocument() {
+        Element genElement1 = cache.getGenerationElement(createTocEntry(new DateTime(2005, 1, 1)));
+        Element genElement2 = cache.getGenerationElement(createTocEntry(new DateTime(2005, 1, 1)));
+
+        assertThat(genElement1, is(not(sameInstance(genElement2))));
+        assertThat(genElement1.getOwnerDocument(), is(not(sameInstance(productCmptElement.getOwnerDocument()))));
+        assertThat(genElement1.getOwnerDocument(), is(not(sameInstance(genElement2.getOwnerDocument()))));
+        assertThat(genElement1.getOwnerDocument().getDocumentElement(), is(sameInstance(genElement1)));
+    }
+
+    @Test
+    public void testGetGenerationElement_DetachedFromProductCmptDocument() {
+        cache.getGenerationElement(createTocEntry(new DateTime(2005, 1, 1)));
+        while (productCmptElement.hasChildNodes()) {
+            productCmptElement.removeChild(productCmptElement.getFirstChild());
+        }
+
+        Element genElement = cache.getGenerationElement(createTocEntry(new DateTime(2006, 1, 1)));
+
+        assertThat(genElement.getAttribute("validFrom"), is("2006-01-01"));
+        assertThat(genElement.getParentNode(), is(sameInstance(genElement.getOwnerDocument())));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testGetGenerationElement_UnknownValidFrom() {
+        cache.getGenerationElement(createTocEntry(new DateTime(2008, 1, 1)));
+    }
+
+    private GenerationTocEntry createTocEntry(DateTime validFrom) {
+        return new GenerationTocEntry(productCmptTocEntry, validFrom, "MotorProductGen", RESOURCE);
+    }
+
+}
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MappedColumnStoreTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testWriteAndMap() throws Exception {
+        MappedColumnStore.Writer writer = new MappedColumnStore.Writer();
+        writer.addRow(Arrays.asList("a", "1", null));
+        writer.addRow(Arrays.asList("äöü", "1", ""));
+        writer.addRow(Arrays.asList("a", "2", "x"));
+
+        MappedColumnStore store = writer.writeAndMap(temporaryFolder.newFile());
+
+        assertEquals(3, store.getRowCount());
+        assertEquals(3, store.getColumnCount());
+        assertEquals(Arrays.asList("a", "1", null), store.getRow(0));
+        assertEquals(Arrays.asList("äöü", "1", ""), store.getRow(1));
+        assertEquals("x", store.getValue(2, 2));
+        assertEquals("2", store.getValue(2, 1));
+    }
+
+    @Test
+    public void testWriteAndMap_DistinctValuesStoredOnce() throws Exception {
+        MappedColumnStore.Writer writer = new MappedColumnStore.Writer();
+        for (int i = 0; i < 1000; i++) {
+            writer.addRow(Arrays.asList("some rather long value", "another rather long value"));
+        }
+        File file = temporaryFolder.newFile();
+
+        MappedColumnStore store = writer.writeAndMap(file);
+
+        assertEquals(16 + 2 * 4 + 1000 * 2 * 4 + 22 + 25, file.length());
+        assertEquals("another rather long value", store.getValue(999, 1));
+    }
+
+    @Test
+    public void testWriteAndMap_Empty() throws Exception {
+        MappedColumnStore store = new MappedColumnStore.Writer().writeAndMap(temporaryFolder.newFile());
+
+        assertEquals(0, store.getRowCount());
+        assertEquals(0, store.getColumnCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddRow_DifferentColumnCount() {
+        MappedColumnStore.Writer writer = new MappedColumnStore.Writer();
+        writer.addRow(Arrays.asList("a", "b"));
+
+        writer.addRow(Arrays.asList("a"));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetValue_InvalidRow() throws Exception {
+        MappedColumnStore.Writer writer = new MappedColumnStore.Writer();
+        writer.addRow(Arrays.asList("a"));
+
+        writer.writeAndMap(temporaryFolder.newFile()).getValue(1, 0);
+    }
+
+    @Test
+    public void testGetValue_Null() throws Exception {
+        MappedColumnStore.Writer writer = new MappedColumnStore.Writer();
+        writer.addRow(Arrays.asList((String)null));
+
+        assertThat(writer.writeAndMap(temporaryFolder.newFile()).getValue(0, 0), is(nullValue()));
+    }
+
+}
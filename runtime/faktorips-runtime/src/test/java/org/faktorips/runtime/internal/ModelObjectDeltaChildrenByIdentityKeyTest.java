@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.faktorips.runtime.IModelObject;
+import org.faktorips.runtime.IModelObjectDelta;
+import org.junit.Test;
+
+/**
+ * Runs all tests of {@link ModelObjectDeltaChildrenByObjectTest} with options providing an
+ * identity key extractor, so the objects are matched by their keys instead of pairwise comparison.
+ */
+public class ModelObjectDeltaChildrenByIdentityKeyTest extends ModelObjectDeltaChildrenByObjectTest {
+
+    @Override
+    TestOptions computationByObject() {
+        return new NoPairwiseComparisonOptions().withIdentityKey();
+    }
+
+    @Override
+    TestOptions computationByObjectIgnoreMoved() {
+        return new NoPairwiseComparisonOptions() {
+            @Override
+            public boolean ignoreMoved() {
+                return true;
+            }
+        }.withIdentityKey();
+    }
+
+    @Test
+    public void testCreateChildDeltas_toMany_DuplicateKeys() {
+        ModelObjectDelta delta = emptyParentDelta();
+        TestModelObject oldChild1 = new TestModelObject("Child1");
+        TestModelObject oldChild2 = new TestModelObject("Child2");
+        TestModelObject oldChild3 = new TestModelObject("Child1");
+        TestModelObject newChild1 = new TestModelObject("Child2");
+        TestModelObject newChild2 = new TestModelObject("Child1");
+        TestModelObject newChild3 = new TestModelObject("Child1");
+
+        ModelObjectDelta.createChildDeltas(delta, asList(oldChild1, oldChild2, oldChild3),
+                asList(newChild1, newChild2, newChild3), "children", computationByObject());
+
+        // like a pairwise comparison: the same position or else the first same object is matched
+        List<IModelObjectDelta> childDeltas = delta.getChildDeltas();
+        assertEquals(2, childDeltas.size());
+        assertTrue(childDeltas.get(0).isMoved());
+        assertEquals(oldChild1, childDeltas.get(0).getOriginalObject());
+        assertEquals(newChild2, childDeltas.get(0).getReferenceObject());
+        assertTrue(childDeltas.get(1).isMoved());
+        assertEquals(oldChild2, childDeltas.get(1).getOriginalObject());
+        assertEquals(newChild1, childDeltas.get(1).getReferenceObject());
+        assertFalse(childDeltas.stream().anyMatch(IModelObjectDelta::isAdded));
+    }
+
+    /**
+     * Options that fail if objects are compared pairwise instead of using the identity key.
+     */
+    private static class NoPairwiseComparisonOptions extends TestOptions {
+
+        NoPairwiseComparisonOptions() {
+            super(ComputationMethod.BY_OBJECT);
+        }
+
+        @Override
+        public boolean isSame(IModelObject object1, IModelObject object2) {
+            throw new AssertionError("Objects must be compared by identity key");
+        }
+    }
+
+}
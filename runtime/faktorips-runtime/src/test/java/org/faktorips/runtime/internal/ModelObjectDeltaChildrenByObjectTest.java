@@ -728,11 +728,11 @@ public class ModelObjectDeltaChildrenByObjectTest extends AbstractModelObjectDel
         assertEquals(0, childDeltas.size());
     }
 
-    private static TestOptions computationByObject() {
+    TestOptions computationByObject() {
         return new TestOptions(IDeltaComputationOptions.ComputationMethod.BY_OBJECT);
     }
 
-    private static TestOptions computationByObjectIgnoreMoved() {
+    TestOptions computationByObjectIgnoreMoved() {
         return new TestOptions(IDeltaComputationOptions.ComputationMethod.BY_OBJECT) {
             @Override
             public boolean ignoreMoved() {
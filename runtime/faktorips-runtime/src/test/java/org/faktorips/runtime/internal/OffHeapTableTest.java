@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.faktorips.values.Decimal;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class OffHeapTableTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private OffHeapTestTable loadTable() throws Exception {
+        OffHeapTestTable table = new OffHeapTestTable();
+        try (InputStream is = TableTest.class.getResourceAsStream("TableTest.xml")) {
+            table.initFromXml(is, null, "tables.OffHeap");
+        }
+        return table;
+    }
+
+    @Test
+    public void testInitFromXml() throws Exception {
+        OffHeapTestTable table = loadTable();
+
+        assertThat(table.rows, is(not(instanceOf(ArrayList.class))));
+        assertEquals("tables.OffHeap", table.getName());
+        assertEquals(6, table.getAllRows().size());
+        TestTableRow row = table.getAllRows().get(0);
+        assertThat(row.getCompany(), is(nullValue()));
+        assertEquals(Integer.valueOf(0), row.getGender());
+        assertEquals(Decimal.valueOf("0.1"), row.getRate());
+        row = table.getAllRows().get(5);
+        assertEquals("BBV", row.getCompany());
+        assertEquals(Integer.valueOf(1), row.getGender());
+        assertEquals(Decimal.valueOf("0.35"), row.getRate());
+    }
+
+    @Test
+    public void testFindRow() throws Exception {
+        OffHeapTestTable table = loadTable();
+
+        assertEquals("NV", table.findRow(Decimal.valueOf("0.25")).getCompany());
+        assertThat(table.findRow(Decimal.valueOf("0.5")), is(nullValue()));
+        assertSame(TestTableRow.NULL_ROW, table.findRowNullRowReturnedForEmptyResult(Decimal.valueOf("0.5")));
+        assertEquals("KQV", table.findExistingRow(Decimal.valueOf("0.15")).getCompany());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFindExistingRow_NotFound() throws Exception {
+        loadTable().findExistingRow(Decimal.valueOf("0.5"));
+    }
+
+    @Test
+    public void testFindRows() throws Exception {
+        OffHeapTestTable table = loadTable();
+
+        List<String> companies = table.findRows(1).stream().map(TestTableRow::getCompany)
+                .collect(Collectors.toList());
+
+        assertEquals(Arrays.asList("KQV", "NV", "BBV"), companies);
+        assertThat(table.findRows(2).isEmpty(), is(true));
+    }
+
+    @Test
+    public void testInitFromRows() {
+        OffHeapTestTable table = new OffHeapTestTable();
+
+        table.initFromRows(Arrays.asList(Arrays.asList("A", "0", "0.1"), Arrays.asList(null, "1", null)), null,
+                "tables.OffHeap");
+
+        assertEquals(2, table.getAllRows().size());
+        assertEquals("A", table.findRow(Decimal.valueOf("0.1")).getCompany());
+        TestTableRow row = table.findRow(Decimal.NULL);
+        assertThat(row.getCompany(), is(nullValue()));
+        assertEquals(Integer.valueOf(1), row.getGender());
+    }
+
+    @Test
+    public void testConstructorWithContent() {
+        TestTableRow row = new TestTableRow("A", 0, Decimal.valueOf("0.1"));
+
+        OffHeapTestTable table = new OffHeapTestTable(Arrays.asList(row));
+
+        assertSame(row, table.findRow(Decimal.valueOf("0.1")));
+        assertSame(row, table.findRows(0).iterator().next());
+    }
+
+    @Test
+    public void testCreateStorageFile() throws Exception {
+        File storageFile = new File(temporaryFolder.getRoot(), "table.bin");
+        OffHeapTestTable table = new OffHeapTestTable() {
+            @Override
+            protected File createStorageFile() throws IOException {
+                return storageFile;
+            }
+        };
+
+        table.initFromRows(Arrays.asList(Arrays.asList("A", "0", "0.1")), null, "tables.OffHeap");
+
+        assertFalse(storageFile.exists());
+        assertEquals("A", table.findRow(Decimal.valueOf("0.1")).getCompany());
+    }
+
+}
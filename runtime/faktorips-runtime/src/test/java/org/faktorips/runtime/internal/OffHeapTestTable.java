@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+package org.faktorips.runtime.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.faktorips.runtime.IRuntimeRepository;
+import org.faktorips.runtime.internal.tableindex.KeyStructure;
+import org.faktorips.runtime.internal.tableindex.ResultStructure;
+import org.faktorips.runtime.internal.tableindex.UniqueResultStructure;
+import org.faktorips.values.Decimal;
+
+/**
+ * A table like it is generated for a table structure stored off heap, with a unique key on the
+ * rate and a non unique key on the gender.
+ * 
+ * @generated
+ */
+public class OffHeapTestTable extends OffHeapTable<TestTableRow> {
+
+    /**
+     * @generated
+     */
+    private KeyStructure<Decimal, UniqueResultStructure<Integer>, Integer> key0SearchStructure;
+
+    /**
+     * @generated
+     */
+    private KeyStructure<Integer, ResultStructure<Integer>, Integer> key1SearchStructure;
+
+    /**
+     * @generated
+     */
+    public OffHeapTestTable() {
+        super();
+        rows = new ArrayList<>();
+        init();
+    }
+
+    /**
+     * @generated
+     */
+    public OffHeapTestTable(List<TestTableRow> content) {
+        super();
+        rows = new ArrayList<>(content);
+        init();
+    }
+
+    /**
+     * @generated
+     */
+    @Override
+    protected TestTableRow createRow(List<String> values, IRuntimeRepository productRepository) {
+        String columnValue = values.get(0);
+        String company = columnValue == null ? null : columnValue;
+        columnValue = values.get(1);
+        Integer gender = columnValue == null ? null
+                : IpsStringUtils.isEmpty(columnValue) ? null : Integer.valueOf(columnValue);
+        columnValue = values.get(2);
+        Decimal rate = columnValue == null ? Decimal.NULL : Decimal.valueOf(columnValue);
+        return new TestTableRow(company, gender, rate);
+    }
+
+    /**
+     * @generated
+     */
+    @Override
+    protected final void initKeyMaps() {
+        key0SearchStructure = KeyStructure.create();
+        key1SearchStructure = KeyStructure.create();
+        for (int rowIndex = 0; rowIndex < rows.size(); rowIndex++) {
+            TestTableRow row = rows.get(rowIndex);
+            key0SearchStructure.put(row.getRate(), UniqueResultStructure.createWith(rowIndex));
+            key1SearchStructure.put(row.getGender(), ResultStructure.createWith(rowIndex));
+        }
+    }
+
+    /**
+     * @generated
+     */
+    public TestTableRow findRow(Decimal rate) {
+        return getRow(key0SearchStructure.get(rate).getUnique(null));
+    }
+
+    /**
+     * @generated
+     */
+    public TestTableRow findRowNullRowReturnedForEmptyResult(Decimal rate) {
+        return getRow(key0SearchStructure.get(rate).getUnique(null), TestTableRow.NULL_ROW);
+    }
+
+    /**
+     * @generated
+     */
+    public TestTableRow findExistingRow(Decimal rate) {
+        try {
+            return getRow(key0SearchStructure.get(rate).getUnique());
+        } catch (NoSuchElementException e) {
+            throw new IllegalArgumentException("No row found in " + getName() + " for rate = " + rate);
+        }
+    }
+
+    /**
+     * @generated
+     */
+    public Set<TestTableRow> findRows(Integer gender) {
+        return getRows(key1SearchStructure.get(gender).get());
+    }
+
+}
@@ -11,6 +11,7 @@
 package org.faktorips.runtime.internal;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
@@ -20,6 +21,7 @@ import java.util.Calendar;
 import java.util.GregorianCalendar;
 import java.util.List;
 
+import org.faktorips.runtime.GenerationId;
 import org.faktorips.runtime.XmlAbstractTestCase;
 import org.faktorips.runtime.internal.toc.AbstractTocEntryFactory;
 import org.faktorips.runtime.internal.toc.GenerationTocEntry;
@@ -108,6 +110,99 @@ public class ProductCmptTocEntryTest extends XmlAbstractTestCase {
         assertSame(genEntry1, entry.getGenerationEntry(new GregorianCalendar(2006, 0, 1)));
     }
 
+    @Test
+    public void testGetGenerationEntry_Millis() {
+        ProductCmptTocEntry entry = newEntry();
+        assertNull(entry.getGenerationEntry(new GregorianCalendar(2005, 0, 1).getTimeInMillis()));
+        GenerationTocEntry genEntry0 = new GenerationTocEntry(entry, new DateTime(2005, 1, 1), "class", "resource");
+        GenerationTocEntry genEntry1 = new GenerationTocEntry(entry, new DateTime(2006, 1, 1), "class", "resource");
+        entry.setGenerationEntries(Arrays.asList(genEntry1, genEntry0));
+
+        assertNull(entry.getGenerationEntry(new GregorianCalendar(2004, 11, 31).getTimeInMillis()));
+        assertSame(genEntry0, entry.getGenerationEntry(new GregorianCalendar(2005, 0, 1).getTimeInMillis()));
+        assertSame(genEntry0, entry.getGenerationEntry(new GregorianCalendar(2005, 11, 31).getTimeInMillis()));
+        assertSame(genEntry1, entry.getGenerationEntry(new GregorianCalendar(2006, 0, 1).getTimeInMillis()));
+        assertSame(genEntry1, entry.getGenerationEntry(Long.MAX_VALUE - 1));
+    }
+
+    @Test
+    public void testGetGenerationEntry_DateTime() {
+        ProductCmptTocEntry entry = newEntry();
+        GenerationTocEntry genEntry0 = new GenerationTocEntry(entry, new DateTime(2005, 1, 1), "class", "resource");
+        GenerationTocEntry genEntry1 = new GenerationTocEntry(entry, new DateTime(2006, 1, 1), "class", "resource");
+        entry.setGenerationEntries(Arrays.asList(genEntry0, genEntry1));
+
+        assertSame(genEntry0, entry.getGenerationEntry(new DateTime(2005, 1, 1)));
+        assertSame(genEntry1, entry.getGenerationEntry(new DateTime(2006, 1, 1)));
+        assertNull(entry.getGenerationEntry(new DateTime(2005, 6, 1)));
+        assertNull(entry.getGenerationEntry(new DateTime(2007, 1, 1)));
+    }
+
+    @Test
+    public void testGetNextAndPreviousGenerationEntry() {
+        ProductCmptTocEntry entry = newEntry();
+        GenerationTocEntry genEntry0 = new GenerationTocEntry(entry, new DateTime(2005, 1, 1), "class", "resource");
+        GenerationTocEntry genEntry1 = new GenerationTocEntry(entry, new DateTime(2006, 1, 1), "class", "resource");
+        GenerationTocEntry genEntry2 = new GenerationTocEntry(entry, new DateTime(2007, 1, 1), "class", "resource");
+        entry.setGenerationEntries(Arrays.asList(genEntry2, genEntry0, genEntry1));
+
+        assertSame(genEntry1, entry.getNextGenerationEntry(new GregorianCalendar(2005, 0, 1)));
+        assertSame(genEntry2, entry.getNextGenerationEntry(new GregorianCalendar(2006, 0, 1)));
+        assertNull(entry.getNextGenerationEntry(new GregorianCalendar(2007, 0, 1)));
+        assertSame(genEntry0, entry.getNextGenerationEntry(new GregorianCalendar(2004, 0, 1)));
+
+        assertNull(entry.getPreviousGenerationEntry(new GregorianCalendar(2005, 0, 1)));
+        assertSame(genEntry0, entry.getPreviousGenerationEntry(new GregorianCalendar(2006, 0, 1)));
+        assertSame(genEntry1, entry.getPreviousGenerationEntry(new GregorianCalendar(2007, 0, 1)));
+        assertSame(genEntry2, entry.getPreviousGenerationEntry(new GregorianCalendar(2008, 0, 1)));
+
+        assertSame(genEntry2, entry.getLatestGenerationEntry());
+        assertNull(newEntry().getLatestGenerationEntry());
+    }
+
+    @Test
+    public void testSetGenerationEntries_SameValidFrom() {
+        ProductCmptTocEntry entry = newEntry();
+        GenerationTocEntry genEntry0 = new GenerationTocEntry(entry, new DateTime(2005, 1, 1), "class0", "resource");
+        GenerationTocEntry genEntry1 = new GenerationTocEntry(entry, new DateTime(2005, 1, 1), "class1", "resource");
+        GenerationTocEntry genEntry2 = new GenerationTocEntry(entry, new DateTime(2004, 1, 1), "class2", "resource");
+        entry.setGenerationEntries(Arrays.asList(genEntry0, genEntry2, genEntry1));
+
+        assertEquals(Arrays.asList(genEntry1, genEntry2), entry.getGenerationEntries());
+        assertEquals(2, entry.getNumberOfGenerationEntries());
+        assertSame(genEntry1, entry.getGenerationEntry(new GregorianCalendar(2005, 0, 1)));
+    }
+
+    @Test
+    public void testEquals_GenerationEntries() {
+        ProductCmptTocEntry entry1 = newEntry();
+        ProductCmptTocEntry entry2 = newEntry();
+        GenerationTocEntry genEntry0 = new GenerationTocEntry(entry1, new DateTime(2005, 1, 1), "class", "resource");
+        GenerationTocEntry genEntry1 = new GenerationTocEntry(entry1, new DateTime(2006, 1, 1), "class", "resource");
+
+        entry1.setGenerationEntries(Arrays.asList(genEntry0, genEntry1));
+        entry2.setGenerationEntries(Arrays.asList(genEntry1, genEntry0));
+        assertEquals(entry1, entry2);
+        assertEquals(entry1.hashCode(), entry2.hashCode());
+
+        entry2.setGenerationEntries(Arrays.asList(genEntry0));
+        assertFalse(entry1.equals(entry2));
+    }
+
+    @Test
+    public void testGetGenerationId() {
+        ProductCmptTocEntry entry = newEntry();
+        GenerationTocEntry genEntry = new GenerationTocEntry(entry, new DateTime(2005, 1, 1), "class", "resource");
+
+        assertEquals(new GenerationId("MotorPolicy", new DateTime(2005, 1, 1)), genEntry.getGenerationId());
+        assertSame(genEntry.getGenerationId(), genEntry.getGenerationId());
+    }
+
+    private ProductCmptTocEntry newEntry() {
+        return new ProductCmptTocEntry("MotorPolicy", "MotorPolicy", "MotorProduct", "2005-01",
+                "MotorPolice.ipsproduct", "java.lang.String", "java.lang.String", new DateTime(2010, 1, 1));
+    }
+
     @Test
     public void testToString() {
         TocEntryObject entry = new ProductCmptTocEntry("MotorProduct 2005-01", "motor.MotorProduct 2005-01",
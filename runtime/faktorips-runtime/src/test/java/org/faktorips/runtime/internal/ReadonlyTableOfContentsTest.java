@@ -12,6 +12,9 @@ package org.faktorips.runtime.internal;
 
 import static org.junit.Assert.assertEquals;
 
+import java.io.InputStream;
+import java.util.HashSet;
+
 import org.faktorips.runtime.XmlAbstractTestCase;
 import org.faktorips.runtime.internal.toc.AbstractReadonlyTableOfContents;
 import org.faktorips.runtime.internal.toc.ReadonlyTableOfContents;
@@ -38,4 +41,23 @@ public class ReadonlyTableOfContentsTest extends XmlAbstractTestCase {
                 toc.getEnumContentTocEntry("org.faktorips.sample.Option3").getXmlResourceName());
     }
 
+    @Test
+    public void testInitFromXml_Stream() throws Exception {
+        ReadonlyTableOfContents domToc = new ReadonlyTableOfContents();
+        domToc.initFromXml(getTestDocument().getDocumentElement());
+        ReadonlyTableOfContents toc = new ReadonlyTableOfContents();
+
+        try (InputStream is = getClass().getResourceAsStream(getClass().getSimpleName() + ".xml")) {
+            toc.initFromXml(is);
+        }
+
+        assertEquals(domToc.getProductCmptTocEntries(), toc.getProductCmptTocEntries());
+        assertEquals(1, toc.getProductCmptTocEntries().get(0).getGenerationEntries().size());
+        assertEquals(domToc.getModelTypeTocEntries(), toc.getModelTypeTocEntries());
+        assertEquals(new HashSet<>(domToc.getEnumContentTocEntries()), new HashSet<>(toc.getEnumContentTocEntries()));
+        assertEquals("org/faktorips/sample/OptionContent2.xml",
+                toc.getEnumContentTocEntry("org.faktorips.sample.Option2").getXmlResourceName());
+        assertEquals(domToc.getProductDataVersion(), toc.getProductDataVersion());
+    }
+
 }
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.faktorips.runtime.internal.toc.ReadonlyTableOfContents;
+import org.junit.Before;
+import org.junit.Test;
+import org.xml.sax.InputSource;
+
+public class RepositorySnapshotTest {
+
+    private static final String TOC = "org/faktorips/runtime/internal/RepositorySnapshotTest-toc.xml";
+
+    private static final String TABLE = "org/faktorips/runtime/internal/TableTest.xml";
+
+    private static final String INTERNATIONAL_ENUM = "org/faktorips/runtime/internal/EnumSaxHandlerTestInternational.xml";
+
+    private static final String ENUM_WITH_NULL = "org/faktorips/runtime/internal/EnumSaxHandlerTestWithNull.xml";
+
+    private static final String EMPTY_ENUM = "org/faktorips/runtime/internal/EmptyEnum.xml";
+
+    private final ClassLoader classLoader = getClass().getClassLoader();
+
+    private RepositorySnapshot snapshot;
+
+    @Before
+    public void setUp() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new RepositorySnapshotWriter(classLoader).write(TOC, out);
+        snapshot = new RepositorySnapshot(ByteBuffer.wrap(out.toByteArray()));
+    }
+
+    @Test
+    public void testGetSnapshotResourcePath() {
+        assertThat(RepositorySnapshot.getSnapshotResourcePath("org/sample/faktorips-repository-toc.xml"),
+                is("org/sample/faktorips-repository-toc.snapshot"));
+        assertThat(RepositorySnapshot.getSnapshotResourcePath("org/sample/toc"), is("org/sample/toc.snapshot"));
+    }
+
+    @Test
+    public void testGetTocChecksum() throws IOException {
+        try (InputStream is = classLoader.getResourceAsStream(TOC)) {
+            assertThat(snapshot.getTocChecksum(), is(RepositorySnapshot.computeChecksum(is)));
+        }
+    }
+
+    @Test
+    public void testGetContentChecksum() throws IOException {
+        try (InputStream is = classLoader.getResourceAsStream(TABLE)) {
+            assertThat(snapshot.getContentChecksum(TABLE), is(RepositorySnapshot.computeChecksum(is)));
+        }
+        try (InputStream is = classLoader.getResourceAsStream(ENUM_WITH_NULL)) {
+            assertThat(snapshot.getContentChecksum(ENUM_WITH_NULL), is(RepositorySnapshot.computeChecksum(is)));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetContentChecksum_Unknown() {
+        snapshot.getContentChecksum("unknown.xml");
+    }
+
+    @Test
+    public void testCreateTocElement() throws Exception {
+        ReadonlyTableOfContents xmlToc = new ReadonlyTableOfContents(classLoader);
+        try (InputStream is = classLoader.getResourceAsStream(TOC)) {
+            xmlToc.initFromXml(DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(is)
+                    .getDocumentElement());
+        }
+        ReadonlyTableOfContents snapshotToc = new ReadonlyTableOfContents(classLoader);
+
+        snapshotToc.initFromXml(snapshot.createTocElement());
+
+        assertThat(snapshotToc.getTableTocEntries(), is(xmlToc.getTableTocEntries()));
+        assertThat(snapshotToc.getEnumContentTocEntries(), is(xmlToc.getEnumContentTocEntries()));
+        assertThat(snapshotToc.getEnumContentTocEntries().size(), is(4));
+    }
+
+    @Test
+    public void testGetTableRows() {
+        assertThat(snapshot.containsTable(TABLE), is(true));
+        List<List<String>> rows = new ArrayList<>();
+        for (List<String> row : snapshot.getTableRows(TABLE)) {
+            rows.add(new ArrayList<>(row));
+        }
+
+        assertThat(rows.size(), is(6));
+        assertThat(rows.get(0), is(Arrays.asList(null, "0", "0.1")));
+        assertThat(rows.get(1), is(Arrays.asList("KQV", "1", "0.15")));
+        assertThat(rows.get(5), is(Arrays.asList("BBV", "1", "0.35")));
+    }
+
+    @Test
+    public void testGetTableRows_SameAsXml() throws Exception {
+        TestTable xmlTable = new TestTable();
+        xmlTable.initFromXml(classLoader.getResourceAsStream(TABLE), null, "tables.TestTable");
+        TestTable snapshotTable = new TestTable();
+
+        snapshotTable.initFromRows(snapshot.getTableRows(TABLE), null, "tables.TestTable");
+
+        assertThat(snapshotTable.getAllRows().toString(), is(xmlTable.getAllRows().toString()));
+        assertThat(snapshotTable.getName(), is("tables.TestTable"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetTableRows_Unknown() {
+        assertThat(snapshot.containsTable("unknown.xml"), is(false));
+
+        snapshot.getTableRows("unknown.xml");
+    }
+
+    @Test
+    public void testGetEnumValues() throws Exception {
+        assertThat(snapshot.getEnumValues(INTERNATIONAL_ENUM), is(parseEnumValues(INTERNATIONAL_ENUM)));
+        assertThat(snapshot.getEnumValues(ENUM_WITH_NULL), is(parseEnumValues(ENUM_WITH_NULL)));
+        assertThat(snapshot.getEnumValues(ENUM_WITH_NULL).get(0).get(0), is(nullValue()));
+        assertThat(snapshot.getEnumValues(EMPTY_ENUM).isEmpty(), is(true));
+    }
+
+    @Test
+    public void testContainsEnumContent() {
+        assertThat(snapshot.containsEnumContent(INTERNATIONAL_ENUM), is(true));
+        assertThat(snapshot.containsEnumContent(""), is(false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNewSnapshot_NoSnapshot() {
+        new RepositorySnapshot(ByteBuffer.wrap(new byte[32]));
+    }
+
+    private List<List<Object>> parseEnumValues(String resource) throws Exception {
+        EnumSaxHandler saxHandler = new EnumSaxHandler();
+        try (InputStream is = classLoader.getResourceAsStream(resource)) {
+            SAXParserFactory.newInstance().newSAXParser().parse(new InputSource(is), saxHandler);
+        }
+        return saxHandler.getEnumValueList();
+    }
+
+}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.xml.sax.InputSource;
+
+public class StaxElementReaderTest {
+
+    private static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<!-- header -->\n"
+            + "<ProductCmpt validFrom=\"2020-01-01\" xsi:type=\"a &amp; b\">\n"
+            + "    <validTo isNull=\"true\"/>\n"
+            + "    <AttributeValue attribute=\"text\"><Value>one &lt; two</Value></AttributeValue>\n"
+            + "    <!-- comment -->\n"
+            + "    <ExtensionProperties>"
+            + "<Value id=\"id\" isNull=\"false\"><![CDATA[XYZ]]></Value>"
+            + "</ExtensionProperties>\n"
+            + "    <Generation validFrom=\"2020-01-01\"><Formula>1</Formula></Generation>\n"
+            + "    <Generation validFrom=\"2021-01-01\"><Formula>2</Formula></Generation>\n"
+            + "</ProductCmpt>";
+
+    @Test
+    public void testReadElement_SameAsDocumentBuilder() throws Exception {
+        Element expected = parse(XML);
+        XMLStreamReader reader = StaxElementReader
+                .createReader(new ByteArrayInputStream(XML.getBytes(StandardCharsets.UTF_8)));
+        Document document = StaxElementReader.newDocument();
+
+        Element element = StaxElementReader.readElement(reader, document, name -> false);
+
+        assertThat(element.isEqualNode(expected), is(true));
+        assertThat(element.getAttribute("xsi:type"), is("a & b"));
+        assertThat(XmlUtil.getCDATAorTextContent(XmlUtil.getFirstElement(
+                XmlUtil.getFirstElement(element, "ExtensionProperties"), "Value")), is("XYZ"));
+        assertThat(reader.getEventType(), is(XMLStreamConstants.END_ELEMENT));
+    }
+
+    @Test
+    public void testReadElement_SkipChildren() throws Exception {
+        XMLStreamReader reader = StaxElementReader.createReader(new StringReader(XML));
+
+        Element element = StaxElementReader.readElement(reader, StaxElementReader.newDocument(),
+                "Generation"::equals);
+
+        assertThat(element.getElementsByTagName("Generation").getLength(), is(0));
+        assertThat(element.getElementsByTagName("Formula").getLength(), is(0));
+        assertThat(XmlUtil.getFirstElement(element, "AttributeValue").getTextContent(), is("one < two"));
+        assertThat(reader.getEventType(), is(XMLStreamConstants.END_ELEMENT));
+        assertThat(StaxElementReader.getElementName(reader), is("ProductCmpt"));
+    }
+
+    @Test
+    public void testSkipElement() throws Exception {
+        XMLStreamReader reader = StaxElementReader.createReader(new StringReader(XML));
+        Document document = StaxElementReader.newDocument();
+        while (reader.next() != XMLStreamConstants.START_ELEMENT
+                || !"Generation".equals(StaxElementReader.getElementName(reader))) {
+            // move to the first generation
+        }
+
+        StaxElementReader.skipElement(reader);
+        reader.nextTag();
+        Element element = StaxElementReader.readElement(reader, document, name -> false);
+
+        assertThat(element.getAttribute("validFrom"), is("2021-01-01"));
+        assertThat(element.getTextContent(), is("2"));
+    }
+
+    @Test(expected = XMLStreamException.class)
+    public void testCreateReader_NoDocumentElement() throws Exception {
+        StaxElementReader.createReader(new StringReader("<?xml version=\"1.0\"?><!-- empty -->"));
+    }
+
+    private Element parse(String xml) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(false);
+        return factory.newDocumentBuilder().parse(new InputSource(new StringReader(xml))).getDocumentElement();
+    }
+
+}
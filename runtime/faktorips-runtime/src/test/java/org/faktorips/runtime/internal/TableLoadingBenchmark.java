@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.faktorips.runtime.IRuntimeRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures loading a table content with many rows that is stored as XML rows or in CSV format with
+ * the {@link TableSaxHandler}. The table only sums up the length of all values, so the benchmark
+ * measures the parsing and not the creation of the rows. Run with <code>-prof gc</code> to compare
+ * the allocated memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class TableLoadingBenchmark {
+
+    private static final int COLUMNS = 5;
+
+    @Param({ "xml", "csv" })
+    private String format;
+
+    @Param({ "100000" })
+    private int rows;
+
+    private byte[] tableContent;
+
+    @Setup(Level.Trial)
+    public void createTableContent() {
+        StringBuilder sb = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        sb.append("<TableContents tableStructure=\"Tariff\" numOfColumns=\"").append(COLUMNS).append("\">\n");
+        if ("csv".equals(format)) {
+            sb.append("<Rows format=\"CSV\"><![CDATA[");
+            for (int r = 0; r < rows; r++) {
+                sb.append("tariff").append(r % 100).append("|").append(r).append("|\\\\N|2020-01-01|")
+                        .append(r * 0.25).append('\n');
+            }
+            sb.append("]]></Rows>\n");
+        } else {
+            sb.append("<Rows>\n");
+            for (int r = 0; r < rows; r++) {
+                sb.append("<Row><Value>tariff").append(r % 100).append("</Value><Value>").append(r)
+                        .append("</Value><Value isNull=\"true\"/><Value>2020-01-01</Value><Value>")
+                        .append(r * 0.25).append("</Value></Row>\n");
+            }
+            sb.append("</Rows>\n");
+        }
+        sb.append("</TableContents>\n");
+        tableContent = sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public long loadTable() throws Exception {
+        LengthTable table = new LengthTable();
+        table.initFromXml(new ByteArrayInputStream(tableContent), null, "Tariff");
+        return table.length;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TableLoadingBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+    private static class LengthTable extends Table<Object> {
+
+        private long length;
+
+        @Override
+        protected void addRow(List<String> columns, IRuntimeRepository productRepository) {
+            for (String value : columns) {
+                length += value == null ? 0 : value.length();
+            }
+        }
+
+        @Override
+        protected void initKeyMaps() {
+            // no keys
+        }
+    }
+
+}
@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.opencsv.CSVParserBuilder;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+
+import org.faktorips.runtime.IRuntimeRepository;
+import org.junit.Test;
+import org.xml.sax.helpers.AttributesImpl;
+
+public class TableSaxHandlerTest {
+
+    private final RecordingTable table = new RecordingTable();
+
+    private final TableSaxHandler handler = new TableSaxHandler(table, null);
+
+    @Test
+    public void testCharacters_Values() throws Exception {
+        handler.startElement(null, null, "Rows", new AttributesImpl());
+        handler.startElement(null, null, "Row", new AttributesImpl());
+        value("ab", "cd");
+        value();
+        handler.startElement(null, null, "Value", attributes("isNull", "true"));
+        handler.endElement(null, null, "Value");
+        handler.endElement(null, null, "Row");
+        handler.startElement(null, null, "Row", new AttributesImpl());
+        value("x");
+        handler.endElement(null, null, "Row");
+        handler.endElement(null, null, "Rows");
+
+        assertThat(table.rows, is(Arrays.asList(Arrays.asList("abcd", "", null), Arrays.asList("x"))));
+    }
+
+    @Test
+    public void testCharacters_Csv() throws Exception {
+        String csv = "a|1|\\\\N\n\"b|c\"|2|\"with \\\"quote\\\"\"\r\n\"multi\nline\"|3|x\rlast|4|";
+
+        parseCsv(csv, 1000);
+
+        assertThat(table.rows, is(readWithCsvReader(csv)));
+        assertThat(table.rows.size(), is(4));
+        assertThat(table.rows.get(0), is(Arrays.asList("a", "1", null)));
+        assertThat(table.rows.get(2).get(0), is("multi\nline"));
+    }
+
+    @Test
+    public void testCharacters_CsvInChunks() throws Exception {
+        String csv = "a|1|\\\\N\n\"b|c\"|2|\"with \\\"quote\\\"\"\r\n\"multi\nline\"|3|x\rlast|4|\n";
+
+        parseCsv(csv, 1);
+
+        assertThat(table.rows, is(readWithCsvReader(csv)));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testCharacters_CsvUnterminatedQuote() throws Exception {
+        parseCsv("a|\"b\nc", 1000);
+    }
+
+    private void value(String... chunks) throws Exception {
+        handler.startElement(null, null, "Value", new AttributesImpl());
+        for (String chunk : chunks) {
+            // the surrounding characters must be ignored
+            char[] buf = ("#" + chunk + "#").toCharArray();
+            handler.characters(buf, 1, chunk.length());
+        }
+        handler.endElement(null, null, "Value");
+    }
+
+    private void parseCsv(String csv, int chunkSize) throws Exception {
+        handler.startElement(null, null, "Rows", attributes("format", "CSV"));
+        char[] chars = csv.toCharArray();
+        for (int i = 0; i < chars.length; i += chunkSize) {
+            handler.characters(chars, i, Math.min(chunkSize, chars.length - i));
+        }
+        handler.endElement(null, null, "Rows");
+    }
+
+    private List<List<String>> readWithCsvReader(String csv) throws Exception {
+        List<List<String>> rows = new ArrayList<>();
+        try (CSVReader csvReader = new CSVReaderBuilder(new StringReader(csv)).withCSVParser(
+                new CSVParserBuilder().withSeparator('|').withQuoteChar('"').withEscapeChar('\\').build()).build()) {
+            String[] csvLine;
+            while ((csvLine = csvReader.readNext()) != null) {
+                List<String> row = new ArrayList<>();
+                for (String value : csvLine) {
+                    row.add("\\N".equals(value) ? null : value);
+                }
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static AttributesImpl attributes(String name, String value) {
+        AttributesImpl attributes = new AttributesImpl();
+        attributes.addAttribute(null, name, name, "CDATA", value);
+        return attributes;
+    }
+
+    private static class RecordingTable extends Table<Object> {
+
+        private final List<List<String>> rows = new ArrayList<>();
+
+        @Override
+        protected void addRow(List<String> columns, IRuntimeRepository productRepository) {
+            rows.add(new ArrayList<>(columns));
+        }
+
+        @Override
+        protected void initKeyMaps() {
+            // no keys
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.faktorips.runtime.internal.toc.ReadonlyTableOfContents;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures reading a generated table of contents with many product components, either by parsing
+ * it into a DOM and {@link ReadonlyTableOfContents#initFromXml(org.w3c.dom.Element) initializing
+ * from the document element} or by {@link ReadonlyTableOfContents#initFromXml(java.io.InputStream)
+ * streaming} it. Run with <code>-prof gc</code> to compare the allocated memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class TocLoadingBenchmark {
+
+    private static final int GENERATIONS = 5;
+
+    @Param({ "dom", "stream" })
+    private String reader;
+
+    @Param({ "1000", "10000" })
+    private int products;
+
+    private byte[] toc;
+
+    @Setup(Level.Trial)
+    public void createToc() {
+        StringBuilder sb = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        sb.append("<FaktorIps-TableOfContents productDataVersion=\"1\">\n");
+        for (int p = 0; p < products; p++) {
+            String resource = "org/faktorips/sample/products/Product" + p + ".ipsproduct";
+            sb.append("  <ProductComponent ipsObjectId=\"products.Product").append(p)
+                    .append("\" ipsObjectQualifiedName=\"products.Product").append(p)
+                    .append("\" kindId=\"products.Product").append(p).append("\" versionId=\"1\" xmlResource=\"")
+                    .append(resource)
+                    .append("\" implementationClass=\"org.faktorips.sample.Product\" "
+                            + "policyCmptClass=\"org.faktorips.sample.Policy\">\n");
+            for (int g = 0; g < GENERATIONS; g++) {
+                sb.append("    <Generation validFrom=\"").append(2000 + g).append("-01-01\" xmlResource=\"")
+                        .append(resource).append("\" implementationClass=\"org.faktorips.sample.ProductGen\"/>\n");
+            }
+            sb.append("  </ProductComponent>\n");
+            if (p % 10 == 0) {
+                sb.append("  <TableContent ipsObjectId=\"tables.Table").append(p)
+                        .append("\" ipsObjectQualifiedName=\"tables.Table").append(p)
+                        .append("\" implementationClass=\"org.faktorips.sample.Table\" "
+                                + "xmlResource=\"org/faktorips/sample/tables/Table")
+                        .append(p).append(".xml\"/>\n");
+            }
+        }
+        sb.append("</FaktorIps-TableOfContents>\n");
+        toc = sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public ReadonlyTableOfContents loadToc() throws Exception {
+        ReadonlyTableOfContents tableOfContents = new ReadonlyTableOfContents();
+        if ("dom".equals(reader)) {
+            tableOfContents.initFromXml(DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                    .parse(new ByteArrayInputStream(toc)).getDocumentElement());
+        } else {
+            tableOfContents.initFromXml(new ByteArrayInputStream(toc));
+        }
+        return tableOfContents;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TocLoadingBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+}
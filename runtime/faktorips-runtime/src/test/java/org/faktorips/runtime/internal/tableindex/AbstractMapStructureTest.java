@@ -18,6 +18,7 @@ import static org.mockito.Mockito.when;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -82,6 +83,37 @@ public class AbstractMapStructureTest {
         assertEquals(321, abstractMapStructure.getMap().get("xyz").getUnique().intValue());
     }
 
+    @Test
+    public void testGetUnique_SameValueForDifferentKeys() throws Exception {
+        abstractMapStructure.put("abc", new ResultStructure<>(123));
+        abstractMapStructure.put("xyz", new ResultStructure<>(123));
+
+        assertEquals(123, abstractMapStructure.getUnique().intValue());
+        assertEquals(123, abstractMapStructure.getUnique(42).intValue());
+    }
+
+    @Test(expected = AssertionError.class)
+    public void testGetUnique_DifferentValues() throws Exception {
+        abstractMapStructure.put("abc", new ResultStructure<>(123));
+        abstractMapStructure.put("xyz", new ResultStructure<>(321));
+
+        abstractMapStructure.getUnique(42);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testGetUnique_Empty() throws Exception {
+        abstractMapStructure.put("abc", new ResultStructure<>());
+
+        abstractMapStructure.getUnique();
+    }
+
+    @Test
+    public void testGetUniqueWithDefault_Empty() throws Exception {
+        abstractMapStructure.put("abc", new ResultStructure<>());
+
+        assertEquals(42, abstractMapStructure.getUnique(42).intValue());
+    }
+
     @Test
     public void testMerge_sameKey() throws Exception {
         map.put("abc", new ResultStructure<>(123));
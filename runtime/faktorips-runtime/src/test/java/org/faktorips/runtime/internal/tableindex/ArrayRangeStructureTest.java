@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal.tableindex;
+
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Random;
+
+import org.faktorips.values.Decimal;
+import org.junit.Test;
+
+public class ArrayRangeStructureTest {
+
+    @Test(expected = NullPointerException.class)
+    public void testConstructor() {
+        ArrayRangeStructure.create(null);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testPut_NullKey() {
+        ArrayRangeStructure.<Integer, ResultStructure<String>, String> create(RangeType.LOWER_BOUND_EQUAL)
+                .put(null, new ResultStructure<>("A"));
+    }
+
+    @SuppressWarnings("deprecation")
+    @Test
+    public void testGet_SameAsRangeStructure() {
+        Random random = new Random(4711);
+        for (RangeType rangeType : RangeType.values()) {
+            ArrayRangeStructure<Integer, ResultStructure<Integer>, Integer> arrayStructure = ArrayRangeStructure
+                    .create(rangeType);
+            RangeStructure<Integer, ResultStructure<Integer>, Integer> treeStructure = RangeStructure
+                    .create(rangeType);
+            for (int i = 0; i < 200; i++) {
+                int key = random.nextInt(100) * 3;
+                arrayStructure.put(key, new ResultStructure<>(i));
+                treeStructure.put(key, new ResultStructure<>(i));
+            }
+
+            for (int key = -5; key < 305; key++) {
+                assertThat(rangeType + ": " + key, arrayStructure.get(key).get(), is(treeStructure.get(key).get()));
+            }
+            assertThat(arrayStructure.get(), is(treeStructure.get()));
+        }
+    }
+
+    @Test
+    public void testGetUnique_AggregatesNestedStructures() {
+        ArrayRangeStructure<Integer, ResultStructure<String>, String> structure = ArrayRangeStructure
+                .create(RangeType.LOWER_BOUND_EQUAL);
+        structure.put(10, new ResultStructure<>("A"));
+        structure.put(20, new ResultStructure<>("A"));
+
+        assertThat(structure.getUnique(), is("A"));
+        assertThat(structure.getUnique("none"), is("A"));
+    }
+
+    @Test(expected = AssertionError.class)
+    public void testGetUnique_DifferentValues() {
+        ArrayRangeStructure<Integer, ResultStructure<String>, String> structure = ArrayRangeStructure
+                .create(RangeType.LOWER_BOUND_EQUAL);
+        structure.put(10, new ResultStructure<>("A"));
+        structure.put(20, new ResultStructure<>("B"));
+
+        structure.getUnique("none");
+    }
+
+    @Test
+    public void testGet_ComparableKeys() {
+        ArrayRangeStructure<Decimal, ResultStructure<String>, String> structure = ArrayRangeStructure
+                .create(RangeType.UPPER_BOUND_EQUAL);
+        structure.put(Decimal.valueOf(10), new ResultStructure<>("B"));
+        structure.put(Decimal.valueOf(-5), new ResultStructure<>("A"));
+
+        assertThat(structure.get(Decimal.valueOf(-100)).get(), hasItem("A"));
+        assertThat(structure.get(Decimal.valueOf(-5)).get(), hasItem("A"));
+        assertThat(structure.get(Decimal.valueOf("-4.9")).get(), hasItem("B"));
+        assertThat(structure.get(Decimal.valueOf(10)).get(), hasItem("B"));
+        assertThat(structure.get(Decimal.valueOf(11)).get().isEmpty(), is(true));
+        assertThat(structure.get(Decimal.NULL).get().isEmpty(), is(true));
+        assertThat(structure.get(null).get().isEmpty(), is(true));
+    }
+
+    @Test
+    public void testGet_LongKeys() {
+        ArrayRangeStructure<Long, ResultStructure<String>, String> structure = ArrayRangeStructure
+                .createWith(RangeType.LOWER_BOUND_EQUAL, Long.MIN_VALUE, new ResultStructure<>("A"));
+        structure.put(Long.MAX_VALUE, new ResultStructure<>("B"));
+
+        assertThat(structure.get(0L).get(), hasItem("A"));
+        assertThat(structure.get(Long.MAX_VALUE).get(), hasItem("B"));
+        assertThat(structure.size(), is(2));
+    }
+
+    @Test
+    public void testPut_MergesEqualKeys() {
+        ArrayRangeStructure<Integer, ResultStructure<String>, String> structure = ArrayRangeStructure
+                .create(RangeType.LOWER_BOUND_EQUAL);
+        structure.put(1, new ResultStructure<>("A"));
+        structure.put(5, new ResultStructure<>("C"));
+        structure.put(1, new ResultStructure<>("B"));
+
+        assertThat(structure.size(), is(2));
+        assertThat(structure.get(3).get(), hasItems("A", "B"));
+    }
+
+    @Test
+    public void testPut_AfterGet() {
+        ArrayRangeStructure<Integer, ResultStructure<String>, String> structure = ArrayRangeStructure
+                .createWith(RangeType.LOWER_BOUND_EQUAL, 1, new ResultStructure<>("A"));
+        assertThat(structure.get(3).get(), hasItem("A"));
+
+        structure.put(2, new ResultStructure<>("B"));
+        structure.put(1, new ResultStructure<>("C"));
+
+        assertThat(structure.get(1).get(), hasItems("A", "C"));
+        assertThat(structure.get(3).get(), hasItem("B"));
+        assertThat(structure.get(3).get(), not(hasItem("A")));
+    }
+
+    @Test
+    public void testMerge() {
+        ArrayRangeStructure<Integer, ResultStructure<String>, String> structure = ArrayRangeStructure
+                .createWith(RangeType.LOWER_BOUND_EQUAL, 1, new ResultStructure<>("A"));
+        ArrayRangeStructure<Integer, ResultStructure<String>, String> otherStructure = ArrayRangeStructure
+                .createWith(RangeType.LOWER_BOUND_EQUAL, 1, new ResultStructure<>("B"));
+        otherStructure.put(10, new ResultStructure<>("C"));
+
+        structure.merge(otherStructure);
+
+        assertThat(structure.get(1).get(), hasItems("A", "B"));
+        assertThat(structure.get(10).get(), hasItem("C"));
+        assertThat(otherStructure.get(1).get(), not(hasItem("A")));
+    }
+
+    @Test
+    public void testCopy() {
+        ResultStructure<String> result = new ResultStructure<>("A");
+        ArrayRangeStructure<Integer, ResultStructure<String>, String> structure = ArrayRangeStructure
+                .createWith(RangeType.LOWER_BOUND_EQUAL, 1, result);
+
+        ArrayRangeStructure<Integer, ResultStructure<String>, String> copy = structure.copy();
+        structure.put(1, new ResultStructure<>("B"));
+
+        assertThat(copy.get(1), is(not(sameInstance(result))));
+        assertThat(copy.get(1).get(), not(hasItem("B")));
+        assertThat(copy.get(1).get(), hasItem("A"));
+    }
+
+    @Test
+    public void testNestedWithArrayResultStructure() {
+        KeyStructure<String, ArrayRangeStructure<Integer, ArrayResultStructure<String>, String>, String> structure = KeyStructure
+                .create();
+        structure.put("x", ArrayRangeStructure.createWith(RangeType.LOWER_BOUND_EQUAL, 18,
+                ArrayResultStructure.createWith("adult")));
+        structure.put("x", ArrayRangeStructure.createWith(RangeType.LOWER_BOUND_EQUAL, 0,
+                ArrayResultStructure.createWith("child")));
+
+        assertThat(structure.get("x").get(10).getUnique(), is("child"));
+        assertThat(structure.get("x").get(30).getUnique(), is("adult"));
+        assertThat(structure.get("y").get(30).getUnique("none"), is("none"));
+    }
+
+}
@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal.tableindex;
+
+import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class ArrayResultStructureTest {
+
+    @Test
+    public void testGetObject() {
+        ArrayResultStructure<Integer> resultStructure = new ArrayResultStructure<>();
+
+        assertSame(resultStructure, resultStructure.get(1));
+        assertSame(resultStructure, resultStructure.get(null));
+    }
+
+    @Test
+    public void testGet() {
+        ArrayResultStructure<Integer> resultStructure = ArrayResultStructure
+                .createWith(new HashSet<>(Arrays.asList(1, 2)));
+
+        Set<Integer> set = resultStructure.get();
+
+        assertThat(set, is(new HashSet<>(Arrays.asList(1, 2))));
+        assertThat(set.contains(2), is(true));
+        assertThat(set.contains(3), is(false));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testGet_Unmodifiable() {
+        ArrayResultStructure.createWith(1).get().add(2);
+    }
+
+    @Test
+    public void testMerge() {
+        ArrayResultStructure<Integer> resultStructure = ArrayResultStructure.createWith(1);
+        Set<Integer> before = resultStructure.get();
+
+        resultStructure.merge(ArrayResultStructure.createWith(2));
+        resultStructure.merge(ArrayResultStructure.createWith(1));
+        resultStructure.merge(new ArrayResultStructure<>());
+
+        assertThat(resultStructure.get().size(), is(2));
+        assertThat(resultStructure.get(), hasItems(1, 2));
+        assertThat(before, is(new HashSet<>(Arrays.asList(1))));
+    }
+
+    @Test
+    public void testMerge_ManyDuplicates() {
+        ArrayResultStructure<Integer> resultStructure = new ArrayResultStructure<>();
+        for (int i = 0; i < 100; i++) {
+            resultStructure.merge(ArrayResultStructure.createWith(i % 20));
+        }
+
+        assertThat(resultStructure.get().size(), is(20));
+        assertThat(resultStructure, is(ArrayResultStructure.createWith(resultStructure.get())));
+    }
+
+    @Test
+    public void testGetUnique() {
+        assertThat(ArrayResultStructure.createWith(1).getUnique(), is(1));
+        assertThat(ArrayResultStructure.createWith(1).getUnique(2), is(1));
+        assertThat(new ArrayResultStructure<Integer>().getUnique(2), is(2));
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testGetUnique_Empty() {
+        new ArrayResultStructure<Integer>().getUnique();
+    }
+
+    @Test(expected = AssertionError.class)
+    public void testGetUnique_Multiple() {
+        ArrayResultStructure<Integer> resultStructure = ArrayResultStructure.createWith(1);
+        resultStructure.merge(ArrayResultStructure.createWith(2));
+
+        resultStructure.getUnique();
+    }
+
+    @Test
+    public void testGetUnique_MergedDuplicate() {
+        ArrayResultStructure<Integer> resultStructure = ArrayResultStructure.createWith(1);
+        resultStructure.merge(ArrayResultStructure.createWith(1));
+
+        assertThat(resultStructure.getUnique(), is(1));
+    }
+
+    @Test
+    public void testCopy() {
+        ArrayResultStructure<Integer> resultStructure = ArrayResultStructure.createWith(1);
+
+        ArrayResultStructure<Integer> copy = resultStructure.copy();
+        resultStructure.merge(ArrayResultStructure.createWith(2));
+
+        assertThat(copy, is(ArrayResultStructure.createWith(1)));
+        assertThat(copy, is(not(resultStructure)));
+    }
+
+}
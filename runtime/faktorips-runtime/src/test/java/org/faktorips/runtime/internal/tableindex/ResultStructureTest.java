@@ -77,6 +77,28 @@ public class ResultStructureTest {
         assertTrue(resultStructure.get().isEmpty());
     }
 
+    @Test
+    public void testGetUnique() throws Exception {
+        resultStructure = new ResultStructure<>(123);
+
+        assertEquals(123, resultStructure.getUnique().intValue());
+        assertEquals(123, resultStructure.getUnique(42).intValue());
+    }
+
+    @Test
+    public void testGetUnique_Empty() throws Exception {
+        resultStructure = new ResultStructure<>();
+
+        assertEquals(42, resultStructure.getUnique(42).intValue());
+    }
+
+    @Test(expected = AssertionError.class)
+    public void testGetUnique_MultipleValues() throws Exception {
+        resultStructure = new ResultStructure<>(initResultSet());
+
+        resultStructure.getUnique(42);
+    }
+
     @Test
     public void testCopy_equalNotSame() {
         resultStructure = new ResultStructure<>(initResultSet());
@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.internal.tableindex;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the unique lookups of generated table classes, that means a chain of
+ * {@link SearchStructure#get(Object)} calls followed by {@link SearchStructure#getUnique(Object)}.
+ * The structures contain {@link #ROWS} rows:
+ * <ul>
+ * <li><code>key</code>: a {@link KeyStructure} with {@link UniqueResultStructure} leaves</li>
+ * <li><code>range</code>: a {@link RangeStructure} with {@link UniqueResultStructure} leaves</li>
+ * <li><code>keyRange</code>: a {@link KeyStructure} of {@link RangeStructure RangeStructures}, like
+ * a table with one key column and one range column</li>
+ * <li><code>keyResult</code>: a {@link KeyStructure} with {@link ResultStructure} leaves, like a
+ * table whose index is not unique</li>
+ * <li><code>keyAggregate</code>: <code>getUnique</code> called on a {@link KeyStructure} of
+ * {@link RangeStructure RangeStructures} without a range key, so the result has to be aggregated
+ * over the nested structure</li>
+ * </ul>
+ * <p>
+ * Run {@link #main(String[])} to get the time and, using the GC profiler, the allocated bytes per
+ * lookup (<code>gc.alloc.rate.norm</code>).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchStructureBenchmark {
+
+    static final int ROWS = 1024;
+
+    @Param({ "key", "range", "keyRange", "keyResult", "keyAggregate" })
+    private String structure;
+
+    private SearchStructure<Object[]> searchStructure;
+
+    private String[] keys;
+
+    private Integer[] rangeKeys;
+
+    private int index;
+
+    @Setup
+    public void createStructure() {
+        keys = new String[ROWS];
+        rangeKeys = new Integer[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            keys[i] = "key" + i;
+            rangeKeys[i] = i * 10 + 5;
+        }
+        switch (structure) {
+            case "key":
+                KeyStructure<String, UniqueResultStructure<Object[]>, Object[]> keyStructure = KeyStructure.create();
+                for (int i = 0; i < ROWS; i++) {
+                    keyStructure.put(keys[i], UniqueResultStructure.createWith(row(i)));
+                }
+                searchStructure = keyStructure;
+                break;
+            case "range":
+                RangeStructure<Integer, UniqueResultStructure<Object[]>, Object[]> rangeStructure = RangeStructure
+                        .create(RangeType.LOWER_BOUND_EQUAL);
+                for (int i = 0; i < ROWS; i++) {
+                    rangeStructure.put(i * 10, UniqueResultStructure.createWith(row(i)));
+                }
+                searchStructure = rangeStructure;
+                break;
+            case "keyRange":
+            case "keyAggregate":
+                KeyStructure<String, RangeStructure<Integer, UniqueResultStructure<Object[]>, Object[]>, Object[]> keyRangeStructure = KeyStructure
+                        .create();
+                for (int i = 0; i < ROWS; i++) {
+                    keyRangeStructure.put(keys[i], RangeStructure.createWith(RangeType.LOWER_BOUND_EQUAL, i * 10,
+                            UniqueResultStructure.createWith(row(i))));
+                }
+                searchStructure = keyRangeStructure;
+                break;
+            case "keyResult":
+                KeyStructure<String, ResultStructure<Object[]>, Object[]> keyResultStructure = KeyStructure.create();
+                for (int i = 0; i < ROWS; i++) {
+                    keyResultStructure.put(keys[i], ResultStructure.createWith(row(i)));
+                }
+                searchStructure = keyResultStructure;
+                break;
+            default:
+                throw new IllegalArgumentException(structure);
+        }
+    }
+
+    private static Object[] row(int i) {
+        return new Object[] { "key" + i, i * 10 };
+    }
+
+    @Benchmark
+    public Object findRow() {
+        int i = index++ & (ROWS - 1);
+        switch (structure) {
+            case "range":
+                return searchStructure.get(rangeKeys[i]).getUnique(null);
+            case "keyRange":
+                return searchStructure.get(keys[i]).get(rangeKeys[i]).getUnique(null);
+            default:
+                return searchStructure.get(keys[i]).getUnique(null);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(SearchStructureBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.model.type;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.faktorips.runtime.model.type.MethodAccessorTest.Bean;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the reflective access used by the model descriptors before with the access through
+ * bound {@link MethodAccessor MethodAccessors}, using a getter returning a primitive value and a
+ * setter with a primitive parameter. The direct calls show the cost of generated code.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MethodAccessorBenchmark {
+
+    private Bean bean;
+
+    private Method getter;
+
+    private Method setter;
+
+    private MethodAccessor getterAccessor;
+
+    private MethodAccessor setterAccessor;
+
+    private int value;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        bean = new Bean();
+        getter = Bean.class.getMethod("getAge");
+        setter = Bean.class.getMethod("setAge", int.class);
+        getterAccessor = new MethodAccessor(getter);
+        setterAccessor = new MethodAccessor(setter);
+    }
+
+    @Benchmark
+    public Object getDirect() {
+        return bean.getAge();
+    }
+
+    @Benchmark
+    public Object getReflective() {
+        return ModelElement.invokeMethod(getter, bean);
+    }
+
+    @Benchmark
+    public Object getBound() {
+        return getterAccessor.invoke(bean);
+    }
+
+    @Benchmark
+    public void setDirect() {
+        bean.setAge(value++);
+    }
+
+    @Benchmark
+    public void setReflective() {
+        ModelElement.invokeMethod(setter, bean, value++);
+    }
+
+    @Benchmark
+    public void setBound() {
+        setterAccessor.invoke(bean, value++);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(MethodAccessorBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+}
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.model.type;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class MethodAccessorTest {
+
+    @Test
+    public void testInvoke_Getter() throws Exception {
+        MethodAccessor accessor = new MethodAccessor(Bean.class.getMethod("getName"));
+        Bean bean = new Bean();
+        bean.setName("foo");
+
+        assertThat(accessor.invoke(bean), is("foo"));
+        assertThat(accessor.isBound(), is(true));
+    }
+
+    @Test
+    public void testInvoke_PrimitiveGetterAndSetter() throws Exception {
+        MethodAccessor getter = new MethodAccessor(Bean.class.getMethod("getAge"));
+        MethodAccessor setter = new MethodAccessor(Bean.class.getMethod("setAge", int.class));
+        Bean bean = new Bean();
+
+        assertThat(setter.invoke(bean, 42), is(nullValue()));
+
+        assertThat(getter.invoke(bean), is(42));
+        assertThat(getter.isBound(), is(true));
+        assertThat(setter.isBound(), is(true));
+    }
+
+    @Test
+    public void testInvoke_FunctionWithParameter() throws Exception {
+        MethodAccessor accessor = new MethodAccessor(Bean.class.getMethod("greet", String.class));
+        Bean bean = new Bean();
+        bean.setName("foo");
+
+        assertThat(accessor.invoke(bean, "Hello"), is("Hello foo"));
+        assertThat(accessor.isBound(), is(true));
+    }
+
+    @Test
+    public void testInvoke_WrapsException() throws Exception {
+        MethodAccessor accessor = new MethodAccessor(Bean.class.getMethod("fail"));
+
+        try {
+            accessor.invoke(new Bean());
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getCause(), is(instanceOf(IllegalStateException.class)));
+        }
+    }
+
+    @Test
+    public void testInvoke_LinkageErrorCallsMethodOnlyOnce() throws Exception {
+        MethodAccessor accessor = new MethodAccessor(Bean.class.getMethod("failLinkage"));
+        Bean bean = new Bean();
+
+        try {
+            accessor.invoke(bean);
+            fail();
+        } catch (LinkageError e) {
+            assertThat(bean.calls, is(1));
+        }
+        assertThat(accessor.isBound(), is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvoke_NullSource() throws Exception {
+        new MethodAccessor(Bean.class.getMethod("getName")).invoke(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvoke_NullForPrimitiveParameter() throws Exception {
+        new MethodAccessor(Bean.class.getMethod("setAge", int.class)).invoke(new Bean(), null);
+    }
+
+    @Test
+    public void testInvoke_NotAccessibleClassUsesReflection() throws Exception {
+        // the public method of a private class in another package
+        Object emptyList = Collections.emptyList();
+        MethodAccessor accessor = new MethodAccessor(emptyList.getClass().getMethod("size"));
+
+        assertThat(accessor.isBound(), is(false));
+        try {
+            accessor.invoke(emptyList);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getCause(), is(instanceOf(IllegalAccessException.class)));
+        }
+    }
+
+    public static class Bean {
+
+        private String name;
+
+        private int age;
+
+        private int calls;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+
+        public String greet(String greeting) {
+            return greeting + " " + name;
+        }
+
+        public String fail() {
+            throw new IllegalStateException();
+        }
+
+        public String failLinkage() {
+            calls++;
+            throw new NoClassDefFoundError();
+        }
+    }
+
+}
@@ -17,10 +17,14 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.GregorianCalendar;
 
 import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
 
 import org.faktorips.runtime.internal.DateTime;
 import org.faktorips.runtime.internal.toc.AbstractReadonlyTableOfContents;
@@ -37,7 +41,6 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
 
 public class ClassLoaderProductDataProviderTest {
 
@@ -57,7 +60,7 @@ public class ClassLoaderProductDataProviderTest {
         mocks = MockitoAnnotations.openMocks(this);
 
         when(mockDataSource.getLastModificationStamp(TOC_RESOURCE_PATH)).thenReturn(INITIAL_TOC_FILE_LAST_MODIFIED);
-        mockRootElementForResourcePath(TOC_RESOURCE_PATH);
+        mockTocForResourcePath(TOC_RESOURCE_PATH, "");
 
         productDataProvider = createProductDataProvider(true);
     }
@@ -82,9 +85,7 @@ public class ClassLoaderProductDataProviderTest {
 
     @Test
     public void testGetBaseVersionRepositoryDoesNotCheckTocModifications() {
-        Element mockTocElement = mockRootElementForResourcePath(TOC_RESOURCE_PATH);
-        when(mockTocElement.getAttribute(AbstractReadonlyTableOfContents.PRODUCT_DATA_VERSION_XML_ELEMENT)).thenReturn(
-                "foo");
+        mockTocForResourcePath(TOC_RESOURCE_PATH, "foo");
         productDataProvider = createProductDataProvider(false);
 
         assertEquals("foo", productDataProvider.getBaseVersion());
@@ -163,14 +164,12 @@ public class ClassLoaderProductDataProviderTest {
         GenerationTocEntry generationTocEntry = new GenerationTocEntry(productCmptTocEntry, generationValidFrom, "",
                 "");
 
-        Element mockProductCmptElement = mockRootElementForResourcePath(xmlResourceName);
-        NodeList mockChildrenList = mock(NodeList.class);
-        when(mockChildrenList.getLength()).thenReturn(2);
-        mockGenerationChildElement(mockChildrenList, 0, DateTime.createDateOnly(new GregorianCalendar(1, 1, 1)));
-        Element mockChild2 = mockGenerationChildElement(mockChildrenList, 1, generationValidFrom);
-        when(mockProductCmptElement.getChildNodes()).thenReturn(mockChildrenList);
+        productCmptDocumentForResourcePath(xmlResourceName, DateTime.createDateOnly(new GregorianCalendar(1, 1, 1)),
+                generationValidFrom);
 
-        assertEquals(mockChild2, productDataProvider.getProductCmptGenerationData(generationTocEntry));
+        Element genElement = productDataProvider.getProductCmptGenerationData(generationTocEntry);
+        assertEquals(GenerationTocEntry.XML_TAG, genElement.getNodeName());
+        assertEquals(generationValidFrom.toIsoFormat(), genElement.getAttribute(GenerationTocEntry.PROPERTY_VALID_FROM));
     }
 
     @Test(expected = RuntimeException.class)
@@ -182,12 +181,8 @@ public class ClassLoaderProductDataProviderTest {
         GenerationTocEntry generationTocEntry = new GenerationTocEntry(productCmptTocEntry, generationValidFrom, "",
                 "");
 
-        Element mockProductCmptElement = mockRootElementForResourcePath(xmlResourceName);
-        NodeList mockChildrenList = mock(NodeList.class);
-        when(mockChildrenList.getLength()).thenReturn(2);
-        mockGenerationChildElement(mockChildrenList, 0, DateTime.createDateOnly(new GregorianCalendar(1, 1, 1)));
-        mockGenerationChildElement(mockChildrenList, 1, DateTime.createDateOnly(new GregorianCalendar(2, 2, 2)));
-        when(mockProductCmptElement.getChildNodes()).thenReturn(mockChildrenList);
+        productCmptDocumentForResourcePath(xmlResourceName, DateTime.createDateOnly(new GregorianCalendar(1, 1, 1)),
+                DateTime.createDateOnly(new GregorianCalendar(2, 2, 2)));
 
         productDataProvider.getProductCmptGenerationData(generationTocEntry);
     }
@@ -201,12 +196,8 @@ public class ClassLoaderProductDataProviderTest {
         GenerationTocEntry generationTocEntry = new GenerationTocEntry(productCmptTocEntry, generationValidFrom, "",
                 "");
 
-        Element mockProductCmptElement = mockRootElementForResourcePath(xmlResourceName);
-        NodeList mockChildrenList = mock(NodeList.class);
-        when(mockChildrenList.getLength()).thenReturn(2);
-        mockGenerationChildElement(mockChildrenList, 0, DateTime.createDateOnly(new GregorianCalendar(1, 1, 1)));
-        mockGenerationChildElement(mockChildrenList, 1, generationValidFrom);
-        when(mockProductCmptElement.getChildNodes()).thenReturn(mockChildrenList);
+        productCmptDocumentForResourcePath(xmlResourceName, DateTime.createDateOnly(new GregorianCalendar(1, 1, 1)),
+                generationValidFrom);
 
         modifyRepository();
 
@@ -226,12 +217,8 @@ public class ClassLoaderProductDataProviderTest {
         GenerationTocEntry generationTocEntry = new GenerationTocEntry(productCmptTocEntry, generationValidFrom, "",
                 "");
 
-        Element mockProductCmptElement = mockRootElementForResourcePath(xmlResourceName);
-        NodeList mockChildrenList = mock(NodeList.class);
-        when(mockChildrenList.getLength()).thenReturn(2);
-        mockGenerationChildElement(mockChildrenList, 0, DateTime.createDateOnly(new GregorianCalendar(1, 1, 1)));
-        mockGenerationChildElement(mockChildrenList, 1, generationValidFrom);
-        when(mockProductCmptElement.getChildNodes()).thenReturn(mockChildrenList);
+        productCmptDocumentForResourcePath(xmlResourceName, DateTime.createDateOnly(new GregorianCalendar(1, 1, 1)),
+                generationValidFrom);
 
         modifyRepository();
 
@@ -321,12 +308,21 @@ public class ClassLoaderProductDataProviderTest {
         when(mockDataSource.getLastModificationStamp(TOC_RESOURCE_PATH)).thenReturn("1234");
     }
 
-    private Element mockGenerationChildElement(NodeList nodeList, int index, DateTime validFrom) {
-        Element mockChild = mock(Element.class);
-        when(mockChild.getNodeName()).thenReturn(GenerationTocEntry.XML_TAG);
-        when(mockChild.getAttribute(GenerationTocEntry.PROPERTY_VALID_FROM)).thenReturn(validFrom.toIsoFormat());
-        when(nodeList.item(index)).thenReturn(mockChild);
-        return mockChild;
+    private void productCmptDocumentForResourcePath(String resourcePath, DateTime... generationValidFroms) {
+        Document document;
+        try {
+            document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        } catch (ParserConfigurationException e) {
+            throw new RuntimeException(e);
+        }
+        Element productCmptElement = document.createElement("ProductCmpt");
+        document.appendChild(productCmptElement);
+        for (DateTime validFrom : generationValidFroms) {
+            Element genElement = document.createElement(GenerationTocEntry.XML_TAG);
+            genElement.setAttribute(GenerationTocEntry.PROPERTY_VALID_FROM, validFrom.toIsoFormat());
+            productCmptElement.appendChild(genElement);
+        }
+        when(mockDataSource.loadDocument(eq(resourcePath), any(DocumentBuilder.class))).thenReturn(document);
     }
 
     private ClassLoaderProductDataProvider createProductDataProvider(boolean checkTocModifications) {
@@ -360,6 +356,14 @@ public class ClassLoaderProductDataProviderTest {
         return tocEntry;
     }
 
+    private void mockTocForResourcePath(String resourcePath, String productDataVersion) {
+        String toc = "<" + AbstractReadonlyTableOfContents.TOC_XML_ELEMENT + " "
+                + AbstractReadonlyTableOfContents.PRODUCT_DATA_VERSION_XML_ELEMENT + "=\"" + productDataVersion
+                + "\"/>";
+        when(mockDataSource.getResourceAsStream(resourcePath))
+                .thenAnswer(invocation -> new ByteArrayInputStream(toc.getBytes(StandardCharsets.UTF_8)));
+    }
+
     private Element mockRootElementForResourcePath(String resourcePath) {
         Document mockDocument = mock(Document.class);
         Element mockRootElement = mock(Element.class, Answers.RETURNS_DEEP_STUBS);
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.validation;
+
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.faktorips.runtime.IModelObject;
+import org.faktorips.runtime.MessageList;
+import org.faktorips.runtime.ValidationContext;
+import org.faktorips.runtime.data.TestDeckungWithVisitor;
+import org.faktorips.runtime.data.TestPolicyWithVisitor;
+import org.faktorips.runtime.model.IpsModel;
+import org.faktorips.runtime.model.type.PolicyAttribute;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the validation of a policy with {@link #coverages} coverages calling
+ * {@link GenericRelevanceValidation#of(IModelObject, Class, String, ValidationContext)} for every
+ * attribute, like generated code does, with the {@link GenericRelevanceTreeValidation} running in
+ * the calling thread and in the common fork-join pool. All objects are valid, so the time is spent
+ * on retrieving the values and value sets and not on creating messages.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenericRelevanceTreeValidationBenchmark {
+
+    @Param({ "10", "1000" })
+    private int coverages;
+
+    private TestPolicyWithVisitor policy;
+
+    private ValidationContext context;
+
+    private GenericRelevanceTreeValidation sequentialValidation;
+
+    private GenericRelevanceTreeValidation parallelValidation;
+
+    @Setup
+    public void setUp() {
+        DefaultGenericAttributeValidationConfiguration config = new DefaultGenericAttributeValidationConfiguration(
+                Locale.ENGLISH);
+        context = new ValidationContext(Locale.ENGLISH, getClass().getClassLoader(), config);
+        policy = new TestPolicyWithVisitor();
+        for (int i = 0; i < coverages; i++) {
+            TestDeckungWithVisitor coverage = policy.newTestDeckung();
+            coverage.setIntegerAttribute(i);
+        }
+        sequentialValidation = new GenericRelevanceTreeValidation(config);
+        parallelValidation = new GenericRelevanceTreeValidation(config, ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public MessageList perAttribute() {
+        MessageList messages = new MessageList();
+        validateAttributes(policy, TestPolicyWithVisitor.class, messages);
+        for (TestDeckungWithVisitor coverage : policy.getTestDeckungungen()) {
+            validateAttributes(coverage, TestDeckungWithVisitor.class, messages);
+        }
+        return messages;
+    }
+
+    private void validateAttributes(IModelObject modelObject,
+            Class<? extends IModelObject> modelObjectClass,
+            MessageList messages) {
+        for (PolicyAttribute attribute : IpsModel.getPolicyCmptType(modelObjectClass).getDeclaredAttributes()) {
+            messages.add(GenericRelevanceValidation.of(modelObject, modelObjectClass, attribute.getName(), context));
+        }
+    }
+
+    @Benchmark
+    public MessageList treeSequential() {
+        return sequentialValidation.validate(policy);
+    }
+
+    @Benchmark
+    public MessageList treeParallel() {
+        return parallelValidation.validate(policy);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(GenericRelevanceTreeValidationBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+}
@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * Copyright (c) Faktor Zehn GmbH - faktorzehn.org
+ * 
+ * This source code is available under the terms of the AGPL Affero General Public License version
+ * 3.
+ * 
+ * Please see LICENSE.txt for full license terms, including the additional permissions and
+ * restrictions as well as the possibility of alternative license terms.
+ *******************************************************************************/
+
+package org.faktorips.runtime.validation;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.faktorips.runtime.IModelObject;
+import org.faktorips.runtime.Message;
+import org.faktorips.runtime.MessageList;
+import org.faktorips.runtime.ValidationContext;
+import org.faktorips.runtime.data.TestDeckungWithVisitor;
+import org.faktorips.runtime.data.TestPolicyWithVisitor;
+import org.faktorips.runtime.model.IpsModel;
+import org.faktorips.runtime.model.type.PolicyAttribute;
+import org.faktorips.values.Money;
+import org.faktorips.valueset.OrderedValueSet;
+import org.faktorips.valueset.UnrestrictedValueSet;
+import org.junit.After;
+import org.junit.Test;
+
+public class GenericRelevanceTreeValidationTest {
+
+    private final DefaultGenericAttributeValidationConfiguration config = new DefaultGenericAttributeValidationConfiguration(
+            Locale.US);
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void shutDownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testValidate_Valid() {
+        TestPolicyWithVisitor policy = new TestPolicyWithVisitor();
+        policy.newTestDeckung();
+
+        MessageList messageList = new GenericRelevanceTreeValidation(config).validate(policy);
+
+        assertThat(messageList.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testValidate_ValidatesCompositionTargets() {
+        TestPolicyWithVisitor policy = new TestPolicyWithVisitor();
+        policy.setAllowedValuesForIntegerAttribute(new UnrestrictedValueSet<>(false));
+        TestDeckungWithVisitor deckung1 = policy.newTestDeckung();
+        deckung1.setStringAttribute("a");
+        deckung1.setAllowedValuesForStringAttribute(OrderedValueSet.empty());
+        TestDeckungWithVisitor deckung2 = policy.newTestDeckung();
+        deckung2.setIntegerAttribute(1);
+        deckung2.setAllowedValuesForIntegerAttribute(OrderedValueSet.of(2, 3));
+
+        MessageList messageList = new GenericRelevanceTreeValidation(config).validate(policy);
+
+        assertThat(messageList.size(), is(3));
+        assertMessage(messageList.getMessage(0), GenericRelevanceValidation.Error.MandatoryValueMissing, policy,
+                TestPolicyWithVisitor.PROPERTY_INTEGER_ATTRIBUTE);
+        assertMessage(messageList.getMessage(1), GenericRelevanceValidation.Error.IrrelevantValuePresent, deckung1,
+                TestDeckungWithVisitor.PROPERTY_STRING_ATTRIBUTE);
+        assertMessage(messageList.getMessage(2), GenericRelevanceValidation.Error.ValueNotInValueSet, deckung2,
+                TestDeckungWithVisitor.PROPERTY_INTEGER_ATTRIBUTE);
+    }
+
+    @Test
+    public void testValidate_SameMessagesAsGenericRelevanceValidation() {
+        TestPolicyWithVisitor policy = new TestPolicyWithVisitor();
+        policy.setIntegerAttribute(1);
+        policy.setAllowedValuesForIntegerAttribute(OrderedValueSet.of(2, 3));
+        policy.setAllowedValuesForStringAttribute(new UnrestrictedValueSet<>(false));
+        policy.setMoneyAttribute(Money.euro(1));
+        policy.setAllowedValuesForMoneyAttribute(null);
+
+        MessageList messageList = new GenericRelevanceTreeValidation(config).validate(policy);
+
+        MessageList expected = new MessageList();
+        for (PolicyAttribute policyAttribute : IpsModel.getPolicyCmptType(policy).getAttributes()) {
+            expected.add(new GenericRelevanceValidation(policy, TestPolicyWithVisitor.class, policyAttribute, config)
+                    .validate());
+        }
+        assertThat(messageList.size(), is(3));
+        assertThat(messageList, is(expected));
+    }
+
+    @Test
+    public void testValidate_Parallel() {
+        TestPolicyWithVisitor policy = new TestPolicyWithVisitor();
+        for (int i = 0; i < 5 * GenericRelevanceTreeValidation.OBJECTS_PER_TASK; i++) {
+            TestDeckungWithVisitor deckung = policy.newTestDeckung();
+            if (i % 3 == 0) {
+                deckung.setAllowedValuesForIntegerAttribute(new UnrestrictedValueSet<>(false));
+            }
+        }
+
+        MessageList sequentialMessages = new GenericRelevanceTreeValidation(config).validate(policy);
+        MessageList parallelMessages = new GenericRelevanceTreeValidation(config, executor).validate(policy);
+
+        assertThat(sequentialMessages.size(), is(27));
+        assertThat(parallelMessages, is(sequentialMessages));
+        for (int i = 0; i < parallelMessages.size(); i++) {
+            assertThat(parallelMessages.getMessage(i).getInvalidObjectProperties().get(0).getObject(),
+                    is(sameInstance(policy.getTestDeckung(i * 3))));
+        }
+    }
+
+    @Test
+    public void testValidate_Parallel_RethrowsException() {
+        TestPolicyWithVisitor policy = new TestPolicyWithVisitor();
+        for (int i = 0; i < 2 * GenericRelevanceTreeValidation.OBJECTS_PER_TASK; i++) {
+            policy.newTestDeckung();
+        }
+        DefaultGenericAttributeValidationConfiguration failingConfig = new DefaultGenericAttributeValidationConfiguration(
+                Locale.US) {
+            @Override
+            public boolean shouldValidate(PolicyAttribute policyAttribute, IModelObject modelObject) {
+                if (modelObject == policy.getTestDeckung(20)) {
+                    throw new IllegalStateException("failed");
+                }
+                return true;
+            }
+        };
+
+        try {
+            new GenericRelevanceTreeValidation(failingConfig, executor).validate(policy);
+            fail("expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("failed"));
+        }
+    }
+
+    @Test
+    public void testValidate_ShouldNotValidate() {
+        TestPolicyWithVisitor policy = new TestPolicyWithVisitor();
+        policy.setAllowedValuesForIntegerAttribute(new UnrestrictedValueSet<>(false));
+        policy.newTestDeckung().setAllowedValuesForIntegerAttribute(new UnrestrictedValueSet<>(false));
+        List<IModelObject> validatedObjects = new ArrayList<>();
+        DefaultGenericAttributeValidationConfiguration filteringConfig = new DefaultGenericAttributeValidationConfiguration(
+                Locale.US) {
+            @Override
+            public boolean shouldValidate(PolicyAttribute policyAttribute, IModelObject modelObject) {
+                validatedObjects.add(modelObject);
+                return modelObject instanceof TestDeckungWithVisitor;
+            }
+        };
+
+        MessageList messageList = new GenericRelevanceTreeValidation(filteringConfig).validate(policy);
+
+        assertThat(messageList.size(), is(1));
+        assertThat(messageList.getMessage(0).getInvalidObjectProperties().get(0).getObject(),
+                is(sameInstance(policy.getTestDeckung(0))));
+        assertThat(validatedObjects.contains(policy), is(true));
+    }
+
+    @Test
+    public void testOf() {
+        TestPolicyWithVisitor policy = new TestPolicyWithVisitor();
+        policy.newTestDeckung().setAllowedValuesForIntegerAttribute(new UnrestrictedValueSet<>(false));
+
+        MessageList messageList = GenericRelevanceTreeValidation.of(policy,
+                new ValidationContext(Locale.ENGLISH, getClass().getClassLoader(), config));
+
+        assertThat(messageList.size(), is(1));
+        assertThat(messageList.getMessage(0).getText(), is("The field \"Integer Attribute\" must contain a value."));
+    }
+
+    private void assertMessage(Message message,
+            GenericRelevanceValidation.Error error,
+            IModelObject modelObject,
+            String property) {
+        assertThat(message.getCode(), startsWith(error.getId()));
+        assertThat(message.getInvalidObjectProperties().get(0).getObject(), is(sameInstance(modelObject)));
+        assertThat(message.getInvalidObjectProperties().get(0).getProperty(), is(property));
+    }
+
+}
@@ -358,6 +358,17 @@ public class RelevanceTest {
         assertThat(Relevance.of(modelObject, policyAttribute), is(Relevance.IRRELEVANT));
     }
 
+    @Test
+    public void testOfValueSet() {
+        assertThat(Relevance.of((ValueSet<?>)null), is(Relevance.IRRELEVANT));
+        assertThat(Relevance.of(OrderedValueSet.empty()), is(Relevance.IRRELEVANT));
+        assertThat(Relevance.of(IntegerRange.empty()), is(Relevance.IRRELEVANT));
+        assertThat(Relevance.of(OrderedValueSet.of(1, 2, 3)), is(Relevance.MANDATORY));
+        assertThat(Relevance.of(new UnrestrictedValueSet<>(false)), is(Relevance.MANDATORY));
+        assertThat(Relevance.of(OrderedValueSet.of(1, null, 3)), is(Relevance.OPTIONAL));
+        assertThat(Relevance.of(new UnrestrictedValueSet<>()), is(Relevance.OPTIONAL));
+    }
+
     @Test
     public void testAsValueSetFor_Irrelevant() {
         TestPolicyWithVisitor modelObject = new TestPolicyWithVisitor();